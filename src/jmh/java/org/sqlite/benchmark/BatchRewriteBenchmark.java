@@ -0,0 +1,78 @@
+package org.sqlite.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sqlite.SQLiteConfig;
+
+/**
+ * A 100,000-row batch insert of an integer, a real and a short text through {@link
+ * PreparedStatement#addBatch()}, executed either one row per step or, with {@link
+ * SQLiteConfig#setRewriteBatchedInserts(boolean)}, as a multi-row INSERT that binds up to 256 rows
+ * per step. The transaction is rolled back after each batch so that the table stays empty.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="BatchRewrite"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+@State(Scope.Thread)
+public class BatchRewriteBenchmark {
+    private static final int ROWS = 100_000;
+    private static final String[] NAMES = {"alpha", "bravo", "charlie", "delta", "echo"};
+
+    @Param({"false", "true"})
+    public boolean rewrite;
+
+    private Connection conn;
+    private PreparedStatement insert;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setRewriteBatchedInserts(rewrite);
+        config.setGetGeneratedKeys(false);
+        conn = config.createConnection("jdbc:sqlite:");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("create table t (id integer, r real, s text)");
+        }
+        conn.setAutoCommit(false);
+        insert = conn.prepareStatement("insert into t values (?, ?, ?)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        insert.close();
+        conn.close();
+    }
+
+    @Benchmark
+    public int addBatchAndExecute() throws SQLException {
+        for (int row = 0; row < ROWS; row++) {
+            insert.setLong(1, row);
+            insert.setDouble(2, row * 0.25);
+            insert.setString(3, NAMES[row % NAMES.length]);
+            insert.addBatch();
+        }
+        int count = insert.executeBatch().length;
+        conn.rollback();
+        return count;
+    }
+}
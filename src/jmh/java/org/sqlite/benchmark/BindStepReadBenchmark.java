@@ -0,0 +1,63 @@
+package org.sqlite.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A bind, step and read round trip through a single prepared statement. Every native buffer the
+ * driver needs for this loop comes from the connection's scratch allocator, so in steady state it
+ * should not call malloc; run with {@code -prof gc} to check the Java side.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="BindStepRead -prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+@State(Scope.Thread)
+public class BindStepReadBenchmark {
+    private Connection conn;
+    private PreparedStatement select;
+    private final byte[] blob = new byte[256];
+    private long i = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite:");
+        select = conn.prepareStatement("select ?, ?, ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        select.close();
+        conn.close();
+    }
+
+    @Benchmark
+    public int bindStepRead() throws SQLException {
+        select.setLong(1, i++);
+        select.setString(2, "identifier_0042");
+        select.setBytes(3, blob);
+        try (ResultSet rs = select.executeQuery()) {
+            rs.next();
+            return (int) rs.getLong(1) + rs.getString(2).length() + rs.getBytes(3).length;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.sqlite.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sqlite.SQLiteBlob;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLitePreparedStatement;
+
+/**
+ * Peak Java heap of storing and reading one blob of 1 GB, SQLite's default maximum length, in a
+ * file database: through {@code setBytes} and {@code getBytes}, through {@code setBinaryStream}
+ * and {@code getBinaryStream}, or through a zeroblob filled and read in chunks by a {@link
+ * SQLiteBlob}. The {@code peakHeapMiB} counter is the sum of the peak usage of the heap memory
+ * pools during the operation, after a GC and a reset of the peaks before it. The {@code bytes} path
+ * needs a heap of over 1 GB to run at all.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=BlobStream}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"--enable-native-access=ALL-UNNAMED", "-Xmx4g"})
+@State(Scope.Thread)
+public class BlobStreamBenchmark {
+    @Param({"bytes", "stream", "channel"})
+    public String path;
+
+    @Param({"1000000000"})
+    public int size;
+
+    private Path file;
+    private SQLiteConnection conn;
+    private final List<MemoryPoolMXBean> heapPools =
+            ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .toList();
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Heap {
+        public long peakHeapMiB;
+    }
+
+    /** Generates a byte pattern without holding it, as a file or a socket would. */
+    private static final class PatternStream extends InputStream {
+        private long remaining;
+
+        PatternStream(long size) {
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() {
+            return remaining-- > 0 ? (int) (remaining & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = (int) Math.min(len, remaining);
+            for (int i = 0; i < n; i++) {
+                b[off + i] = (byte) --remaining;
+            }
+            return n;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        file = Files.createTempFile("blob", ".db");
+        conn = (SQLiteConnection) DriverManager.getConnection("jdbc:sqlite:" + file);
+        try (Statement stat = conn.createStatement()) {
+            stat.executeUpdate("pragma journal_mode = off");
+            stat.executeUpdate("create table blobs (id integer primary key, data blob)");
+        }
+        insert(1);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetPeaks() throws SQLException {
+        try (Statement stat = conn.createStatement()) {
+            stat.executeUpdate("delete from blobs where id = 2");
+        }
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, SQLException {
+        conn.close();
+        Files.deleteIfExists(file);
+    }
+
+    private void recordPeak(Heap heap) {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        heap.peakHeapMiB += peak >> 20;
+    }
+
+    /** Stores the blob of row 1 for {@link #read(Heap)}, and again as row 2 when measured. */
+    private void insert(long id) throws IOException, SQLException {
+        try (PreparedStatement insert =
+                conn.prepareStatement("insert into blobs (id, data) values (?, ?)")) {
+            insert.setLong(1, id);
+            switch (path) {
+                case "bytes" -> insert.setBytes(2, new PatternStream(size).readAllBytes());
+                case "stream" -> insert.setBinaryStream(2, new PatternStream(size), size);
+                default -> insert.unwrap(SQLitePreparedStatement.class).setZeroBlob(2, size);
+            }
+            insert.executeUpdate();
+        }
+        if (path.equals("channel")) {
+            try (SQLiteBlob blob = conn.openBlob("blobs", "data", id, true);
+                    OutputStream out = Channels.newOutputStream(blob)) {
+                new PatternStream(size).transferTo(out);
+            }
+        }
+    }
+
+    @Benchmark
+    public void store(Heap heap) throws IOException, SQLException {
+        insert(2);
+        recordPeak(heap);
+    }
+
+    @Benchmark
+    public long read(Heap heap) throws IOException, SQLException {
+        long n;
+        if (path.equals("channel")) {
+            try (SQLiteBlob blob = conn.openBlob("blobs", "data", 1, false);
+                    InputStream in = Channels.newInputStream(blob)) {
+                n = in.transferTo(OutputStream.nullOutputStream());
+            }
+        } else {
+            try (Statement stat = conn.createStatement();
+                    ResultSet rs = stat.executeQuery("select data from blobs where id = 1")) {
+                rs.next();
+                if (path.equals("bytes")) {
+                    n = rs.getBytes(1).length;
+                } else {
+                    try (InputStream in = rs.getBinaryStream(1)) {
+                        n = in.transferTo(OutputStream.nullOutputStream());
+                    }
+                }
+            }
+        }
+        recordPeak(heap);
+        return n;
+    }
+}
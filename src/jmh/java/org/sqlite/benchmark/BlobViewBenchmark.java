@@ -0,0 +1,96 @@
+package org.sqlite.benchmark;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sqlite.SQLiteResultSet;
+
+/**
+ * Per-blob cost of hashing the blobs of a table, either from a copy returned by {@code
+ * ResultSet.getBytes} or in place through {@link SQLiteResultSet#getByteBuffer(int)}.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="BlobView -prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+@State(Scope.Thread)
+public class BlobViewBenchmark {
+    static final int ROWS = 256;
+
+    @Param({"1024", "262144"})
+    public int size;
+
+    private Connection conn;
+    private PreparedStatement select;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite:");
+        try (Statement stat = conn.createStatement()) {
+            stat.executeUpdate("create table blobs (b blob)");
+            stat.executeUpdate(
+                    "insert into blobs with recursive n(i) as (select 1 union all select i + 1"
+                            + " from n where i < "
+                            + ROWS
+                            + ") select randomblob("
+                            + size
+                            + ") from n");
+        }
+        select = conn.prepareStatement("select b from blobs");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        select.close();
+        conn.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long getBytes() throws SQLException {
+        CRC32C crc = new CRC32C();
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                crc.update(rs.getBytes(1));
+            }
+        }
+        return crc.getValue();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long getByteBuffer() throws SQLException {
+        CRC32C crc = new CRC32C();
+        try (ResultSet rs = select.executeQuery()) {
+            SQLiteResultSet cells = rs.unwrap(SQLiteResultSet.class);
+            while (rs.next()) {
+                ByteBuffer bytes = cells.getByteBuffer(1);
+                crc.update(bytes);
+            }
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,104 @@
+package org.sqlite.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sqlite.SQLiteBulkLoader;
+import org.sqlite.SQLiteConnection;
+
+/**
+ * Loads 200,000 rows of an integer, a real and a short text into a file database in auto-commit
+ * mode, either through {@link SQLiteConnection#bulkLoader(String, String...)} or through a {@link
+ * PreparedStatement} batch that is executed and committed every 10,000 rows, as an application
+ * without the loader would chunk its transactions. The table is emptied before each invocation.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="BulkLoader -prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+@State(Scope.Thread)
+public class BulkLoaderBenchmark {
+    private static final int ROWS = 200_000;
+    private static final int CHUNK = 10_000;
+    private static final String[] NAMES = {"alpha", "bravo", "charlie", "delta", "echo"};
+
+    private Path file;
+    private SQLiteConnection conn;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        file = Files.createTempFile("bulk", ".db");
+        conn = (SQLiteConnection) DriverManager.getConnection("jdbc:sqlite:" + file);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("create table t (id integer, r real, s text)");
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void empty() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("delete from t");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, SQLException {
+        conn.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long bulkLoader() throws SQLException {
+        try (SQLiteBulkLoader loader = conn.bulkLoader("t", "id", "r", "s")) {
+            loader.setCommitRows(CHUNK);
+            for (int row = 0; row < ROWS; row++) {
+                loader.appendLong(row)
+                        .appendDouble(row * 0.25)
+                        .appendText(NAMES[row % NAMES.length])
+                        .endRow();
+            }
+            return loader.getProgress().rows();
+        }
+    }
+
+    @Benchmark
+    public long preparedBatch() throws SQLException {
+        long rows = 0;
+        conn.setAutoCommit(false);
+        try (PreparedStatement insert = conn.prepareStatement("insert into t values (?, ?, ?)")) {
+            for (int row = 0; row < ROWS; row++) {
+                insert.setLong(1, row);
+                insert.setDouble(2, row * 0.25);
+                insert.setString(3, NAMES[row % NAMES.length]);
+                insert.addBatch();
+                if ((row + 1) % CHUNK == 0) {
+                    rows += insert.executeBatch().length;
+                    conn.commit();
+                }
+            }
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        return rows;
+    }
+}
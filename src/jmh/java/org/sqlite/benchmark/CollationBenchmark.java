@@ -0,0 +1,88 @@
+package org.sqlite.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sqlite.Collation;
+import org.sqlite.Collations;
+
+/**
+ * {@code ORDER BY} over 10,000 mixed-case strings with a case-insensitive collation: one that
+ * decodes both operands into Strings for every comparison, {@link
+ * Collations#asciiCaseInsensitive()} which compares the UTF-8 bytes in place, and SQLite's built-in
+ * {@code NOCASE} as a baseline without upcalls.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="Collation -prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+@State(Scope.Thread)
+public class CollationBenchmark {
+    private static final int ROWS = 10_000;
+
+    @Param({"STRING_CI", "BYTES_CI", "NOCASE"})
+    public String collation;
+
+    private Connection conn;
+    private PreparedStatement select;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite:");
+        Collation.create(
+                conn,
+                "STRING_CI",
+                new Collation() {
+                    @Override
+                    protected int xCompare(String str1, String str2) {
+                        return str1.compareToIgnoreCase(str2);
+                    }
+                });
+        Collation.create(conn, "BYTES_CI", Collations.asciiCaseInsensitive());
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("create table t (v text)");
+            stmt.executeUpdate(
+                    "with recursive s(i) as (select 1 union all select i + 1 from s limit "
+                            + ROWS
+                            + ") insert into t select"
+                            + " case i % 2 when 0 then 'Customer_' else 'customer_' end"
+                            + " || hex(randomblob(6)) from s");
+        }
+        select = conn.prepareStatement("select v from t order by v collate " + collation);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        select.close();
+        conn.close();
+    }
+
+    @Benchmark
+    public int orderBy() throws SQLException {
+        int rows = 0;
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) rows++;
+        }
+        return rows;
+    }
+}
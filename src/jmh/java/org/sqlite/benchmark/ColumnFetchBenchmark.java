@@ -0,0 +1,132 @@
+package org.sqlite.benchmark;
+
+import java.lang.foreign.Arena;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sqlite.ColumnSink;
+import org.sqlite.SQLiteResultSet;
+
+/**
+ * Per-row cost of summing an integer and a real column of 1,000,000 rows, through {@code
+ * ResultSet.next()} and the getters or through the bulk fetches of {@link SQLiteResultSet}, 4096
+ * rows at a time.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=ColumnFetch}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+@State(Scope.Thread)
+public class ColumnFetchBenchmark {
+    static final int ROWS = 1_000_000;
+    static final int BATCH = 4096;
+
+    private Connection conn;
+    private PreparedStatement select;
+    private Arena arena;
+    private ColumnSink sink;
+    private final long[] longs = new long[BATCH];
+    private final double[] doubles = new double[BATCH];
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite:");
+        try (Statement stat = conn.createStatement()) {
+            stat.executeUpdate("create table facts (amount integer, price real)");
+            stat.executeUpdate(
+                    "insert into facts with recursive n(i) as (select 1 union all select i + 1"
+                            + " from n where i < "
+                            + ROWS
+                            + ") select i % 1000, i / 7.0 from n");
+        }
+        select = conn.prepareStatement("select amount, price from facts");
+        arena = Arena.ofConfined();
+        sink = new ColumnSink(arena, BATCH).addLong(1).addDouble(2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        select.close();
+        conn.close();
+        arena.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double rowByRow() throws SQLException {
+        double sum = 0;
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                sum += rs.getLong(1);
+                sum += rs.getDouble(2);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long fetchLongColumn() throws SQLException {
+        long sum = 0;
+        try (ResultSet rs = select.executeQuery()) {
+            SQLiteResultSet columns = rs.unwrap(SQLiteResultSet.class);
+            for (int n; (n = columns.fetchLongColumn(1, longs, BATCH)) > 0; ) {
+                for (int i = 0; i < n; i++) {
+                    sum += longs[i];
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double fetchDoubleColumn() throws SQLException {
+        double sum = 0;
+        try (ResultSet rs = select.executeQuery()) {
+            SQLiteResultSet columns = rs.unwrap(SQLiteResultSet.class);
+            for (int n; (n = columns.fetchDoubleColumn(2, doubles, BATCH)) > 0; ) {
+                for (int i = 0; i < n; i++) {
+                    sum += doubles[i];
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double fetchColumns() throws SQLException {
+        double sum = 0;
+        try (ResultSet rs = select.executeQuery()) {
+            SQLiteResultSet columns = rs.unwrap(SQLiteResultSet.class);
+            for (int n; (n = columns.fetchColumns(sink)) > 0; ) {
+                for (int i = 0; i < n; i++) {
+                    sum += sink.getLong(0, i);
+                    sum += sink.getDouble(1, i);
+                }
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,83 @@
+package org.sqlite.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-cell cost of reading fixed-width columns, with and without critical linkage of the {@code
+ * sqlite3_column_*} accessors. Each parameter value runs in its own fork, so the system property is
+ * set before the driver links any native function.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=ColumnReadBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+@State(Scope.Thread)
+public class ColumnReadBenchmark {
+    static final int ROWS = 10_000;
+    static final int COLUMNS = 4;
+
+    @Param({"true", "false"})
+    public String critical;
+
+    private Connection conn;
+    private PreparedStatement select;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        System.setProperty("org.sqlite.ffm.critical", critical);
+        conn = DriverManager.getConnection("jdbc:sqlite:");
+        try (Statement stat = conn.createStatement()) {
+            stat.executeUpdate("create table cells (a integer, b integer, c real, d integer)");
+            stat.executeUpdate(
+                    "insert into cells with recursive n(i) as (select 1 union all select i + 1"
+                            + " from n where i < "
+                            + ROWS
+                            + ") select i, i * 7, i / 3.0, -i from n");
+        }
+        select = conn.prepareStatement("select a, b, c, d from cells");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        select.close();
+        conn.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS * COLUMNS)
+    public long getLongPerCell() throws SQLException {
+        long sum = 0;
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                sum += rs.getLong(1);
+                sum += rs.getLong(2);
+                sum += (long) rs.getDouble(3);
+                sum += rs.getInt(4);
+            }
+        }
+        return sum;
+    }
+}
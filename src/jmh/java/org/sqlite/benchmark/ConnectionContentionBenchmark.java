@@ -0,0 +1,101 @@
+package org.sqlite.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of 1, 4 and 16 threads sharing one connection, each running its own prepared query.
+ * Every query takes the connection's lock once for execute, once per {@code next()} and once per
+ * column read, but each native call runs under a single acquisition of that lock.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=ConnectionContention}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+public class ConnectionContentionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SharedConnection {
+        Connection conn;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            conn = DriverManager.getConnection("jdbc:sqlite:");
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("create table t (id integer primary key, name text, n real)");
+                stmt.executeUpdate(
+                        "with recursive s(v) as (select 1 union all select v + 1 from s limit 16)"
+                                + " insert into t select v, 'name_' || v, v * 0.5 from s");
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            conn.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadStatement {
+        PreparedStatement select;
+
+        @Setup(Level.Trial)
+        public void setUp(SharedConnection shared) throws SQLException {
+            select = shared.conn.prepareStatement("select id, name, n from t");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            select.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long threads01(ThreadStatement state) throws SQLException {
+        return query(state.select);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long threads04(ThreadStatement state) throws SQLException {
+        return query(state.select);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long threads16(ThreadStatement state) throws SQLException {
+        return query(state.select);
+    }
+
+    private static long query(PreparedStatement select) throws SQLException {
+        long sum = 0;
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                sum += rs.getLong(1) + rs.getString(2).length() + (long) rs.getDouble(3);
+            }
+        }
+        return sum;
+    }
+}
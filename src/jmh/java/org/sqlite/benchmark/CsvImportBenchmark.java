@@ -0,0 +1,112 @@
+package org.sqlite.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sqlite.CsvFormat;
+import org.sqlite.SQLiteConnection;
+
+/**
+ * Imports a CSV file of 200,000 records of an integer, a real and a short text into a file
+ * database, either through {@link SQLiteConnection#importCsv(Path, String, CsvFormat)} or by
+ * reading lines into strings, splitting them and inserting them with a {@link PreparedStatement}
+ * batch committed every 10,000 rows. The table is emptied before each invocation.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="CsvImport -prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+@State(Scope.Thread)
+public class CsvImportBenchmark {
+    private static final int ROWS = 200_000;
+    private static final int CHUNK = 10_000;
+    private static final String[] NAMES = {"alpha", "bravo", "charlie", "delta", "echo"};
+
+    private Path db;
+    private Path csv;
+    private SQLiteConnection conn;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        csv = Files.createTempFile("import", ".csv");
+        try (Writer out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            for (int row = 0; row < ROWS; row++) {
+                out.write(row + "," + row * 0.25 + "," + NAMES[row % NAMES.length] + "\n");
+            }
+        }
+        db = Files.createTempFile("import", ".db");
+        conn = (SQLiteConnection) DriverManager.getConnection("jdbc:sqlite:" + db);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("create table t (id integer, r real, s text)");
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void empty() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("delete from t");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, SQLException {
+        conn.close();
+        Files.deleteIfExists(db);
+        Files.deleteIfExists(csv);
+    }
+
+    @Benchmark
+    public long importCsv() throws IOException, SQLException {
+        return conn.importCsv(csv, "t", CsvFormat.csv()).rows();
+    }
+
+    @Benchmark
+    public long splitLines() throws IOException, SQLException {
+        long rows = 0;
+        conn.setAutoCommit(false);
+        String sql = "insert into t values (?, ?, ?)";
+        try (BufferedReader in = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+                PreparedStatement insert = conn.prepareStatement(sql)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split(",", -1);
+                for (int i = 0; i < fields.length; i++) {
+                    insert.setString(i + 1, fields[i]);
+                }
+                insert.addBatch();
+                if (++rows % CHUNK == 0) {
+                    insert.executeBatch();
+                    conn.commit();
+                }
+            }
+            insert.executeBatch();
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,105 @@
+package org.sqlite.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-row cost of scanning a table of two integers, a real and a short text, reading every cell
+ * either one row per step ({@code fetchSize} 0) or from rows read ahead into column buffers under
+ * one lock acquisition per fetch. {@code scanReals} reads a table of four reals as doubles, which
+ * buffered rows keep without rendering them as text.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="FetchSize -prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+@State(Scope.Thread)
+public class FetchSizeBenchmark {
+    static final int ROWS = 100_000;
+
+    @Param({"0", "64", "1024"})
+    public int fetchSize;
+
+    private Connection conn;
+    private PreparedStatement select;
+    private PreparedStatement selectReals;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite:");
+        try (Statement stat = conn.createStatement()) {
+            stat.executeUpdate("create table scan (a integer, b integer, c real, d text)");
+            stat.executeUpdate(
+                    "insert into scan with recursive n(i) as (select 1 union all select i + 1"
+                            + " from n where i < "
+                            + ROWS
+                            + ") select i, i * 7, i / 3.0, 'row ' || i from n");
+            stat.executeUpdate("create table reals (a real, b real, c real, d real)");
+            stat.executeUpdate(
+                    "insert into reals select a / 7.0, b / 3.0, c * 1e10, -c from scan");
+        }
+        select = conn.prepareStatement("select a, b, c, d from scan");
+        select.setFetchSize(fetchSize);
+        selectReals = conn.prepareStatement("select a, b, c, d from reals");
+        selectReals.setFetchSize(fetchSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        select.close();
+        selectReals.close();
+        conn.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long scan() throws SQLException {
+        long sum = 0;
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                sum += rs.getLong(1);
+                sum += rs.getInt(2);
+                sum += (long) rs.getDouble(3);
+                sum += rs.getString(4).length();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double scanReals() throws SQLException {
+        double sum = 0;
+        try (ResultSet rs = selectReals.executeQuery()) {
+            while (rs.next()) {
+                sum += rs.getDouble(1);
+                sum += rs.getDouble(2);
+                sum += rs.getDouble(3);
+                sum += rs.getDouble(4);
+            }
+        }
+        return sum;
+    }
+}
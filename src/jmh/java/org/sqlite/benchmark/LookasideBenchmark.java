@@ -0,0 +1,115 @@
+package org.sqlite.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.core.Codes;
+import org.sqlite.core.DB;
+
+/**
+ * Lookaside memory use of short-lived queries on a connection that also keeps 64 prepared
+ * statements open, prepared with or without {@code SQLITE_PREPARE_PERSISTENT}. Kept statements
+ * prepared without it hold on to lookaside slots, so the short-lived queries fall back to {@code
+ * malloc} more often. Besides the time per query, the {@code lookasideHit}, {@code
+ * lookasideMissFull} and {@code lookasideMissSize} counters add up the lookaside hits and misses
+ * that {@code sqlite3_db_status} reports after each query.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=Lookaside}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+@State(Scope.Thread)
+public class LookasideBenchmark {
+    private static final int KEPT = 64;
+    private static final String KEPT_SQL =
+            "select t.id, t.name, u.name, t.n + u.n from t join t as u on u.id = t.id + ?"
+                    + " where t.name like ? order by t.n desc limit 10";
+    private static final String QUERY_SQL =
+            "select count(*), sum(n), max(name) from t where id between ? and ? + 100";
+
+    @Param({"false", "true"})
+    public boolean persistent;
+
+    private Connection conn;
+    private DB db;
+    private final List<PreparedStatement> kept = new ArrayList<>();
+    private int id;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Lookaside {
+        public long lookasideHit;
+        public long lookasideMissFull;
+        public long lookasideMissSize;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite:");
+        db = ((SQLiteConnection) conn).getDatabase();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("create table t (id integer primary key, name text, n real)");
+            stmt.executeUpdate(
+                    "with recursive s(v) as (select 1 union all select v + 1 from s limit 1000)"
+                            + " insert into t select v, 'name_' || v, v * 0.5 from s");
+        }
+        for (int i = 0; i < KEPT; i++) {
+            PreparedStatement select =
+                    ((SQLiteConnection) conn).prepareStatement(KEPT_SQL + " -- " + i, persistent);
+            select.setInt(1, i);
+            select.setString(2, "name_%");
+            select.executeQuery().close();
+            kept.add(select);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        for (PreparedStatement select : kept) select.close();
+        conn.close();
+    }
+
+    @Benchmark
+    public int shortLivedQuery(Lookaside counters) throws SQLException {
+        id = id % 900 + 1;
+        int count;
+        try (PreparedStatement query = conn.prepareStatement(QUERY_SQL)) {
+            query.setInt(1, id);
+            query.setInt(2, id);
+            try (ResultSet rs = query.executeQuery()) {
+                rs.next();
+                count = rs.getInt(1);
+            }
+        }
+        counters.lookasideHit += db.db_status(Codes.SQLITE_DBSTATUS_LOOKASIDE_HIT, true)[1];
+        counters.lookasideMissFull +=
+                db.db_status(Codes.SQLITE_DBSTATUS_LOOKASIDE_MISS_FULL, true)[1];
+        counters.lookasideMissSize +=
+                db.db_status(Codes.SQLITE_DBSTATUS_LOOKASIDE_MISS_SIZE, true)[1];
+        return count;
+    }
+}
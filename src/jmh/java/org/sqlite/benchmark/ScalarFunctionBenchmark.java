@@ -0,0 +1,98 @@
+package org.sqlite.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sqlite.Function;
+
+/**
+ * Per-row cost of a scalar user-defined function evaluated in a {@code WHERE} clause, next to the
+ * built-in {@code abs()} as a baseline for the query without any upcalls. The difference between
+ * the two is the cost of one upcall into {@link Function#xFunc()}, including reading its argument
+ * and setting its result.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=ScalarFunction}; check out
+ * an earlier revision and run it again to compare.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+@State(Scope.Thread)
+public class ScalarFunctionBenchmark {
+    private static final int ROWS = 10_000;
+
+    private Connection conn;
+    private PreparedStatement udf;
+    private PreparedStatement builtin;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite:");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("create table t (v integer)");
+            stmt.executeUpdate(
+                    "with recursive s(v) as (select 1 union all select v + 1 from s limit "
+                            + ROWS
+                            + ") insert into t select v from s");
+        }
+        Function.create(
+                conn,
+                "java_abs",
+                new Function() {
+                    @Override
+                    protected void xFunc() throws SQLException {
+                        result(Math.abs(value_long(0)));
+                    }
+                },
+                1,
+                Function.FLAG_DETERMINISTIC);
+        udf = conn.prepareStatement("select count(*) from t where java_abs(v) > ?");
+        builtin = conn.prepareStatement("select count(*) from t where abs(v) > ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        udf.close();
+        builtin.close();
+        conn.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int udfPerRow() throws SQLException {
+        return count(udf);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int builtinPerRow() throws SQLException {
+        return count(builtin);
+    }
+
+    private static int count(PreparedStatement select) throws SQLException {
+        select.setLong(1, ROWS / 2);
+        try (ResultSet rs = select.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.sqlite.benchmark;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sqlite.SQLiteConnection;
+
+/**
+ * A schema migration of 3,000 statements run on a fresh in-memory database, either as one script
+ * through {@link SQLiteConnection#executeScript(String)} or by splitting it beforehand and calling
+ * {@link Statement#execute(String)} once per statement. The script is run inside one transaction
+ * in both cases so that the difference is the per-statement overhead.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=Script}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+@State(Scope.Benchmark)
+public class ScriptBenchmark {
+    private static final int TABLES = 100;
+    private static final int ROWS = 28;
+
+    private String script;
+    private final List<String> statements = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        for (int t = 0; t < TABLES; t++) {
+            statements.add(
+                    "create table t" + t + " (id integer primary key, name text not null, n real)");
+            statements.add("create index t" + t + "_name on t" + t + " (name)");
+            for (int r = 0; r < ROWS; r++) {
+                statements.add(
+                        "insert into t" + t + " (name, n) values ('row " + r + "', " + r + ".5)");
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String sql : statements) sb.append(sql).append(";\n");
+        script = sb.toString();
+    }
+
+    @Benchmark
+    public int executeScript() throws SQLException {
+        try (SQLiteConnection conn =
+                (SQLiteConnection) DriverManager.getConnection("jdbc:sqlite:")) {
+            conn.setAutoCommit(false);
+            int count = conn.executeScript(script).size();
+            conn.commit();
+            return count;
+        }
+    }
+
+    @Benchmark
+    public int executeEach() throws SQLException {
+        try (SQLiteConnection conn =
+                        (SQLiteConnection) DriverManager.getConnection("jdbc:sqlite:");
+                Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            int count = 0;
+            for (String sql : statements) {
+                stmt.execute(sql);
+                count++;
+            }
+            conn.commit();
+            return count;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.sqlite.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cold-start cost of the driver: the time from a fresh JVM to the first open in-memory connection,
+ * including class loading and linking of the native functions that opening a connection needs.
+ * Each fork measures exactly one call.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=StartupBenchmark}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 20, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+public class StartupBenchmark {
+
+    @Benchmark
+    public boolean firstConnection() throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            return conn.isClosed();
+        }
+    }
+}
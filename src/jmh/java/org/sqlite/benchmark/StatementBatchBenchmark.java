@@ -0,0 +1,85 @@
+package org.sqlite.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A batch of 10,000 identical INSERT statements with literal values, as written by an audit
+ * logger, added to a {@link Statement} batch in auto-commit mode, compared with the same rows
+ * inserted through a {@link PreparedStatement} batch. Runs on a file database so that commits
+ * reach the disk.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=StatementBatch}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+@State(Scope.Thread)
+public class StatementBatchBenchmark {
+    private static final int ROWS = 10_000;
+    private static final String INSERT =
+            "insert into audit (actor, action) values ('system', 'heartbeat')";
+
+    private Path file;
+    private Connection conn;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        file = Files.createTempFile("batch", ".db");
+        conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(
+                    "create table audit (id integer primary key, actor text, action text)");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, SQLException {
+        conn.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int statementBatch() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (int i = 0; i < ROWS; i++) {
+                stmt.addBatch(INSERT);
+            }
+            return stmt.executeBatch().length;
+        }
+    }
+
+    @Benchmark
+    public int preparedBatch() throws SQLException {
+        try (PreparedStatement prep =
+                conn.prepareStatement("insert into audit (actor, action) values (?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                prep.setString(1, "system");
+                prep.setString(2, "heartbeat");
+                prep.addBatch();
+            }
+            return prep.executeBatch().length;
+        }
+    }
+}
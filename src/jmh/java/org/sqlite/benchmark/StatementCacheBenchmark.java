@@ -0,0 +1,78 @@
+package org.sqlite.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sqlite.SQLiteConfig;
+
+/**
+ * The prepare, execute, close cycle of a point query by primary key, as written by code that
+ * prepares a new statement for every call. With a statement cache size of 0 every call compiles
+ * the SQL again; otherwise all but the first call reuse the compiled statement.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=StatementCache}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+@State(Scope.Thread)
+public class StatementCacheBenchmark {
+    private static final int ROWS = 1_000;
+    private static final String SELECT =
+            "select t.id, t.name, t.n from t join t as u on u.id = t.id where t.id = ?";
+
+    @Param({"0", "64"})
+    public int cacheSize;
+
+    private Connection conn;
+    private int id;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setStatementCacheSize(cacheSize);
+        conn = config.createConnection("jdbc:sqlite:");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("create table t (id integer primary key, name text, n real)");
+            stmt.executeUpdate(
+                    "with recursive s(v) as (select 1 union all select v + 1 from s limit "
+                            + ROWS
+                            + ") insert into t select v, 'name_' || v, v * 0.5 from s");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Benchmark
+    public String prepareExecuteClose() throws SQLException {
+        id = id % ROWS + 1;
+        try (PreparedStatement select = conn.prepareStatement(SELECT)) {
+            select.setInt(1, id);
+            try (ResultSet rs = select.executeQuery()) {
+                rs.next();
+                return rs.getString(2);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.sqlite;
+
+/**
+ * How far a {@link SQLiteBulkLoader} has got.
+ *
+ * @param rows The number of rows inserted so far.
+ * @param committedRows The number of those rows that have been committed.
+ * @param bytes The size of the text and blob values appended so far, in UTF-8 bytes, plus eight
+ *     bytes for each number.
+ * @param elapsedNanos The time since the first row was appended.
+ */
+public record BulkLoadProgress(long rows, long committedRows, long bytes, long elapsedNanos) {
+    /** The average number of rows inserted per second, or 0 before any time has elapsed. */
+    public double rowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+    }
+}
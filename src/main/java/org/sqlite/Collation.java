@@ -16,6 +16,8 @@
 package org.sqlite;
 
 import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.SQLException;
 import org.sqlite.core.Codes;
@@ -97,4 +99,35 @@ public abstract class Collation {
     public int _xCompare(String str1, String str2) {
         return xCompare(str1, str2);
     }
+
+    /**
+     * A collation that compares the UTF-8 bytes of its operands in place, without decoding them
+     * into Strings. {@link Collations} provides common implementations.
+     */
+    public abstract static class Bytes extends Collation {
+        /**
+         * Called by SQLite as a custom collation to compare two UTF-8 strings. The segments are
+         * read-only, exactly as long as the strings, and only valid until this method returns.
+         *
+         * @param str1 the UTF-8 bytes of the first string in the comparison
+         * @param str2 the UTF-8 bytes of the second string in the comparison
+         * @return an integer that is negative, zero, or positive if the first string is less than,
+         *     equal to, or greater than the second, respectively
+         */
+        protected abstract int xCompare(MemorySegment str1, MemorySegment str2);
+
+        public int _xCompare(MemorySegment str1, MemorySegment str2) {
+            return xCompare(str1, str2);
+        }
+
+        /**
+         * @see org.sqlite.Collation#xCompare(String, String)
+         */
+        @Override
+        protected final int xCompare(String str1, String str2) {
+            return xCompare(
+                    MemorySegment.ofArray(str1.getBytes(StandardCharsets.UTF_8)),
+                    MemorySegment.ofArray(str2.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
 }
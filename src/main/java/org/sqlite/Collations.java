@@ -0,0 +1,196 @@
+package org.sqlite;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Common collations that compare UTF-8 text in place, without decoding it into Strings. E.g.
+ *
+ * <pre>
+ *      Collation.create(conn, "NATURAL", Collations.naturalNumeric());
+ *      conn.createStatement().executeQuery("select name from files order by name collate NATURAL");
+ *  </pre>
+ *
+ * <p>Each method returns a new {@link Collation.Bytes} that can be registered with {@link
+ * Collation#create(java.sql.Connection, String, Collation)}.
+ */
+public final class Collations {
+    /** Added to bytes that are not part of a valid UTF-8 sequence. Above all code points. */
+    private static final int INVALID = Character.MAX_CODE_POINT + 1;
+
+    private Collations() {}
+
+    /**
+     * Compares strings byte by byte, treating the ASCII letters A-Z as equal to a-z. This is the
+     * same ordering as SQLite's built-in {@code NOCASE} collation.
+     */
+    public static Collation.Bytes asciiCaseInsensitive() {
+        return new Collation.Bytes() {
+            @Override
+            protected int xCompare(MemorySegment str1, MemorySegment str2) {
+                return compareAsciiCaseInsensitive(str1, str2);
+            }
+        };
+    }
+
+    /**
+     * Compares strings by Unicode code point after simple case folding, so that e.g. {@code "Ä"}
+     * and {@code "ä"} are equal. Folding maps each code point on its own through {@link
+     * Character#toUpperCase(int)} and {@link Character#toLowerCase(int)}, and does not handle
+     * folds that change the length of a string, such as {@code "ß"} to {@code "ss"}. Bytes that
+     * are not valid UTF-8 sort after every code point.
+     */
+    public static Collation.Bytes unicodeCaseInsensitive() {
+        return new Collation.Bytes() {
+            @Override
+            protected int xCompare(MemorySegment str1, MemorySegment str2) {
+                return compareUnicodeCaseInsensitive(str1, str2);
+            }
+        };
+    }
+
+    /**
+     * Compares runs of ASCII digits by their numeric value and everything else byte by byte, so
+     * that {@code "file9"} sorts before {@code "file10"}. Strings that are otherwise equal are
+     * ordered by the first number that has fewer leading zeros, so no two different strings
+     * compare as equal.
+     */
+    public static Collation.Bytes naturalNumeric() {
+        return new Collation.Bytes() {
+            @Override
+            protected int xCompare(MemorySegment str1, MemorySegment str2) {
+                return compareNaturalNumeric(str1, str2);
+            }
+        };
+    }
+
+    static int compareAsciiCaseInsensitive(MemorySegment str1, MemorySegment str2) {
+        long len1 = str1.byteSize();
+        long len2 = str2.byteSize();
+        long len = Math.min(len1, len2);
+        for (long i = 0; i < len; i++) {
+            byte b1 = str1.get(JAVA_BYTE, i);
+            byte b2 = str2.get(JAVA_BYTE, i);
+            if (b1 != b2) {
+                int c = Integer.compare(asciiLower(b1), asciiLower(b2));
+                if (c != 0) return c;
+            }
+        }
+        return Long.compare(len1, len2);
+    }
+
+    static int compareUnicodeCaseInsensitive(MemorySegment str1, MemorySegment str2) {
+        long len1 = str1.byteSize();
+        long len2 = str2.byteSize();
+        long i1 = 0;
+        long i2 = 0;
+        while (i1 < len1 && i2 < len2) {
+            byte b1 = str1.get(JAVA_BYTE, i1);
+            byte b2 = str2.get(JAVA_BYTE, i2);
+            if (b1 >= 0 && b2 >= 0) {
+                // ASCII fast path
+                int c = Integer.compare(asciiLower(b1), asciiLower(b2));
+                if (c != 0) return c;
+                i1++;
+                i2++;
+                continue;
+            }
+            long cp1 = decode(str1, i1, len1);
+            long cp2 = decode(str2, i2, len2);
+            int c = Integer.compare(fold((int) cp1), fold((int) cp2));
+            if (c != 0) return c;
+            i1 += cp1 >>> 32;
+            i2 += cp2 >>> 32;
+        }
+        return Boolean.compare(i1 < len1, i2 < len2);
+    }
+
+    static int compareNaturalNumeric(MemorySegment str1, MemorySegment str2) {
+        long len1 = str1.byteSize();
+        long len2 = str2.byteSize();
+        long i1 = 0;
+        long i2 = 0;
+        int zeros = 0;
+        while (i1 < len1 && i2 < len2) {
+            byte b1 = str1.get(JAVA_BYTE, i1);
+            byte b2 = str2.get(JAVA_BYTE, i2);
+            if (!isDigit(b1) || !isDigit(b2)) {
+                if (b1 != b2) return Integer.compare(b1 & 0xFF, b2 & 0xFF);
+                i1++;
+                i2++;
+                continue;
+            }
+
+            // skip leading zeros, then a longer run of digits is a larger number
+            long start1 = i1;
+            long start2 = i2;
+            while (i1 < len1 - 1 && str1.get(JAVA_BYTE, i1) == '0' && isDigit(str1, i1 + 1)) i1++;
+            while (i2 < len2 - 1 && str2.get(JAVA_BYTE, i2) == '0' && isDigit(str2, i2 + 1)) i2++;
+            long end1 = i1;
+            long end2 = i2;
+            while (end1 < len1 && isDigit(str1, end1)) end1++;
+            while (end2 < len2 && isDigit(str2, end2)) end2++;
+
+            int c = Long.compare(end1 - i1, end2 - i2);
+            if (c != 0) return c;
+            for (; i1 < end1; i1++, i2++) {
+                c = Byte.compare(str1.get(JAVA_BYTE, i1), str2.get(JAVA_BYTE, i2));
+                if (c != 0) return c;
+            }
+            if (zeros == 0) zeros = Long.compare(end1 - start1, end2 - start2);
+        }
+        int c = Boolean.compare(i1 < len1, i2 < len2);
+        return c != 0 ? c : zeros;
+    }
+
+    private static int asciiLower(byte b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b & 0xFF;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isDigit(MemorySegment str, long i) {
+        return isDigit(str.get(JAVA_BYTE, i));
+    }
+
+    private static int fold(int codePoint) {
+        return Character.toLowerCase(Character.toUpperCase(codePoint));
+    }
+
+    /**
+     * Decodes the UTF-8 code point starting at {@code i}.
+     *
+     * @return the code point in the low 32 bits and the number of bytes it takes in the high 32
+     *     bits. An invalid sequence decodes to {@link #INVALID} plus its first byte, with a length
+     *     of 1, which sorts it after every valid code point.
+     */
+    private static long decode(MemorySegment str, long i, long len) {
+        int b = str.get(JAVA_BYTE, i) & 0xFF;
+        int n;
+        int cp;
+        if (b < 0x80) {
+            return (1L << 32) | b;
+        } else if (b >= 0xC2 && b < 0xE0) {
+            n = 2;
+            cp = b & 0x1F;
+        } else if (b >= 0xE0 && b < 0xF0) {
+            n = 3;
+            cp = b & 0x0F;
+        } else if (b >= 0xF0 && b < 0xF5) {
+            n = 4;
+            cp = b & 0x07;
+        } else {
+            return (1L << 32) | (INVALID + b);
+        }
+        if (i + n > len) return (1L << 32) | (INVALID + b);
+        for (int k = 1; k < n; k++) {
+            int cont = str.get(JAVA_BYTE, i + k) & 0xFF;
+            if ((cont & 0xC0) != 0x80) return (1L << 32) | (INVALID + b);
+            cp = (cp << 6) | (cont & 0x3F);
+        }
+        return ((long) n << 32) | cp;
+    }
+}
@@ -0,0 +1,131 @@
+package org.sqlite;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+
+/**
+ * Off-heap column buffers filled by {@link SQLiteResultSet#fetchColumns(ColumnSink)}. Each column
+ * of the sink reads one column of the result set as integers or as reals into a segment of {@code
+ * capacity} values, and marks the rows where it is NULL in a bitmap of {@code capacity} bits, one
+ * {@code long} per 64 rows with row 0 in the lowest bit. NULL cells hold 0.
+ *
+ * <pre>
+ * ColumnSink sink = new ColumnSink(arena, 4096).addLong(1).addDouble(2);
+ * SQLiteResultSet rs = resultSet.unwrap(SQLiteResultSet.class);
+ * for (int n; (n = rs.fetchColumns(sink)) &gt; 0; ) {
+ *     export(sink.values(0), sink.values(1), sink.nulls(1), n);
+ * }
+ * </pre>
+ */
+public final class ColumnSink {
+    private final Arena arena;
+    private final int capacity;
+    private int[] columns = new int[0];
+    private boolean[] reals = new boolean[0];
+    private MemorySegment[] values = new MemorySegment[0];
+    private MemorySegment[] nulls = new MemorySegment[0];
+
+    /**
+     * @param arena Allocates the buffers of the columns, which live as long as it does.
+     * @param capacity The most rows read per fetch.
+     */
+    public ColumnSink(Arena arena, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.arena = arena;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a column read as sqlite3_column_int64() would, into {@link ValueLayout#JAVA_LONG}
+     * values.
+     *
+     * @param column Index of the column in the result set, from 1.
+     */
+    public ColumnSink addLong(int column) {
+        return add(column, false);
+    }
+
+    /**
+     * Adds a column read as sqlite3_column_double() would, into {@link ValueLayout#JAVA_DOUBLE}
+     * values.
+     *
+     * @param column Index of the column in the result set, from 1.
+     */
+    public ColumnSink addDouble(int column) {
+        return add(column, true);
+    }
+
+    private ColumnSink add(int column, boolean real) {
+        int n = columns.length;
+        columns = Arrays.copyOf(columns, n + 1);
+        reals = Arrays.copyOf(reals, n + 1);
+        values = Arrays.copyOf(values, n + 1);
+        nulls = Arrays.copyOf(nulls, n + 1);
+        columns[n] = column;
+        reals[n] = real;
+        values[n] = arena.allocate(ValueLayout.JAVA_LONG, capacity);
+        nulls[n] = arena.allocate(ValueLayout.JAVA_LONG, (capacity + 63) / 64);
+        return this;
+    }
+
+    /** The most rows read per fetch. */
+    public int capacity() {
+        return capacity;
+    }
+
+    /** The number of columns of the sink. */
+    public int columnCount() {
+        return columns.length;
+    }
+
+    /**
+     * @param i Index of the column in the sink, from 0.
+     * @return Index of the column in the result set, from 1.
+     */
+    public int column(int i) {
+        return columns[i];
+    }
+
+    /**
+     * @param i Index of the column in the sink, from 0.
+     * @return Whether the column is read as reals rather than integers.
+     */
+    public boolean isDouble(int i) {
+        return reals[i];
+    }
+
+    /**
+     * @param i Index of the column in the sink, from 0.
+     * @return The values of the column, {@code capacity} longs or doubles.
+     */
+    public MemorySegment values(int i) {
+        return values[i];
+    }
+
+    /**
+     * @param i Index of the column in the sink, from 0.
+     * @return The bitmap of NULL rows of the column.
+     */
+    public MemorySegment nulls(int i) {
+        return nulls[i];
+    }
+
+    /** Whether a cell of the last fetch is NULL. */
+    public boolean isNull(int i, int row) {
+        return (nulls[i].getAtIndex(ValueLayout.JAVA_LONG, row >>> 6) & 1L << row) != 0;
+    }
+
+    /** An integer of the last fetch. */
+    public long getLong(int i, int row) {
+        return values[i].getAtIndex(ValueLayout.JAVA_LONG, row);
+    }
+
+    /** A real of the last fetch. */
+    public double getDouble(int i, int row) {
+        return values[i].getAtIndex(ValueLayout.JAVA_DOUBLE, row);
+    }
+}
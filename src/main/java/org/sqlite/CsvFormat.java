@@ -0,0 +1,82 @@
+package org.sqlite;
+
+/**
+ * How {@link SQLiteBulkLoader#loadCsv(java.nio.file.Path, CsvFormat)} splits a file into records
+ * and fields. Records end at a line feed, a carriage return or both. A field that starts with the
+ * quote character may contain delimiters, line breaks and doubled quote characters.
+ */
+public final class CsvFormat {
+    private char delimiter;
+    private char quote;
+    private boolean header;
+    private boolean emptyAsNull;
+
+    private CsvFormat(char delimiter, char quote) {
+        this.delimiter = delimiter;
+        this.quote = quote;
+    }
+
+    /** Comma-separated values, with fields quoted by double quotes as in RFC 4180. */
+    public static CsvFormat csv() {
+        return new CsvFormat(',', '"');
+    }
+
+    /** Tab-separated values, without quoting. */
+    public static CsvFormat tsv() {
+        return new CsvFormat('\t', '\0');
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    /**
+     * @param delimiter The ASCII character between fields.
+     */
+    public void setDelimiter(char delimiter) {
+        this.delimiter = ascii(delimiter);
+    }
+
+    public char getQuote() {
+        return quote;
+    }
+
+    /**
+     * @param quote The ASCII character around quoted fields, or {@code '\0'} for none.
+     */
+    public void setQuote(char quote) {
+        this.quote = ascii(quote);
+    }
+
+    public boolean isHeader() {
+        return header;
+    }
+
+    /**
+     * @param header Whether the first record names the column of each field. Fields are matched to
+     *     columns by name, ignoring case, instead of by position, and fields of other columns are
+     *     skipped.
+     */
+    public void setHeader(boolean header) {
+        this.header = header;
+    }
+
+    public boolean isEmptyAsNull() {
+        return emptyAsNull;
+    }
+
+    /**
+     * @param emptyAsNull Whether an empty field that is not quoted is inserted as NULL instead of
+     *     an empty string.
+     */
+    public void setEmptyAsNull(boolean emptyAsNull) {
+        this.emptyAsNull = emptyAsNull;
+    }
+
+    private static char ascii(char c) {
+        if (c >= 0x80 || c == '\n' || c == '\r') {
+            throw new IllegalArgumentException("not an ASCII character other than a line break");
+        }
+        return c;
+    }
+}
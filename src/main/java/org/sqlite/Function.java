@@ -19,6 +19,7 @@ import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Arrays;
 import org.sqlite.core.Codes;
 import org.sqlite.core.DB;
 
@@ -61,10 +62,14 @@ public abstract class Function {
     MemorySegment pValue = MemorySegment.NULL; // pointer sqlite3_value**
     int args = 0;
 
+    private final Arguments arguments = new Arguments(this);
+    private boolean argumentsLoaded = false;
+
     public final Arena _arena = Arena.ofAuto();
 
     public void _setContext(MemorySegment pContext) {
         this.pContext = pContext;
+        this.argumentsLoaded = false;
     }
 
     public MemorySegment _getValue() {
@@ -182,6 +187,22 @@ public abstract class Function {
         return args;
     }
 
+    /**
+     * Returns all arguments passed to the function, with their types and numeric values read in a
+     * single pass. Can only be called from <tt>xFunc()</tt>, and the returned view is only valid
+     * until it returns.
+     *
+     * @see Arguments
+     */
+    protected final Arguments arguments() throws SQLException {
+        checkContext();
+        if (!argumentsLoaded) {
+            db.load_arguments(this, arguments);
+            argumentsLoaded = true;
+        }
+        return arguments;
+    }
+
     /**
      * Called by <tt>xFunc</tt> to return a value.
      *
@@ -334,6 +355,105 @@ public abstract class Function {
         }
     }
 
+    /**
+     * A reusable view of the arguments of one call to a {@link Function}, returned by {@link
+     * #arguments()}. The type and numeric value of every argument are loaded up front, so the
+     * numeric getters are plain array reads. Text and blob values are only read from SQLite when
+     * requested.
+     *
+     * <p>The same instance is reused for every call to its function and must not be kept or used
+     * after the callback returns.
+     */
+    public static final class Arguments {
+        private final Function function;
+        private int count = 0;
+        private int[] types = new int[0];
+        private long[] longs = new long[0];
+        private double[] doubles = new double[0];
+        private String[] texts = new String[0];
+
+        private Arguments(Function function) {
+            this.function = function;
+        }
+
+        /** Returns the number of arguments. */
+        public int count() {
+            return count;
+        }
+
+        /**
+         * Returns the <a href="https://www.sqlite.org/c3ref/c_blob.html">fundamental datatype</a>
+         * of an argument, e.g. {@link Codes#SQLITE_INTEGER}.
+         */
+        public int type(int arg) {
+            return types[checkIndex(arg)];
+        }
+
+        public boolean isNull(int arg) {
+            return type(arg) == Codes.SQLITE_NULL;
+        }
+
+        public long getLong(int arg) throws SQLException {
+            return switch (type(arg)) {
+                case Codes.SQLITE_INTEGER, Codes.SQLITE_FLOAT, Codes.SQLITE_NULL -> longs[arg];
+                default -> function.value_long(arg);
+            };
+        }
+
+        public int getInt(int arg) throws SQLException {
+            return (int) getLong(arg);
+        }
+
+        public double getDouble(int arg) throws SQLException {
+            return switch (type(arg)) {
+                case Codes.SQLITE_INTEGER, Codes.SQLITE_FLOAT, Codes.SQLITE_NULL -> doubles[arg];
+                default -> function.value_double(arg);
+            };
+        }
+
+        /** Returns an argument as text, or null if it is NULL. The result is cached per call. */
+        public String getText(int arg) throws SQLException {
+            if (isNull(arg)) return null;
+            if (texts[arg] == null) texts[arg] = function.value_text(arg);
+            return texts[arg];
+        }
+
+        /** Returns an argument as a new byte array, or null if it is NULL. */
+        public byte[] getBlob(int arg) throws SQLException {
+            return isNull(arg) ? null : function.value_blob(arg);
+        }
+
+        /**
+         * Prepares this view for a call with {@code count} arguments. Called by {@link DB} before
+         * {@link #_set}.
+         */
+        public void _reset(int count) {
+            if (types.length < count) {
+                types = new int[count];
+                longs = new long[count];
+                doubles = new double[count];
+                texts = new String[count];
+            } else {
+                Arrays.fill(texts, 0, this.count, null);
+            }
+            this.count = count;
+        }
+
+        /** Stores the type and numeric value of one argument. Called by {@link DB}. */
+        public void _set(int arg, int type, long longValue, double doubleValue) {
+            types[arg] = type;
+            longs[arg] = longValue;
+            doubles[arg] = doubleValue;
+        }
+
+        private int checkIndex(int arg) {
+            if (arg < 0 || arg >= count) {
+                throw new IndexOutOfBoundsException("arg " + arg + " out bounds [0," + count + ")");
+            }
+            return arg;
+        }
+    }
+
     /**
      * Provides an interface for creating SQLite user-defined aggregate functions.
      *
@@ -0,0 +1,176 @@
+package org.sqlite;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+import java.util.function.UnaryOperator;
+import org.sqlite.core.Codes;
+
+/**
+ * Registers SQLite user-defined scalar functions from primitive functional interfaces. E.g.
+ *
+ * <pre>
+ *      Functions.ofLong(conn, "checked_add", (a, b) -&gt; Math.addExact(a, b));
+ *      Functions.ofDouble(conn, "sigmoid", x -&gt; 1 / (1 + Math.exp(-x)),
+ *              Function.FLAG_DETERMINISTIC);
+ *      Functions.ofText(conn, "reverse", s -&gt; new StringBuilder(s).reverse().toString());
+ *  </pre>
+ *
+ * <p>Unlike a {@link Function}, which reads its arguments and sets its result through methods on
+ * the shared function object, each of these functions gets its own upcall stub that reads its
+ * arguments with the matching {@code sqlite3_value_*} call and passes the result of the operator
+ * straight to the matching {@code sqlite3_result_*} call, without boxing.
+ *
+ * <p>Each function takes exactly as many arguments as its operator. If any argument is NULL the
+ * result is NULL and the operator is not called. An exception thrown by the operator is reported
+ * to SQLite as an error. Functions are removed with {@link Function#destroy(Connection, String)}.
+ */
+public final class Functions {
+    private Functions() {}
+
+    /**
+     * Registers a function of one integer argument.
+     *
+     * @param conn The connection.
+     * @param name The name of the function.
+     * @param f The function to register.
+     */
+    public static void ofLong(Connection conn, String name, LongUnaryOperator f)
+            throws SQLException {
+        ofLong(conn, name, f, 0);
+    }
+
+    /**
+     * Registers a function of one integer argument.
+     *
+     * @param conn The connection.
+     * @param name The name of the function.
+     * @param f The function to register.
+     * @param flags Extra flags to pass, such as {@link Function#FLAG_DETERMINISTIC}
+     */
+    public static void ofLong(Connection conn, String name, LongUnaryOperator f, int flags)
+            throws SQLException {
+        create(conn, name, f, flags);
+    }
+
+    /**
+     * Registers a function of two integer arguments.
+     *
+     * @param conn The connection.
+     * @param name The name of the function.
+     * @param f The function to register.
+     */
+    public static void ofLong(Connection conn, String name, LongBinaryOperator f)
+            throws SQLException {
+        ofLong(conn, name, f, 0);
+    }
+
+    /**
+     * Registers a function of two integer arguments.
+     *
+     * @param conn The connection.
+     * @param name The name of the function.
+     * @param f The function to register.
+     * @param flags Extra flags to pass, such as {@link Function#FLAG_DETERMINISTIC}
+     */
+    public static void ofLong(Connection conn, String name, LongBinaryOperator f, int flags)
+            throws SQLException {
+        create(conn, name, f, flags);
+    }
+
+    /**
+     * Registers a function of one floating point argument.
+     *
+     * @param conn The connection.
+     * @param name The name of the function.
+     * @param f The function to register.
+     */
+    public static void ofDouble(Connection conn, String name, DoubleUnaryOperator f)
+            throws SQLException {
+        ofDouble(conn, name, f, 0);
+    }
+
+    /**
+     * Registers a function of one floating point argument.
+     *
+     * @param conn The connection.
+     * @param name The name of the function.
+     * @param f The function to register.
+     * @param flags Extra flags to pass, such as {@link Function#FLAG_DETERMINISTIC}
+     */
+    public static void ofDouble(Connection conn, String name, DoubleUnaryOperator f, int flags)
+            throws SQLException {
+        create(conn, name, f, flags);
+    }
+
+    /**
+     * Registers a function of two floating point arguments.
+     *
+     * @param conn The connection.
+     * @param name The name of the function.
+     * @param f The function to register.
+     */
+    public static void ofDouble(Connection conn, String name, DoubleBinaryOperator f)
+            throws SQLException {
+        ofDouble(conn, name, f, 0);
+    }
+
+    /**
+     * Registers a function of two floating point arguments.
+     *
+     * @param conn The connection.
+     * @param name The name of the function.
+     * @param f The function to register.
+     * @param flags Extra flags to pass, such as {@link Function#FLAG_DETERMINISTIC}
+     */
+    public static void ofDouble(Connection conn, String name, DoubleBinaryOperator f, int flags)
+            throws SQLException {
+        create(conn, name, f, flags);
+    }
+
+    /**
+     * Registers a function of one text argument. A null result is returned as NULL.
+     *
+     * @param conn The connection.
+     * @param name The name of the function.
+     * @param f The function to register.
+     */
+    public static void ofText(Connection conn, String name, UnaryOperator<String> f)
+            throws SQLException {
+        ofText(conn, name, f, 0);
+    }
+
+    /**
+     * Registers a function of one text argument. A null result is returned as NULL.
+     *
+     * @param conn The connection.
+     * @param name The name of the function.
+     * @param f The function to register.
+     * @param flags Extra flags to pass, such as {@link Function#FLAG_DETERMINISTIC}
+     */
+    public static void ofText(Connection conn, String name, UnaryOperator<String> f, int flags)
+            throws SQLException {
+        create(conn, name, f, flags);
+    }
+
+    private static void create(Connection conn, String name, Object f, int flags)
+            throws SQLException {
+        if (!(conn instanceof SQLiteConnection)) {
+            throw new SQLException("connection must be to an SQLite db");
+        }
+        if (conn.isClosed()) {
+            throw new SQLException("connection closed");
+        }
+        if (f == null) {
+            throw new SQLException("function must not be null");
+        }
+
+        if (((SQLiteConnection) conn).getDatabase().create_scalar_function(name, f, flags)
+                != Codes.SQLITE_OK) {
+            throw new SQLException("error creating function");
+        }
+    }
+}
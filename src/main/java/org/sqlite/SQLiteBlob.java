@@ -0,0 +1,82 @@
+package org.sqlite;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.sql.SQLException;
+
+/**
+ * Reads and writes the blob or text of one cell in place through SQLite's incremental blob I/O,
+ * without holding the whole value in memory. Created by {@link SQLiteConnection#openBlob(String,
+ * String, long, boolean)}.
+ *
+ * <pre>
+ * try (PreparedStatement insert = conn.prepareStatement("insert into files (data) values (?)")) {
+ *     insert.unwrap(SQLitePreparedStatement.class).setZeroBlob(1, length);
+ *     insert.executeUpdate();
+ * }
+ * try (SQLiteBlob blob = conn.openBlob("files", "data", rowId, true);
+ *         OutputStream out = Channels.newOutputStream(blob)) {
+ *     in.transferTo(out);
+ * }
+ * </pre>
+ *
+ * <p>Direct buffers are read and written in place. Heap buffers are copied through a native buffer
+ * of the channel in chunks of 64 KiB, so a transfer never needs a copy of the whole value. Use
+ * {@link Channels#newInputStream} and {@link Channels#newOutputStream} for streams.
+ *
+ * <p>The size of the value is fixed when the channel is opened: writes cannot go past its end and
+ * {@link #truncate(long)} cannot shrink it. Preallocate a value to write with {@link
+ * SQLitePreparedStatement#setZeroBlob(int, int)} or SQL {@code zeroblob(n)}. If the row is changed
+ * or deleted by another statement, further reads and writes fail with SQLITE_ABORT.
+ *
+ * <p>Each read and write locks the connection once. A channel left open is closed with its
+ * connection.
+ */
+public interface SQLiteBlob extends SeekableByteChannel {
+    /** The rowid of the row the channel reads and writes. */
+    long rowId();
+
+    /**
+     * Moves the channel to the same column of another row, at position 0, without opening a new
+     * handle. Faster than opening a channel per row.
+     *
+     * @param rowId The rowid of the row.
+     * @throws SQLException if the row does not exist or its cell does not hold a blob or text. The
+     *     channel is closed then.
+     */
+    void reopen(long rowId) throws SQLException;
+
+    /**
+     * Reads bytes from the current position into a buffer, at most as many as remain in either.
+     *
+     * @return The number of bytes read, or -1 at the end of the value.
+     * @throws IOException if SQLite fails to read, such as when the row has changed.
+     */
+    @Override
+    int read(ByteBuffer dst) throws IOException;
+
+    /**
+     * Writes every remaining byte of a buffer at the current position.
+     *
+     * @return The number of bytes written.
+     * @throws java.nio.channels.NonWritableChannelException if the channel was opened read-only.
+     * @throws IOException if the bytes would go past the end of the value, or SQLite fails to
+     *     write.
+     */
+    @Override
+    int write(ByteBuffer src) throws IOException;
+
+    @Override
+    SQLiteBlob position(long newPosition) throws IOException;
+
+    /**
+     * Only moves the position back to {@code size} if it is past it, since the size of a value
+     * cannot change through the channel.
+     *
+     * @throws IOException if {@code size} is less than the size of the value.
+     */
+    @Override
+    SQLiteBlob truncate(long size) throws IOException;
+}
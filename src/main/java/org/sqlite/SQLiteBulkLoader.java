@@ -0,0 +1,153 @@
+package org.sqlite;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+import org.sqlite.SQLiteConfig.JournalMode;
+import org.sqlite.SQLiteConfig.SynchronousMode;
+
+/**
+ * Inserts rows into one table through a single prepared INSERT statement, binding each value to
+ * the native statement as it is appended. Created by {@link SQLiteConnection#bulkLoader(String,
+ * String...)}.
+ *
+ * <pre>
+ * try (SQLiteBulkLoader loader = conn.bulkLoader("events", "id", "name", "payload")) {
+ *     loader.setSynchronous(SynchronousMode.OFF);
+ *     for (Event e : events) {
+ *         loader.appendLong(e.id()).appendText(e.name()).appendBlob(e.payload()).endRow();
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>If the connection is not in a transaction when a row is inserted, the loader opens one and
+ * commits it once {@link #setCommitRows(long) enough rows} or {@link #setCommitBytes(long) bytes}
+ * have been inserted, and when it is closed. Rows inserted while a transaction of the application
+ * is open are left to that transaction. A row that fails to insert is skipped, and the rows before
+ * it stay in the transaction.
+ *
+ * <p>A loader is not thread-safe. It must be closed to commit its last rows, restore the pragmas it
+ * changed and release its statement.
+ */
+public interface SQLiteBulkLoader extends AutoCloseable {
+    /** The number of rows after which a transaction opened by the loader is committed. */
+    long DEFAULT_COMMIT_ROWS = 100_000;
+
+    /** The number of bytes after which a transaction opened by the loader is committed. */
+    long DEFAULT_COMMIT_BYTES = 64L << 20;
+
+    /**
+     * Sets the number of rows inserted per transaction, when the loader manages transactions.
+     *
+     * @param rows The number of rows, or 0 for no limit.
+     */
+    void setCommitRows(long rows);
+
+    /**
+     * Sets the size of the values inserted per transaction, when the loader manages transactions.
+     *
+     * @param bytes The size, as counted by {@link BulkLoadProgress#bytes()}, or 0 for no limit.
+     */
+    void setCommitBytes(long bytes);
+
+    /**
+     * Changes the synchronous flag of the connection while rows are loaded, and restores it when
+     * the loader is closed. Must be called before the first row is appended.
+     *
+     * @param mode The mode to load in, or null to leave the flag as it is.
+     * @see <a
+     *     href="https://www.sqlite.org/pragma.html#pragma_synchronous">https://www.sqlite.org/pragma.html#pragma_synchronous</a>
+     */
+    void setSynchronous(SynchronousMode mode);
+
+    /**
+     * Changes the journal mode of the database while rows are loaded, and restores it when the
+     * loader is closed. Must be called before the first row is appended, outside a transaction.
+     *
+     * @param mode The mode to load in, or null to leave the journal mode as it is.
+     * @see <a
+     *     href="https://www.sqlite.org/pragma.html#pragma_journal_mode">https://www.sqlite.org/pragma.html#pragma_journal_mode</a>
+     */
+    void setJournalMode(JournalMode mode);
+
+    /**
+     * Sets a listener told of the progress after each commit and when the loader is closed.
+     *
+     * @param listener The listener, or null for none.
+     */
+    void setProgressListener(Consumer<BulkLoadProgress> listener);
+
+    /** Binds NULL to the next column of the current row. */
+    SQLiteBulkLoader appendNull() throws SQLException;
+
+    /** Binds an integer to the next column of the current row. */
+    SQLiteBulkLoader appendLong(long value) throws SQLException;
+
+    /** Binds a real to the next column of the current row. */
+    SQLiteBulkLoader appendDouble(double value) throws SQLException;
+
+    /**
+     * Binds text to the next column of the current row. The characters are encoded as UTF-8
+     * straight into a native buffer of the loader, without an intermediate string or byte array.
+     *
+     * @param value The text, or null for NULL.
+     */
+    SQLiteBulkLoader appendText(CharSequence value) throws SQLException;
+
+    /**
+     * Binds the remaining bytes of a buffer as a blob to the next column of the current row. A
+     * direct buffer is bound in place, so its contents must not change until {@link #endRow()}
+     * returns. The position of the buffer is not changed.
+     *
+     * @param value The bytes, or null for NULL.
+     */
+    SQLiteBulkLoader appendBlob(ByteBuffer value) throws SQLException;
+
+    /**
+     * Binds a blob to the next column of the current row.
+     *
+     * @param value The bytes, or null for NULL.
+     */
+    SQLiteBulkLoader appendBlob(byte[] value) throws SQLException;
+
+    /**
+     * Inserts the current row, and commits if the loader opened the transaction and one of its
+     * limits is reached.
+     *
+     * @throws SQLException if a value is missing for any column, or the row cannot be inserted. The
+     *     row is skipped and the next append starts a new row.
+     */
+    void endRow() throws SQLException;
+
+    /**
+     * Inserts a row for each record of a CSV or TSV file. The file is memory-mapped and split into
+     * fields in place, and each field is bound to the statement as a slice of the mapping, without
+     * decoding it to a string. Fields of columns with INTEGER, NUMERIC or REAL affinity that are
+     * plain decimal integers are parsed in place and bound as numbers; other fields are bound as
+     * text and converted by the column's affinity. Columns without a field in a record are NULL,
+     * and fields beyond the loader's columns are skipped.
+     *
+     * <p>Rows are committed as configured for the loader. The rows of records before a failing one
+     * stay in the transaction.
+     *
+     * @param file The UTF-8 file.
+     * @param format The delimiter, quoting and header of the file.
+     * @return The number of rows inserted.
+     * @throws SQLException if a record cannot be parsed or inserted. The message gives the number
+     *     of the record.
+     * @throws IOException if the file cannot be mapped.
+     */
+    long loadCsv(Path file, CsvFormat format) throws SQLException, IOException;
+
+    /** The progress so far. */
+    BulkLoadProgress getProgress();
+
+    /**
+     * Commits the transaction opened by the loader, restores the pragmas it changed and releases
+     * its statement. Values appended for a row that was not ended are discarded.
+     */
+    @Override
+    void close() throws SQLException;
+}
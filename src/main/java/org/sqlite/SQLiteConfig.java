@@ -56,6 +56,7 @@ public class SQLiteConfig {
 
     private int busyTimeout;
     private boolean explicitReadOnly;
+    private int statementCacheSize;
 
     private final SQLiteConnectionConfig defaultConnectionConfig;
 
@@ -93,6 +94,9 @@ public class SQLiteConfig {
         this.explicitReadOnly =
                 Boolean.parseBoolean(
                         pragmaTable.getProperty(Pragma.JDBC_EXPLICIT_READONLY.pragmaName, "false"));
+        this.statementCacheSize =
+                Integer.parseInt(
+                        pragmaTable.getProperty(Pragma.JDBC_STATEMENT_CACHE_SIZE.pragmaName, "0"));
     }
 
     public SQLiteConnectionConfig newConnectionConfig() {
@@ -188,6 +192,8 @@ public class SQLiteConfig {
         // exclude this "fake" pragma from execution
         pragmaParams.remove(Pragma.JDBC_EXPLICIT_READONLY.pragmaName);
         pragmaParams.remove(Pragma.JDBC_GET_GENERATED_KEYS.pragmaName);
+        pragmaParams.remove(Pragma.JDBC_REWRITE_BATCHED_INSERTS.pragmaName);
+        pragmaParams.remove(Pragma.JDBC_STATEMENT_CACHE_SIZE.pragmaName);
 
         try (Statement stat = conn.createStatement()) {
             if (pragmaTable.containsKey(Pragma.PASSWORD.pragmaName)) {
@@ -330,6 +336,11 @@ public class SQLiteConfig {
         pragmaTable.setProperty(
                 Pragma.JDBC_GET_GENERATED_KEYS.pragmaName,
                 defaultConnectionConfig.isGetGeneratedKeys() ? "true" : "false");
+        pragmaTable.setProperty(
+                Pragma.JDBC_REWRITE_BATCHED_INSERTS.pragmaName,
+                defaultConnectionConfig.isRewriteBatchedInserts() ? "true" : "false");
+        pragmaTable.setProperty(
+                Pragma.JDBC_STATEMENT_CACHE_SIZE.pragmaName, Integer.toString(statementCacheSize));
         return pragmaTable;
     }
 
@@ -549,7 +560,15 @@ public class SQLiteConfig {
         JDBC_EXPLICIT_READONLY(
                 "jdbc.explicit_readonly", "Set explicit read only transactions", null),
         JDBC_GET_GENERATED_KEYS(
-                "jdbc.get_generated_keys", "Enable retrieval of generated keys", OnOff.Values);
+                "jdbc.get_generated_keys", "Enable retrieval of generated keys", OnOff.Values),
+        JDBC_REWRITE_BATCHED_INSERTS(
+                "jdbc.rewrite_batched_inserts",
+                "Execute prepared INSERT batches as multi-row INSERT statements",
+                OnOff.Values),
+        JDBC_STATEMENT_CACHE_SIZE(
+                "jdbc.statement_cache_size",
+                "Number of closed prepared statements to keep for reuse per connection. 0 (default) disables the cache",
+                null);
 
         public final String pragmaName;
         public final String[] choices;
@@ -1200,4 +1219,49 @@ public class SQLiteConfig {
     public void setGetGeneratedKeys(boolean generatedKeys) {
         this.defaultConnectionConfig.setGetGeneratedKeys(generatedKeys);
     }
+
+    public boolean isRewriteBatchedInserts() {
+        return this.defaultConnectionConfig.isRewriteBatchedInserts();
+    }
+
+    /**
+     * Executes the batch of a prepared single-row {@code INSERT ... VALUES (...)} statement
+     * through a variant of the statement that repeats its row of values, binding as many rows per
+     * step as {@link SQLiteLimits#SQLITE_LIMIT_VARIABLE_NUMBER} allows, up to 256. The update count
+     * of each row is still reported, as {@link java.sql.Statement#SUCCESS_NO_INFO} for the rows of
+     * a step that inserted fewer rows than it was given, such as with {@code INSERT OR IGNORE}.
+     * Each step runs inside a savepoint, and a step that fails is rolled back and its rows are
+     * executed one by one to report the failing row. When generated keys are collected, see {@link
+     * #setGetGeneratedKeys(boolean)}, the variant returns the rowid of each inserted row through a
+     * {@code RETURNING rowid} clause, and batches into a table without rowids are not rewritten.
+     *
+     * @param rewrite Whether to rewrite batched inserts. Off by default.
+     */
+    public void setRewriteBatchedInserts(boolean rewrite) {
+        this.defaultConnectionConfig.setRewriteBatchedInserts(rewrite);
+    }
+
+    /**
+     * @return The maximum number of closed prepared statements kept for reuse by each connection.
+     *     0 if statement caching is disabled.
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * Keeps up to the given number of closed prepared statements per connection, keyed by their
+     * SQL text, so that preparing the same SQL again reuses the compiled statement instead of
+     * parsing it again. The least recently used statement is finalized when the cache is full.
+     * Like a statement kept open, a reused statement is prepared again by SQLite when it is first
+     * executed after a schema change, and reports its previous columns until then.
+     *
+     * @param size The maximum number of cached statements, or 0 to disable caching.
+     */
+    public void setStatementCacheSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("statement cache size must not be negative");
+        }
+        this.statementCacheSize = size;
+    }
 }
@@ -8,12 +8,16 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
 import java.util.concurrent.Executor;
@@ -390,8 +394,160 @@ public abstract class SQLiteConnection implements Connection {
         }
     }
 
-    public void getLimit(SQLiteLimits limit) throws SQLException {
-        db.limit(limit.getId(), -1);
+    /**
+     * @param limit The limit to read.
+     * @return The current value of the limit for this connection.
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/limit.html">https://www.sqlite.org/c3ref/limit.html</a>
+     */
+    public int getLimit(SQLiteLimits limit) throws SQLException {
+        return db.limit(limit.getId(), -1);
+    }
+
+    /**
+     * Runs an SQL script of any number of statements separated by semicolons, such as a schema
+     * migration. The script is copied to native memory once, and each statement is compiled from
+     * where the previous one ended, then run to completion and finalized before the next one is
+     * compiled. Rows returned by statements are discarded.
+     *
+     * <p>Statements run in the current transaction if auto-commit is off, and each in its own
+     * transaction otherwise. If a statement fails, the statements before it are not rolled back.
+     *
+     * @param sql The SQL script.
+     * @return The update count and run time of each statement, in order.
+     * @throws SQLException if a statement fails.
+     */
+    public List<ScriptResult> executeScript(String sql) throws SQLException {
+        checkOpen();
+        setFirstStatementExecuted(true);
+        return db.executeScript(sql, getAutoCommit());
+    }
+
+    /**
+     * Runs an SQL script read from a channel, such as a {@link java.nio.channels.FileChannel} over
+     * a large migration file, without reading all of it into memory first. The script is read into
+     * a native buffer as far as needed to compile the next statement. See {@link
+     * #executeScript(String)}.
+     *
+     * @param in A blocking channel to read UTF-8 SQL text from, up to its end. It is not closed.
+     * @return The update count and run time of each statement, in order.
+     * @throws SQLException if a statement fails.
+     * @throws IOException if reading from the channel fails.
+     */
+    public List<ScriptResult> executeScript(ReadableByteChannel in)
+            throws SQLException, IOException {
+        checkOpen();
+        setFirstStatementExecuted(true);
+        return db.executeScript(in, getAutoCommit());
+    }
+
+    /**
+     * Opens a channel that reads and writes the blob or text of one cell of the "main" database in
+     * place, in chunks, instead of holding the whole value in memory.
+     *
+     * @param table The name of the table.
+     * @param column The name of the column.
+     * @param rowId The rowid of the row.
+     * @param writable Whether the channel can write. In auto-commit mode, an open channel holds
+     *     its own transaction until it is closed.
+     * @return The channel, to be closed by the caller.
+     * @throws SQLException if the cell does not exist or does not hold a blob or text.
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/blob_open.html">https://www.sqlite.org/c3ref/blob_open.html</a>
+     */
+    public SQLiteBlob openBlob(String table, String column, long rowId, boolean writable)
+            throws SQLException {
+        return openBlob("main", table, column, rowId, writable);
+    }
+
+    /**
+     * Opens a channel that reads and writes the blob or text of one cell in place.
+     *
+     * @param schema The name of the database, such as "main", "temp" or an attached database.
+     * @see #openBlob(String, String, long, boolean)
+     */
+    public SQLiteBlob openBlob(
+            String schema, String table, String column, long rowId, boolean writable)
+            throws SQLException {
+        checkOpen();
+        setFirstStatementExecuted(true);
+        return db.openBlob(schema, table, column, rowId, writable);
+    }
+
+    /**
+     * Creates a loader that inserts many rows into a table faster than a batch of a {@link
+     * PreparedStatement}. Values are bound to a native INSERT statement as they are appended,
+     * without being stored in the statement first, and in auto-commit mode the loader commits a
+     * transaction every {@link SQLiteBulkLoader#DEFAULT_COMMIT_ROWS} rows or so.
+     *
+     * @param table The name of the table.
+     * @param columns The names of the columns to insert into, in the order values are appended.
+     * @return The loader, which must be closed to commit its last rows.
+     * @throws SQLException if the INSERT statement cannot be compiled.
+     */
+    public SQLiteBulkLoader bulkLoader(String table, String... columns) throws SQLException {
+        checkOpen();
+        setFirstStatementExecuted(true);
+        return db.bulkLoader(table, columns);
+    }
+
+    /**
+     * Inserts the records of a CSV or TSV file into a table. The file is memory-mapped and its
+     * fields are bound to a {@link #bulkLoader(String, String...) bulk loader} as slices of the
+     * mapping, with no Java string in between. In auto-commit mode the rows are committed in
+     * chunks of {@link SQLiteBulkLoader#DEFAULT_COMMIT_ROWS} rows.
+     *
+     * @param file The UTF-8 file.
+     * @param table The name of the table.
+     * @param format The format of the file. With a header, fields are inserted into the columns it
+     *     names and other fields are skipped; otherwise fields are inserted into the columns of the
+     *     table in order.
+     * @return The number of rows inserted and committed, and the time it took.
+     * @throws SQLException if a record cannot be parsed or inserted. The rows of records before it
+     *     are kept.
+     * @throws IOException if the file cannot be mapped.
+     * @see SQLiteBulkLoader#loadCsv(Path, CsvFormat)
+     */
+    public BulkLoadProgress importCsv(Path file, String table, CsvFormat format)
+            throws SQLException, IOException {
+        checkOpen();
+        setFirstStatementExecuted(true);
+        return db.importCsv(file, table, format);
+    }
+
+    /**
+     * Creates a prepared statement with a hint about its lifetime. A persistent statement is
+     * compiled with {@code SQLITE_PREPARE_PERSISTENT}, so SQLite allocates it from the heap instead
+     * of the connection's lookaside memory, which is meant for short-lived objects and is then left
+     * free for them. Use it for statements that are kept and executed many times.
+     *
+     * @param sql The SQL statement to prepare.
+     * @param persistent Whether the statement will be kept and reused for a long time.
+     * @return A new prepared statement.
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/c_prepare_normalize.html">https://www.sqlite.org/c3ref/c_prepare_normalize.html</a>
+     */
+    public abstract PreparedStatement prepareStatement(String sql, boolean persistent)
+            throws SQLException;
+
+    /**
+     * Returns how many prepared statements reused a compiled statement from this connection's
+     * statement cache.
+     *
+     * @see SQLiteConfig#setStatementCacheSize(int)
+     */
+    public long getStatementCacheHits() {
+        return db.getStatementCacheHits();
+    }
+
+    /**
+     * Returns how many prepared statements had to be compiled because this connection's statement
+     * cache had no statement for their SQL. Always 0 if statement caching is disabled.
+     *
+     * @see SQLiteConfig#setStatementCacheSize(int)
+     */
+    public long getStatementCacheMisses() {
+        return db.getStatementCacheMisses();
     }
 
     @Override
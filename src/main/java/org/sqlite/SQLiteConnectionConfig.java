@@ -20,29 +20,38 @@ public class SQLiteConnectionConfig implements Cloneable {
     private SQLiteConfig.TransactionMode transactionMode = SQLiteConfig.TransactionMode.DEFERRED;
     private boolean autoCommit = true;
     private boolean getGeneratedKeys = true;
+    private boolean rewriteBatchedInserts = false;
 
     public static SQLiteConnectionConfig fromPragmaTable(Properties pragmaTable) {
-        return new SQLiteConnectionConfig(
-                SQLiteConfig.DateClass.getDateClass(
+        SQLiteConnectionConfig config =
+                new SQLiteConnectionConfig(
+                        SQLiteConfig.DateClass.getDateClass(
+                                pragmaTable.getProperty(
+                                        SQLiteConfig.Pragma.DATE_CLASS.pragmaName,
+                                        SQLiteConfig.DateClass.INTEGER.name())),
+                        SQLiteConfig.DatePrecision.getPrecision(
+                                pragmaTable.getProperty(
+                                        SQLiteConfig.Pragma.DATE_PRECISION.pragmaName,
+                                        SQLiteConfig.DatePrecision.MILLISECONDS.name())),
                         pragmaTable.getProperty(
-                                SQLiteConfig.Pragma.DATE_CLASS.pragmaName,
-                                SQLiteConfig.DateClass.INTEGER.name())),
-                SQLiteConfig.DatePrecision.getPrecision(
-                        pragmaTable.getProperty(
-                                SQLiteConfig.Pragma.DATE_PRECISION.pragmaName,
-                                SQLiteConfig.DatePrecision.MILLISECONDS.name())),
-                pragmaTable.getProperty(
-                        SQLiteConfig.Pragma.DATE_STRING_FORMAT.pragmaName,
-                        DEFAULT_DATE_STRING_FORMAT),
-                Connection.TRANSACTION_SERIALIZABLE,
-                SQLiteConfig.TransactionMode.getMode(
-                        pragmaTable.getProperty(
-                                SQLiteConfig.Pragma.TRANSACTION_MODE.pragmaName,
-                                SQLiteConfig.TransactionMode.DEFERRED.name())),
-                true,
+                                SQLiteConfig.Pragma.DATE_STRING_FORMAT.pragmaName,
+                                DEFAULT_DATE_STRING_FORMAT),
+                        Connection.TRANSACTION_SERIALIZABLE,
+                        SQLiteConfig.TransactionMode.getMode(
+                                pragmaTable.getProperty(
+                                        SQLiteConfig.Pragma.TRANSACTION_MODE.pragmaName,
+                                        SQLiteConfig.TransactionMode.DEFERRED.name())),
+                        true,
+                        Boolean.parseBoolean(
+                                pragmaTable.getProperty(
+                                        SQLiteConfig.Pragma.JDBC_GET_GENERATED_KEYS.pragmaName,
+                                        "true")));
+        config.setRewriteBatchedInserts(
                 Boolean.parseBoolean(
                         pragmaTable.getProperty(
-                                SQLiteConfig.Pragma.JDBC_GET_GENERATED_KEYS.pragmaName, "true")));
+                                SQLiteConfig.Pragma.JDBC_REWRITE_BATCHED_INSERTS.pragmaName,
+                                "false")));
+        return config;
     }
 
     public SQLiteConnectionConfig(
@@ -63,14 +72,17 @@ public class SQLiteConnectionConfig implements Cloneable {
     }
 
     public SQLiteConnectionConfig copyConfig() {
-        return new SQLiteConnectionConfig(
-                dateClass,
-                datePrecision,
-                dateStringFormat,
-                transactionIsolation,
-                transactionMode,
-                autoCommit,
-                getGeneratedKeys);
+        SQLiteConnectionConfig copy =
+                new SQLiteConnectionConfig(
+                        dateClass,
+                        datePrecision,
+                        dateStringFormat,
+                        transactionIsolation,
+                        transactionMode,
+                        autoCommit,
+                        getGeneratedKeys);
+        copy.setRewriteBatchedInserts(rewriteBatchedInserts);
+        return copy;
     }
 
     public long getDateMultiplier() {
@@ -138,6 +150,19 @@ public class SQLiteConnectionConfig implements Cloneable {
         this.getGeneratedKeys = getGeneratedKeys;
     }
 
+    public boolean isRewriteBatchedInserts() {
+        return rewriteBatchedInserts;
+    }
+
+    /**
+     * @param rewriteBatchedInserts Whether a batch of a prepared single-row {@code INSERT ...
+     *     VALUES (...)} inserts several rows per step, through a variant of the statement that
+     *     repeats its row of values. Batches that collect generated keys are not rewritten.
+     */
+    public void setRewriteBatchedInserts(boolean rewriteBatchedInserts) {
+        this.rewriteBatchedInserts = rewriteBatchedInserts;
+    }
+
     private static final Map<SQLiteConfig.TransactionMode, String> beginCommandMap =
             new EnumMap<>(SQLiteConfig.TransactionMode.class);
 
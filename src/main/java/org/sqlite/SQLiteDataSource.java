@@ -450,6 +450,26 @@ public class SQLiteDataSource implements DataSource {
         config.setGetGeneratedKeys(generatedKeys);
     }
 
+    /**
+     * Configures whether prepared INSERT batches run as multi-row INSERT statements.
+     *
+     * @param rewrite true to rewrite batched inserts
+     * @see SQLiteConfig#setRewriteBatchedInserts(boolean)
+     */
+    public void setRewriteBatchedInserts(boolean rewrite) {
+        config.setRewriteBatchedInserts(rewrite);
+    }
+
+    /**
+     * Sets the number of closed prepared statements each connection keeps for reuse.
+     *
+     * @param size The maximum number of cached statements, or 0 to disable caching.
+     * @see SQLiteConfig#setStatementCacheSize(int)
+     */
+    public void setStatementCacheSize(int size) {
+        config.setStatementCacheSize(size);
+    }
+
     /**
      * Sets the value of the user-version. It is a big-endian 32-bit signed integer stored in the
      * database header at offset 60.
@@ -0,0 +1,21 @@
+package org.sqlite;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Binds parameters of a {@link PreparedStatement} in ways JDBC has no setter for. Obtained with
+ * {@code preparedStatement.unwrap(SQLitePreparedStatement.class)}.
+ */
+public interface SQLitePreparedStatement {
+    /**
+     * Binds a blob of zeros, which SQLite stores without allocating it in memory, to be filled
+     * afterwards in chunks through a {@link SQLiteBlob}.
+     *
+     * @param pos Index of the parameter, from 1.
+     * @param length The length of the blob in bytes.
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/bind_blob.html">https://www.sqlite.org/c3ref/bind_blob.html</a>
+     */
+    void setZeroBlob(int pos, int length) throws SQLException;
+}
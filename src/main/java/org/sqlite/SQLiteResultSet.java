@@ -0,0 +1,87 @@
+package org.sqlite;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads the numeric columns of many rows of a {@link ResultSet} at once, and blob and text cells
+ * without copying them. Obtained with {@code resultSet.unwrap(SQLiteResultSet.class)}.
+ *
+ * <p>Each fetch steps the statement and reads the requested columns of every row in one loop under
+ * one lock of the connection, without the per-cell checks of the {@code getXxx} methods. It starts
+ * with the row after the current one, or the first row if {@link ResultSet#next()} has not been
+ * called, and leaves the result set on the last row it read, so fetches and {@code next()} can be
+ * mixed. The maximum number of rows of the statement is honored. If a step fails, its error is
+ * thrown and the result set is after its last row.
+ */
+public interface SQLiteResultSet {
+    /**
+     * Reads an integer column of the next rows into an array, converted as sqlite3_column_int64()
+     * would. NULL is read as 0.
+     *
+     * @param col Index of the column, from 1.
+     * @param dest Receives the values from index 0.
+     * @param maxRows The most rows to read, at most the length of {@code dest}.
+     * @return The number of rows read, less than {@code maxRows} only after the last row.
+     */
+    int fetchLongColumn(int col, long[] dest, int maxRows) throws SQLException;
+
+    /**
+     * Reads a real column of the next rows into an array, converted as sqlite3_column_double()
+     * would. NULL is read as 0.
+     *
+     * @param col Index of the column, from 1.
+     * @param dest Receives the values from index 0.
+     * @param maxRows The most rows to read, at most the length of {@code dest}.
+     * @return The number of rows read, less than {@code maxRows} only after the last row.
+     */
+    int fetchDoubleColumn(int col, double[] dest, int maxRows) throws SQLException;
+
+    /**
+     * Reads the columns of a sink for up to its capacity of the next rows.
+     *
+     * @param sink Receives the values and NULL bitmaps from row 0.
+     * @return The number of rows read, less than the capacity of the sink only after the last row.
+     */
+    int fetchColumns(ColumnSink sink) throws SQLException;
+
+    /**
+     * Returns a read-only view of the bytes of a cell of the current row in the buffer of SQLite,
+     * as {@link ResultSet#getBytes(int)} would copy them: text as UTF-8 and numbers as their text.
+     *
+     * <p>The view is valid until the result set moves or is closed; it is closed then, and reading
+     * it throws {@link IllegalStateException}. A view taken by the thread that last moved the
+     * result set is confined to that thread, which alone can read it, and closes without a
+     * handshake with other threads, so only that thread can move or close the result set while the
+     * view is open; another thread gets an {@link SQLException}. A view taken by any other thread
+     * is closed by whichever thread moves the result set. A getter that reads the same cell as another type may convert it and
+     * free its bytes first, so the view should be used before other getters of its cell.
+     *
+     * @param col Index of the column, from 1.
+     * @return The view, or null if the cell is NULL.
+     */
+    MemorySegment getSegment(int col) throws SQLException;
+
+    /**
+     * Returns a read-only buffer over the bytes of a cell of the current row, valid as the view of
+     * {@link #getSegment(int)} is.
+     *
+     * @param col Index of the column, from 1.
+     * @return The buffer, or null if the cell is NULL.
+     */
+    ByteBuffer getByteBuffer(int col) throws SQLException;
+
+    /**
+     * Writes the bytes of a cell of the current row to a channel straight from the buffer of
+     * SQLite.
+     *
+     * @param col Index of the column, from 1.
+     * @param out The channel, which is written to until it has taken every byte.
+     * @return The number of bytes written, 0 if the cell is NULL.
+     */
+    long transferTo(int col, WritableByteChannel out) throws SQLException, IOException;
+}
@@ -0,0 +1,13 @@
+package org.sqlite;
+
+/**
+ * The outcome of one statement run by {@link SQLiteConnection#executeScript(String)}.
+ *
+ * @param sql The text of the statement, without surrounding whitespace.
+ * @param updateCount The number of rows inserted, updated or deleted by the statement, as reported
+ *     by {@link java.sql.Statement#executeUpdate(String)}, or -1 if the statement is a query. Rows
+ *     changed by triggers and foreign key actions are not counted. Rows returned by a statement in
+ *     a script, including those of a RETURNING clause, are discarded.
+ * @param elapsedNanos The time taken to prepare, run and finalize the statement.
+ */
+public record ScriptResult(String sql, long updateCount, long elapsedNanos) {}
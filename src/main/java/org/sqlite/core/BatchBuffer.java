@@ -0,0 +1,305 @@
+package org.sqlite.core;
+
+import static org.sqlite.core.Codes.SQLITE_BLOB;
+import static org.sqlite.core.Codes.SQLITE_FLOAT;
+import static org.sqlite.core.Codes.SQLITE_INTEGER;
+import static org.sqlite.core.Codes.SQLITE_NULL;
+import static org.sqlite.core.Codes.SQLITE_OK;
+import static org.sqlite.core.Codes.SQLITE_TEXT;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * The parameter values of a prepared statement and the rows added to its batch, stored column by
+ * column. Each parameter has a type tag and a primitive value per row: integers as longs, reals as
+ * the bits of a double, and text and blobs as an offset and length into one native byte arena
+ * shared by all parameters. A batch of any size therefore holds no object per value, and {@link
+ * #bind} binds a row straight from these buffers without re-encoding text.
+ *
+ * <p>The row after the last added row is the current row, which the setters of the statement
+ * write into. Its text and blobs are held by reference until the row is added, so that a
+ * statement executed without a batch binds them as it would without this buffer.
+ */
+final class BatchBuffer {
+    private static final int INITIAL_ROWS = 16;
+    private static final long INITIAL_ARENA_SIZE = 4096;
+
+    /**
+     * The type tag of a {@link ZeroBlob}, after the fundamental datatypes. Its length is stored as
+     * its value.
+     */
+    private static final byte ZERO_BLOB = 6;
+
+    /** The type tag of an integer set as an int, which is reported as {@link Types#INTEGER}. */
+    private static final byte INT = 7;
+
+    /** The type tag of text or a blob of the current row, held in {@link #objects}. */
+    private static final byte OBJECT = 8;
+
+    private final int params;
+    private final byte[][] types;
+    private final long[][] values;
+    private final int[][] lengths;
+
+    /** The String, byte[] or MemorySegment value of each parameter of the current row. */
+    private final Object[] objects;
+
+    private int capacity = INITIAL_ROWS;
+    private int size;
+
+    private MemorySegment arena;
+    private long arenaUsed;
+
+    /** The memory of the streams read into parameters of the current row, or null if none. */
+    private Arena streams;
+
+    BatchBuffer(int params) {
+        this.params = params;
+        this.types = new byte[params][INITIAL_ROWS];
+        this.values = new long[params][INITIAL_ROWS];
+        this.lengths = new int[params][];
+        this.objects = new Object[params];
+        clearRow();
+    }
+
+    /** The number of rows added to the batch, which is also the index of the current row. */
+    int size() {
+        return size;
+    }
+
+    void setNull(int p) {
+        set(p, SQLITE_NULL, 0);
+    }
+
+    void setInt(int p, int v) {
+        set(p, INT, v);
+    }
+
+    void setLong(int p, long v) {
+        set(p, SQLITE_INTEGER, v);
+    }
+
+    void setDouble(int p, double v) {
+        set(p, SQLITE_FLOAT, Double.doubleToRawLongBits(v));
+    }
+
+    void setZeroBlob(int p, int length) {
+        set(p, ZERO_BLOB, length);
+    }
+
+    /**
+     * Sets a parameter of the current row to text or a blob.
+     *
+     * @param v A String, byte[] or MemorySegment, which is kept until the row is added.
+     */
+    void setObject(int p, Object v) {
+        types[p][size] = OBJECT;
+        objects[p] = v;
+    }
+
+    private void set(int p, byte type, long v) {
+        types[p][size] = type;
+        values[p][size] = v;
+        objects[p] = null;
+    }
+
+    /**
+     * Allocates the memory to read a stream into, for a parameter of the current row. The memory
+     * is freed when the parameters of the current row are cleared.
+     *
+     * @param size The size of the stream in bytes.
+     */
+    MemorySegment allocateStream(long size) {
+        if (streams == null) {
+            // shared, since the statement may be used by several threads in turn
+            streams = Arena.ofShared();
+        }
+        return streams.allocate(size);
+    }
+
+    /**
+     * Sets every parameter of the current row to NULL and frees the streams read into them. The
+     * statement must not be stepped with the streams bound before it binds the row again.
+     */
+    void clearRow() {
+        for (int p = 0; p < params; p++) {
+            set(p, SQLITE_NULL, 0);
+        }
+        if (streams != null) {
+            Arena read = streams;
+            streams = null;
+            read.close();
+        }
+    }
+
+    /** Removes the rows added to the batch, and sets every parameter of the current row to NULL. */
+    void clear() {
+        size = 0;
+        arena = null;
+        arenaUsed = 0;
+        clearRow();
+    }
+
+    /**
+     * @return The JDBC type of a parameter of the current row, from how it was set.
+     */
+    int parameterType(int p) {
+        return switch (types[p][size]) {
+            case INT -> Types.INTEGER;
+            case SQLITE_INTEGER -> Types.BIGINT;
+            case SQLITE_FLOAT -> Types.REAL;
+            case SQLITE_NULL -> Types.NULL;
+            default -> Types.VARCHAR;
+        };
+    }
+
+    /**
+     * Adds the current row to the batch. Its values stay set as those of the next current row, and
+     * its text is encoded to UTF-8 into the arena.
+     *
+     * @throws SQLException if a value has a type that cannot be bound.
+     */
+    void addRow() throws SQLException {
+        if (size + 1 == capacity) {
+            grow();
+        }
+        for (int p = 0; p < params; p++) {
+            types[p][size + 1] = types[p][size];
+            values[p][size + 1] = values[p][size];
+            if (types[p][size] == OBJECT) {
+                switch (objects[p]) {
+                    case String s ->
+                            setBytes(
+                                    p,
+                                    SQLITE_TEXT,
+                                    MemorySegment.ofArray(s.getBytes(StandardCharsets.UTF_8)));
+                    case byte[] bytes -> setBytes(p, SQLITE_BLOB, MemorySegment.ofArray(bytes));
+                    case MemorySegment bytes -> setBytes(p, SQLITE_BLOB, bytes);
+                    default ->
+                            throw new SQLException(
+                                    "unexpected param type: " + objects[p].getClass());
+                }
+            }
+        }
+        size++;
+    }
+
+    private void setBytes(int p, int type, MemorySegment bytes) {
+        int n = (int) bytes.byteSize();
+        if (arena == null || arenaUsed + n > arena.byteSize()) {
+            growArena(n);
+        }
+        MemorySegment.copy(bytes, 0, arena, arenaUsed, n);
+        if (lengths[p] == null) {
+            lengths[p] = new int[capacity];
+        }
+        types[p][size] = (byte) type;
+        values[p][size] = arenaUsed;
+        lengths[p][size] = n;
+        arenaUsed += n;
+    }
+
+    private void grow() {
+        capacity *= 2;
+        for (int p = 0; p < params; p++) {
+            types[p] = Arrays.copyOf(types[p], capacity);
+            values[p] = Arrays.copyOf(values[p], capacity);
+            if (lengths[p] != null) {
+                lengths[p] = Arrays.copyOf(lengths[p], capacity);
+            }
+        }
+    }
+
+    private void growArena(int needed) {
+        long arenaSize = arena == null ? INITIAL_ARENA_SIZE : arena.byteSize() * 2;
+        while (arenaSize < arenaUsed + needed) {
+            arenaSize *= 2;
+        }
+        // freed once the batch is no longer reachable
+        MemorySegment grown = Arena.ofAuto().allocate(arenaSize);
+        if (arena != null) {
+            MemorySegment.copy(arena, 0, grown, 0, arenaUsed);
+        }
+        arena = grown;
+    }
+
+    /**
+     * Binds every parameter of the current row, as {@link DB#sqlbind} binds them.
+     *
+     * @see #bind(DB, MemorySegment, int)
+     */
+    int bindCurrent(DB db, MemorySegment stmt) throws SQLException {
+        return bind(db, stmt, size, 0);
+    }
+
+    /**
+     * Binds every parameter of a row. Text and blobs of an added row are bound without a copy, so
+     * the statement must be reset and its bindings cleared before this buffer is discarded.
+     *
+     * @param db The connection of the statement.
+     * @param stmt Pointer to the statement.
+     * @param row Index of the row to bind.
+     * @return <a href="https://www.sqlite.org/c3ref/c_abort.html">Result Codes</a>
+     * @throws SQLException
+     */
+    int bind(DB db, MemorySegment stmt, int row) throws SQLException {
+        return bind(db, stmt, row, 0);
+    }
+
+    /**
+     * Binds every parameter of a row to one of the rows of values of a multi-row INSERT.
+     *
+     * @param slot Index of the row of values of the statement to bind to.
+     * @see #bind(DB, MemorySegment, int)
+     */
+    int bind(DB db, MemorySegment stmt, int row, int slot) throws SQLException {
+        for (int p = 0; p < params; p++) {
+            int pos = slot * params + p + 1;
+            long v = values[p][row];
+            int rc =
+                    switch (types[p][row]) {
+                        case SQLITE_INTEGER, INT -> db.bind_long(stmt, pos, v);
+                        case SQLITE_FLOAT -> db.bind_double(stmt, pos, Double.longBitsToDouble(v));
+                        case SQLITE_TEXT -> {
+                            int n = lengths[p][row];
+                            yield db.bind_text(stmt, pos, arena.asSlice(v, n), n);
+                        }
+                        case SQLITE_BLOB -> {
+                            int n = lengths[p][row];
+                            yield db.bind_blob(stmt, pos, arena.asSlice(v, n), n);
+                        }
+                        case ZERO_BLOB -> db.bind_zeroblob(stmt, pos, (int) v);
+                        case OBJECT -> db.sqlbind(stmt, pos - 1, objects[p]);
+                        default -> db.bind_null(stmt, pos);
+                    };
+            if (rc != SQLITE_OK) {
+                return rc;
+            }
+        }
+        return SQLITE_OK;
+    }
+
+    /** @return The values of the current row, as {@link Arrays#toString(Object[])} shows them. */
+    @Override
+    public String toString() {
+        Object[] row = new Object[params];
+        for (int p = 0; p < params; p++) {
+            long v = values[p][size];
+            row[p] =
+                    switch (types[p][size]) {
+                        case INT -> (int) v;
+                        case SQLITE_INTEGER -> v;
+                        case SQLITE_FLOAT -> Double.longBitsToDouble(v);
+                        case ZERO_BLOB -> new ZeroBlob((int) v);
+                        case OBJECT -> objects[p];
+                        default -> null;
+                    };
+        }
+        return Arrays.toString(row);
+    }
+}
@@ -0,0 +1,238 @@
+package org.sqlite.core;
+
+import static org.sqlite.core.Codes.SQLITE_OK;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.sql.SQLException;
+import org.sqlite.SQLiteBlob;
+
+/**
+ * A {@link SQLiteBlob} over one sqlite3_blob handle. Direct buffers are read and written in place;
+ * heap buffers go through a native chunk of {@link #CHUNK_SIZE} bytes, so no transfer needs more
+ * memory than one chunk besides the caller's buffer.
+ */
+final class BlobChannel implements SQLiteBlob {
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private final DB db;
+    private final boolean writable;
+    private MemorySegment blob;
+    private long rowId;
+    private int size;
+    private long position;
+
+    /** The native chunk for heap buffers, allocated on first use and freed on close. */
+    private Arena arena;
+
+    private MemorySegment chunk;
+
+    BlobChannel(
+            DB db, String schema, String table, String column, long rowId, boolean writable)
+            throws SQLException {
+        this.db = db;
+        this.writable = writable;
+        this.blob = db.blob_open(schema, table, column, rowId, writable);
+        this.rowId = rowId;
+        this.size = db.blob_bytes(blob);
+    }
+
+    @Override
+    public long rowId() {
+        return rowId;
+    }
+
+    @Override
+    public void reopen(long rowId) throws SQLException {
+        db.lock();
+        try {
+            if (blob == null) {
+                throw new SQLException("blob is closed");
+            }
+            int rc = db.blob_reopen(blob, rowId);
+            if (rc != SQLITE_OK) {
+                // the handle is aborted, and can only be closed
+                closeBlob();
+                db.throwex(rc);
+            }
+            this.rowId = rowId;
+            size = db.blob_bytes(blob);
+            position = 0;
+        } finally {
+            db.unlock();
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        db.lock();
+        try {
+            ensureOpen();
+            if (position >= size) {
+                return dst.hasRemaining() ? -1 : 0;
+            }
+            int n = (int) Math.min(dst.remaining(), size - position);
+            if (dst.isDirect()) {
+                MemorySegment direct = MemorySegment.ofBuffer(dst).asSlice(0, n);
+                check(db.blob_read(blob, direct, (int) position));
+            } else {
+                MemorySegment chunk = chunk();
+                MemorySegment heap = MemorySegment.ofBuffer(dst);
+                for (int done = 0; done < n; ) {
+                    int len = Math.min(CHUNK_SIZE, n - done);
+                    check(db.blob_read(blob, chunk.asSlice(0, len), (int) position + done));
+                    MemorySegment.copy(chunk, 0, heap, done, len);
+                    done += len;
+                }
+            }
+            dst.position(dst.position() + n);
+            position += n;
+            return n;
+        } finally {
+            db.unlock();
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        db.lock();
+        try {
+            ensureOpen();
+            if (!writable) {
+                throw new NonWritableChannelException();
+            }
+            int n = src.remaining();
+            if (position + n > size) {
+                throw new IOException(
+                        "cannot write "
+                                + n
+                                + " bytes at offset "
+                                + position
+                                + " of a blob of "
+                                + size
+                                + " bytes; a blob cannot grow");
+            }
+            if (src.isDirect()) {
+                check(db.blob_write(blob, MemorySegment.ofBuffer(src), (int) position));
+            } else {
+                MemorySegment chunk = chunk();
+                MemorySegment heap = MemorySegment.ofBuffer(src);
+                for (int done = 0; done < n; ) {
+                    int len = Math.min(CHUNK_SIZE, n - done);
+                    MemorySegment.copy(heap, done, chunk, 0, len);
+                    check(db.blob_write(blob, chunk.asSlice(0, len), (int) position + done));
+                    done += len;
+                }
+            }
+            src.position(src.position() + n);
+            position += n;
+            return n;
+        } finally {
+            db.unlock();
+        }
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SQLiteBlob position(long newPosition) throws IOException {
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("negative position: " + newPosition);
+        }
+        ensureOpen();
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return size;
+    }
+
+    @Override
+    public SQLiteBlob truncate(long size) throws IOException {
+        if (size < 0) {
+            throw new IllegalArgumentException("negative size: " + size);
+        }
+        ensureOpen();
+        if (!writable) {
+            throw new NonWritableChannelException();
+        }
+        if (size < this.size) {
+            throw new IOException("the size of a blob cannot change through incremental I/O");
+        }
+        position = Math.min(position, size);
+        return this;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return blob != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            closeBlob();
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /** Closes the handle, also when the connection is closed before the channel. */
+    void closeBlob() throws SQLException {
+        db.lock();
+        try {
+            if (blob == null) {
+                return;
+            }
+            int rc = db.blob_close(blob);
+            blob = null;
+            db.removeBlob(this);
+            if (arena != null) {
+                arena.close();
+                arena = null;
+                chunk = null;
+            }
+            if (rc != SQLITE_OK) {
+                db.throwex(rc);
+            }
+        } finally {
+            db.unlock();
+        }
+    }
+
+    private MemorySegment chunk() {
+        if (chunk == null) {
+            arena = Arena.ofShared();
+            chunk = arena.allocate(CHUNK_SIZE);
+        }
+        return chunk;
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (blob == null) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    /** Reports a failed read or write, such as SQLITE_ABORT once the row has changed. */
+    private void check(int rc) throws IOException {
+        if (rc != SQLITE_OK) {
+            try {
+                db.throwex(rc);
+            } catch (SQLException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,677 @@
+package org.sqlite.core;
+
+import static org.sqlite.core.Codes.SQLITE_DONE;
+import static org.sqlite.core.Codes.SQLITE_OK;
+import static org.sqlite.core.Codes.SQLITE_ROW;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import org.sqlite.BulkLoadProgress;
+import org.sqlite.CsvFormat;
+import org.sqlite.SQLiteBulkLoader;
+import org.sqlite.SQLiteConfig.JournalMode;
+import org.sqlite.SQLiteConfig.SynchronousMode;
+
+/**
+ * A {@link SQLiteBulkLoader} over one persistent INSERT statement. Text and blobs of the current
+ * row are copied into a native row buffer and bound without another copy, and the buffer is reused
+ * by the next row once the row has been inserted.
+ */
+final class BulkLoader implements SQLiteBulkLoader {
+    private static final long INITIAL_ROW_BUFFER_SIZE = 4096;
+
+    /** How a CSV field is bound to a column, by the column's affinity. */
+    private static final byte BIND_TEXT = 0;
+
+    private static final byte BIND_INTEGER = 1;
+    private static final byte BIND_REAL = 2;
+
+    private final DB db;
+    private final String table;
+    private final String[] columnNames;
+    private final SafeStmtPtr insert;
+    private final MemorySegment stmt;
+    private final int columns;
+
+    private long commitRows = DEFAULT_COMMIT_ROWS;
+    private long commitBytes = DEFAULT_COMMIT_BYTES;
+    private SynchronousMode synchronous;
+    private JournalMode journalMode;
+    private Consumer<BulkLoadProgress> listener;
+
+    /** The pragma values to restore on close, or null if they were not changed. */
+    private String savedSynchronous;
+
+    private String savedJournalMode;
+
+    private boolean started;
+    private boolean transaction;
+    private long startNanos;
+    private long rows;
+    private long committedRows;
+    private long bytes;
+    private long transactionRows;
+    private long transactionBytes;
+
+    /** Index of the next column to bind, from 0. */
+    private int column;
+
+    private long rowBytes;
+
+    private MemorySegment rowBuffer;
+    private long rowBufferUsed;
+
+    /** Row buffers outgrown by the current row, kept reachable while values are bound to them. */
+    private final List<MemorySegment> outgrown = new ArrayList<>();
+
+    /**
+     * Direct buffers bound to the current row without a copy, kept reachable so that they are not
+     * freed before the row is inserted.
+     */
+    private final List<ByteBuffer> boundBuffers = new ArrayList<>();
+
+    BulkLoader(DB db, String table, String[] columns) throws SQLException {
+        if (columns.length == 0) {
+            throw new SQLException("a bulk loader needs at least one column");
+        }
+        StringBuilder sql = new StringBuilder("insert into ").append(quote(table)).append(" (");
+        for (int i = 0; i < columns.length; i++) {
+            sql.append(i == 0 ? "" : ", ").append(quote(columns[i]));
+        }
+        sql.append(") values (").append("?, ".repeat(columns.length - 1)).append("?);");
+
+        this.db = db;
+        this.table = table;
+        this.columnNames = columns.clone();
+        this.columns = columns.length;
+        this.insert = db.prepare(sql.toString(), true);
+        this.stmt = insert.safeRun((db2, ptr) -> ptr);
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public void setCommitRows(long rows) {
+        commitRows = rows;
+    }
+
+    @Override
+    public void setCommitBytes(long bytes) {
+        commitBytes = bytes;
+    }
+
+    @Override
+    public void setSynchronous(SynchronousMode mode) {
+        synchronous = mode;
+    }
+
+    @Override
+    public void setJournalMode(JournalMode mode) {
+        journalMode = mode;
+    }
+
+    @Override
+    public void setProgressListener(Consumer<BulkLoadProgress> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public SQLiteBulkLoader appendNull() throws SQLException {
+        db.lock();
+        try {
+            check(db.bind_null(nextColumn(), column));
+        } finally {
+            db.unlock();
+        }
+        return this;
+    }
+
+    @Override
+    public SQLiteBulkLoader appendLong(long value) throws SQLException {
+        db.lock();
+        try {
+            check(db.bind_long(nextColumn(), column, value));
+            rowBytes += Long.BYTES;
+        } finally {
+            db.unlock();
+        }
+        return this;
+    }
+
+    @Override
+    public SQLiteBulkLoader appendDouble(double value) throws SQLException {
+        db.lock();
+        try {
+            check(db.bind_double(nextColumn(), column, value));
+            rowBytes += Double.BYTES;
+        } finally {
+            db.unlock();
+        }
+        return this;
+    }
+
+    @Override
+    public SQLiteBulkLoader appendText(CharSequence value) throws SQLException {
+        if (value == null) {
+            return appendNull();
+        }
+        db.lock();
+        try {
+            MemorySegment stmt = nextColumn();
+            MemorySegment text = encode(value);
+            int length = (int) text.byteSize();
+            check(db.bind_text(stmt, column, text, length));
+            rowBytes += length;
+        } finally {
+            db.unlock();
+        }
+        return this;
+    }
+
+    @Override
+    public SQLiteBulkLoader appendBlob(ByteBuffer value) throws SQLException {
+        if (value == null) {
+            return appendNull();
+        }
+        db.lock();
+        try {
+            MemorySegment stmt = nextColumn();
+            int length = value.remaining();
+            MemorySegment blob;
+            if (value.isDirect()) {
+                blob = MemorySegment.ofBuffer(value);
+                boundBuffers.add(value);
+            } else {
+                blob = reserve(length);
+                MemorySegment.copy(MemorySegment.ofBuffer(value), 0, blob, 0, length);
+            }
+            check(db.bind_blob(stmt, column, blob, length));
+            rowBytes += length;
+        } finally {
+            db.unlock();
+        }
+        return this;
+    }
+
+    @Override
+    public SQLiteBulkLoader appendBlob(byte[] value) throws SQLException {
+        if (value == null) {
+            return appendNull();
+        }
+        db.lock();
+        try {
+            MemorySegment stmt = nextColumn();
+            MemorySegment blob = reserve(value.length);
+            MemorySegment.copy(value, 0, blob, ValueLayout.JAVA_BYTE, 0, value.length);
+            check(db.bind_blob(stmt, column, blob, value.length));
+            rowBytes += value.length;
+        } finally {
+            db.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * Moves to the next column of the current row, starting the load on the first value.
+     *
+     * @return The statement to bind the value to, at the index now in {@link #column}.
+     */
+    private MemorySegment nextColumn() throws SQLException {
+        if (insert.isClosed()) {
+            throw new SQLException("bulk loader is closed");
+        }
+        if (!started) {
+            start();
+        }
+        if (column == columns) {
+            throw new SQLException("row already has values for all " + columns + " columns");
+        }
+        column++;
+        return stmt;
+    }
+
+    private void check(int rc) throws SQLException {
+        if (rc != SQLITE_OK) {
+            db.throwex(rc);
+        }
+    }
+
+    /**
+     * Encodes text as UTF-8 at the end of the row buffer. Unpaired surrogates are encoded as
+     * {@code ?}, as {@link String#getBytes} does.
+     *
+     * @return The encoded text.
+     */
+    private MemorySegment encode(CharSequence value) {
+        int n = value.length();
+        MemorySegment out = reserve(n * 3L);
+        long pos = 0;
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out.set(ValueLayout.JAVA_BYTE, pos++, (byte) c);
+            } else if (c < 0x800) {
+                out.set(ValueLayout.JAVA_BYTE, pos++, (byte) (0xC0 | c >> 6));
+                out.set(ValueLayout.JAVA_BYTE, pos++, (byte) (0x80 | c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                int cp;
+                if (Character.isHighSurrogate(c)
+                        && i + 1 < n
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    cp = Character.toCodePoint(c, value.charAt(++i));
+                } else {
+                    out.set(ValueLayout.JAVA_BYTE, pos++, (byte) '?');
+                    continue;
+                }
+                out.set(ValueLayout.JAVA_BYTE, pos++, (byte) (0xF0 | cp >> 18));
+                out.set(ValueLayout.JAVA_BYTE, pos++, (byte) (0x80 | cp >> 12 & 0x3F));
+                out.set(ValueLayout.JAVA_BYTE, pos++, (byte) (0x80 | cp >> 6 & 0x3F));
+                out.set(ValueLayout.JAVA_BYTE, pos++, (byte) (0x80 | cp & 0x3F));
+            } else {
+                out.set(ValueLayout.JAVA_BYTE, pos++, (byte) (0xE0 | c >> 12));
+                out.set(ValueLayout.JAVA_BYTE, pos++, (byte) (0x80 | c >> 6 & 0x3F));
+                out.set(ValueLayout.JAVA_BYTE, pos++, (byte) (0x80 | c & 0x3F));
+            }
+        }
+        // give back what the worst case reserved
+        rowBufferUsed -= n * 3L - pos;
+        return out.asSlice(0, pos);
+    }
+
+    /**
+     * Reserves space at the end of the row buffer, growing it if needed. Values bound from an
+     * outgrown buffer stay valid, since that buffer is kept until the row ends.
+     */
+    private MemorySegment reserve(long size) {
+        if (rowBuffer == null || rowBufferUsed + size > rowBuffer.byteSize()) {
+            long capacity = rowBuffer == null ? INITIAL_ROW_BUFFER_SIZE : rowBuffer.byteSize() * 2;
+            while (capacity < size) {
+                capacity *= 2;
+            }
+            if (rowBuffer != null && rowBufferUsed > 0) {
+                outgrown.add(rowBuffer);
+            }
+            // freed once the loader is no longer reachable
+            rowBuffer = Arena.ofAuto().allocate(capacity);
+            rowBufferUsed = 0;
+        }
+        MemorySegment reserved = rowBuffer.asSlice(rowBufferUsed, size);
+        rowBufferUsed += size;
+        return reserved;
+    }
+
+    @Override
+    public void endRow() throws SQLException {
+        db.lock();
+        try {
+            if (insert.isClosed()) {
+                throw new SQLException("bulk loader is closed");
+            }
+            if (column != columns) {
+                int values = column;
+                endRowValues();
+                throw new SQLException("row has " + values + " values for " + columns + " columns");
+            }
+            if (!transaction && db.get_autocommit()) {
+                db.beginBatchTransaction();
+                transaction = true;
+            }
+            int rc = db.step(stmt);
+            db.reset(stmt);
+            endRowValues();
+            if (rc != SQLITE_DONE) {
+                // some errors roll back the whole transaction, not only the row
+                transaction = transaction && !db.get_autocommit();
+                db.throwex(rc);
+            }
+            rows++;
+            transactionRows++;
+            bytes += rowBytes;
+            transactionBytes += rowBytes;
+            if (transaction
+                    && (commitRows > 0 && transactionRows >= commitRows
+                            || commitBytes > 0 && transactionBytes >= commitBytes)) {
+                commit();
+            }
+        } finally {
+            rowBytes = 0;
+            db.unlock();
+        }
+    }
+
+    private void endRowValues() {
+        column = 0;
+        rowBufferUsed = 0;
+        outgrown.clear();
+        boundBuffers.clear();
+    }
+
+    private void commit() throws SQLException {
+        transaction = false;
+        db.endBatchTransaction();
+        committedRows = rows;
+        transactionRows = 0;
+        transactionBytes = 0;
+        if (listener != null) {
+            listener.accept(getProgress());
+        }
+    }
+
+    @Override
+    public long loadCsv(Path file, CsvFormat format) throws SQLException, IOException {
+        db.lock();
+        try (CsvReader reader = new CsvReader(file, format)) {
+            if (insert.isClosed()) {
+                throw new SQLException("bulk loader is closed");
+            }
+            if (column != 0) {
+                throw new SQLException("a row has been started but not ended");
+            }
+            int[] params = null;
+            if (format.isHeader()) {
+                String[] header = reader.nextStrings();
+                params = new int[header == null ? 0 : header.length];
+                for (int f = 0; f < params.length; f++) {
+                    params[f] = indexOfColumn(header[f].trim()) + 1;
+                }
+            }
+            byte[] binds = new byte[columns];
+            for (String[] info : tableInfo(db, table)) {
+                int c = indexOfColumn(info[0]);
+                if (c >= 0) {
+                    binds[c] = bindFor(info[1]);
+                }
+            }
+            CsvBinder binder = new CsvBinder(reader, params, binds, format.isEmptyAsNull());
+            if (!started) {
+                start();
+            }
+
+            long loaded = 0;
+            try {
+                while (true) {
+                    // columns without a field in the record stay NULL
+                    db.clear_bindings(stmt);
+                    if (!reader.next(binder)) {
+                        return loaded;
+                    }
+                    column = columns;
+                    try {
+                        endRow();
+                    } catch (SQLException e) {
+                        throw new SQLException(
+                                "CSV record " + reader.record() + ": " + e.getMessage(),
+                                e.getSQLState(),
+                                e.getErrorCode(),
+                                e);
+                    }
+                    loaded++;
+                }
+            } finally {
+                // the bound text points into the mapping, which is about to be unmapped
+                db.clear_bindings(stmt);
+                endRowValues();
+                rowBytes = 0;
+            }
+        } finally {
+            db.unlock();
+        }
+    }
+
+    private int indexOfColumn(String name) {
+        for (int c = 0; c < columns; c++) {
+            if (columnNames[c].equalsIgnoreCase(name)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The columns of a table that a CSV file has fields for: the columns named by its
+     *     header, or every column of the table if it has none.
+     */
+    static String[] csvColumns(DB db, Path file, String table, CsvFormat format)
+            throws SQLException, IOException {
+        List<String> columns = new ArrayList<>();
+        for (String[] info : tableInfo(db, table)) {
+            columns.add(info[0]);
+        }
+        if (columns.isEmpty()) {
+            throw new SQLException("no such table: " + table);
+        }
+        if (!format.isHeader()) {
+            return columns.toArray(new String[0]);
+        }
+        String[] header;
+        try (CsvReader reader = new CsvReader(file, format)) {
+            header = reader.nextStrings();
+        }
+        List<String> named = new ArrayList<>();
+        for (String name : header == null ? new String[0] : header) {
+            for (String column : columns) {
+                if (column.equalsIgnoreCase(name.trim()) && !named.contains(column)) {
+                    named.add(column);
+                }
+            }
+        }
+        if (named.isEmpty()) {
+            throw new SQLException("CSV header names no column of " + table);
+        }
+        return named.toArray(new String[0]);
+    }
+
+    /**
+     * @return The name and declared type of each column of a table, in order.
+     */
+    static List<String[]> tableInfo(DB db, String table) throws SQLException {
+        List<String[]> info = new ArrayList<>();
+        SafeStmtPtr query = db.prepare("pragma table_info(" + quote(table) + ");", false);
+        try {
+            query.safeRunConsume(
+                    (db2, ptr) -> {
+                        int rc;
+                        while ((rc = db2.step(ptr)) == SQLITE_ROW) {
+                            String name = db2.column_text(ptr, 1);
+                            info.add(new String[] {name, db2.column_text(ptr, 2)});
+                        }
+                        if (rc != SQLITE_DONE) {
+                            db2.throwex(rc);
+                        }
+                    });
+        } finally {
+            query.close();
+        }
+        return info;
+    }
+
+    /**
+     * @param declType The declared type of a column.
+     * @return How to bind a CSV field to the column, following the rules for <a
+     *     href="https://www.sqlite.org/datatype3.html#determination_of_column_affinity">column
+     *     affinity</a>.
+     */
+    private static byte bindFor(String declType) {
+        String type = declType == null ? "" : declType.toUpperCase(Locale.ROOT);
+        if (type.contains("INT")) {
+            return BIND_INTEGER;
+        } else if (type.contains("CHAR")
+                || type.contains("CLOB")
+                || type.contains("TEXT")
+                || type.contains("BLOB")
+                || type.isEmpty()) {
+            return BIND_TEXT;
+        } else if (type.contains("REAL") || type.contains("FLOA") || type.contains("DOUB")) {
+            return BIND_REAL;
+        }
+        // NUMERIC affinity keeps integers as integers
+        return BIND_INTEGER;
+    }
+
+    /** Binds the fields of a CSV record to the columns they map to. */
+    private final class CsvBinder implements CsvReader.FieldVisitor {
+        private final CsvReader reader;
+        private final int[] params;
+        private final byte[] binds;
+        private final boolean emptyAsNull;
+
+        /** The value of the last field parsed by {@link #parseLong}. */
+        private long parsed;
+
+        /**
+         * @param params The parameter of each field, from 1, or 0 to skip the field. Null to bind
+         *     fields to parameters by position.
+         */
+        CsvBinder(CsvReader reader, int[] params, byte[] binds, boolean emptyAsNull) {
+            this.reader = reader;
+            this.params = params;
+            this.binds = binds;
+            this.emptyAsNull = emptyAsNull;
+        }
+
+        @Override
+        public void field(
+                int index,
+                MemorySegment data,
+                long start,
+                long end,
+                boolean quoted,
+                boolean escaped)
+                throws SQLException {
+            int param;
+            if (params == null) {
+                param = index < columns ? index + 1 : 0;
+            } else {
+                param = index < params.length ? params[index] : 0;
+            }
+            if (param == 0 || emptyAsNull && start == end && !quoted) {
+                return;
+            }
+            byte bind = binds[param - 1];
+            if (bind != BIND_TEXT && !quoted && parseLong(data, start, end)) {
+                check(
+                        bind == BIND_REAL
+                                ? db.bind_double(stmt, param, parsed)
+                                : db.bind_long(stmt, param, parsed));
+                rowBytes += Long.BYTES;
+                return;
+            }
+            MemorySegment text;
+            if (escaped) {
+                MemorySegment out = reserve(end - start);
+                text = out.asSlice(0, reader.unescape(start, end, out));
+            } else {
+                text = data.asSlice(start, end - start);
+            }
+            check(db.bind_text(stmt, param, text, (int) text.byteSize()));
+            rowBytes += text.byteSize();
+        }
+
+        /** Parses a sign and at most 18 decimal digits into {@link #parsed}. */
+        private boolean parseLong(MemorySegment data, long start, long end) {
+            long i = start;
+            boolean negative = false;
+            if (i < end) {
+                byte sign = data.get(ValueLayout.JAVA_BYTE, i);
+                if (sign == '-' || sign == '+') {
+                    negative = sign == '-';
+                    i++;
+                }
+            }
+            if (i == end || end - i > 18) {
+                return false;
+            }
+            long v = 0;
+            for (; i < end; i++) {
+                int digit = data.get(ValueLayout.JAVA_BYTE, i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return false;
+                }
+                v = v * 10 + digit;
+            }
+            parsed = negative ? -v : v;
+            return true;
+        }
+    }
+
+    /** Switches the pragmas for the load, remembering their values to restore. */
+    private void start() throws SQLException {
+        started = true;
+        startNanos = System.nanoTime();
+        if (synchronous != null) {
+            savedSynchronous = pragma("synchronous");
+            db._exec("pragma synchronous = " + synchronous.getValue() + ";");
+        }
+        if (journalMode != null) {
+            savedJournalMode = pragma("journal_mode");
+            db._exec("pragma journal_mode = " + journalMode.getValue() + ";");
+        }
+    }
+
+    private String pragma(String name) throws SQLException {
+        SafeStmtPtr query = db.prepare("pragma " + name + ";", false);
+        try {
+            return query.safeRun(
+                    (db, ptr) -> {
+                        int rc = db.step(ptr);
+                        if (rc != SQLITE_ROW) {
+                            db.throwex(rc);
+                        }
+                        return db.column_text(ptr, 0);
+                    });
+        } finally {
+            query.close();
+        }
+    }
+
+    @Override
+    public BulkLoadProgress getProgress() {
+        long elapsed = started ? System.nanoTime() - startNanos : 0;
+        return new BulkLoadProgress(rows, committedRows, bytes, elapsed);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (insert.isClosed()) {
+            return;
+        }
+        db.lock();
+        try {
+            if (transaction) {
+                commit();
+            } else if (listener != null && started) {
+                listener.accept(getProgress());
+            }
+        } finally {
+            try {
+                restorePragmas();
+            } finally {
+                try {
+                    insert.close();
+                } finally {
+                    db.unlock();
+                }
+            }
+        }
+    }
+
+    private void restorePragmas() throws SQLException {
+        if (savedJournalMode != null) {
+            db._exec("pragma journal_mode = " + savedJournalMode + ";");
+        }
+        if (savedSynchronous != null) {
+            db._exec("pragma synchronous = " + savedSynchronous + ";");
+        }
+    }
+}
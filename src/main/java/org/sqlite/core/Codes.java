@@ -101,4 +101,23 @@ public interface Codes {
     int SQLITE_TEXT = 3;
     int SQLITE_BLOB = 4;
     int SQLITE_NULL = 5;
+
+    // counters read by sqlite3_db_status()
+
+    /** Lookaside memory slots currently checked out */
+    int SQLITE_DBSTATUS_LOOKASIDE_USED = 0;
+
+    /** Allocations satisfied from lookaside memory */
+    int SQLITE_DBSTATUS_LOOKASIDE_HIT = 4;
+
+    /** Allocations that missed lookaside memory because they were too large */
+    int SQLITE_DBSTATUS_LOOKASIDE_MISS_SIZE = 5;
+
+    /** Allocations that missed lookaside memory because all slots were in use */
+    int SQLITE_DBSTATUS_LOOKASIDE_MISS_FULL = 6;
+
+    // counters read by sqlite3_stmt_status()
+
+    /** Times the statement was prepared again after a schema change */
+    int SQLITE_STMTSTATUS_REPREPARE = 5;
 }
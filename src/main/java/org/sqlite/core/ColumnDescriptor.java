@@ -0,0 +1,276 @@
+package org.sqlite.core;
+
+import static org.sqlite.core.Codes.SQLITE_BLOB;
+import static org.sqlite.core.Codes.SQLITE_FLOAT;
+import static org.sqlite.core.Codes.SQLITE_INTEGER;
+import static org.sqlite.core.Codes.SQLITE_NULL;
+import static org.sqlite.core.Codes.SQLITE_TEXT;
+
+import java.lang.foreign.MemorySegment;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * What {@link java.sql.ResultSetMetaData} reports about one result column of a statement, read
+ * from SQLite and parsed once when the statement is first described rather than on every call.
+ * Only the JDBC type of a column without a declared type still depends on the value of the cell,
+ * so it is kept for each storage class.
+ */
+public final class ColumnDescriptor {
+    /** Pattern used to extract the column type name from table column definition. */
+    private static final Pattern COLUMN_TYPENAME = Pattern.compile("([^\\(]*)");
+
+    /** Pattern used to extract the column type name from a cast(col as type) */
+    private static final Pattern COLUMN_TYPECAST =
+            Pattern.compile("cast\\(.*?\\s+as\\s+(.*?)\\s*\\)");
+
+    /**
+     * Pattern used to extract the precision and scale from column meta returned by the JDBC driver.
+     */
+    private static final Pattern COLUMN_PRECISION = Pattern.compile(".*?\\((.*?)\\)");
+
+    /**
+     * Returned by {@link #jdbcType(int)} for an integer cell of a column typed INTEGER, which is
+     * {@link Types#BIGINT} if its value does not fit an int and {@link Types#INTEGER} otherwise.
+     */
+    public static final int INTEGER_BY_VALUE = Integer.MIN_VALUE;
+
+    private final String declType;
+    private final String typeName;
+    private final int precision;
+    private final int scale;
+    private final String tableName;
+    private final boolean notNull;
+    private final boolean autoIncrement;
+
+    /** The JDBC type by storage class, from {@link Codes#SQLITE_INTEGER} to SQLITE_NULL. */
+    private final int[] jdbcTypes = new int[SQLITE_NULL + 1];
+
+    private ColumnDescriptor(
+            String name,
+            String declType,
+            String tableName,
+            boolean notNull,
+            boolean autoIncrement) {
+        if (declType == null && name != null) {
+            Matcher matcher = COLUMN_TYPECAST.matcher(name);
+            declType = matcher.find() ? matcher.group(1) : null;
+        }
+        this.declType = declType;
+        this.tableName = tableName;
+        this.notNull = notNull;
+        this.autoIncrement = autoIncrement;
+
+        String typeName = null;
+        int precision = 0;
+        int scale = 0;
+        if (declType != null) {
+            Matcher matcher = COLUMN_TYPENAME.matcher(declType);
+            matcher.find();
+            typeName = matcher.group(1).toUpperCase(Locale.ENGLISH);
+
+            matcher = COLUMN_PRECISION.matcher(declType);
+            if (matcher.find()) {
+                String[] array = matcher.group(1).split(",");
+                precision = parseInt(array[0]);
+                if (array.length == 2) {
+                    scale = parseInt(array[1]);
+                }
+            }
+        }
+        this.typeName = typeName;
+        this.precision = precision;
+        this.scale = scale;
+
+        for (int valueType = SQLITE_INTEGER; valueType <= SQLITE_NULL; valueType++) {
+            jdbcTypes[valueType] = typeOf(typeName(valueType), valueType);
+        }
+    }
+
+    /**
+     * Describes the result columns of a statement. Must be called while holding the lock of the
+     * connection.
+     *
+     * @param db The connection of the statement.
+     * @param stmt Pointer to the statement.
+     * @return A descriptor for each column, in order.
+     * @throws SQLException
+     */
+    static ColumnDescriptor[] describe(DB db, MemorySegment stmt) throws SQLException {
+        String[] names = db.column_names(stmt);
+        boolean[][] meta = db.column_metadata(stmt);
+        ColumnDescriptor[] columns = new ColumnDescriptor[names.length];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] =
+                    new ColumnDescriptor(
+                            names[c],
+                            db.column_decltype(stmt, c),
+                            db.column_table_name(stmt, c),
+                            meta[c][0],
+                            meta[c][2]);
+        }
+        return columns;
+    }
+
+    /** Describes a column computed by an expression, with neither a declared type nor a table. */
+    static ColumnDescriptor expression(String name) {
+        return new ColumnDescriptor(name, null, null, false, false);
+    }
+
+    /** The declared type of the column, or the type of a {@code cast}, or null. */
+    public String declType() {
+        return declType;
+    }
+
+    /**
+     * The name of the declared type of the column, upper-cased and without its precision, or the
+     * name of the storage class of a cell of a column without one.
+     *
+     * @param valueType The storage class of the cell.
+     */
+    public String typeName(int valueType) {
+        if (typeName != null) {
+            return typeName;
+        }
+        return switch (valueType) {
+            case SQLITE_INTEGER -> "INTEGER";
+            case SQLITE_FLOAT -> "FLOAT";
+            case SQLITE_BLOB -> "BLOB";
+            case SQLITE_TEXT -> "TEXT";
+            default -> "NUMERIC";
+        };
+    }
+
+    /**
+     * The JDBC type of a cell of the column.
+     *
+     * @param valueType The storage class of the cell.
+     * @return A constant of {@link Types}, or {@link #INTEGER_BY_VALUE}.
+     */
+    public int jdbcType(int valueType) {
+        return valueType >= SQLITE_INTEGER && valueType <= SQLITE_NULL
+                ? jdbcTypes[valueType]
+                : Types.NUMERIC;
+    }
+
+    /** The first number in parentheses of the declared type, or 0. */
+    public int precision() {
+        return precision;
+    }
+
+    /** The second number in parentheses of the declared type, or 0. */
+    public int scale() {
+        return scale;
+    }
+
+    /** The table of the column, or null if it is an expression. */
+    public String tableName() {
+        return tableName;
+    }
+
+    /** Whether the column is declared NOT NULL. */
+    public boolean notNull() {
+        return notNull;
+    }
+
+    /** Whether the column is an AUTOINCREMENT primary key. */
+    public boolean autoIncrement() {
+        return autoIncrement;
+    }
+
+    private static int parseInt(String s) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /** The JDBC type of a cell, by the type name of its column and its storage class. */
+    private static int typeOf(String typeName, int valueType) {
+        if (valueType == SQLITE_INTEGER || valueType == SQLITE_NULL) {
+            switch (typeName) {
+                case "BOOLEAN":
+                    return Types.BOOLEAN;
+                case "TINYINT":
+                    return Types.TINYINT;
+                case "SMALLINT":
+                case "INT2":
+                    return Types.SMALLINT;
+                case "BIGINT":
+                case "INT8":
+                case "UNSIGNED BIG INT":
+                    return Types.BIGINT;
+                case "DATE":
+                case "DATETIME":
+                    return Types.DATE;
+                case "TIMESTAMP":
+                    return Types.TIMESTAMP;
+            }
+            if (valueType == SQLITE_INTEGER) {
+                return INTEGER_BY_VALUE;
+            }
+            if ("INT".equals(typeName)
+                    || "INTEGER".equals(typeName)
+                    || "MEDIUMINT".equals(typeName)) {
+                // NULL reads as 0
+                return Types.INTEGER;
+            }
+        }
+
+        if (valueType == SQLITE_FLOAT || valueType == SQLITE_NULL) {
+            switch (typeName) {
+                case "DECIMAL":
+                    return Types.DECIMAL;
+                case "DOUBLE":
+                case "DOUBLE PRECISION":
+                    return Types.DOUBLE;
+                case "NUMERIC":
+                    return Types.NUMERIC;
+                case "REAL":
+                    return Types.REAL;
+            }
+            if (valueType == SQLITE_FLOAT || "FLOAT".equals(typeName)) {
+                return Types.FLOAT;
+            }
+        }
+
+        if (valueType == SQLITE_TEXT || valueType == SQLITE_NULL) {
+            switch (typeName) {
+                case "CHARACTER":
+                case "NCHAR":
+                case "NATIVE CHARACTER":
+                case "CHAR":
+                    return Types.CHAR;
+                case "CLOB":
+                    return Types.CLOB;
+                case "DATE":
+                case "DATETIME":
+                    return Types.DATE;
+                case "TIMESTAMP":
+                    return Types.TIMESTAMP;
+            }
+            if (valueType == SQLITE_TEXT
+                    || "VARCHAR".equals(typeName)
+                    || "VARYING CHARACTER".equals(typeName)
+                    || "NVARCHAR".equals(typeName)
+                    || "TEXT".equals(typeName)) {
+                return Types.VARCHAR;
+            }
+        }
+
+        if (valueType == SQLITE_BLOB || valueType == SQLITE_NULL) {
+            if ("BINARY".equals(typeName)) {
+                return Types.BINARY;
+            }
+            if (valueType == SQLITE_BLOB || "BLOB".equals(typeName)) {
+                return Types.BLOB;
+            }
+        }
+
+        return Types.NUMERIC;
+    }
+}
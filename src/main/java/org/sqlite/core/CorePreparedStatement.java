@@ -16,6 +16,7 @@
 
 package org.sqlite.core;
 
+import java.lang.foreign.MemorySegment;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
@@ -23,14 +24,48 @@ import java.util.Arrays;
 import java.util.Calendar;
 import org.sqlite.SQLiteConnection;
 import org.sqlite.SQLiteConnectionConfig;
+import org.sqlite.SQLiteLimits;
 import org.sqlite.jdbc3.JDBC3Connection;
 import org.sqlite.jdbc4.JDBC4Statement;
 
 public abstract class CorePreparedStatement extends JDBC4Statement {
+    /** The most rows a rewritten batch insert binds per step. */
+    private static final int MAX_ROWS_PER_STEP = 256;
+
     protected int columnCount;
     protected int paramCount;
     protected int batchQueryCount;
 
+    /** The column names read when the statement was prepared, kept for the statement cache. */
+    String[] columnNames;
+
+    /**
+     * The {@link Codes#SQLITE_STMTSTATUS_REPREPARE} counter of the statement when {@link
+     * #columnNames} and {@link #columnCount} were read.
+     */
+    int reprepared;
+
+    /**
+     * The current parameter values and the rows added to the batch, or null if no parameter has
+     * been set.
+     */
+    private BatchBuffer parameters;
+
+    /** The statement split around its row of values, once parsed, or null if it cannot be. */
+    private MultiRowInsert multiRowInsert;
+
+    private boolean multiRowParsed;
+
+    /**
+     * The multi-row variant of the statement last used by a batch, its number of rows, and whether
+     * it returns the rowids.
+     */
+    private SafeStmtPtr multiRow;
+
+    private int multiRowSize;
+
+    private boolean multiRowKeys;
+
     /**
      * Constructs a prepared statement on a provided connection.
      *
@@ -39,19 +74,94 @@ public abstract class CorePreparedStatement extends JDBC4Statement {
      * @throws SQLException
      */
     protected CorePreparedStatement(SQLiteConnection conn, String sql) throws SQLException {
+        this(conn, sql, false);
+    }
+
+    /**
+     * Constructs a prepared statement on a provided connection.
+     *
+     * @param conn Connection on which to create the prepared statement.
+     * @param sql The SQL script to prepare.
+     * @param persistent Whether the statement will be kept and reused for a long time, in which
+     *     case SQLite does not allocate it from lookaside memory.
+     * @throws SQLException
+     */
+    protected CorePreparedStatement(SQLiteConnection conn, String sql, boolean persistent)
+            throws SQLException {
         super(conn);
 
         this.sql = sql;
         DB db = conn.getDatabase();
-        db.prepare(this);
-        rs.colsMeta = pointer.safeRun(DB::column_names);
-        columnCount = pointer.safeRunInt(DB::column_count);
-        paramCount = pointer.safeRunInt(DB::bind_parameter_count);
+        StatementCache.Entry cached = db.prepareCached(this, persistent);
+        if (cached != null) {
+            columnNames = cached.columnNames();
+            columnCount = cached.columnCount();
+            paramCount = cached.paramCount();
+            reprepared = cached.reprepared();
+        } else {
+            columnNames = pointer.safeRun(DB::column_names);
+            columnCount = pointer.safeRunInt(DB::column_count);
+            paramCount = pointer.safeRunInt(DB::bind_parameter_count);
+        }
+        rs.colsMeta = columnNames;
         batchQueryCount = 0;
         batch = null;
         batchPos = 0;
     }
 
+    /**
+     * @return Whether the statement returns rows without writing to the database, unlike an
+     *     INSERT, UPDATE or DELETE with a RETURNING clause.
+     * @throws SQLException
+     */
+    protected boolean isQuery() throws SQLException {
+        return columnCount != 0 && pointer.safeRun((db, ptr) -> db.stmt_readonly(ptr));
+    }
+
+    /**
+     * @return Whether the statement is an INSERT, UPDATE or DELETE with a RETURNING clause.
+     * @throws SQLException
+     */
+    protected boolean isReturning() throws SQLException {
+        return columnCount != 0 && !pointer.safeRun((db, ptr) -> db.stmt_readonly(ptr));
+    }
+
+    /**
+     * Reads the column names and count again if SQLite prepared the statement again since they
+     * were read, as it does when it is stepped after a schema change.
+     *
+     * @throws SQLException if the statement is closed
+     */
+    void refreshColumns() throws SQLException {
+        pointer.safeRunConsume(
+                (db, ptr) -> {
+                    int count = db.stmt_status(ptr, SQLITE_STMTSTATUS_REPREPARE, false);
+                    if (count != reprepared) {
+                        columnNames = db.column_names(ptr);
+                        columnCount = db.column_count(ptr);
+                        reprepared = count;
+                    }
+                });
+    }
+
+    /** Returns the statement to the connection's statement cache instead, if it has one. */
+    @Override
+    protected int closePointer() throws SQLException {
+        if (multiRow != null) {
+            multiRow.close();
+            multiRow = null;
+        }
+        try {
+            return conn.getDatabase().release(this) ? SQLITE_OK : super.closePointer();
+        } finally {
+            if (parameters != null) {
+                // frees the streams read into parameters once nothing binds them
+                parameters.clear();
+                parameters = null;
+            }
+        }
+    }
+
     /**
      * @see org.sqlite.jdbc3.JDBC3Statement#executeBatch()
      */
@@ -76,15 +186,98 @@ public abstract class CorePreparedStatement extends JDBC4Statement {
         return this.withConnectionTimeout(
                 () -> {
                     try {
-                        return conn.getDatabase()
-                                .executeBatch(
-                                        pointer, batchQueryCount, batch, conn.getAutoCommit());
+                        // the rows of a RETURNING clause are kept even without generated keys
+                        boolean keys = conn.getConnectionConfig().isGetGeneratedKeys();
+                        RowBuffer generated =
+                                isReturning() || keys && isInsert()
+                                        ? generatedKeysBuffer()
+                                        : null;
+                        int rowsPerStep = rowsPerStep();
+                        SafeStmtPtr multi =
+                                rowsPerStep > 1 ? multiRow(rowsPerStep, generated != null) : null;
+                        long[] changes =
+                                multi != null
+                                        ? conn.getDatabase()
+                                                .executeBatch(
+                                                        pointer,
+                                                        multi,
+                                                        rowsPerStep,
+                                                        parameters,
+                                                        conn.getAutoCommit(),
+                                                        generated)
+                                        : conn.getDatabase()
+                                                .executeBatch(
+                                                        pointer,
+                                                        parameters,
+                                                        conn.getAutoCommit(),
+                                                        generated);
+                        if (keys || generated != null) {
+                            setGeneratedKeys(generated);
+                        }
+                        return changes;
                     } finally {
                         clearBatch();
                     }
                 });
     }
 
+    /**
+     * @return The number of rows to insert per step when the batch is rewritten into a multi-row
+     *     INSERT, or 0 to execute the batch one row per step. Steps are sized evenly within
+     *     {@link SQLiteLimits#SQLITE_LIMIT_VARIABLE_NUMBER}, so that few rows are left over.
+     * @throws SQLException
+     */
+    private int rowsPerStep() throws SQLException {
+        if (!conn.getConnectionConfig().isRewriteBatchedInserts() || batchQueryCount < 2) {
+            return 0;
+        }
+        if (!multiRowParsed) {
+            multiRowInsert = MultiRowInsert.parse(sql, paramCount);
+            multiRowParsed = true;
+        }
+        if (multiRowInsert == null) {
+            return 0;
+        }
+        int max =
+                Math.min(
+                        MAX_ROWS_PER_STEP,
+                        conn.getLimit(SQLiteLimits.SQLITE_LIMIT_VARIABLE_NUMBER) / paramCount);
+        if (max < 2) {
+            return 0;
+        }
+        int steps = (batchQueryCount + max - 1) / max;
+        return batchQueryCount / steps;
+    }
+
+    /**
+     * @param keys Whether the variant returns the rowid of each inserted row.
+     * @return The multi-row variant of the statement, prepared the first time a batch needs this
+     *     number of rows per step, or null if the variant cannot return the rowids because the
+     *     table has none.
+     * @throws SQLException
+     */
+    private SafeStmtPtr multiRow(int rows, boolean keys) throws SQLException {
+        if (multiRow == null || multiRowSize != rows || multiRowKeys != keys) {
+            if (multiRow != null) {
+                multiRow.close();
+                multiRow = null;
+            }
+            try {
+                multiRow = conn.getDatabase().prepare(multiRowInsert.sql(rows, keys), true);
+            } catch (SQLException e) {
+                if (!keys) {
+                    throw e;
+                }
+                // a WITHOUT ROWID table or a view, whose batches are not rewritten
+                multiRowInsert = null;
+                return null;
+            }
+            multiRowSize = rows;
+            multiRowKeys = keys;
+        }
+        return multiRow;
+    }
+
     /**
      * @see org.sqlite.jdbc3.JDBC3Statement#clearBatch() ()
      */
@@ -92,23 +285,134 @@ public abstract class CorePreparedStatement extends JDBC4Statement {
     public void clearBatch() throws SQLException {
         super.clearBatch();
         batchQueryCount = 0;
+        if (parameters != null) {
+            parameters.clear();
+        }
+    }
+
+    /**
+     * Adds the current parameter values to the batch. The setters write the values straight into
+     * typed column buffers, and the current values stay set for the next row.
+     *
+     * @throws SQLException
+     */
+    protected void addBatchRow() throws SQLException {
+        currentRow().addRow();
+        batchQueryCount++;
     }
 
     // PARAMETER FUNCTIONS //////////////////////////////////////////
 
+    @Override
+    BatchBuffer parameters() {
+        return parameters;
+    }
+
+    private BatchBuffer currentRow() throws SQLException {
+        checkOpen();
+        if (parameters == null) {
+            parameters = new BatchBuffer(paramCount);
+        }
+        return parameters;
+    }
+
+    @Override
+    protected void checkIndex(int index) throws SQLException {
+        if (parameters == null) {
+            throw new SQLException("No parameter has been set yet");
+        }
+        if (index < 1 || index > paramCount) {
+            throw new SQLException("Parameter index is invalid");
+        }
+    }
+
+    /**
+     * @return The JDBC type of the parameter at the specific position, from how it was set.
+     * @throws SQLException
+     */
+    protected int parameterType(int pos) throws SQLException {
+        checkIndex(pos);
+        return parameters.parameterType(pos - 1);
+    }
+
+    /** Sets every parameter of the current row to NULL, keeping the rows added to the batch. */
+    protected void clearRow() {
+        if (parameters != null) {
+            parameters.clearRow();
+        }
+    }
+
     /**
-     * Assigns the object value to the element at the specific position of array batch.
+     * Allocates native memory to read a stream parameter into, which is freed when the parameters
+     * are cleared or the statement is closed.
+     *
+     * @param size The size of the stream in bytes.
+     */
+    protected MemorySegment allocateStream(long size) throws SQLException {
+        return currentRow().allocateStream(size);
+    }
+
+    /**
+     * @return The values of the current row, or "null" if no parameter has been set.
+     */
+    protected String parametersToString() {
+        return String.valueOf(parameters);
+    }
+
+    /**
+     * Assigns the object value to the parameter at the specific position of the current row.
      *
      * @param pos
-     * @param value
+     * @param value A number, String, byte[], MemorySegment or null.
      * @throws SQLException
      */
     protected void batch(int pos, Object value) throws SQLException {
-        checkOpen();
-        if (batch == null) {
-            batch = new Object[paramCount];
+        switch (value) {
+            case null -> batchNull(pos);
+            case Integer i -> batchInt(pos, i);
+            case Short i -> batchInt(pos, i);
+            case Long l -> batchLong(pos, l);
+            case Float f -> batchDouble(pos, f);
+            case Double d -> batchDouble(pos, d);
+            case String s -> currentRow().setObject(pos - 1, s);
+            case byte[] bytes -> currentRow().setObject(pos - 1, bytes);
+            case MemorySegment bytes -> currentRow().setObject(pos - 1, bytes);
+            default -> throw new SQLException("unexpected param type: " + value.getClass());
+        }
+    }
+
+    /** Assigns NULL to the parameter at the specific position of the current row. */
+    protected void batchNull(int pos) throws SQLException {
+        currentRow().setNull(pos - 1);
+    }
+
+    /** Assigns an integer to the parameter at the specific position of the current row. */
+    protected void batchInt(int pos, int value) throws SQLException {
+        currentRow().setInt(pos - 1, value);
+    }
+
+    /** Assigns an integer to the parameter at the specific position of the current row. */
+    protected void batchLong(int pos, long value) throws SQLException {
+        currentRow().setLong(pos - 1, value);
+    }
+
+    /** Assigns a real to the parameter at the specific position of the current row. */
+    protected void batchDouble(int pos, double value) throws SQLException {
+        currentRow().setDouble(pos - 1, value);
+    }
+
+    /**
+     * Assigns a blob of zeros to the parameter at the specific position of the current row.
+     *
+     * @param pos
+     * @param length The length of the blob in bytes.
+     * @throws SQLException
+     */
+    protected void batchZeroBlob(int pos, int length) throws SQLException {
+        if (length < 0) {
+            throw new SQLException("zeroblob length should be non-negative");
         }
-        batch[batchPos + pos - 1] = value;
+        currentRow().setZeroBlob(pos - 1, length);
     }
 
     /** Store the date in the user's preferred format (text, int, or real) */
@@ -126,11 +430,11 @@ public abstract class CorePreparedStatement extends JDBC4Statement {
 
             case REAL:
                 // long to Julian date
-                batch(pos, value / 86400000.0 + 2440587.5);
+                batchDouble(pos, value / 86400000.0 + 2440587.5);
                 break;
 
             default: // INTEGER:
-                batch(pos, value / config.getDateMultiplier());
+                batchLong(pos, value / config.getDateMultiplier());
         }
     }
 }
@@ -15,10 +15,13 @@
  */
 package org.sqlite.core;
 
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.HashMap;
 import java.util.Map;
+import org.sqlite.ColumnSink;
 import org.sqlite.SQLiteConnectionConfig;
 
 /** Implements a JDBC ResultSet. */
@@ -40,9 +43,13 @@ public abstract class CoreResultSet implements Codes {
     /** same as cols, but used by Meta interface */
     public String[] colsMeta = null;
 
-    protected boolean[][] meta = null;
+    /** The descriptors of the columns, taken from the statement once per result set. */
+    protected ColumnDescriptor[] columns = null;
 
-    /** 0 means no limit, must check against maxRows */
+    /**
+     * The fetch size. Above 1, rows are read ahead into {@link #buffer} that many at a time. Kept
+     * across executions of the statement, as {@link #maxRows} is.
+     */
     protected int limitRows;
 
     /** number of current row, starts at 1 (0 is for before loading data) */
@@ -56,6 +63,35 @@ public abstract class CoreResultSet implements Codes {
     public boolean closeStmt;
     protected Map<String, Integer> columnNameToIndex = null;
 
+    /** The rows read ahead of time, or null if the rows are read from the statement. */
+    protected RowBuffer buffer = null;
+
+    /** The number of rows of the result set before the first row of {@link #buffer}. */
+    protected int bufferStart;
+
+    /** Whether {@link #buffer} holds rows read ahead from the statement, which is still open. */
+    protected boolean prefetching;
+
+    /** The result of the last step of {@link #prefetch(boolean)}. */
+    private int prefetchStatus;
+
+    private SQLException prefetchError;
+
+    /** The buffer of {@link #prefetch(boolean)}, reused by each execution of the statement. */
+    private RowBuffer prefetchBuffer;
+
+    /** The thread that last moved the result set, or null before the first move. */
+    private Thread mover;
+
+    /**
+     * The scope of the views of {@link #cellSegment(int)} taken by {@link #mover}, or null if none
+     * was taken. Being confined to the thread that closes it, it closes without a handshake.
+     */
+    private Arena confinedCells;
+
+    /** The scope of the views taken by other threads, or null if none was taken. */
+    private Arena sharedCells;
+
     /**
      * Default constructor for a given statement.
      *
@@ -84,6 +120,199 @@ public abstract class CoreResultSet implements Codes {
         return open;
     }
 
+    /**
+     * Opens the result set on rows that were read ahead of time, so that it does not read from or
+     * reset the statement.
+     *
+     * @param rows The rows.
+     */
+    void open(RowBuffer rows) {
+        buffer = rows;
+        colsMeta = rows.columnNames();
+        cols = colsMeta;
+        emptyResultSet = rows.size() == 0;
+        open = true;
+    }
+
+    /**
+     * @return Index of the current row in {@link #buffer}.
+     */
+    protected int bufferRow() {
+        return Math.max(row - 1 - bufferStart, 0);
+    }
+
+    /**
+     * Reads up to the fetch size of the next rows of the statement into {@link #buffer}, stepping
+     * the statement and copying the values of each row under one lock of the connection, so that
+     * {@code next()} and the getters do not call into SQLite for each row and value.
+     *
+     * @param current Whether to start with the row the statement is positioned on.
+     * @return Whether any row was read.
+     * @throws SQLException if the first step fails. The error of a later step is thrown once the
+     *     rows read before it have been consumed.
+     */
+    protected boolean prefetch(boolean current) throws SQLException {
+        if (prefetching && prefetchStatus != SQLITE_ROW) {
+            if (prefetchError != null) {
+                throw prefetchError;
+            }
+            return false;
+        }
+        int count = maxRows != 0 ? (int) Math.min(limitRows, maxRows - row) : limitRows;
+        if (prefetchBuffer == null) {
+            prefetchBuffer = new RowBuffer();
+        }
+        RowBuffer rows = prefetchBuffer;
+        stmt.pointer.safeRunConsume(
+                (db, ptr) -> {
+                    prefetchStatus = db.fetch(ptr, rows, stmt.pointer.columns(), current, count);
+                    if (prefetchStatus != SQLITE_ROW && prefetchStatus != SQLITE_DONE) {
+                        prefetchError = db.newSQLException(prefetchStatus);
+                    }
+                });
+        buffer = rows;
+        bufferStart = row;
+        prefetching = true;
+        if (rows.size() == 0 && prefetchError != null) {
+            throw prefetchError;
+        }
+        return rows.size() > 0;
+    }
+
+    /**
+     * Reads an integer column of the next rows of the statement into an array, stepping the
+     * statement and reading each value in one loop under one lock of the connection.
+     *
+     * @param col Index of the column, from 0.
+     * @param dest Receives the values from index 0.
+     * @param maxCount The most rows to read.
+     * @return The number of rows read.
+     */
+    protected int readLongColumn(int col, long[] dest, int maxCount) throws SQLException {
+        return fetchRows(
+                maxCount,
+                (db, ptr, current, count) -> db.fetchLongs(ptr, current, col, dest, count));
+    }
+
+    /**
+     * Reads a real column of the next rows of the statement into an array.
+     *
+     * @see #readLongColumn(int, long[], int)
+     */
+    protected int readDoubleColumn(int col, double[] dest, int maxCount) throws SQLException {
+        return fetchRows(
+                maxCount,
+                (db, ptr, current, count) -> db.fetchDoubles(ptr, current, col, dest, count));
+    }
+
+    /**
+     * Reads the columns of a sink of the next rows of the statement into its buffers.
+     *
+     * @see #readLongColumn(int, long[], int)
+     */
+    protected int readColumns(ColumnSink sink) throws SQLException {
+        return fetchRows(
+                sink.capacity(),
+                (db, ptr, current, count) -> db.fetchColumns(ptr, current, sink, count));
+    }
+
+    private interface RowFetch {
+        int run(DB db, MemorySegment stmt, boolean current, int count) throws SQLException;
+    }
+
+    /**
+     * Reads up to a number of the next rows of the statement, within the maximum number of rows,
+     * and moves the result set to the last of them, or after it if the statement has no more rows
+     * or a step fails.
+     */
+    private int fetchRows(int maxCount, RowFetch fetch) throws SQLException {
+        releaseCells();
+        if (!open || emptyResultSet || pastLastRow) {
+            return 0;
+        }
+        int count = maxRows != 0 ? (int) Math.min(maxCount, maxRows - row) : maxCount;
+        if (count <= 0) {
+            return 0;
+        }
+        boolean current = row == 0;
+        lastCol = -1;
+        int n;
+        try {
+            n = stmt.pointer.safeRunInt((db, ptr) -> fetch.run(db, ptr, current, count));
+        } catch (SQLException e) {
+            pastLastRow = true;
+            throw e;
+        }
+        row += n;
+        if (n < count) {
+            pastLastRow = true;
+        }
+        return n;
+    }
+
+    /**
+     * A read-only view of the bytes of a cell of the current row, as sqlite3_column_blob() returns
+     * them, without copying them. The view is closed by {@link #releaseCells()} when the result
+     * set moves or is closed, since SQLite may then free the bytes. A view taken by the thread that
+     * last moved the result set can only be closed by that thread; a view taken by any other thread
+     * can be closed by whichever thread moves the result set.
+     *
+     * @param col Index of the column, from 0.
+     * @return The view, or null if the cell is NULL.
+     */
+    protected MemorySegment cellSegment(int col) throws SQLException {
+        MemorySegment bytes =
+                buffer != null
+                        ? buffer.getSegment(bufferRow(), col)
+                        : stmt.pointer.safeRun((db, ptr) -> db.column_segment(ptr, col, true));
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.isNative()) {
+            Arena cells;
+            if (Thread.currentThread() == mover) {
+                if (confinedCells == null) {
+                    confinedCells = Arena.ofConfined();
+                }
+                cells = confinedCells;
+            } else {
+                if (sharedCells == null) {
+                    sharedCells = Arena.ofShared();
+                }
+                cells = sharedCells;
+            }
+            bytes = bytes.reinterpret(cells, null);
+        }
+        return bytes.asReadOnly();
+    }
+
+    /**
+     * Closes the views of the cells of the current row taken by {@link #cellSegment(int)}, before
+     * the calling thread moves or closes the result set.
+     *
+     * @throws SQLException if the thread that last moved the result set has views of the current
+     *     row and is not the calling thread, which then must not move the result set.
+     */
+    protected void releaseCells() throws SQLException {
+        Thread current = Thread.currentThread();
+        if (confinedCells != null) {
+            if (current != mover) {
+                throw new SQLException(
+                        "The current row has cell views that only the thread that moved the"
+                                + " result set to it can release");
+            }
+            Arena views = confinedCells;
+            confinedCells = null;
+            views.close();
+        }
+        if (sharedCells != null) {
+            Arena views = sharedCells;
+            sharedCells = null;
+            views.close();
+        }
+        mover = current;
+    }
+
     /**
      * @throws SQLException if ResultSet is not open.
      */
@@ -124,32 +353,57 @@ public abstract class CoreResultSet implements Codes {
     }
 
     /**
+     * Takes the column descriptors of the statement, or of the rows read ahead, if not yet taken.
+     *
      * @throws SQLException
      */
     public void checkMeta() throws SQLException {
         checkCol(1);
-        if (meta == null) {
-            meta = stmt.pointer.safeRun(DB::column_metadata);
+        if (columns == null) {
+            columns = buffer != null ? buffer.columnDescriptors() : stmt.pointer.columns();
         }
     }
 
+    /**
+     * Takes col in [1,x] form, returns the descriptor of the column.
+     *
+     * @param col
+     * @return
+     * @throws SQLException
+     */
+    protected ColumnDescriptor column(int col) throws SQLException {
+        checkMeta();
+        return columns[checkCol(col)];
+    }
+
     public void close() throws SQLException {
+        releaseCells();
         cols = null;
         colsMeta = null;
-        meta = null;
-        limitRows = 0;
+        columns = null;
         row = 0;
         pastLastRow = false;
         lastCol = -1;
         columnNameToIndex = null;
         emptyResultSet = false;
 
+        if (buffer != null && !prefetching) {
+            buffer = null;
+            open = false;
+            return;
+        }
+        buffer = null;
+        bufferStart = 0;
+        prefetching = false;
+        prefetchError = null;
+
         if (stmt.pointer.isClosed() || (!open && !closeStmt)) {
             return;
         }
 
         DB db = stmt.getDatabase();
-        synchronized (db) {
+        db.lock();
+        try {
             if (!stmt.pointer.isClosed()) {
                 stmt.pointer.safeRunInt(DB::reset);
 
@@ -158,6 +412,8 @@ public abstract class CoreResultSet implements Codes {
                     ((Statement) stmt).close();
                 }
             }
+        } finally {
+            db.unlock();
         }
 
         open = false;
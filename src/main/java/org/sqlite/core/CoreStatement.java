@@ -17,7 +17,6 @@ package org.sqlite.core;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.regex.Pattern;
 import org.sqlite.SQLiteConnection;
 import org.sqlite.SQLiteConnectionConfig;
@@ -35,9 +34,19 @@ public abstract class CoreStatement implements Codes {
     protected Object[] batch = null;
     protected boolean resultsWaiting = false;
 
-    private Statement generatedKeysStat = null;
     private ResultSet generatedKeysRs = null;
 
+    /** The keys generated by the last execution, or null if it did not generate any. */
+    private RowBuffer generatedKeys = null;
+
+    /** The buffer that receives the generated keys, reused by each execution. */
+    private RowBuffer generatedKeysBuffer = null;
+
+    /** The SQL last matched against {@link #INSERT_PATTERN}, and whether it matched. */
+    private String matchedSql = null;
+
+    private boolean matchedInsert;
+
     // pattern for matching insert statements of the general format starting with INSERT or REPLACE.
     // CTEs used prior to the insert or replace keyword are also be permitted.
     private static final Pattern INSERT_PATTERN =
@@ -90,7 +99,7 @@ public abstract class CoreStatement implements Codes {
         boolean success = false;
         boolean rc = false;
         try {
-            rc = conn.getDatabase().execute(this, null);
+            rc = conn.getDatabase().execute(this);
             success = true;
         } finally {
             notifyFirstStatementExecuted();
@@ -143,18 +152,35 @@ public abstract class CoreStatement implements Codes {
 
             batch = null;
             batchPos = 0;
-            int resp = this.pointer.close();
+            int resp = closePointer();
 
             if (resp != SQLITE_OK && resp != SQLITE_MISUSE) conn.getDatabase().throwex(resp);
         }
     }
 
+    /**
+     * Finalizes the statement once its result set has been closed.
+     *
+     * @return <a href="https://www.sqlite.org/c3ref/c_abort.html">Result Codes</a>
+     * @throws SQLException
+     */
+    protected int closePointer() throws SQLException {
+        return pointer.close();
+    }
+
     protected void notifyFirstStatementExecuted() {
         conn.setFirstStatementExecuted(true);
     }
 
     public abstract ResultSet executeQuery(String sql, boolean closeStmt) throws SQLException;
 
+    /**
+     * @return The parameter values to bind when the statement is executed, or null if it has none.
+     */
+    BatchBuffer parameters() {
+        return null;
+    }
+
     protected void checkIndex(int index) throws SQLException {
         if (batch == null) {
             throw new SQLException("No parameter has been set yet");
@@ -165,48 +191,102 @@ public abstract class CoreStatement implements Codes {
     }
 
     protected void clearGeneratedKeys() throws SQLException {
+        generatedKeys = null;
         if (generatedKeysRs != null && !generatedKeysRs.isClosed()) {
             generatedKeysRs.close();
         }
         generatedKeysRs = null;
-        if (generatedKeysStat != null && !generatedKeysStat.isClosed()) {
-            generatedKeysStat.close();
+    }
+
+    /**
+     * Clears the generated keys and returns the buffer to read the next ones into. Any result set
+     * of the previous keys is closed, since it reads from the same buffer.
+     */
+    protected RowBuffer generatedKeysBuffer() throws SQLException {
+        clearGeneratedKeys();
+        if (generatedKeysBuffer == null) {
+            generatedKeysBuffer = new RowBuffer();
         }
-        generatedKeysStat = null;
+        return generatedKeysBuffer;
+    }
+
+    /**
+     * @return Whether the SQL of this statement is an INSERT or REPLACE. The result is kept until
+     *     the SQL changes, so a prepared statement matches its SQL only once.
+     */
+    protected boolean isInsert() {
+        if (sql != matchedSql) {
+            matchedInsert = sql != null && INSERT_PATTERN.matcher(sql).find();
+            matchedSql = sql;
+        }
+        return matchedInsert;
     }
 
     /**
      * SQLite's last_insert_rowid() function is DB-specific. However, in this implementation we
-     * ensure the Generated Key result set is statement-specific by executing the query immediately
+     * ensure the Generated Key result set is statement-specific by reading the rowid immediately
      * after an insert operation is performed. The caller is simply responsible for calling
-     * updateGeneratedKeys on the statement object right after execute in a synchronized(connection)
-     * block.
+     * updateGeneratedKeys on the statement object right after execute, while still holding the
+     * connection's {@link DB#lock()}.
      */
     public void updateGeneratedKeys() throws SQLException {
         if (conn.getConnectionConfig().isGetGeneratedKeys()) {
-            clearGeneratedKeys();
-            if (sql != null && INSERT_PATTERN.matcher(sql).find()) {
-                generatedKeysStat = conn.createStatement();
-                generatedKeysRs = generatedKeysStat.executeQuery("SELECT last_insert_rowid();");
+            RowBuffer keys = generatedKeysBuffer();
+            if (isInsert()) {
+                keys.resetRowIds();
+                keys.addLong(conn.getDatabase().last_insert_rowid());
+                generatedKeys = keys;
             }
         }
     }
 
     /**
-     * This implementation uses SQLite's last_insert_rowid function to obtain the row ID. It cannot
-     * provide multiple values when inserting multiple rows. Suggestion is to use a <a
-     * href=https://www.sqlite.org/lang_returning.html>RETURNING</a> clause instead.
+     * Replaces the generated keys with the rows read into {@link #generatedKeysBuffer()} by an
+     * execution or a batch.
+     *
+     * @param keys The keys, or null if none were generated.
+     */
+    protected void setGeneratedKeys(RowBuffer keys) throws SQLException {
+        clearGeneratedKeys();
+        generatedKeys = keys;
+    }
+
+    /**
+     * This implementation uses SQLite's last_insert_rowid function to obtain the row ID, once per
+     * execution or batch entry. It cannot provide multiple values when one statement inserts
+     * multiple rows. Suggestion is to use a <a
+     * href=https://www.sqlite.org/lang_returning.html>RETURNING</a> clause instead, whose rows are
+     * returned here in place of the rowids.
      *
      * @see java.sql.Statement#getGeneratedKeys()
      */
     public ResultSet getGeneratedKeys() throws SQLException {
-        // getGeneratedKeys is required to return an EmptyResult set if the statement
-        // did not generate any keys. Thus, if the generateKeysResultSet is NULL, spin
-        // up a new result set without any contents by issuing a query with a false where condition
+        // The keys are read when the statement executes and only wrapped in a result set here. A
+        // statement that did not generate any keys gets an empty result set.
         if (generatedKeysRs == null) {
-            generatedKeysStat = conn.createStatement();
-            generatedKeysRs = generatedKeysStat.executeQuery("SELECT 1 WHERE 1 = 2;");
+            RowBuffer keys = generatedKeys;
+            if (keys == null) {
+                keys = generatedKeysBuffer();
+                keys.resetRowIds();
+            }
+            JDBC4ResultSet keysRs = new JDBC4ResultSet(this);
+            ((CoreResultSet) keysRs).open(keys);
+            generatedKeysRs = keysRs;
         }
         return generatedKeysRs;
     }
+
+    /**
+     * Returns the generated keys as an array instead of a result set, when they are a single column
+     * of integers: the rowids of an insert, or a RETURNING clause that returns one integer column.
+     *
+     * @return A copy of the keys, empty if none were generated, or null if the keys are not a
+     *     single column of integers.
+     */
+    public long[] getGeneratedKeysAsLongs() {
+        if (generatedKeys == null) {
+            return new long[0];
+        }
+        return generatedKeys.columnNames().length == 1 ? generatedKeys.getLongColumn(0) : null;
+    }
 }
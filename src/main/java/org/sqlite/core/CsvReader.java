@@ -0,0 +1,247 @@
+package org.sqlite.core;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.sqlite.CsvFormat;
+
+/**
+ * Splits a memory-mapped UTF-8 file into CSV records and fields in place. Fields are reported as
+ * offsets into the mapping, so that they can be bound to a statement without being copied. The
+ * delimiter, the quote and line breaks are ASCII and so never occur inside a multi-byte character,
+ * which lets the search for them look at eight bytes at a time.
+ */
+final class CsvReader implements AutoCloseable {
+    private static final ValueLayout.OfLong WORD =
+            ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    private static final long LINE_FEEDS = ONES * '\n';
+    private static final long CARRIAGE_RETURNS = ONES * '\r';
+
+    /** Receives the fields of a record. */
+    interface FieldVisitor {
+        /**
+         * @param index Index of the field in its record, from 0.
+         * @param data The mapped file.
+         * @param start Offset of the first byte of the field, after any opening quote.
+         * @param end Offset after the last byte of the field, before any closing quote.
+         * @param quoted Whether the field was quoted.
+         * @param escaped Whether the field contains doubled quote characters.
+         */
+        void field(
+                int index,
+                MemorySegment data,
+                long start,
+                long end,
+                boolean quoted,
+                boolean escaped)
+                throws SQLException;
+    }
+
+    private final Arena arena;
+    private final MemorySegment data;
+    private final long size;
+    private final byte delimiter;
+    private final byte quote;
+    private final long delimiterPattern;
+    private final long quotePattern;
+    private long pos;
+    private long record;
+
+    CsvReader(Path file, CsvFormat format) throws IOException {
+        delimiter = (byte) format.getDelimiter();
+        quote = (byte) format.getQuote();
+        delimiterPattern = ONES * (delimiter & 0xFF);
+        quotePattern = ONES * (quote & 0xFF);
+        arena = Arena.ofConfined();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+        size = data.byteSize();
+        // skip a byte order mark
+        if (size >= 3
+                && data.get(ValueLayout.JAVA_BYTE, 0) == (byte) 0xEF
+                && data.get(ValueLayout.JAVA_BYTE, 1) == (byte) 0xBB
+                && data.get(ValueLayout.JAVA_BYTE, 2) == (byte) 0xBF) {
+            pos = 3;
+        }
+    }
+
+    /** The number of records read so far, counting a header. */
+    long record() {
+        return record;
+    }
+
+    /**
+     * Reads the next record that is not an empty line.
+     *
+     * @param visitor Receives each field of the record, in order.
+     * @return False at the end of the file.
+     * @throws SQLException if a quoted field is not terminated, or the visitor fails.
+     */
+    boolean next(FieldVisitor visitor) throws SQLException {
+        while (pos < size && isLineBreak(data.get(ValueLayout.JAVA_BYTE, pos))) {
+            pos++;
+        }
+        if (pos >= size) {
+            return false;
+        }
+        record++;
+        for (int index = 0; ; index++) {
+            if (quote != 0 && pos < size && data.get(ValueLayout.JAVA_BYTE, pos) == quote) {
+                readQuoted(visitor, index);
+            } else {
+                long end = indexOfSpecial(pos);
+                visitor.field(index, data, pos, end, false, false);
+                pos = end;
+            }
+            if (pos >= size) {
+                return true;
+            }
+            byte b = data.get(ValueLayout.JAVA_BYTE, pos++);
+            if (b == '\r' && pos < size && data.get(ValueLayout.JAVA_BYTE, pos) == '\n') {
+                pos++;
+                return true;
+            } else if (b != delimiter) {
+                return true;
+            }
+        }
+    }
+
+    private void readQuoted(FieldVisitor visitor, int index) throws SQLException {
+        long start = pos + 1;
+        long from = start;
+        boolean escaped = false;
+        while (true) {
+            long q = indexOf(from, quotePattern, quote);
+            if (q >= size) {
+                throw new SQLException("CSV record " + record + ": unterminated quoted field");
+            }
+            if (q + 1 < size && data.get(ValueLayout.JAVA_BYTE, q + 1) == quote) {
+                escaped = true;
+                from = q + 2;
+                continue;
+            }
+            visitor.field(index, data, start, q, true, escaped);
+            pos = q + 1;
+            if (pos < size) {
+                byte b = data.get(ValueLayout.JAVA_BYTE, pos);
+                if (b != delimiter && !isLineBreak(b)) {
+                    throw new SQLException(
+                            "CSV record " + record + ": unexpected character after quoted field");
+                }
+            }
+            return;
+        }
+    }
+
+    private static boolean isLineBreak(byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+    /** The offset of the next delimiter or line break from an offset, or the size if none. */
+    private long indexOfSpecial(long from) {
+        long i = from;
+        for (; i + Long.BYTES <= size; i += Long.BYTES) {
+            long word = data.get(WORD, i);
+            long found =
+                    zeroBytes(word ^ delimiterPattern)
+                            | zeroBytes(word ^ LINE_FEEDS)
+                            | zeroBytes(word ^ CARRIAGE_RETURNS);
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < size; i++) {
+            byte b = data.get(ValueLayout.JAVA_BYTE, i);
+            if (b == delimiter || isLineBreak(b)) {
+                break;
+            }
+        }
+        return i;
+    }
+
+    /** The offset of the next occurrence of a byte from an offset, or the size if none. */
+    private long indexOf(long from, long pattern, byte b) {
+        long i = from;
+        for (; i + Long.BYTES <= size; i += Long.BYTES) {
+            long found = zeroBytes(data.get(WORD, i) ^ pattern);
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        while (i < size && data.get(ValueLayout.JAVA_BYTE, i) != b) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Sets the high bit of the lowest byte of a word that is zero. Higher bits may be set for
+     * bytes that are not zero, but never below the first zero byte.
+     */
+    private static long zeroBytes(long word) {
+        return (word - ONES) & ~word & HIGHS;
+    }
+
+    /**
+     * Reads the next record as strings, for a header.
+     *
+     * @return The fields, or null at the end of the file.
+     */
+    String[] nextStrings() throws SQLException {
+        List<String> fields = new ArrayList<>();
+        boolean found =
+                next(
+                        (index, data, start, end, quoted, escaped) -> {
+                            String s =
+                                    new String(
+                                            data.asSlice(start, end - start)
+                                                    .toArray(ValueLayout.JAVA_BYTE),
+                                            StandardCharsets.UTF_8);
+                            fields.add(escaped ? unescape(s) : s);
+                        });
+        return found ? fields.toArray(new String[0]) : null;
+    }
+
+    private String unescape(String s) {
+        String q = String.valueOf((char) quote);
+        return s.replace(q + q, q);
+    }
+
+    /**
+     * Copies a field with doubled quote characters, keeping one of each pair.
+     *
+     * @param out Receives the field, which is at most as long as the escaped field.
+     * @return The length of the unescaped field.
+     */
+    long unescape(long start, long end, MemorySegment out) {
+        long n = 0;
+        for (long i = start; i < end; i++) {
+            byte b = data.get(ValueLayout.JAVA_BYTE, i);
+            out.set(ValueLayout.JAVA_BYTE, n++, b);
+            if (b == quote) {
+                i++;
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -15,22 +15,37 @@
  */
 package org.sqlite.core;
 
+import java.io.IOException;
 import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 import java.sql.BatchUpdateException;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import org.sqlite.BulkLoadProgress;
 import org.sqlite.BusyHandler;
 import org.sqlite.Collation;
+import org.sqlite.ColumnSink;
+import org.sqlite.CsvFormat;
 import org.sqlite.Function;
 import org.sqlite.ProgressHandler;
+import org.sqlite.SQLiteBlob;
+import org.sqlite.SQLiteBulkLoader;
 import org.sqlite.SQLiteCommitListener;
 import org.sqlite.SQLiteConfig;
 import org.sqlite.SQLiteErrorCode;
 import org.sqlite.SQLiteException;
 import org.sqlite.SQLiteUpdateListener;
+import org.sqlite.ScriptResult;
 
 /*
  * This class is the interface to SQLite. It provides some helper functions
@@ -45,11 +60,40 @@ import org.sqlite.SQLiteUpdateListener;
  * The subclass, NativeDB, provides the actual access to SQLite functions.
  */
 public abstract class DB implements Codes {
+    /** The number of distinct SQL strings of a statement batch that are kept compiled at a time. */
+    private static final int BATCH_STATEMENTS = 64;
+
+    /**
+     * Matches SQL that a statement batch runs outside its transaction even though it writes: VACUUM
+     * and PRAGMA statements, which fail or have no effect inside a transaction, and statements with
+     * an OR ROLLBACK conflict clause, whose failure would roll back the entries before them.
+     */
+    private static final Pattern BATCH_UNGROUPED =
+            Pattern.compile(
+                    "^(?:\\s|--[^\\n]*|/\\*.*?\\*/)*(?:VACUUM|PRAGMA)\\b|\\bOR\\s+ROLLBACK\\b",
+                    Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    /** Surrounds each step of a rewritten batch insert, so that a failing step leaves no rows. */
+    private static final String BEGIN_BATCH_STEP = "savepoint sqlite_jdbc_batch_step;";
+
+    private static final String END_BATCH_STEP = "release sqlite_jdbc_batch_step;";
+
+    private static final String UNDO_BATCH_STEP =
+            "rollback to sqlite_jdbc_batch_step; release sqlite_jdbc_batch_step;";
+
     private final String url;
     private final String fileName;
     private final SQLiteConfig config;
     private final AtomicBoolean closed = new AtomicBoolean(true);
 
+    /**
+     * Owns the connection for the duration of one logical operation, such as an execute, a {@code
+     * next()} or a batch. The native accessors in {@link NativeDB} do not lock on their own and
+     * rely on the caller holding this lock. A {@link ReentrantLock} rather than a monitor so that a
+     * virtual thread waiting for the connection does not pin its carrier.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
     /** The "begin;"and "commit;" statement handles. */
     volatile SafeStmtPtr begin;
 
@@ -58,6 +102,12 @@ public abstract class DB implements Codes {
     /** Tracer for statements to avoid unfinalized statements on db close. */
     private final Set<SafeStmtPtr> stmts = ConcurrentHashMap.newKeySet();
 
+    /** Tracer for blob handles, which must be closed before the db can be. */
+    private final Set<BlobChannel> blobs = ConcurrentHashMap.newKeySet();
+
+    /** Closed prepared statements kept for reuse, or null if statement caching is disabled. */
+    private final StatementCache statementCache;
+
     private final Set<SQLiteUpdateListener> updateListeners = new HashSet<>();
     private final Set<SQLiteCommitListener> commitListeners = new HashSet<>();
 
@@ -65,6 +115,10 @@ public abstract class DB implements Codes {
         this.url = url;
         this.fileName = fileName;
         this.config = config;
+        this.statementCache =
+                config.getStatementCacheSize() > 0
+                        ? new StatementCache(this, config.getStatementCacheSize())
+                        : null;
     }
 
     public String getUrl() {
@@ -79,6 +133,19 @@ public abstract class DB implements Codes {
         return config;
     }
 
+    /**
+     * Acquires ownership of this connection. Every call must be paired with {@link #unlock()} in a
+     * {@code finally} block. Ownership is reentrant.
+     */
+    public final void lock() {
+        lock.lock();
+    }
+
+    /** Releases ownership of this connection acquired by {@link #lock()}. */
+    public final void unlock() {
+        lock.unlock();
+    }
+
     // WRAPPER FUNCTIONS ////////////////////////////////////////////
 
     /**
@@ -152,6 +219,23 @@ public abstract class DB implements Codes {
      */
     public abstract long total_changes() throws SQLException;
 
+    /**
+     * @return The rowid of the most recent successful INSERT into a rowid table on the connection,
+     *     or 0 if there has been none.
+     * @throws SQLException
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/last_insert_rowid.html">https://www.sqlite.org/c3ref/last_insert_rowid.html</a>
+     */
+    public abstract long last_insert_rowid() throws SQLException;
+
+    /**
+     * @return False if a transaction is open on the connection; true if it is in auto-commit mode.
+     * @throws SQLException
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/get_autocommit.html">https://www.sqlite.org/c3ref/get_autocommit.html</a>
+     */
+    abstract boolean get_autocommit() throws SQLException;
+
     /**
      * Enables or disables the sharing of the database cache and schema data structures between
      * connections to the same database.
@@ -185,21 +269,26 @@ public abstract class DB implements Codes {
      * @see <a
      *     href="https://www.sqlite.org/c3ref/exec.html">https://www.sqlite.org/c3ref/exec.html</a>
      */
-    public final synchronized void exec(String sql, boolean autoCommit) throws SQLException {
-        SafeStmtPtr pointer = prepare(sql);
+    public final void exec(String sql, boolean autoCommit) throws SQLException {
+        lock();
         try {
-            int rc = pointer.safeRunInt(DB::step);
-            switch (rc) {
-                case SQLITE_DONE:
-                    ensureAutoCommit(autoCommit);
-                    return;
-                case SQLITE_ROW:
-                    return;
-                default:
-                    throwex(rc);
+            SafeStmtPtr pointer = prepare(sql, false);
+            try {
+                int rc = pointer.safeRunInt(DB::step);
+                switch (rc) {
+                    case SQLITE_DONE:
+                        ensureAutoCommit(autoCommit);
+                        return;
+                    case SQLITE_ROW:
+                        return;
+                    default:
+                        throwex(rc);
+                }
+            } finally {
+                pointer.close();
             }
         } finally {
-            pointer.close();
+            unlock();
         }
     }
 
@@ -213,16 +302,21 @@ public abstract class DB implements Codes {
      * @see <a
      *     href="https://www.sqlite.org/c3ref/open.html">https://www.sqlite.org/c3ref/open.html</a>
      */
-    public final synchronized void open(String file, int openFlags) throws SQLException {
-        _open(file, openFlags);
-        closed.set(false);
+    public final void open(String file, int openFlags) throws SQLException {
+        lock();
+        try {
+            _open(file, openFlags);
+            closed.set(false);
 
-        if (fileName.startsWith("file:") && !fileName.contains("cache=")) {
-            // URI cache overrides flags
-            shared_cache(config.isEnabledSharedCache());
+            if (fileName.startsWith("file:") && !fileName.contains("cache=")) {
+                // URI cache overrides flags
+                shared_cache(config.isEnabledSharedCache());
+            }
+            enable_load_extension(config.isEnabledLoadExtension());
+            busy_timeout(config.getBusyTimeout());
+        } finally {
+            unlock();
         }
-        enable_load_extension(config.isEnabledLoadExtension());
-        busy_timeout(config.getBusyTimeout());
     }
 
     /**
@@ -233,18 +327,27 @@ public abstract class DB implements Codes {
      * @see <a
      *     href="https://www.sqlite.org/c3ref/close.html">https://www.sqlite.org/c3ref/close.html</a>
      */
-    public final synchronized void close() throws SQLException {
-        // finalize any remaining statements before closing db
-        for (SafeStmtPtr element : stmts) {
-            element.close();
-        }
+    public final void close() throws SQLException {
+        lock();
+        try {
+            // finalize any remaining statements and blob handles before closing db
+            for (SafeStmtPtr element : stmts) {
+                element.close();
+            }
+            for (BlobChannel blob : blobs) {
+                blob.closeBlob();
+            }
+            if (statementCache != null) statementCache.clear();
 
-        // clean up commit object
-        if (begin != null) begin.close();
-        if (commit != null) commit.close();
+            // clean up commit object
+            if (begin != null) begin.close();
+            if (commit != null) commit.close();
 
-        closed.set(true);
-        _close();
+            closed.set(true);
+            _close();
+        } finally {
+            unlock();
+        }
     }
 
     /**
@@ -255,17 +358,146 @@ public abstract class DB implements Codes {
      * @see <a
      *     href="https://www.sqlite.org/c3ref/prepare.html">https://www.sqlite.org/c3ref/prepare.html</a>
      */
-    public final synchronized void prepare(CoreStatement stmt) throws SQLException {
-        if (stmt.sql == null) {
-            throw new NullPointerException();
+    public final void prepare(CoreStatement stmt) throws SQLException {
+        prepare(stmt, false);
+    }
+
+    /**
+     * Compiles an SQL statement.
+     *
+     * @param stmt The SQL statement to compile.
+     * @param persistent Whether the statement will be kept and reused for a long time, see {@link
+     *     #prepare(String, boolean)}.
+     * @throws SQLException
+     */
+    public final void prepare(CoreStatement stmt, boolean persistent) throws SQLException {
+        lock();
+        try {
+            if (stmt.sql == null) {
+                throw new NullPointerException();
+            }
+            if (stmt.pointer != null) {
+                stmt.pointer.close();
+            }
+            stmt.pointer = prepare(stmt.sql, persistent);
+            final boolean added = stmts.add(stmt.pointer);
+            if (!added) {
+                throw new IllegalStateException("Already added pointer to statements set");
+            }
+        } finally {
+            unlock();
         }
-        if (stmt.pointer != null) {
-            stmt.pointer.close();
+    }
+
+    /**
+     * Compiles the SQL of a prepared statement, or reuses a statement with the same SQL from the
+     * statement cache. Statements are compiled as persistent when the cache is enabled, since they
+     * may be kept after the statement is closed.
+     *
+     * @param stmt The prepared statement to compile.
+     * @param persistent Whether the application expects to keep the statement for a long time.
+     * @return The cached statement that was reused, or null if the SQL was compiled.
+     * @throws SQLException
+     */
+    final StatementCache.Entry prepareCached(CorePreparedStatement stmt, boolean persistent)
+            throws SQLException {
+        lock();
+        try {
+            if (statementCache == null) {
+                prepare(stmt, persistent);
+                return null;
+            }
+            StatementCache.Entry cached = statementCache.take(stmt.sql);
+            if (cached == null) {
+                prepare(stmt, true);
+                return null;
+            }
+            if (stmt.pointer != null) {
+                stmt.pointer.close();
+            }
+            stmt.pointer = new SafeStmtPtr(this, cached.stmt());
+            stmt.pointer.adoptColumns(cached.columns());
+            stmts.add(stmt.pointer);
+            return cached;
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Closes the pointer of a prepared statement and returns its statement to the statement cache
+     * instead of finalizing it. The column names and count kept with it are read again first if
+     * SQLite prepared the statement again since they were read.
+     *
+     * @param stmt The prepared statement being closed.
+     * @return false if statement caching is disabled or the statement is already closed.
+     * @throws SQLException
+     */
+    final boolean release(CorePreparedStatement stmt) throws SQLException {
+        if (statementCache == null) return false;
+        lock();
+        try {
+            if (isClosed() || stmt.pointer.isClosed()) return false;
+            stmt.refreshColumns();
+            ColumnDescriptor[] columns = stmt.pointer.cachedColumns();
+            MemorySegment handle = stmt.pointer.detach();
+            if (handle == null) return false;
+            stmts.remove(stmt.pointer);
+            statementCache.put(
+                    stmt.sql,
+                    new StatementCache.Entry(
+                            handle,
+                            stmt.columnNames,
+                            stmt.columnCount,
+                            stmt.paramCount,
+                            columns,
+                            stmt.reprepared));
+            return true;
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Finalizes every statement in the statement cache, so that statements compiled against an
+     * outdated schema are not reused.
+     *
+     * @throws SQLException
+     */
+    public final void clearStatementCache() throws SQLException {
+        if (statementCache == null) return;
+        lock();
+        try {
+            statementCache.clear();
+        } finally {
+            unlock();
         }
-        stmt.pointer = prepare(stmt.sql);
-        final boolean added = stmts.add(stmt.pointer);
-        if (!added) {
-            throw new IllegalStateException("Already added pointer to statements set");
+    }
+
+    /**
+     * @return The number of prepared statements taken from the statement cache.
+     */
+    public final long getStatementCacheHits() {
+        if (statementCache == null) return 0;
+        lock();
+        try {
+            return statementCache.hits();
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * @return The number of prepared statements compiled because the statement cache had no
+     *     statement for their SQL. Always 0 if statement caching is disabled.
+     */
+    public final long getStatementCacheMisses() {
+        if (statementCache == null) return 0;
+        lock();
+        try {
+            return statementCache.misses();
+        } finally {
+            unlock();
         }
     }
 
@@ -279,11 +511,13 @@ public abstract class DB implements Codes {
      * @see <a
      *     href="https://www.sqlite.org/c3ref/finalize.html">https://www.sqlite.org/c3ref/finalize.html</a>
      */
-    public synchronized int finalize(SafeStmtPtr safePtr, MemorySegment stmt) throws SQLException {
+    public int finalize(SafeStmtPtr safePtr, MemorySegment stmt) throws SQLException {
+        lock();
         try {
             return finalize(stmt);
         } finally {
             stmts.remove(safePtr);
+            unlock();
         }
     }
 
@@ -323,12 +557,55 @@ public abstract class DB implements Codes {
      * Complies an SQL statement.
      *
      * @param sql An SQL statement.
+     * @param persistent Whether to pass {@code SQLITE_PREPARE_PERSISTENT}, which tells SQLite the
+     *     statement will be kept and reused for a long time, so that it is allocated from the heap
+     *     rather than from the connection's lookaside memory meant for short-lived objects.
      * @return <a href="https://www.sqlite.org/c3ref/c_abort.html">Result Codes</a>
      * @throws SQLException
      * @see <a
      *     href="https://www.sqlite.org/c3ref/prepare.html">https://www.sqlite.org/c3ref/prepare.html</a>
      */
-    protected abstract SafeStmtPtr prepare(String sql) throws SQLException;
+    protected abstract SafeStmtPtr prepare(String sql, boolean persistent) throws SQLException;
+
+    /**
+     * Runs the statements of an SQL script one at a time, compiling each one from where the
+     * previous one ended in a single UTF-8 copy of the script.
+     *
+     * @param sql The SQL script.
+     * @param autoCommit Whether to auto-commit.
+     * @return The result of each statement, in order.
+     * @throws SQLException if a statement fails. Statements before it have already run.
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/prepare.html">https://www.sqlite.org/c3ref/prepare.html</a>
+     */
+    public abstract List<ScriptResult> executeScript(String sql, boolean autoCommit)
+            throws SQLException;
+
+    /**
+     * Runs the statements of an SQL script read from a channel one at a time, reading as much of
+     * the script as is needed for the next statement into a native buffer.
+     *
+     * @param in A blocking channel to read UTF-8 SQL text from, up to its end.
+     * @param autoCommit Whether to auto-commit.
+     * @return The result of each statement, in order.
+     * @throws SQLException if a statement fails. Statements before it have already run.
+     * @throws IOException if reading from the channel fails.
+     */
+    public abstract List<ScriptResult> executeScript(ReadableByteChannel in, boolean autoCommit)
+            throws SQLException, IOException;
+
+    /**
+     * Reads a runtime status counter of this connection.
+     *
+     * @param op One of the {@code SQLITE_DBSTATUS_*} counters, such as {@link
+     *     Codes#SQLITE_DBSTATUS_LOOKASIDE_HIT}.
+     * @param reset Whether to reset the highest value of the counter.
+     * @return The current value and the highest value of the counter, in that order.
+     * @throws SQLException
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/db_status.html">https://www.sqlite.org/c3ref/db_status.html</a>
+     */
+    public abstract int[] db_status(int op, boolean reset) throws SQLException;
 
     /**
      * Destroys a prepared statement.
@@ -374,6 +651,27 @@ public abstract class DB implements Codes {
      */
     public abstract int clear_bindings(MemorySegment stmt) throws SQLException; // TODO remove?
 
+    /**
+     * @param stmt Pointer to the statement.
+     * @return True if the statement makes no direct changes to the database file. Transaction
+     *     control statements such as BEGIN, COMMIT and SAVEPOINT are read-only.
+     * @throws SQLException
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/stmt_readonly.html">https://www.sqlite.org/c3ref/stmt_readonly.html</a>
+     */
+    abstract boolean stmt_readonly(MemorySegment stmt) throws SQLException;
+
+    /**
+     * @param stmt Pointer to the statement.
+     * @param op The counter, such as {@link Codes#SQLITE_STMTSTATUS_REPREPARE}.
+     * @param reset Whether to reset the counter to zero.
+     * @return The value of the counter.
+     * @throws SQLException
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/stmt_status.html">https://www.sqlite.org/c3ref/stmt_status.html</a>
+     */
+    abstract int stmt_status(MemorySegment stmt, int op, boolean reset) throws SQLException;
+
     /**
      * @param stmt Pointer to the statement.
      * @return Number of parameters in a prepared SQL.
@@ -482,6 +780,20 @@ public abstract class DB implements Codes {
      */
     public abstract int column_int(MemorySegment stmt, int col) throws SQLException;
 
+    /**
+     * @param stmt Pointer to the statement.
+     * @param col Number of column.
+     * @param blob Whether to read the value as a blob instead of UTF-8 text.
+     * @return The bytes of the value in memory owned by the statement, valid until the statement
+     *     is stepped, reset or finalized or the value is read as another type, or null if the
+     *     value is NULL.
+     * @throws SQLException
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/column_blob.html">https://www.sqlite.org/c3ref/column_blob.html</a>
+     */
+    abstract MemorySegment column_segment(MemorySegment stmt, int col, boolean blob)
+            throws SQLException;
+
     /**
      * Binds NULL value to prepared statements with the pointer to the statement object and the
      * index of the SQL parameter to be set to NULL.
@@ -563,6 +875,122 @@ public abstract class DB implements Codes {
      */
     abstract int bind_blob(MemorySegment stmt, int pos, byte[] v) throws SQLException;
 
+    /**
+     * Binds UTF-8 text held in native memory without copying it. The text must stay valid until
+     * the parameter is bound again, the bindings are cleared or the statement is finalized.
+     *
+     * @param stmt Pointer to the statement.
+     * @param pos Index of the SQL parameter to be set.
+     * @param v UTF-8 text to bind to the parameter.
+     * @param nBytes Length of the text in bytes.
+     * @return <a href="https://www.sqlite.org/c3ref/c_abort.html">Result Codes</a>
+     * @throws SQLException
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/bind_blob.html">https://www.sqlite.org/c3ref/bind_blob.html</a>
+     */
+    abstract int bind_text(MemorySegment stmt, int pos, MemorySegment v, int nBytes)
+            throws SQLException;
+
+    /**
+     * Binds a blob held in native memory without copying it. The blob must stay valid until the
+     * parameter is bound again, the bindings are cleared or the statement is finalized.
+     *
+     * @param stmt Pointer to the statement.
+     * @param pos Index of the SQL parameter to be set.
+     * @param v Blob to bind to the parameter.
+     * @param nBytes Length of the blob in bytes.
+     * @return <a href="https://www.sqlite.org/c3ref/c_abort.html">Result Codes</a>
+     * @throws SQLException
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/bind_blob.html">https://www.sqlite.org/c3ref/bind_blob.html</a>
+     */
+    abstract int bind_blob(MemorySegment stmt, int pos, MemorySegment v, int nBytes)
+            throws SQLException;
+
+    /**
+     * Binds a blob of zeros, which SQLite stores without allocating it, so that it can be filled
+     * through incremental blob I/O.
+     *
+     * @param stmt Pointer to the statement.
+     * @param pos Index of the SQL parameter to be set.
+     * @param nBytes Length of the blob in bytes.
+     * @return <a href="https://www.sqlite.org/c3ref/c_abort.html">Result Codes</a>
+     * @throws SQLException
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/bind_blob.html">https://www.sqlite.org/c3ref/bind_blob.html</a>
+     */
+    abstract int bind_zeroblob(MemorySegment stmt, int pos, int nBytes) throws SQLException;
+
+    /**
+     * Opens a handle for incremental I/O on the blob of one cell.
+     *
+     * @param schema The name of the database, such as "main".
+     * @param table The table.
+     * @param column The column.
+     * @param rowId The rowid of the row.
+     * @param writable Whether the blob is opened for writing.
+     * @return Pointer to the blob handle.
+     * @throws SQLException if the cell does not exist or does not hold a blob or text.
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/blob_open.html">https://www.sqlite.org/c3ref/blob_open.html</a>
+     */
+    abstract MemorySegment blob_open(
+            String schema, String table, String column, long rowId, boolean writable)
+            throws SQLException;
+
+    /**
+     * @param blob Pointer to the blob handle.
+     * @return <a href="https://www.sqlite.org/c3ref/c_abort.html">Result Codes</a>
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/blob_close.html">https://www.sqlite.org/c3ref/blob_close.html</a>
+     */
+    abstract int blob_close(MemorySegment blob) throws SQLException;
+
+    /**
+     * @param blob Pointer to the blob handle.
+     * @return The size of the blob in bytes.
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/blob_bytes.html">https://www.sqlite.org/c3ref/blob_bytes.html</a>
+     */
+    abstract int blob_bytes(MemorySegment blob) throws SQLException;
+
+    /**
+     * Reads bytes of a blob into native memory.
+     *
+     * @param blob Pointer to the blob handle.
+     * @param dest Receives as many bytes as it is long.
+     * @param offset Offset in the blob of the first byte to read.
+     * @return <a href="https://www.sqlite.org/c3ref/c_abort.html">Result Codes</a>
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/blob_read.html">https://www.sqlite.org/c3ref/blob_read.html</a>
+     */
+    abstract int blob_read(MemorySegment blob, MemorySegment dest, int offset)
+            throws SQLException;
+
+    /**
+     * Writes bytes from native memory over bytes of a blob, which keeps its size.
+     *
+     * @param blob Pointer to the blob handle.
+     * @param src The bytes to write.
+     * @param offset Offset in the blob of the first byte to write.
+     * @return <a href="https://www.sqlite.org/c3ref/c_abort.html">Result Codes</a>
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/blob_write.html">https://www.sqlite.org/c3ref/blob_write.html</a>
+     */
+    abstract int blob_write(MemorySegment blob, MemorySegment src, int offset)
+            throws SQLException;
+
+    /**
+     * Moves a blob handle to the same column of another row.
+     *
+     * @param blob Pointer to the blob handle.
+     * @param rowId The rowid of the row.
+     * @return <a href="https://www.sqlite.org/c3ref/c_abort.html">Result Codes</a>
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/blob_reopen.html">https://www.sqlite.org/c3ref/blob_reopen.html</a>
+     */
+    abstract int blob_reopen(MemorySegment blob, long rowId) throws SQLException;
+
     /**
      * Sets the result of an SQL function as NULL with the pointer to the SQLite database context.
      *
@@ -708,6 +1136,18 @@ public abstract class DB implements Codes {
      */
     public abstract int value_type(Function f, int arg) throws SQLException;
 
+    /**
+     * Loads the type and numeric value of every parameter of the current call to a function.
+     *
+     * @param f SQLite function object.
+     * @param arguments The view to load the parameters into.
+     * @throws SQLException
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/value_blob.html">https://www.sqlite.org/c3ref/value_blob.html</a>
+     */
+    public abstract void load_arguments(Function f, Function.Arguments arguments)
+            throws SQLException;
+
     /**
      * Create a user defined function with given function name and the function object.
      *
@@ -723,6 +1163,24 @@ public abstract class DB implements Codes {
     public abstract int create_function(String name, Function f, int nArgs, int flags)
             throws SQLException;
 
+    /**
+     * Create a user defined scalar function from a primitive functional interface. The function
+     * takes one or two arguments depending on the type of {@code f}, and returns NULL if any of
+     * them is NULL.
+     *
+     * @param name The function name to be created.
+     * @param f A {@link java.util.function.LongUnaryOperator}, {@link
+     *     java.util.function.LongBinaryOperator}, {@link java.util.function.DoubleUnaryOperator},
+     *     {@link java.util.function.DoubleBinaryOperator} or {@code UnaryOperator<String>}.
+     * @param flags Extra flags to use when creating the function, such as {@link
+     *     Function#FLAG_DETERMINISTIC}
+     * @return <a href="https://www.sqlite.org/c3ref/c_abort.html">Result Codes</a>
+     * @throws SQLException
+     * @see org.sqlite.Functions
+     */
+    public abstract int create_scalar_function(String name, Object f, int flags)
+            throws SQLException;
+
     /**
      * De-registers a user defined function
      *
@@ -859,12 +1317,17 @@ public abstract class DB implements Codes {
      * @return String array of column names.
      * @throws SQLException
      */
-    public final synchronized String[] column_names(MemorySegment stmt) throws SQLException {
-        String[] names = new String[column_count(stmt)];
-        for (int i = 0; i < names.length; i++) {
-            names[i] = column_name(stmt, i);
+    public final String[] column_names(MemorySegment stmt) throws SQLException {
+        lock();
+        try {
+            String[] names = new String[column_count(stmt)];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = column_name(stmt, i);
+            }
+            return names;
+        } finally {
+            unlock();
         }
-        return names;
     }
 
     /**
@@ -878,7 +1341,7 @@ public abstract class DB implements Codes {
      * @see <a
      *     href="https://www.sqlite.org/c3ref/bind_blob.html">https://www.sqlite.org/c3ref/bind_blob.html</a>
      */
-    final synchronized int sqlbind(MemorySegment stmt, int pos, Object v) throws SQLException {
+    final int sqlbind(MemorySegment stmt, int pos, Object v) throws SQLException {
         pos++;
         return switch (v) {
             case null -> bind_null(stmt, pos);
@@ -889,6 +1352,8 @@ public abstract class DB implements Codes {
             case Double aDouble -> bind_double(stmt, pos, aDouble);
             case String s -> bind_text(stmt, pos, s);
             case byte[] bytes -> bind_blob(stmt, pos, bytes);
+            case MemorySegment bytes -> bind_blob(stmt, pos, bytes, (int) bytes.byteSize());
+            case ZeroBlob zero -> bind_zeroblob(stmt, pos, zero.length());
             default -> throw new SQLException("unexpected param type: " + v.getClass());
         };
     }
@@ -898,39 +1363,207 @@ public abstract class DB implements Codes {
      *
      * @see java.sql.Statement#executeBatch()
      * @param stmt Pointer of Stmt object.
-     * @param count Number of SQL statements.
-     * @param vals Array of parameter values.
+     * @param rows The parameter values of each command.
+     * @param keys Receives the rows of the RETURNING clause of each command, or else the last
+     *     inserted rowid after each command. May be null.
      * @return Array of the number of rows changed or inserted or deleted for each command if all
      *     commands execute successfully;
      * @throws SQLException if statement is not open or is being used elsewhere
      */
-    final synchronized long[] executeBatch(
-            SafeStmtPtr stmt, int count, Object[] vals, boolean autoCommit) throws SQLException {
-        return stmt.safeRun((db, ptr) -> this.executeBatch(ptr, count, vals, autoCommit));
+    final long[] executeBatch(
+            SafeStmtPtr stmt, BatchBuffer rows, boolean autoCommit, RowBuffer keys)
+            throws SQLException {
+        lock();
+        try {
+            return stmt.safeRun(
+                    (db, ptr) -> this.executeBatch(stmt, ptr, rows, autoCommit, keys));
+        } finally {
+            unlock();
+        }
     }
 
-    private synchronized long[] executeBatch(
-            MemorySegment stmt, int count, Object[] vals, boolean autoCommit) throws SQLException {
+    private long[] executeBatch(
+            SafeStmtPtr pointer,
+            MemorySegment stmt,
+            BatchBuffer rows,
+            boolean autoCommit,
+            RowBuffer keys)
+            throws SQLException {
+        final int count = rows.size();
         if (count < 1) {
             throw new SQLException("count (" + count + ") < 1");
         }
+        return executeBatch(pointer, stmt, rows, 0, new long[count], autoCommit, keys);
+    }
 
-        final int params = bind_parameter_count(stmt);
+    /**
+     * Submits a batch of single-row inserts, binding the rows to a multi-row variant of the
+     * statement so that each step inserts several of them. The rows that do not fill a step, and
+     * the rows of a step that fails, are then executed one by one with the single-row statement,
+     * which reports the row that fails as {@link #executeBatch(SafeStmtPtr, BatchBuffer, boolean,
+     * RowBuffer)} would. Each step runs inside a savepoint that is rolled back when the step fails,
+     * so the rows that a FAIL conflict resolution or a {@code RAISE(FAIL)} trigger keeps are not
+     * inserted twice. A step whose ROLLBACK conflict resolution ends the transaction of the caller
+     * is not replayed.
+     *
+     * @param stmt The single-row INSERT.
+     * @param multiRow The statement that repeats the row of values of the INSERT, with a {@code
+     *     RETURNING rowid} clause if {@code keys} is not null.
+     * @param rowsPerStep The number of rows of values of {@code multiRow}.
+     * @param rows The parameter values of each row.
+     * @param keys Receives the rowid of each inserted row. May be null.
+     * @return The number of rows inserted by each row of the batch, or {@link
+     *     java.sql.Statement#SUCCESS_NO_INFO} for the rows of a step that inserted fewer rows than
+     *     it was given.
+     * @throws SQLException if a row cannot be inserted.
+     */
+    final long[] executeBatch(
+            SafeStmtPtr stmt,
+            SafeStmtPtr multiRow,
+            int rowsPerStep,
+            BatchBuffer rows,
+            boolean autoCommit,
+            RowBuffer keys)
+            throws SQLException {
+        lock();
+        try {
+            return stmt.safeRun(
+                    (db, ptr) ->
+                            multiRow.safeRun(
+                                    (db2, multi) ->
+                                            executeBatch(
+                                                    stmt,
+                                                    ptr,
+                                                    multi,
+                                                    rowsPerStep,
+                                                    rows,
+                                                    autoCommit,
+                                                    keys)));
+        } finally {
+            unlock();
+        }
+    }
 
-        int rc;
+    private long[] executeBatch(
+            SafeStmtPtr pointer,
+            MemorySegment stmt,
+            MemorySegment multiRow,
+            int rowsPerStep,
+            BatchBuffer rows,
+            boolean autoCommit,
+            RowBuffer keys)
+            throws SQLException {
+        final int count = rows.size();
         long[] changes = new long[count];
+        long[] stepKeys = keys == null ? null : new long[rowsPerStep];
+        if (keys != null) {
+            keys.resetRowIds();
+        }
+        int i = 0;
+        try {
+            while (count - i >= rowsPerStep) {
+                boolean transaction = !get_autocommit();
+                _exec(BEGIN_BATCH_STEP);
+                int rc = SQLITE_OK;
+                for (int slot = 0; slot < rowsPerStep && rc == SQLITE_OK; slot++) {
+                    rc = rows.bind(this, multiRow, i + slot, slot);
+                }
+                int inserted = 0;
+                if (rc == SQLITE_OK) {
+                    rc = step(multiRow);
+                    while (rc == SQLITE_ROW && keys != null && inserted < rowsPerStep) {
+                        stepKeys[inserted++] = column_long(multiRow, 0);
+                        rc = step(multiRow);
+                    }
+                }
+                reset(multiRow);
+                if (rc != SQLITE_DONE) {
+                    if (!get_autocommit()) {
+                        // undo the rows that the failing step kept
+                        _exec(UNDO_BATCH_STEP);
+                    } else if (transaction) {
+                        SQLException cause = newSQLException(rc);
+                        Arrays.fill(changes, 0, i, Statement.EXECUTE_FAILED);
+                        throw new BatchUpdateException(
+                                "batch entries "
+                                        + i
+                                        + " to "
+                                        + (i + rowsPerStep - 1)
+                                        + ": "
+                                        + cause.getMessage()
+                                        + " (rolled back the transaction)",
+                                null,
+                                0,
+                                changes,
+                                cause);
+                    }
+                    break;
+                }
+                long n = changes() == rowsPerStep ? 1 : Statement.SUCCESS_NO_INFO;
+                _exec(END_BATCH_STEP);
+                Arrays.fill(changes, i, i + rowsPerStep, n);
+                for (int k = 0; k < inserted; k++) {
+                    keys.addLong(stepKeys[k]);
+                }
+                i += rowsPerStep;
+            }
+        } finally {
+            // the bound text and blobs point into the batch buffer
+            clear_bindings(multiRow);
+        }
+        if (i == count) {
+            ensureAutoCommit(autoCommit);
+            return changes;
+        }
+        return executeBatch(pointer, stmt, rows, i, changes, autoCommit, keys);
+    }
+
+    /**
+     * Executes the rows of a batch from an index, one step each.
+     *
+     * @param pointer The statement, for the descriptors of the columns of its RETURNING clause.
+     * @param stmt Pointer to the statement.
+     * @param from Index of the first row to execute.
+     * @param changes Receives the number of rows changed by each row of the batch.
+     * @param keys Receives the rows of the RETURNING clause, or else the last inserted rowid, of
+     *     each row. Emptied first if {@code from} is 0. May be null.
+     */
+    private long[] executeBatch(
+            SafeStmtPtr pointer,
+            MemorySegment stmt,
+            BatchBuffer rows,
+            int from,
+            long[] changes,
+            boolean autoCommit,
+            RowBuffer keys)
+            throws SQLException {
+        final int count = rows.size();
+        int rc;
+        boolean returning = column_count(stmt) != 0 && !stmt_readonly(stmt);
+        if (keys != null && from == 0) {
+            if (returning) {
+                keys.reset(this, stmt, pointer.columns());
+            } else {
+                keys.resetRowIds();
+            }
+        }
 
         try {
-            for (int i = 0; i < count; i++) {
+            for (int i = from; i < count; i++) {
                 reset(stmt);
-                for (int j = 0; j < params; j++) {
-                    rc = sqlbind(stmt, j, vals[(i * params) + j]);
-                    if (rc != SQLITE_OK) {
-                        throwex(rc);
-                    }
+                rc = rows.bind(this, stmt, i);
+                if (rc != SQLITE_OK) {
+                    throwex(rc);
                 }
 
                 rc = step(stmt);
+                if (rc == SQLITE_ROW && returning) {
+                    if (keys != null && keys.size() == 0) {
+                        // the first step may have prepared the statement again for a schema change
+                        keys.reset(this, stmt, pointer.columns());
+                    }
+                    rc = collectRows(stmt, keys);
+                }
                 if (rc != SQLITE_DONE) {
                     reset(stmt);
                     if (rc == SQLITE_ROW) {
@@ -945,8 +1578,13 @@ public abstract class DB implements Codes {
                 }
 
                 changes[i] = changes();
+                if (keys != null && !returning) {
+                    keys.addLong(last_insert_rowid());
+                }
             }
         } finally {
+            // the bound text and blobs point into the batch buffer
+            clear_bindings(stmt);
             ensureAutoCommit(autoCommit);
         }
 
@@ -955,48 +1593,404 @@ public abstract class DB implements Codes {
     }
 
     /**
-     * @see <a
-     *     href="https://www.sqlite.org/c_interface.html#sqlite_exec">https://www.sqlite.org/c_interface.html#sqlite_exec</a>
-     * @param stmt Stmt object.
-     * @param vals Array of parameter values.
-     * @return True if a row of ResultSet is ready; false otherwise.
+     * Steps a query and reads its rows into a buffer, for a result set that reads ahead.
+     *
+     * @param stmt Pointer to the statement.
+     * @param rows Receives the rows. Emptied first.
+     * @param columns The descriptors of the columns of the statement.
+     * @param current Whether to read the row the statement is positioned on before stepping.
+     * @param count The most rows to read.
+     * @return {@link Codes#SQLITE_ROW} if the statement may have more rows, {@link
+     *     Codes#SQLITE_DONE} if it has none, or the error code of the step that failed after the
+     *     rows read before it.
+     * @throws SQLException
+     */
+    final int fetch(
+            MemorySegment stmt,
+            RowBuffer rows,
+            ColumnDescriptor[] columns,
+            boolean current,
+            int count)
+            throws SQLException {
+        rows.reset(this, stmt, columns);
+        int n = 0;
+        if (current) {
+            rows.add(this, stmt);
+            n++;
+        }
+        while (n < count) {
+            int rc = step(stmt);
+            if (rc != SQLITE_ROW) {
+                return rc;
+            }
+            rows.add(this, stmt);
+            n++;
+        }
+        return SQLITE_ROW;
+    }
+
+    /**
+     * Steps a query and reads one column of each row into an array.
+     *
+     * @param stmt Pointer to the statement.
+     * @param current Whether to read the row the statement is positioned on before stepping.
+     * @param col Index of the column.
+     * @param dest Receives the values from index 0, read as column_long() reads them.
+     * @param count The most rows to read.
+     * @return The number of rows read, less than {@code count} if the statement has no more rows.
+     * @throws SQLException if a step fails.
+     */
+    final int fetchLongs(MemorySegment stmt, boolean current, int col, long[] dest, int count)
+            throws SQLException {
+        int n = 0;
+        while (n < count && (n == 0 && current || stepRow(stmt))) {
+            dest[n++] = column_long(stmt, col);
+        }
+        return n;
+    }
+
+    /**
+     * Steps a query and reads one column of each row into an array.
+     *
+     * @param stmt Pointer to the statement.
+     * @param current Whether to read the row the statement is positioned on before stepping.
+     * @param col Index of the column.
+     * @param dest Receives the values from index 0, read as column_double() reads them.
+     * @param count The most rows to read.
+     * @return The number of rows read, less than {@code count} if the statement has no more rows.
+     * @throws SQLException if a step fails.
+     */
+    final int fetchDoubles(MemorySegment stmt, boolean current, int col, double[] dest, int count)
+            throws SQLException {
+        int n = 0;
+        while (n < count && (n == 0 && current || stepRow(stmt))) {
+            dest[n++] = column_double(stmt, col);
+        }
+        return n;
+    }
+
+    /**
+     * Steps a query and reads the columns of a sink of each row into its buffers.
+     *
+     * @param stmt Pointer to the statement.
+     * @param current Whether to read the row the statement is positioned on before stepping.
+     * @param sink Receives the values and NULL bitmaps from row 0.
+     * @param count The most rows to read, at most the capacity of the sink.
+     * @return The number of rows read, less than {@code count} if the statement has no more rows.
+     * @throws SQLException if a step fails.
+     */
+    final int fetchColumns(MemorySegment stmt, boolean current, ColumnSink sink, int count)
+            throws SQLException {
+        int columns = sink.columnCount();
+        int[] cols = new int[columns];
+        MemorySegment[] values = new MemorySegment[columns];
+        MemorySegment[] nulls = new MemorySegment[columns];
+        for (int i = 0; i < columns; i++) {
+            cols[i] = sink.column(i) - 1;
+            values[i] = sink.values(i);
+            nulls[i] = sink.nulls(i);
+            nulls[i].fill((byte) 0);
+        }
+        int n = 0;
+        while (n < count && (n == 0 && current || stepRow(stmt))) {
+            for (int i = 0; i < columns; i++) {
+                if (column_type(stmt, cols[i]) == SQLITE_NULL) {
+                    long word = nulls[i].getAtIndex(ValueLayout.JAVA_LONG, n >>> 6);
+                    nulls[i].setAtIndex(ValueLayout.JAVA_LONG, n >>> 6, word | 1L << n);
+                    values[i].setAtIndex(ValueLayout.JAVA_LONG, n, 0);
+                } else if (sink.isDouble(i)) {
+                    values[i].setAtIndex(ValueLayout.JAVA_DOUBLE, n, column_double(stmt, cols[i]));
+                } else {
+                    values[i].setAtIndex(ValueLayout.JAVA_LONG, n, column_long(stmt, cols[i]));
+                }
+            }
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * @return Whether the statement stepped to a row, or false if it has no more rows.
+     * @throws SQLException if the step fails.
+     */
+    private boolean stepRow(MemorySegment stmt) throws SQLException {
+        int rc = step(stmt);
+        if (rc == SQLITE_ROW) {
+            return true;
+        } else if (rc == SQLITE_DONE) {
+            return false;
+        }
+        throw newSQLException(rc);
+    }
+
+    /**
+     * Reads the rows of a RETURNING clause, starting with the row the statement is positioned on.
+     *
+     * @param stmt Pointer to the statement.
+     * @param rows Receives the rows, or null to skip them.
+     * @return <a href="https://www.sqlite.org/c3ref/c_abort.html">Result Codes</a> of the last step
      * @throws SQLException
      */
-    public final synchronized boolean execute(CoreStatement stmt, Object[] vals)
+    private int collectRows(MemorySegment stmt, RowBuffer rows) throws SQLException {
+        int rc;
+        do {
+            if (rows != null) {
+                rows.add(this, stmt);
+            }
+            rc = step(stmt);
+        } while (rc == SQLITE_ROW);
+        return rc;
+    }
+
+    /**
+     * Submits the SQL strings added to a {@link java.sql.Statement} batch for execution. Each
+     * distinct string is compiled once and reset between the entries that repeat it. In auto-commit
+     * mode, consecutive entries that write to the database run in one transaction instead of one
+     * each. That transaction is committed before any read-only entry, such as a transaction control
+     * statement, before a VACUUM or PRAGMA entry or one with an OR ROLLBACK clause, which run on
+     * their own, and when the batch ends or fails, so entries that succeeded before a failure stay
+     * committed. The exception is an entry whose failure rolls back the transaction through a
+     * trigger's RAISE(ROLLBACK) or a table's ON CONFLICT ROLLBACK: the entries of the transaction
+     * before it are rolled back with it and their update counts are {@link
+     * Statement#EXECUTE_FAILED}. The rows returned by an entry with a RETURNING clause are
+     * discarded.
+     *
+     * @see java.sql.Statement#executeBatch()
+     * @param sqls The SQL strings of the batch.
+     * @param count Number of SQL strings.
+     * @param autoCommit Whether to auto-commit.
+     * @return Array of the number of rows changed or inserted or deleted for each entry.
+     * @throws SQLException if an entry fails or returns results, or the batch cannot be committed
+     */
+    public final long[] executeBatch(Object[] sqls, int count, boolean autoCommit)
             throws SQLException {
-        int statusCode = stmt.pointer.safeRunInt((db, ptr) -> execute(ptr, vals));
-        return switch (statusCode & 0xFF) {
-            case SQLITE_DONE -> {
-                ensureAutoCommit(stmt.conn.getAutoCommit());
-                yield false;
+        long[] changes = new long[count];
+        StatementCache compiled = new StatementCache(this, BATCH_STATEMENTS);
+        boolean transaction = false;
+        int transactionStart = 0;
+        lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                String sql = (String) sqls[i];
+                try {
+                    StatementCache.Entry entry = compiled.take(sql);
+                    if (entry == null) {
+                        entry =
+                                new StatementCache.Entry(
+                                        prepare(sql, false).detach(), null, 0, 0, null, 0);
+                    }
+                    try {
+                        if (autoCommit) {
+                            boolean grouped =
+                                    !stmt_readonly(entry.stmt())
+                                            && !BATCH_UNGROUPED.matcher(sql).find();
+                            if (transaction && !grouped) {
+                                transaction = false;
+                                endBatchTransaction();
+                            } else if (!transaction && grouped && get_autocommit()) {
+                                beginBatchTransaction();
+                                transaction = true;
+                                transactionStart = i;
+                            }
+                        }
+                        int rc = step(entry.stmt());
+                        if (rc == SQLITE_ROW && !stmt_readonly(entry.stmt())) {
+                            // the rows of a RETURNING clause are discarded
+                            rc = collectRows(entry.stmt(), null);
+                        }
+                        if (rc == SQLITE_ROW) {
+                            throw new SQLException("query returns results");
+                        } else if (rc != SQLITE_DONE) {
+                            throw newSQLException(rc);
+                        }
+                        changes[i] = changes();
+                    } finally {
+                        compiled.put(sql, entry);
+                    }
+                    if (!transaction) {
+                        ensureAutoCommit(autoCommit);
+                    }
+                } catch (SQLException e) {
+                    String message = "batch entry " + i + ": " + e.getMessage();
+                    if (transaction && get_autocommit()) {
+                        // the failing entry rolled back the whole batch transaction
+                        Arrays.fill(changes, transactionStart, i, Statement.EXECUTE_FAILED);
+                        message += " (rolled back entries " + transactionStart + " to " + i + ")";
+                    }
+                    BatchUpdateException failure =
+                            new BatchUpdateException(message, null, 0, changes, e);
+                    if (transaction) {
+                        try {
+                            endBatchTransaction();
+                        } catch (SQLException commitFailure) {
+                            failure.addSuppressed(commitFailure);
+                        }
+                    }
+                    throw failure;
+                }
             }
-            case SQLITE_ROW -> true;
-            case SQLITE_BUSY, SQLITE_LOCKED, SQLITE_MISUSE, SQLITE_CONSTRAINT ->
-                    throw newSQLException(statusCode);
-            default -> {
-                stmt.pointer.close();
-                throw newSQLException(statusCode);
+            if (transaction) {
+                endBatchTransaction();
             }
-        };
+            return changes;
+        } finally {
+            try {
+                compiled.clear();
+            } finally {
+                unlock();
+            }
+        }
+    }
+
+    /**
+     * Opens a transaction for several statements that would each commit on their own in auto-commit
+     * mode, as done by {@link #executeBatch(Object[], int, boolean)} and a {@link
+     * SQLiteBulkLoader}.
+     */
+    final void beginBatchTransaction() throws SQLException {
+        ensureBeginAndCommit();
+        stepOnce(begin);
     }
 
-    private synchronized int execute(MemorySegment stmt, Object[] vals) throws SQLException {
-        if (vals != null) {
-            final int params = bind_parameter_count(stmt);
-            if (params > vals.length) {
-                throw new SQLException(
-                        "assertion failure: param count ("
-                                + params
-                                + ") > value count ("
-                                + vals.length
-                                + ")");
+    /**
+     * Commits the transaction opened by {@link #beginBatchTransaction()}, unless a failed statement
+     * has already rolled it back. The transaction is rolled back if it cannot be committed.
+     */
+    final void endBatchTransaction() throws SQLException {
+        if (get_autocommit()) {
+            return;
+        }
+        try {
+            stepOnce(commit);
+        } catch (SQLException e) {
+            if (!get_autocommit()) {
+                _exec("rollback;");
             }
+            throw e;
+        }
+    }
 
-            for (int i = 0; i < params; i++) {
-                int rc = sqlbind(stmt, i, vals[i]);
-                if (rc != SQLITE_OK) {
-                    throwex(rc);
+    private void stepOnce(SafeStmtPtr stmt) throws SQLException {
+        stmt.safeRunConsume(
+                (db, ptr) -> {
+                    int rc = step(ptr);
+                    reset(ptr);
+                    if (rc != SQLITE_DONE) {
+                        throwex(rc);
+                    }
+                });
+    }
+
+    /**
+     * Creates a loader that inserts rows into a table through one persistent prepared statement.
+     *
+     * @param table The name of the table.
+     * @param columns The names of the columns to insert into, in the order values are appended.
+     * @return The loader, to be closed by the caller.
+     * @throws SQLException if the INSERT statement cannot be compiled.
+     */
+    public final SQLiteBulkLoader bulkLoader(String table, String[] columns) throws SQLException {
+        lock();
+        try {
+            return new BulkLoader(this, table, columns);
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Opens a channel for incremental I/O on the blob or text of one cell.
+     *
+     * @param schema The name of the database, such as "main".
+     * @param table The name of the table.
+     * @param column The name of the column.
+     * @param rowId The rowid of the row.
+     * @param writable Whether the channel can write.
+     * @return The channel, to be closed by the caller.
+     * @throws SQLException if the cell does not exist or does not hold a blob or text.
+     */
+    public final SQLiteBlob openBlob(
+            String schema, String table, String column, long rowId, boolean writable)
+            throws SQLException {
+        lock();
+        try {
+            BlobChannel blob = new BlobChannel(this, schema, table, column, rowId, writable);
+            blobs.add(blob);
+            return blob;
+        } finally {
+            unlock();
+        }
+    }
+
+    void removeBlob(BlobChannel blob) {
+        blobs.remove(blob);
+    }
+
+    /**
+     * Inserts the records of a CSV or TSV file into a table with a {@link #bulkLoader(String,
+     * String[]) bulk loader}.
+     *
+     * @param file The UTF-8 file.
+     * @param table The name of the table.
+     * @param format The format of the file. With a header, fields of the columns of the table it
+     *     names are inserted; otherwise fields are inserted into the columns of the table in order.
+     * @return The progress of the loader once closed.
+     * @throws SQLException if a record cannot be parsed or inserted.
+     * @throws IOException if the file cannot be mapped.
+     */
+    public final BulkLoadProgress importCsv(Path file, String table, CsvFormat format)
+            throws SQLException, IOException {
+        lock();
+        try {
+            SQLiteBulkLoader loader =
+                    new BulkLoader(this, table, BulkLoader.csvColumns(this, file, table, format));
+            try (loader) {
+                loader.loadCsv(file, format);
+            }
+            return loader.getProgress();
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * @see <a
+     *     href="https://www.sqlite.org/c_interface.html#sqlite_exec">https://www.sqlite.org/c_interface.html#sqlite_exec</a>
+     * @param stmt Stmt object, whose current parameter values are bound.
+     * @return True if a row of ResultSet is ready; false otherwise.
+     * @throws SQLException
+     */
+    public final boolean execute(CoreStatement stmt) throws SQLException {
+        lock();
+        try {
+            BatchBuffer params = stmt.parameters();
+            int statusCode = stmt.pointer.safeRunInt((db, ptr) -> execute(ptr, params));
+            if (stmt instanceof CorePreparedStatement prepared) {
+                prepared.refreshColumns();
+            }
+            return switch (statusCode & 0xFF) {
+                case SQLITE_DONE -> {
+                    ensureAutoCommit(stmt.conn.getAutoCommit());
+                    yield false;
+                }
+                case SQLITE_ROW -> true;
+                case SQLITE_BUSY, SQLITE_LOCKED, SQLITE_MISUSE, SQLITE_CONSTRAINT ->
+                        throw newSQLException(statusCode);
+                default -> {
+                    stmt.pointer.close();
+                    throw newSQLException(statusCode);
                 }
+            };
+        } finally {
+            unlock();
+        }
+    }
+
+    private int execute(MemorySegment stmt, BatchBuffer params) throws SQLException {
+        if (params != null) {
+            int rc = params.bindCurrent(this, stmt);
+            if (rc != SQLITE_OK) {
+                throwex(rc);
             }
         }
 
@@ -1014,76 +2008,136 @@ public abstract class DB implements Codes {
      * @see <a
      *     href="https://www.sqlite.org/c3ref/exec.html">https://www.sqlite.org/c3ref/exec.html</a>
      */
-    final synchronized boolean execute(String sql, boolean autoCommit) throws SQLException {
-        int statusCode = _exec(sql);
-        return switch (statusCode) {
-            case SQLITE_OK -> false;
-            case SQLITE_DONE -> {
-                ensureAutoCommit(autoCommit);
-                yield false;
-            }
-            case SQLITE_ROW -> true;
-            default -> throw newSQLException(statusCode);
-        };
+    final boolean execute(String sql, boolean autoCommit) throws SQLException {
+        lock();
+        try {
+            int statusCode = _exec(sql);
+            return switch (statusCode) {
+                case SQLITE_OK -> false;
+                case SQLITE_DONE -> {
+                    ensureAutoCommit(autoCommit);
+                    yield false;
+                }
+                case SQLITE_ROW -> true;
+                default -> throw newSQLException(statusCode);
+            };
+        } finally {
+            unlock();
+        }
     }
 
     /**
-     * Execute an SQL INSERT, UPDATE or DELETE statement with the Stmt object and an array of
-     * parameter values of the SQL statement..
+     * Execute an SQL INSERT, UPDATE or DELETE statement with the Stmt object and its current
+     * parameter values.
      *
      * @param stmt Stmt object.
-     * @param vals Array of parameter values.
      * @return Number of database rows that were changed or inserted or deleted by the most recently
      *     completed SQL.
      * @throws SQLException
      */
-    public final synchronized long executeUpdate(CoreStatement stmt, Object[] vals)
-            throws SQLException {
+    public final long executeUpdate(CoreStatement stmt) throws SQLException {
+        return executeUpdate(stmt, null);
+    }
+
+    /**
+     * Executes an SQL INSERT, UPDATE or DELETE statement that may have a RETURNING clause, with
+     * the Stmt object and its current parameter values.
+     *
+     * @param stmt Stmt object.
+     * @param returning Receives the rows of the RETURNING clause, or null if the statement must not
+     *     return rows.
+     * @return Number of database rows that were changed or inserted or deleted by the most recently
+     *     completed SQL.
+     * @throws SQLException
+     * @see <a
+     *     href="https://www.sqlite.org/lang_returning.html">https://www.sqlite.org/lang_returning.html</a>
+     */
+    public final long executeUpdate(CoreStatement stmt, RowBuffer returning) throws SQLException {
+        lock();
         try {
-            if (execute(stmt, vals)) {
-                throw new SQLException("query returns results");
+            try {
+                if (execute(stmt)) {
+                    if (returning == null) {
+                        throw new SQLException("query returns results");
+                    }
+                    int rc =
+                            stmt.pointer.safeRunInt(
+                                    (db, ptr) -> {
+                                        returning.reset(this, ptr, stmt.pointer.columns());
+                                        return collectRows(ptr, returning);
+                                    });
+                    if (rc != SQLITE_DONE) {
+                        throwex(rc);
+                    }
+                    ensureAutoCommit(stmt.conn.getAutoCommit());
+                }
+            } finally {
+                if (!stmt.pointer.isClosed()) {
+                    stmt.pointer.safeRunInt(DB::reset);
+                }
             }
+            return changes();
         } finally {
-            if (!stmt.pointer.isClosed()) {
-                stmt.pointer.safeRunInt(DB::reset);
-            }
+            unlock();
         }
-        return changes();
     }
 
     abstract void set_commit_listener(boolean enabled);
 
     abstract void set_update_listener(boolean enabled);
 
-    public synchronized void addUpdateListener(SQLiteUpdateListener listener) {
-        if (updateListeners.add(listener) && updateListeners.size() == 1) {
-            set_update_listener(true);
+    public void addUpdateListener(SQLiteUpdateListener listener) {
+        lock();
+        try {
+            if (updateListeners.add(listener) && updateListeners.size() == 1) {
+                set_update_listener(true);
+            }
+        } finally {
+            unlock();
         }
     }
 
-    public synchronized void addCommitListener(SQLiteCommitListener listener) {
-        if (commitListeners.add(listener) && commitListeners.size() == 1) {
-            set_commit_listener(true);
+    public void addCommitListener(SQLiteCommitListener listener) {
+        lock();
+        try {
+            if (commitListeners.add(listener) && commitListeners.size() == 1) {
+                set_commit_listener(true);
+            }
+        } finally {
+            unlock();
         }
     }
 
-    public synchronized void removeUpdateListener(SQLiteUpdateListener listener) {
-        if (updateListeners.remove(listener) && updateListeners.isEmpty()) {
-            set_update_listener(false);
+    public void removeUpdateListener(SQLiteUpdateListener listener) {
+        lock();
+        try {
+            if (updateListeners.remove(listener) && updateListeners.isEmpty()) {
+                set_update_listener(false);
+            }
+        } finally {
+            unlock();
         }
     }
 
-    public synchronized void removeCommitListener(SQLiteCommitListener listener) {
-        if (commitListeners.remove(listener) && commitListeners.isEmpty()) {
-            set_commit_listener(false);
+    public void removeCommitListener(SQLiteCommitListener listener) {
+        lock();
+        try {
+            if (commitListeners.remove(listener) && commitListeners.isEmpty()) {
+                set_commit_listener(false);
+            }
+        } finally {
+            unlock();
         }
     }
 
     void onUpdate(int type, String database, String table, long rowId) {
         Set<SQLiteUpdateListener> listeners;
 
-        synchronized (this) {
+        lock();
+        try {
             listeners = new HashSet<>(updateListeners);
+        } finally {
+            unlock();
         }
 
         for (SQLiteUpdateListener listener : listeners) {
@@ -1102,8 +2156,11 @@ public abstract class DB implements Codes {
     void onCommit(boolean commit) {
         Set<SQLiteCommitListener> listeners;
 
-        synchronized (this) {
+        lock();
+        try {
             listeners = new HashSet<>(commitListeners);
+        } finally {
+            unlock();
         }
 
         for (SQLiteCommitListener listener : listeners) {
@@ -1167,7 +2224,8 @@ public abstract class DB implements Codes {
      * @return SQLException with error code and message.
      * @throws SQLException Formatted SQLException with error code
      */
-    private SQLiteException newSQLException(int errorCode) throws SQLException {
+    final SQLiteException newSQLException(int errorCode) throws SQLException {
+        if ((errorCode & 0xFF) == SQLITE_SCHEMA) clearStatementCache();
         return newSQLException(errorCode, errmsg());
     }
 
@@ -1208,19 +2266,19 @@ public abstract class DB implements Codes {
     }
 
     private void ensureBeginAndCommit() throws SQLException {
-        if (begin == null) {
-            synchronized (this) {
-                if (begin == null) {
-                    begin = prepare("begin;");
-                }
-            }
+        if (begin != null && commit != null) {
+            return;
         }
-        if (commit == null) {
-            synchronized (this) {
-                if (commit == null) {
-                    commit = prepare("commit;");
-                }
+        lock();
+        try {
+            if (begin == null) {
+                begin = prepare("begin;", true);
+            }
+            if (commit == null) {
+                commit = prepare("commit;", true);
             }
+        } finally {
+            unlock();
         }
     }
 
@@ -0,0 +1,222 @@
+package org.sqlite.core;
+
+/**
+ * A single-row {@code INSERT ... VALUES (...)} statement split around its row of values, so that
+ * the row can be repeated into one statement that inserts several rows per step. Only statements
+ * whose parameters are all anonymous {@code ?} parameters inside the row, and that end after the
+ * row, can be split: a RETURNING or upsert clause, a second row, a SELECT or a conflict resolution
+ * of FAIL or ROLLBACK, which would keep or undo part of a failing multi-row step, rule it out.
+ */
+final class MultiRowInsert {
+    private final String head;
+    private final String row;
+    private final String tail;
+
+    private MultiRowInsert(String head, String row, String tail) {
+        this.head = head;
+        this.row = row;
+        this.tail = tail;
+    }
+
+    /**
+     * @param sql The SQL of a prepared statement.
+     * @param paramCount The number of parameters of the statement.
+     * @return The split statement, or null if it is not a single-row INSERT that can be repeated.
+     */
+    static MultiRowInsert parse(String sql, int paramCount) {
+        if (sql == null || paramCount == 0) {
+            return null;
+        }
+        int n = sql.length();
+        int i = skipSpace(sql, 0);
+        String first = word(sql, i);
+        if (!first.equalsIgnoreCase("insert") && !first.equalsIgnoreCase("replace")) {
+            return null;
+        }
+
+        // find VALUES outside parentheses, with no parameter before it
+        int values = -1;
+        int depth = 0;
+        String previous = "";
+        while (i < n && values < 0) {
+            char c = sql.charAt(i);
+            if (isWordStart(c)) {
+                String w = word(sql, i);
+                if (depth == 0) {
+                    if (w.equalsIgnoreCase("select")
+                            || previous.equalsIgnoreCase("or")
+                                    && (w.equalsIgnoreCase("fail")
+                                            || w.equalsIgnoreCase("rollback"))) {
+                        return null;
+                    } else if (w.equalsIgnoreCase("values")) {
+                        values = i + w.length();
+                    }
+                }
+                previous = w;
+                i += w.length();
+            } else if (c == '(') {
+                depth++;
+                i++;
+            } else if (c == ')') {
+                depth--;
+                i++;
+            } else if (isParameter(c)) {
+                return null;
+            } else {
+                i = skipQuotedOrComment(sql, i);
+                if (i < 0) {
+                    return null;
+                }
+            }
+        }
+        if (values < 0) {
+            return null;
+        }
+
+        int start = skipSpace(sql, values);
+        if (start >= n || sql.charAt(start) != '(') {
+            return null;
+        }
+        int params = 0;
+        depth = 0;
+        i = start;
+        int end = -1;
+        while (i < n && end < 0) {
+            char c = sql.charAt(i);
+            if (c == '(') {
+                depth++;
+                i++;
+            } else if (c == ')') {
+                if (--depth == 0) {
+                    end = i + 1;
+                }
+                i++;
+            } else if (c == '?') {
+                if (i + 1 < n && Character.isDigit(sql.charAt(i + 1))) {
+                    return null;
+                }
+                params++;
+                i++;
+            } else if (isParameter(c)) {
+                return null;
+            } else if (isWordStart(c)) {
+                i += word(sql, i).length();
+            } else {
+                i = skipQuotedOrComment(sql, i);
+                if (i < 0) {
+                    return null;
+                }
+            }
+        }
+        if (end < 0 || params != paramCount) {
+            return null;
+        }
+
+        // nothing but spaces, comments and semicolons may follow the row
+        i = skipSpace(sql, end);
+        while (i < n && sql.charAt(i) == ';') {
+            i = skipSpace(sql, i + 1);
+        }
+        if (i < n) {
+            return null;
+        }
+        return new MultiRowInsert(
+                sql.substring(0, start), sql.substring(start, end), sql.substring(end));
+    }
+
+    /**
+     * @param rows The number of rows to insert per step.
+     * @param returningRowIds Whether the statement returns the rowid of each inserted row.
+     * @return The SQL of the statement with its row of values repeated.
+     */
+    String sql(int rows, boolean returningRowIds) {
+        StringBuilder sb = new StringBuilder(head.length() + (row.length() + 2) * rows + 16);
+        sb.append(head).append(row);
+        for (int r = 1; r < rows; r++) {
+            sb.append(", ").append(row);
+        }
+        if (returningRowIds) {
+            sb.append(" returning rowid");
+        }
+        return sb.append(tail).toString();
+    }
+
+    private static boolean isWordStart(char c) {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    /** Named and numbered parameters, which cannot be repeated. */
+    private static boolean isParameter(char c) {
+        return c == '?' || c == ':' || c == '@' || c == '$';
+    }
+
+    private static String word(String sql, int from) {
+        int i = from;
+        while (i < sql.length()
+                && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_')) {
+            i++;
+        }
+        return sql.substring(from, i);
+    }
+
+    /** The index of the first character from an index that is not a space or in a comment. */
+    private static int skipSpace(String sql, int from) {
+        int i = from;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' || c == '/') {
+                int next = skipQuotedOrComment(sql, i);
+                if (next == i + 1) {
+                    return i;
+                }
+                i = next < 0 ? sql.length() : next;
+            } else {
+                return i;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * @return The index after the quoted name, string literal or comment at an index, the index
+     *     after any other character, or -1 if a quote or comment is not terminated.
+     */
+    private static int skipQuotedOrComment(String sql, int from) {
+        char c = sql.charAt(from);
+        int n = sql.length();
+        switch (c) {
+            case '\'', '"', '`' -> {
+                for (int i = from + 1; i < n; i++) {
+                    if (sql.charAt(i) == c) {
+                        if (i + 1 < n && sql.charAt(i + 1) == c) {
+                            i++;
+                        } else {
+                            return i + 1;
+                        }
+                    }
+                }
+                return -1;
+            }
+            case '[' -> {
+                int end = sql.indexOf(']', from);
+                return end < 0 ? -1 : end + 1;
+            }
+            case '-' -> {
+                if (from + 1 < n && sql.charAt(from + 1) == '-') {
+                    int end = sql.indexOf('\n', from);
+                    return end < 0 ? n : end + 1;
+                }
+            }
+            case '/' -> {
+                if (from + 1 < n && sql.charAt(from + 1) == '*') {
+                    int end = sql.indexOf("*/", from + 2);
+                    return end < 0 ? -1 : end + 2;
+                }
+            }
+            default -> {}
+        }
+        return from + 1;
+    }
+}
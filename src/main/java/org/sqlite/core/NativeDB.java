@@ -16,16 +16,24 @@
 
 package org.sqlite.core;
 
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+
+import java.io.IOException;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 import org.sqlite.BusyHandler;
 import org.sqlite.Collation;
 import org.sqlite.Function;
 import org.sqlite.ProgressHandler;
 import org.sqlite.SQLiteConfig;
+import org.sqlite.ScriptResult;
 import org.sqlite.util.Logger;
 import org.sqlite.util.LoggerFactory;
 
@@ -42,6 +50,8 @@ public final class NativeDB extends DB {
     private static final int DEFAULT_BACKUP_BUSY_SLEEP_TIME_MILLIS = 100;
     private static final int DEFAULT_BACKUP_NUM_BUSY_BEFORE_FAIL = 3;
     private static final int DEFAULT_PAGES_PER_BACKUP_STEP = 100;
+    /** Initial size of the buffer a script is read into; it grows for larger statements. */
+    private static final int SCRIPT_BUFFER_SIZE = 1 << 20;
 
     private final NativeDB_c $this;
 
@@ -91,7 +101,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#_open(java.lang.String, int)
      */
     @Override
-    protected synchronized void _open(String file, int openFlags) throws SQLException {
+    protected void _open(String file, int openFlags) throws SQLException {
         $this._open(file, openFlags);
     }
 
@@ -99,7 +109,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#_close()
      */
     @Override
-    protected synchronized void _close() throws SQLException {
+    protected void _close() throws SQLException {
         $this._close();
     }
 
@@ -107,20 +117,25 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#_exec(java.lang.String)
      */
     @Override
-    public synchronized int _exec(String sql) throws SQLException {
-        logger.trace(
-                () ->
-                        MessageFormat.format(
-                                "DriverManager [{0}] [SQLite EXEC] {1}",
-                                Thread.currentThread().getName(), sql));
-        return $this._exec(sql);
+    public int _exec(String sql) throws SQLException {
+        lock();
+        try {
+            logger.trace(
+                    () ->
+                            MessageFormat.format(
+                                    "DriverManager [{0}] [SQLite EXEC] {1}",
+                                    Thread.currentThread().getName(), sql));
+            return $this._exec(sql);
+        } finally {
+            unlock();
+        }
     }
 
     /**
      * @see org.sqlite.core.DB#shared_cache(boolean)
      */
     @Override
-    public synchronized int shared_cache(boolean enable) {
+    public int shared_cache(boolean enable) {
         return $this.shared_cache(enable);
     }
 
@@ -128,11 +143,14 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#enable_load_extension(boolean)
      */
     @Override
-    public synchronized int enable_load_extension(boolean enable) {
+    public int enable_load_extension(boolean enable) {
+        lock();
         try {
             return $this.enable_load_extension(enable);
         } catch (SQLException _) {
             return SQLITE_MISUSE;
+        } finally {
+            unlock();
         }
     }
 
@@ -151,10 +169,13 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#busy_timeout(int)
      */
     @Override
-    public synchronized void busy_timeout(int ms) {
+    public void busy_timeout(int ms) {
+        lock();
         try {
             $this.busy_timeout(ms);
         } catch (SQLException _) {
+        } finally {
+            unlock();
         }
     }
 
@@ -164,35 +185,46 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#busy_handler(BusyHandler)
      */
     @Override
-    public synchronized void busy_handler(BusyHandler busyHandler) {
+    public void busy_handler(BusyHandler busyHandler) {
+        lock();
         try {
             $this.busy_handler(busyHandler);
         } catch (SQLException _) {
+        } finally {
+            unlock();
         }
     }
 
     /**
-     * @see org.sqlite.core.DB#prepare(java.lang.String)
+     * @see org.sqlite.core.DB#prepare(java.lang.String, boolean)
      */
     @Override
-    protected synchronized SafeStmtPtr prepare(String sql) throws SQLException {
-        logger.trace(
-                () ->
-                        MessageFormat.format(
-                                "DriverManager [{0}] [SQLite EXEC] {1}",
-                                Thread.currentThread().getName(), sql));
-        return new SafeStmtPtr(this, $this.prepare(sql));
+    protected SafeStmtPtr prepare(String sql, boolean persistent) throws SQLException {
+        lock();
+        try {
+            logger.trace(
+                    () ->
+                            MessageFormat.format(
+                                    "DriverManager [{0}] [SQLite EXEC] {1}",
+                                    Thread.currentThread().getName(), sql));
+            return new SafeStmtPtr(this, $this.prepare(sql, persistent));
+        } finally {
+            unlock();
+        }
     }
 
     /**
      * @see org.sqlite.core.DB#errmsg()
      */
     @Override
-    synchronized String errmsg() {
+    String errmsg() {
+        lock();
         try {
             return $this.errmsg();
         } catch (SQLException _) {
             return null;
+        } finally {
+            unlock();
         }
     }
 
@@ -200,7 +232,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#libversion()
      */
     @Override
-    public synchronized String libversion() {
+    public String libversion() {
         return $this.libversion();
     }
 
@@ -208,7 +240,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#changes()
      */
     @Override
-    public synchronized long changes() {
+    public long changes() {
         try {
             return $this.changes();
         } catch (SQLException _) {
@@ -220,7 +252,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#total_changes()
      */
     @Override
-    public synchronized long total_changes() {
+    public long total_changes() {
         try {
             return $this.total_changes();
         } catch (SQLException _) {
@@ -228,11 +260,31 @@ public final class NativeDB extends DB {
         }
     }
 
+    /**
+     * @see org.sqlite.core.DB#last_insert_rowid()
+     */
+    @Override
+    public long last_insert_rowid() {
+        try {
+            return $this.last_insert_rowid();
+        } catch (SQLException _) {
+            return 0;
+        }
+    }
+
+    /**
+     * @see org.sqlite.core.DB#get_autocommit()
+     */
+    @Override
+    boolean get_autocommit() throws SQLException {
+        return $this.get_autocommit();
+    }
+
     /**
      * @see org.sqlite.core.DB#finalize(MemorySegment)
      */
     @Override
-    protected synchronized int finalize(MemorySegment stmt) {
+    protected int finalize(MemorySegment stmt) {
         try {
             return $this.finalize(stmt);
         } catch (SQLException _) {
@@ -244,7 +296,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#step(MemorySegment)
      */
     @Override
-    public synchronized int step(MemorySegment stmt) {
+    public int step(MemorySegment stmt) {
         try {
             return $this.step(stmt);
         } catch (SQLException _) {
@@ -256,7 +308,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#reset(MemorySegment)
      */
     @Override
-    public synchronized int reset(MemorySegment stmt) {
+    public int reset(MemorySegment stmt) {
         try {
             return $this.reset(stmt);
         } catch (SQLException _) {
@@ -268,7 +320,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#clear_bindings(MemorySegment)
      */
     @Override
-    public synchronized int clear_bindings(MemorySegment stmt) {
+    public int clear_bindings(MemorySegment stmt) {
         try {
             return $this.clear_bindings(stmt);
         } catch (SQLException _) {
@@ -276,11 +328,27 @@ public final class NativeDB extends DB {
         }
     }
 
+    /**
+     * @see org.sqlite.core.DB#stmt_readonly(MemorySegment)
+     */
+    @Override
+    boolean stmt_readonly(MemorySegment stmt) throws SQLException {
+        return $this.stmt_readonly(stmt);
+    }
+
+    /**
+     * @see org.sqlite.core.DB#stmt_status(MemorySegment, int, boolean)
+     */
+    @Override
+    int stmt_status(MemorySegment stmt, int op, boolean reset) {
+        return $this.stmt_status(stmt, op, reset);
+    }
+
     /**
      * @see org.sqlite.core.DB#bind_parameter_count(MemorySegment)
      */
     @Override
-    synchronized int bind_parameter_count(MemorySegment stmt) {
+    int bind_parameter_count(MemorySegment stmt) {
         try {
             return $this.bind_parameter_count(stmt);
         } catch (SQLException _) {
@@ -292,7 +360,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#column_count(MemorySegment)
      */
     @Override
-    public synchronized int column_count(MemorySegment stmt) {
+    public int column_count(MemorySegment stmt) {
         try {
             return $this.column_count(stmt);
         } catch (SQLException _) {
@@ -304,7 +372,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#column_type(MemorySegment, int)
      */
     @Override
-    public synchronized int column_type(MemorySegment stmt, int col) {
+    public int column_type(MemorySegment stmt, int col) {
         try {
             return $this.column_type(stmt, col);
         } catch (SQLException _) {
@@ -316,7 +384,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#column_decltype(MemorySegment, int)
      */
     @Override
-    public synchronized String column_decltype(MemorySegment stmt, int col) {
+    public String column_decltype(MemorySegment stmt, int col) {
         try {
             return $this.column_decltype(stmt, col);
         } catch (SQLException _) {
@@ -328,7 +396,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#column_table_name(MemorySegment, int)
      */
     @Override
-    public synchronized String column_table_name(MemorySegment stmt, int col) {
+    public String column_table_name(MemorySegment stmt, int col) {
         try {
             return $this.column_table_name(stmt, col);
         } catch (SQLException _) {
@@ -340,7 +408,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#column_name(MemorySegment, int)
      */
     @Override
-    public synchronized String column_name(MemorySegment stmt, int col) {
+    public String column_name(MemorySegment stmt, int col) {
         try {
             return $this.column_name(stmt, col);
         } catch (SQLException _) {
@@ -352,7 +420,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#column_text(MemorySegment, int)
      */
     @Override
-    public synchronized String column_text(MemorySegment stmt, int col) {
+    public String column_text(MemorySegment stmt, int col) {
         try {
             return $this.column_text(stmt, col);
         } catch (SQLException _) {
@@ -364,7 +432,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#column_blob(MemorySegment, int)
      */
     @Override
-    public synchronized byte[] column_blob(MemorySegment stmt, int col) {
+    public byte[] column_blob(MemorySegment stmt, int col) {
         try {
             return $this.column_blob(stmt, col);
         } catch (SQLException _) {
@@ -372,11 +440,19 @@ public final class NativeDB extends DB {
         }
     }
 
+    /**
+     * @see org.sqlite.core.DB#column_segment(MemorySegment, int, boolean)
+     */
+    @Override
+    MemorySegment column_segment(MemorySegment stmt, int col, boolean blob) throws SQLException {
+        return $this.column_segment(stmt, col, blob);
+    }
+
     /**
      * @see org.sqlite.core.DB#column_double(MemorySegment, int)
      */
     @Override
-    public synchronized double column_double(MemorySegment stmt, int col) {
+    public double column_double(MemorySegment stmt, int col) {
         try {
             return $this.column_double(stmt, col);
         } catch (SQLException _) {
@@ -388,7 +464,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#column_long(MemorySegment, int)
      */
     @Override
-    public synchronized long column_long(MemorySegment stmt, int col) {
+    public long column_long(MemorySegment stmt, int col) {
         try {
             return $this.column_long(stmt, col);
         } catch (SQLException _) {
@@ -400,7 +476,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#column_int(MemorySegment, int)
      */
     @Override
-    public synchronized int column_int(MemorySegment stmt, int col) {
+    public int column_int(MemorySegment stmt, int col) {
         try {
             return $this.column_int(stmt, col);
         } catch (SQLException _) {
@@ -412,7 +488,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#bind_null(MemorySegment, int)
      */
     @Override
-    synchronized int bind_null(MemorySegment stmt, int pos) {
+    int bind_null(MemorySegment stmt, int pos) {
         try {
             return $this.bind_null(stmt, pos);
         } catch (SQLException _) {
@@ -424,7 +500,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#bind_int(MemorySegment, int, int)
      */
     @Override
-    synchronized int bind_int(MemorySegment stmt, int pos, int v) {
+    int bind_int(MemorySegment stmt, int pos, int v) {
         try {
             return $this.bind_int(stmt, pos, v);
         } catch (SQLException _) {
@@ -436,7 +512,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#bind_long(MemorySegment, int, long)
      */
     @Override
-    synchronized int bind_long(MemorySegment stmt, int pos, long v) {
+    int bind_long(MemorySegment stmt, int pos, long v) {
         try {
             return $this.bind_long(stmt, pos, v);
         } catch (SQLException _) {
@@ -448,7 +524,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#bind_double(MemorySegment, int, double)
      */
     @Override
-    synchronized int bind_double(MemorySegment stmt, int pos, double v) {
+    int bind_double(MemorySegment stmt, int pos, double v) {
         try {
             return $this.bind_double(stmt, pos, v);
         } catch (SQLException _) {
@@ -460,7 +536,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#bind_text(MemorySegment, int, java.lang.String)
      */
     @Override
-    synchronized int bind_text(MemorySegment stmt, int pos, String v) {
+    int bind_text(MemorySegment stmt, int pos, String v) {
         try {
             return $this.bind_text(stmt, pos, v);
         } catch (SQLException _) {
@@ -472,7 +548,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#bind_blob(MemorySegment, int, byte[])
      */
     @Override
-    synchronized int bind_blob(MemorySegment stmt, int pos, byte[] v) {
+    int bind_blob(MemorySegment stmt, int pos, byte[] v) {
         try {
             return $this.bind_blob(stmt, pos, v);
         } catch (SQLException _) {
@@ -480,11 +556,85 @@ public final class NativeDB extends DB {
         }
     }
 
+    /**
+     * @see org.sqlite.core.DB#bind_text(MemorySegment, int, MemorySegment, int)
+     */
+    @Override
+    int bind_text(MemorySegment stmt, int pos, MemorySegment v, int nBytes) {
+        return $this.bind_text(stmt, pos, v, nBytes);
+    }
+
+    /**
+     * @see org.sqlite.core.DB#bind_blob(MemorySegment, int, MemorySegment, int)
+     */
+    @Override
+    int bind_blob(MemorySegment stmt, int pos, MemorySegment v, int nBytes) {
+        return $this.bind_blob(stmt, pos, v, nBytes);
+    }
+
+    /**
+     * @see org.sqlite.core.DB#bind_zeroblob(MemorySegment, int, int)
+     */
+    @Override
+    int bind_zeroblob(MemorySegment stmt, int pos, int nBytes) {
+        return $this.bind_zeroblob(stmt, pos, nBytes);
+    }
+
+    /**
+     * @see org.sqlite.core.DB#blob_open(String, String, String, long, boolean)
+     */
+    @Override
+    MemorySegment blob_open(
+            String schema, String table, String column, long rowId, boolean writable)
+            throws SQLException {
+        return $this.blob_open(schema, table, column, rowId, writable);
+    }
+
+    /**
+     * @see org.sqlite.core.DB#blob_close(MemorySegment)
+     */
+    @Override
+    int blob_close(MemorySegment blob) {
+        return $this.blob_close(blob);
+    }
+
+    /**
+     * @see org.sqlite.core.DB#blob_bytes(MemorySegment)
+     */
+    @Override
+    int blob_bytes(MemorySegment blob) {
+        return $this.blob_bytes(blob);
+    }
+
+    /**
+     * @see org.sqlite.core.DB#blob_read(MemorySegment, MemorySegment, int)
+     */
+    @Override
+    int blob_read(MemorySegment blob, MemorySegment dest, int offset) {
+        return $this.blob_read(blob, dest, offset);
+    }
+
+    /**
+     * @see org.sqlite.core.DB#blob_write(MemorySegment, MemorySegment, int)
+     */
+    @Override
+    int blob_write(MemorySegment blob, MemorySegment src, int offset) {
+        return $this.blob_write(blob, src, offset);
+    }
+
+    /**
+     * @see org.sqlite.core.DB#blob_reopen(MemorySegment, long)
+     */
+    @Override
+    int blob_reopen(MemorySegment blob, long rowId) {
+        return $this.blob_reopen(blob, rowId);
+    }
+
     /**
      * @see org.sqlite.core.DB#result_null(MemorySegment)
      */
     @Override
-    public synchronized void result_null(MemorySegment context) {
+    public void result_null(MemorySegment context) {
         $this.result_null(context);
     }
 
@@ -492,7 +642,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#result_text(MemorySegment, java.lang.String)
      */
     @Override
-    public synchronized void result_text(MemorySegment context, String val) {
+    public void result_text(MemorySegment context, String val) {
         $this.result_text(context, val);
     }
 
@@ -500,7 +650,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#result_blob(MemorySegment, byte[])
      */
     @Override
-    public synchronized void result_blob(MemorySegment context, byte[] val) {
+    public void result_blob(MemorySegment context, byte[] val) {
         $this.result_blob(context, val);
     }
 
@@ -508,7 +658,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#result_double(MemorySegment, double)
      */
     @Override
-    public synchronized void result_double(MemorySegment context, double val) {
+    public void result_double(MemorySegment context, double val) {
         $this.result_double(context, val);
     }
 
@@ -516,7 +666,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#result_long(MemorySegment, long)
      */
     @Override
-    public synchronized void result_long(MemorySegment context, long val) {
+    public void result_long(MemorySegment context, long val) {
         $this.result_long(context, val);
     }
 
@@ -524,7 +674,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#result_int(MemorySegment, int)
      */
     @Override
-    public synchronized void result_int(MemorySegment context, int val) {
+    public void result_int(MemorySegment context, int val) {
         $this.result_int(context, val);
     }
 
@@ -532,7 +682,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#result_error(MemorySegment, java.lang.String)
      */
     @Override
-    public synchronized void result_error(MemorySegment context, String err) {
+    public void result_error(MemorySegment context, String err) {
         $this.result_error(context, err);
     }
 
@@ -540,7 +690,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#value_text(org.sqlite.Function, int)
      */
     @Override
-    public synchronized String value_text(Function f, int arg) {
+    public String value_text(Function f, int arg) {
         try {
             return $this.value_text(f, arg);
         } catch (SQLException _) {
@@ -552,7 +702,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#value_blob(org.sqlite.Function, int)
      */
     @Override
-    public synchronized byte[] value_blob(Function f, int arg) {
+    public byte[] value_blob(Function f, int arg) {
         try {
             return $this.value_blob(f, arg);
         } catch (SQLException _) {
@@ -564,7 +714,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#value_double(org.sqlite.Function, int)
      */
     @Override
-    public synchronized double value_double(Function f, int arg) {
+    public double value_double(Function f, int arg) {
         try {
             return $this.value_double(f, arg);
         } catch (SQLException _) {
@@ -576,7 +726,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#value_long(org.sqlite.Function, int)
      */
     @Override
-    public synchronized long value_long(Function f, int arg) {
+    public long value_long(Function f, int arg) {
         try {
             return $this.value_long(f, arg);
         } catch (SQLException _) {
@@ -588,7 +738,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#value_int(org.sqlite.Function, int)
      */
     @Override
-    public synchronized int value_int(Function f, int arg) {
+    public int value_int(Function f, int arg) {
         try {
             return $this.value_int(f, arg);
         } catch (SQLException _) {
@@ -600,7 +750,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#value_type(org.sqlite.Function, int)
      */
     @Override
-    public synchronized int value_type(Function f, int arg) {
+    public int value_type(Function f, int arg) {
         try {
             return $this.value_type(f, arg);
         } catch (SQLException e) {
@@ -609,42 +759,88 @@ public final class NativeDB extends DB {
         }
     }
 
+    /**
+     * @see org.sqlite.core.DB#load_arguments(org.sqlite.Function, org.sqlite.Function.Arguments)
+     */
+    @Override
+    public void load_arguments(Function f, Function.Arguments arguments) throws SQLException {
+        $this.load_arguments(f, arguments);
+    }
+
     /**
      * @see org.sqlite.core.DB#create_function(java.lang.String, org.sqlite.Function, int, int)
      */
     @Override
-    public synchronized int create_function(String name, Function func, int nArgs, int flags)
+    public int create_function(String name, Function func, int nArgs, int flags)
             throws SQLException {
-        return $this.create_function(validateName("function", name), func, nArgs, flags);
+        lock();
+        try {
+            return $this.create_function(validateName("function", name), func, nArgs, flags);
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * @see org.sqlite.core.DB#create_scalar_function(java.lang.String, java.lang.Object, int)
+     */
+    @Override
+    public int create_scalar_function(String name, Object f, int flags) throws SQLException {
+        lock();
+        try {
+            return $this.create_scalar_function(validateName("function", name), f, flags);
+        } finally {
+            unlock();
+        }
     }
 
     /**
      * @see org.sqlite.core.DB#destroy_function(java.lang.String)
      */
     @Override
-    public synchronized int destroy_function(String name) throws SQLException {
-        return $this.destroy_function(validateName("function", name));
+    public int destroy_function(String name) throws SQLException {
+        lock();
+        try {
+            return $this.destroy_function(validateName("function", name));
+        } finally {
+            unlock();
+        }
     }
 
     /**
      * @see org.sqlite.core.DB#create_collation(String, Collation)
      */
     @Override
-    public synchronized int create_collation(String name, Collation coll) throws SQLException {
-        return $this.create_collation(validateName("collation", name), coll);
+    public int create_collation(String name, Collation coll) throws SQLException {
+        lock();
+        try {
+            return $this.create_collation(validateName("collation", name), coll);
+        } finally {
+            unlock();
+        }
     }
 
     /**
      * @see org.sqlite.core.DB#destroy_collation(String)
      */
     @Override
-    public synchronized int destroy_collation(String name) throws SQLException {
-        return $this.destroy_collation(validateName("collation", name));
+    public int destroy_collation(String name) throws SQLException {
+        lock();
+        try {
+            return $this.destroy_collation(validateName("collation", name));
+        } finally {
+            unlock();
+        }
     }
 
     @Override
-    public synchronized int limit(int id, int value) throws SQLException {
-        return $this.limit(id, value);
+    public int limit(int id, int value) throws SQLException {
+        lock();
+        try {
+            return $this.limit(id, value);
+        } finally {
+            unlock();
+        }
     }
 
     private String validateName(String nameType, String name) throws SQLException {
@@ -692,23 +888,27 @@ public final class NativeDB extends DB {
      *     org.sqlite.core.DB.ProgressObserver)
      */
     @Override
-    public synchronized int restore(String dbName, String sourceFileName, ProgressObserver observer)
+    public int restore(String dbName, String sourceFileName, ProgressObserver observer)
             throws SQLException {
-
-        return $this.restore(
-                dbName,
-                sourceFileName,
-                observer,
-                DEFAULT_BACKUP_BUSY_SLEEP_TIME_MILLIS,
-                DEFAULT_BACKUP_NUM_BUSY_BEFORE_FAIL,
-                DEFAULT_PAGES_PER_BACKUP_STEP);
+        lock();
+        try {
+            return $this.restore(
+                    dbName,
+                    sourceFileName,
+                    observer,
+                    DEFAULT_BACKUP_BUSY_SLEEP_TIME_MILLIS,
+                    DEFAULT_BACKUP_NUM_BUSY_BEFORE_FAIL,
+                    DEFAULT_PAGES_PER_BACKUP_STEP);
+        } finally {
+            unlock();
+        }
     }
 
     /**
      * @see org.sqlite.core.DB#restore(String, String, ProgressObserver, int, int, int)
      */
     @Override
-    public synchronized int restore(
+    public int restore(
             String dbName,
             String sourceFileName,
             ProgressObserver observer,
@@ -716,9 +916,13 @@ public final class NativeDB extends DB {
             int nTimeouts,
             int pagesPerStep)
             throws SQLException {
-
-        return $this.restore(
-                dbName, sourceFileName, observer, sleepTimeMillis, nTimeouts, pagesPerStep);
+        lock();
+        try {
+            return $this.restore(
+                    dbName, sourceFileName, observer, sleepTimeMillis, nTimeouts, pagesPerStep);
+        } finally {
+            unlock();
+        }
     }
 
     // COMPOUND FUNCTIONS (for optimisation) /////////////////////////
@@ -733,7 +937,7 @@ public final class NativeDB extends DB {
      * @see org.sqlite.core.DB#column_metadata(MemorySegment)
      */
     @Override
-    synchronized boolean[][] column_metadata(MemorySegment stmt) {
+    boolean[][] column_metadata(MemorySegment stmt) {
         try {
             return $this.column_metadata(stmt);
         } catch (SQLException _) {
@@ -742,7 +946,7 @@ public final class NativeDB extends DB {
     }
 
     @Override
-    synchronized void set_commit_listener(boolean enabled) {
+    void set_commit_listener(boolean enabled) {
         try {
             $this.set_commit_listener(enabled);
         } catch (SQLException _) {
@@ -750,7 +954,7 @@ public final class NativeDB extends DB {
     }
 
     @Override
-    synchronized void set_update_listener(boolean enabled) {
+    void set_update_listener(boolean enabled) {
         try {
             $this.set_update_listener(enabled);
         } catch (SQLException _) {
@@ -759,13 +963,23 @@ public final class NativeDB extends DB {
 
     Arena progressHandlerArena = null;
 
-    public synchronized void register_progress_handler(int vmCalls, ProgressHandler progressHandler)
+    public void register_progress_handler(int vmCalls, ProgressHandler progressHandler)
             throws SQLException {
-        $this.register_progress_handler(vmCalls, progressHandler);
+        lock();
+        try {
+            $this.register_progress_handler(vmCalls, progressHandler);
+        } finally {
+            unlock();
+        }
     }
 
-    public synchronized void clear_progress_handler() throws SQLException {
-        $this.clear_progress_handler();
+    public void clear_progress_handler() throws SQLException {
+        lock();
+        try {
+            $this.clear_progress_handler();
+        } finally {
+            unlock();
+        }
     }
 
     /**
@@ -812,12 +1026,94 @@ public final class NativeDB extends DB {
     }
 
     @Override
-    public synchronized byte[] serialize(String schema) throws SQLException {
-        return $this.serialize(schema);
+    public byte[] serialize(String schema) throws SQLException {
+        lock();
+        try {
+            return $this.serialize(schema);
+        } finally {
+            unlock();
+        }
     }
 
     @Override
-    public synchronized void deserialize(String schema, byte[] buff) throws SQLException {
-        $this.deserialize(schema, buff);
+    public void deserialize(String schema, byte[] buff) throws SQLException {
+        lock();
+        try {
+            $this.deserialize(schema, buff);
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public int[] db_status(int op, boolean reset) throws SQLException {
+        lock();
+        try {
+            return $this.db_status(op, reset);
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public List<ScriptResult> executeScript(String sql, boolean autoCommit) throws SQLException {
+        Objects.requireNonNull(sql);
+        lock();
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment script = arena.allocateFrom(sql);
+            List<ScriptResult> results = new ArrayList<>();
+            $this.exec_script(script, script.byteSize() - 1, true, results);
+            ensureAutoCommit(autoCommit);
+            return results;
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public List<ScriptResult> executeScript(ReadableByteChannel in, boolean autoCommit)
+            throws SQLException, IOException {
+        Objects.requireNonNull(in);
+        lock();
+        // one arena per buffer, so that a buffer is freed once it is outgrown
+        Arena arena = Arena.ofConfined();
+        try {
+            MemorySegment buffer = arena.allocate(SCRIPT_BUFFER_SIZE);
+            long filled = 0;
+            boolean eof = false;
+            List<ScriptResult> results = new ArrayList<>();
+            while (!eof) {
+                if (filled == buffer.byteSize() - 1) {
+                    // the next statement does not fit, grow the buffer
+                    Arena grownArena = Arena.ofConfined();
+                    MemorySegment grown = grownArena.allocate(buffer.byteSize() * 2);
+                    MemorySegment.copy(buffer, 0, grown, 0, filled);
+                    arena.close();
+                    arena = grownArena;
+                    buffer = grown;
+                }
+                // leave room for the terminator
+                MemorySegment free = buffer.asSlice(filled, buffer.byteSize() - 1 - filled);
+                int read = in.read(free.asByteBuffer());
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    filled += read;
+                }
+                buffer.set(JAVA_BYTE, filled, (byte) 0);
+
+                long consumed = $this.exec_script(buffer, filled, eof, results);
+                MemorySegment.copy(buffer, consumed, buffer, 0, filled - consumed);
+                filled -= consumed;
+            }
+            ensureAutoCommit(autoCommit);
+            return results;
+        } finally {
+            try {
+                arena.close();
+            } finally {
+                unlock();
+            }
+        }
     }
 }
@@ -11,16 +11,27 @@ import java.lang.foreign.Arena;
 import java.lang.foreign.FunctionDescriptor;
 import java.lang.foreign.Linker;
 import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentAllocator;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodType;
 import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+import java.util.function.UnaryOperator;
 import org.sqlite.BusyHandler;
 import org.sqlite.Collation;
 import org.sqlite.Function;
 import org.sqlite.ProgressHandler;
+import org.sqlite.ScriptResult;
 import org.sqlite.core.DB.ProgressObserver;
 
 /**
@@ -34,12 +45,82 @@ import org.sqlite.core.DB.ProgressObserver;
 class NativeDB_c implements Codes {
     private static final MemorySegment SQLITE_TRANSIENT =
             MemorySegment.ofAddress(sqlite_h.SQLITE_TRANSIENT);
+    private static final MemorySegment SQLITE_STATIC =
+            MemorySegment.ofAddress(sqlite_h.SQLITE_STATIC);
+    private static final int TEXT_BUFFER_MAX = 8 * 1024;
+
+    /** The format SQLite renders a real as text with, see {@link #realToText(double)}. */
+    private static final MemorySegment REAL_FORMAT = Arena.global().allocateFrom("%!.15g");
+
+    /** Large enough for any real in {@link #REAL_FORMAT}, e.g. -2.2250738585072e-308. */
+    private static final int REAL_TEXT_SIZE = 32;
+
+    /** {@code void (*)(sqlite3_context*, int, sqlite3_value**)} */
+    private static final FunctionDescriptor XFUNC_DESCRIPTOR =
+            FunctionDescriptor.ofVoid(ADDRESS, JAVA_INT, ADDRESS);
+
+    /** {@code void (*)(sqlite3_context*)} */
+    private static final FunctionDescriptor XFINAL_DESCRIPTOR = FunctionDescriptor.ofVoid(ADDRESS);
+
+    private static final MethodHandle XCALL;
+    private static final MethodHandle XFUNC;
+    private static final MethodHandle XSTEP;
+    private static final MethodHandle XFINAL;
+    private static final MethodHandle XVALUE;
+    private static final MethodHandle XINVERSE;
+    private static final MethodHandle X_LONG_UNARY;
+    private static final MethodHandle X_LONG_BINARY;
+    private static final MethodHandle X_DOUBLE_UNARY;
+    private static final MethodHandle X_DOUBLE_BINARY;
+    private static final MethodHandle X_TEXT_UNARY;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodType callback = MethodType.methodType(void.class);
+            XCALL =
+                    lookup.findVirtual(
+                            NativeDB_c.class,
+                            "xCall",
+                            MethodType.methodType(
+                                    void.class,
+                                    MemorySegment.class,
+                                    int.class,
+                                    MemorySegment.class,
+                                    Function.class,
+                                    MethodHandle.class));
+            XFUNC = lookup.findVirtual(Function.class, "_xFunc", callback);
+            XSTEP = lookup.findVirtual(Function.Aggregate.class, "_xStep", callback);
+            XFINAL = lookup.findVirtual(Function.Aggregate.class, "_xFinal", callback);
+            XVALUE = lookup.findVirtual(Function.Window.class, "_xValue", callback);
+            XINVERSE = lookup.findVirtual(Function.Window.class, "_xInverse", callback);
+            X_LONG_UNARY = findScalar(lookup, "xLongUnary", LongUnaryOperator.class);
+            X_LONG_BINARY = findScalar(lookup, "xLongBinary", LongBinaryOperator.class);
+            X_DOUBLE_UNARY = findScalar(lookup, "xDoubleUnary", DoubleUnaryOperator.class);
+            X_DOUBLE_BINARY = findScalar(lookup, "xDoubleBinary", DoubleBinaryOperator.class);
+            X_TEXT_UNARY = findScalar(lookup, "xTextUnary", UnaryOperator.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     private final NativeDB $this;
     private final MemorySegment commit_hook;
     private final MemorySegment rollback_hook;
     private final MemorySegment update_hook;
 
+    /**
+     * Keeps the upcall stubs of functions registered with {@link #create_scalar_function} alive
+     * until they are replaced or destroyed.
+     */
+    private final Map<ScalarFunctionKey, Arena> scalarFunctions = new HashMap<>();
+
+    /** Temporary native memory for calls on this connection. */
+    private final ScratchAllocator scratch = new ScratchAllocator();
+
+    /** Reused by {@link #decodeText} for values up to {@link #TEXT_BUFFER_MAX} bytes. */
+    private byte[] textBuffer = new byte[64];
+
     /** The pointer to the DB. Always {@link #ensureOpen()} before passing to a native function. */
     private MemorySegment db = null;
 
@@ -54,19 +135,40 @@ class NativeDB_c implements Codes {
                 };
         rollback_hook rollbackHookUpcall = _ -> $this.onCommit(false);
         update_hook updateHookUpcall =
-                (_, type, database, table, row) -> {
-                    try (Arena stringArena = Arena.ofConfined()) {
-                        String databaseString = getString(database, stringArena);
-                        String tableString = getString(table, stringArena);
-
-                        $this.onUpdate(type, databaseString, tableString, row);
-                    }
-                };
+                (_, type, database, table, row) ->
+                        $this.onUpdate(type, getString(database), getString(table), row);
         commit_hook = getUpcallStub(commitHookUpcall, arena);
         rollback_hook = getUpcallStub(rollbackHookUpcall, arena);
         update_hook = getUpcallStub(updateHookUpcall, arena);
     }
 
+    /**
+     * Creates an upcall stub that calls {@code callback} on {@code func} through {@link #xCall}.
+     * Everything the stub needs is bound into its target handle, so the JIT can inline from the
+     * upcall through to the user's function.
+     *
+     * @param callback one of {@link #XFUNC}, {@link #XSTEP}, {@link #XFINAL}, {@link #XVALUE} or
+     *     {@link #XINVERSE}
+     * @param descriptor {@link #XFUNC_DESCRIPTOR} or {@link #XFINAL_DESCRIPTOR}
+     */
+    private MemorySegment getUpcallStub(
+            Function func, MethodHandle callback, FunctionDescriptor descriptor) {
+        MethodHandle target = MethodHandles.insertArguments(XCALL, 4, func, callback.bindTo(func));
+        if (descriptor == XFINAL_DESCRIPTOR) {
+            target = MethodHandles.insertArguments(target, 2, 0, NULL);
+        }
+        return Linker.nativeLinker().upcallStub(target.bindTo(this), descriptor, func._arena);
+    }
+
+    private static MethodHandle findScalar(
+            MethodHandles.Lookup lookup, String name, Class<?> operator)
+            throws ReflectiveOperationException {
+        return lookup.findVirtual(
+                NativeDB_c.class,
+                name,
+                XFUNC_DESCRIPTOR.toMethodType().insertParameterTypes(0, operator));
+    }
+
     private static MemorySegment getUpcallStub(UpcallMethod method, Arena arena) {
         try {
             FunctionDescriptor descriptor = method.descriptor();
@@ -80,10 +182,7 @@ class NativeDB_c implements Codes {
     }
 
     /**
-     * Reads a UTF-8 string from a zero-length memory segment using a temporary arena.
-     *
-     * <p>If there is already an available Arena, {@link #getString(MemorySegment, Arena)} should be
-     * used instead.
+     * Reads a UTF-8 string from a zero-length memory segment.
      *
      * @param segment a MemorySegment pointer to a null-terminated UTF-8 string
      * @return a Java string, or null if {@code segment.address()} is a null address
@@ -91,39 +190,52 @@ class NativeDB_c implements Codes {
      */
     private static String getString(MemorySegment segment) {
         if (hasNullAddress(segment)) return null;
-        try (Arena arena = Arena.ofConfined()) {
-            return getString(segment, arena);
-        }
+        return segment.reinterpret(Long.MAX_VALUE).getString(0, StandardCharsets.UTF_8);
     }
 
     /**
-     * Reads a UTF-8 string from a zero-length memory segment using the provided arena.
+     * Decodes {@code length} bytes of UTF-8 text whose length is already known, so the value is not
+     * scanned for its terminator first. The bytes are copied once into a reused array, as the JDK
+     * decodes only from the heap, and the UTF-8 decoder then builds ASCII text as a Latin-1 string
+     * itself.
      *
-     * <p>If there is not already an available temporary Arena, {@link #getString(MemorySegment)}
-     * should be used instead.
-     *
-     * @param segment a MemorySegment pointer to a null-terminated UTF-8 string
-     * @param arena the Arena to be associated with the temporary reinterpreted MemorySegment
-     * @return a Java string, or null if {@code segment.address()} is a null address
-     * @see MemorySegment#getString(long)
+     * @param text a MemorySegment pointer to UTF-8 text, e.g. from {@code sqlite3_column_text}
+     * @param length the length of the text in bytes, e.g. from {@code sqlite3_column_bytes}
      */
-    private static String getString(MemorySegment segment, Arena arena) {
-        if (hasNullAddress(segment)) return null;
-        return segment.reinterpret(Long.MAX_VALUE, arena, null)
-                .getString(0, StandardCharsets.UTF_8);
+    private String decodeText(MemorySegment text, int length) {
+        if (length == 0) return "";
+
+        byte[] buffer = textBuffer;
+        if (length > buffer.length) {
+            buffer = new byte[length];
+            if (length <= TEXT_BUFFER_MAX) textBuffer = buffer;
+        }
+        MemorySegment.copy(text.reinterpret(length), JAVA_BYTE, 0, buffer, 0, length);
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Renders a real as text the way {@code sqlite3_column_text} does, e.g. 0.3 for 0.1 + 0.2 and
+     * 1.0e+20, for a buffered cell that only kept the double.
+     */
+    static String realToText(double value) {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment text = arena.allocate(REAL_TEXT_SIZE);
+            sqlite3_snprintf(REAL_TEXT_SIZE, text, REAL_FORMAT, value);
+            return text.getString(0, StandardCharsets.ISO_8859_1);
+        }
     }
 
     private static boolean hasNullAddress(MemorySegment segment) {
         return segment.address() == NULL.address();
     }
 
-    private static byte[] getByteArray(MemorySegment segment, int lengthInBytes, Arena arena) {
-        return segment.reinterpret(JAVA_BYTE.byteSize() * lengthInBytes, arena, null)
-                .toArray(JAVA_BYTE);
+    private static byte[] getByteArray(MemorySegment segment, int lengthInBytes) {
+        return segment.reinterpret(JAVA_BYTE.byteSize() * lengthInBytes).toArray(JAVA_BYTE);
     }
 
-    private static MemorySegment allocateUTF8(String sql, Arena arena) {
-        return arena.allocateFrom(sql, StandardCharsets.UTF_8);
+    private static MemorySegment allocateUTF8(String sql, SegmentAllocator allocator) {
+        return allocator.allocateFrom(sql, StandardCharsets.UTF_8);
     }
 
     void _open(String file, int flags) throws SQLException {
@@ -135,10 +247,10 @@ class NativeDB_c implements Codes {
 
         if (file == null) return;
 
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment file_bytes = allocateUTF8(file, arena);
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            MemorySegment file_bytes = allocateUTF8(file, scope);
 
-            MemorySegment ppDb = arena.allocate(ADDRESS);
+            MemorySegment ppDb = scope.allocate(ADDRESS);
             int ret = sqlite3_open_v2(file_bytes, ppDb, flags, NULL);
             // FIXME: global scope
             db = ppDb.get(ADDRESS, 0);
@@ -172,8 +284,8 @@ class NativeDB_c implements Codes {
         if (sql == null) return SQLITE_ERROR;
 
         int status;
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment sql_bytes = allocateUTF8(sql, arena);
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            MemorySegment sql_bytes = allocateUTF8(sql, scope);
             status = sqlite3_exec(db, sql_bytes, NULL, NULL, NULL);
         }
 
@@ -208,19 +320,18 @@ class NativeDB_c implements Codes {
         change_busy_handler(db, busyHandler);
     }
 
-    MemorySegment prepare(String sql) throws SQLException {
+    MemorySegment prepare(String sql, boolean persistent) throws SQLException {
         ensureOpen();
         Objects.requireNonNull(sql);
 
-        Arena stmtArena = Arena.ofAuto();
         MemorySegment stmt;
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment sql_bytes = allocateUTF8(sql, arena);
-            int sql_nbytes = Math.toIntExact(sql_bytes.elements(JAVA_BYTE).count());
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            MemorySegment sql_bytes = allocateUTF8(sql, scope);
+            int sql_nbytes = Math.toIntExact(sql_bytes.byteSize());
 
-            MemorySegment ppStmt = stmtArena.allocate(ADDRESS.withTargetLayout(ADDRESS));
-            int status = sqlite3_prepare_v2(db, sql_bytes, sql_nbytes, ppStmt, NULL);
-            // FIXME: global scope
+            MemorySegment ppStmt = scope.allocate(ADDRESS);
+            int flags = persistent ? SQLITE_PREPARE_PERSISTENT : 0;
+            int status = sqlite3_prepare_v3(db, sql_bytes, sql_nbytes, flags, ppStmt, NULL);
             stmt = ppStmt.get(ADDRESS, 0);
 
             if (status != SQLITE_OK) throw DB.newSQLException(status, errmsg());
@@ -229,6 +340,229 @@ class NativeDB_c implements Codes {
         return stmt;
     }
 
+    /**
+     * Runs the statements in the first {@code nBytes} of UTF-8 text in {@code sql} one at a time,
+     * compiling each from where the previous one ended.
+     *
+     * @param sql UTF-8 text holding one or more SQL statements, followed by a NUL terminator so
+     *     that SQLite does not copy the rest of the text every time it compiles a statement.
+     * @param nBytes the length of the text in bytes, without the terminator.
+     * @param complete whether the text ends where the script ends. If not, a statement that runs up
+     *     to the end of the text may be cut off, so it is left for the next call, as is a statement
+     *     that fails to compile when no complete statement ends before the end of the text.
+     * @param results receives the result of each statement that was run.
+     * @return the number of bytes consumed, up to the first statement that was not run.
+     */
+    long exec_script(MemorySegment sql, long nBytes, boolean complete, List<ScriptResult> results)
+            throws SQLException {
+        ensureOpen();
+
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            MemorySegment ppStmt = scope.allocate(ADDRESS);
+            MemorySegment pzTail = scope.allocate(ADDRESS);
+            long offset = 0;
+            while (offset < nBytes) {
+                long start = System.nanoTime();
+                int status =
+                        sqlite3_prepare_v3(
+                                db,
+                                sql.asSlice(offset),
+                                Math.toIntExact(nBytes - offset + 1),
+                                0,
+                                ppStmt,
+                                pzTail);
+                MemorySegment stmt = ppStmt.get(ADDRESS, 0);
+                long tail = pzTail.get(ADDRESS, 0).address() - sql.address();
+                if (!complete
+                        && (status == SQLITE_OK
+                                ? tail >= nBytes
+                                : !hasCompleteStatement(sql, offset, nBytes))) {
+                    sqlite3_finalize(stmt);
+                    return offset;
+                }
+                if (status != SQLITE_OK) throw DB.newSQLException(status, errmsg());
+                if (hasNullAddress(stmt)) {
+                    // only whitespace or a comment, or a NUL byte that ends the text early
+                    if (tail <= offset) return nBytes;
+                    offset = tail;
+                    continue;
+                }
+
+                boolean readOnly = sqlite3_stmt_readonly(stmt) != 0;
+                boolean returnsRows = sqlite3_column_count(stmt) != 0;
+                long totalChanges = sqlite3_total_changes64(db);
+                while ((status = sqlite3_step(stmt)) == SQLITE_ROW) {}
+                SQLException error =
+                        status == SQLITE_DONE ? null : DB.newSQLException(status, errmsg());
+                sqlite3_finalize(stmt);
+                if (error != null) throw error;
+
+                long updateCount = 0;
+                if (readOnly) {
+                    if (returnsRows) updateCount = -1;
+                } else if (sqlite3_total_changes64(db) != totalChanges) {
+                    // as executeUpdate, without the rows changed by triggers and foreign keys;
+                    // changes() is left as it was by statements that change no rows
+                    updateCount = sqlite3_changes64(db);
+                }
+                results.add(
+                        new ScriptResult(
+                                decodeText(sql.asSlice(offset), (int) (tail - offset)).strip(),
+                                updateCount,
+                                System.nanoTime() - start));
+                offset = tail;
+            }
+            return offset;
+        }
+    }
+
+    /** The token classes of {@link #hasCompleteStatement}, as numbered in SQLite's complete.c. */
+    private static final int TK_SEMI = 0;
+
+    private static final int TK_WS = 1;
+    private static final int TK_OTHER = 2;
+    private static final int TK_EXPLAIN = 3;
+    private static final int TK_CREATE = 4;
+    private static final int TK_TEMP = 5;
+    private static final int TK_TRIGGER = 6;
+    private static final int TK_END = 7;
+
+    /**
+     * The state that follows each state of {@link #hasCompleteStatement} on each token class. State
+     * 1 is between statements; states 5 to 7 are inside the body of a CREATE TRIGGER.
+     */
+    private static final byte[][] COMPLETE_STATES = {
+        {1, 0, 2, 3, 4, 2, 2, 2}, // 0 INVALID
+        {1, 1, 2, 3, 4, 2, 2, 2}, // 1 START
+        {1, 2, 2, 2, 2, 2, 2, 2}, // 2 NORMAL
+        {1, 3, 3, 2, 4, 2, 2, 2}, // 3 EXPLAIN
+        {1, 4, 2, 2, 2, 4, 5, 2}, // 4 CREATE
+        {6, 5, 5, 5, 5, 5, 5, 5}, // 5 TRIGGER
+        {6, 6, 5, 5, 5, 5, 5, 7}, // 6 SEMI
+        {1, 7, 5, 5, 5, 5, 5, 5}, // 7 END
+    };
+
+    /**
+     * Whether the text from {@code offset} starts with a complete statement, so that an error in
+     * compiling it is not because the statement is cut off at the end of the text. This is the
+     * tokenizer and state machine of {@code sqlite3_complete}, run once over the text and stopped
+     * at the first semicolon that ends a statement, so semicolons in literals, comments and
+     * trigger bodies do not count.
+     *
+     * @param sql UTF-8 text of at least {@code nBytes} bytes.
+     * @see <a
+     *     href="https://www.sqlite.org/c3ref/complete.html">https://www.sqlite.org/c3ref/complete.html</a>
+     */
+    private static boolean hasCompleteStatement(MemorySegment sql, long offset, long nBytes) {
+        int state = 0;
+        for (long i = offset; i < nBytes; i++) {
+            byte c = sql.get(JAVA_BYTE, i);
+            int token;
+            switch (c) {
+                case 0:
+                    return false;
+                case ';':
+                    token = TK_SEMI;
+                    break;
+                case ' ', '\r', '\t', '\n', '\f':
+                    token = TK_WS;
+                    break;
+                case '/':
+                    if (i + 1 >= nBytes || sql.get(JAVA_BYTE, i + 1) != '*') {
+                        token = TK_OTHER;
+                        break;
+                    }
+                    i += 2;
+                    while (i + 1 < nBytes
+                            && (sql.get(JAVA_BYTE, i) != '*' || sql.get(JAVA_BYTE, i + 1) != '/')) {
+                        i++;
+                    }
+                    if (i + 1 >= nBytes) return false;
+                    i++;
+                    token = TK_WS;
+                    break;
+                case '-':
+                    if (i + 1 >= nBytes || sql.get(JAVA_BYTE, i + 1) != '-') {
+                        token = TK_OTHER;
+                        break;
+                    }
+                    i = skipTo(sql, i + 2, nBytes, (byte) '\n');
+                    if (i >= nBytes) return false;
+                    token = TK_WS;
+                    break;
+                case '[':
+                    i = skipTo(sql, i + 1, nBytes, (byte) ']');
+                    if (i >= nBytes) return false;
+                    token = TK_OTHER;
+                    break;
+                case '`', '"', '\'':
+                    i = skipTo(sql, i + 1, nBytes, c);
+                    if (i >= nBytes) return false;
+                    token = TK_OTHER;
+                    break;
+                default:
+                    if (!isIdChar(c)) {
+                        token = TK_OTHER;
+                        break;
+                    }
+                    long end = i + 1;
+                    while (end < nBytes && isIdChar(sql.get(JAVA_BYTE, end))) end++;
+                    token = keyword(sql, i, (int) (end - i));
+                    i = end - 1;
+            }
+            state = COMPLETE_STATES[state][token];
+            if (token == TK_SEMI && state == 1) return true;
+        }
+        return false;
+    }
+
+    /** @return the offset of the first {@code b} from {@code from}, or {@code nBytes} if none. */
+    private static long skipTo(MemorySegment sql, long from, long nBytes, byte b) {
+        long i = from;
+        while (i < nBytes && sql.get(JAVA_BYTE, i) != b) i++;
+        return i;
+    }
+
+    private static boolean isIdChar(byte c) {
+        return (c >= 'a' && c <= 'z')
+                || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9')
+                || c == '_'
+                || c == '$'
+                || c < 0;
+    }
+
+    /** @return the token class of the identifier of {@code length} bytes at {@code offset}. */
+    private static int keyword(MemorySegment sql, long offset, int length) {
+        if (isKeyword(sql, offset, length, "create")) return TK_CREATE;
+        if (isKeyword(sql, offset, length, "trigger")) return TK_TRIGGER;
+        if (isKeyword(sql, offset, length, "temp")) return TK_TEMP;
+        if (isKeyword(sql, offset, length, "temporary")) return TK_TEMP;
+        if (isKeyword(sql, offset, length, "end")) return TK_END;
+        if (isKeyword(sql, offset, length, "explain")) return TK_EXPLAIN;
+        return TK_OTHER;
+    }
+
+    private static boolean isKeyword(MemorySegment sql, long offset, int length, String keyword) {
+        if (length != keyword.length()) return false;
+        for (int k = 0; k < length; k++) {
+            // only ASCII letters lower-case to a letter
+            if ((sql.get(JAVA_BYTE, offset + k) | 0x20) != keyword.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    int[] db_status(int op, boolean reset) throws SQLException {
+        ensureOpen();
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            MemorySegment pCur = scope.allocate(JAVA_INT);
+            MemorySegment pHiwtr = scope.allocate(JAVA_INT);
+            int status = sqlite3_db_status(db, op, pCur, pHiwtr, reset ? 1 : 0);
+            if (status != SQLITE_OK) throw DB.newSQLException(status, errmsg());
+            return new int[] {pCur.get(JAVA_INT, 0), pHiwtr.get(JAVA_INT, 0)};
+        }
+    }
+
     String errmsg() throws SQLException {
         ensureOpen();
         return getString(sqlite3_errmsg(db));
@@ -248,6 +582,16 @@ class NativeDB_c implements Codes {
         return sqlite3_total_changes64(db);
     }
 
+    long last_insert_rowid() throws SQLException {
+        ensureOpen();
+        return sqlite3_last_insert_rowid(db);
+    }
+
+    boolean get_autocommit() throws SQLException {
+        ensureOpen();
+        return sqlite3_get_autocommit(db) != 0;
+    }
+
     int finalize(MemorySegment stmt) throws SQLException {
         return sqlite3_finalize(stmt);
     }
@@ -264,6 +608,14 @@ class NativeDB_c implements Codes {
         return sqlite3_clear_bindings(stmt);
     }
 
+    boolean stmt_readonly(MemorySegment stmt) throws SQLException {
+        return sqlite3_stmt_readonly(stmt) != 0;
+    }
+
+    int stmt_status(MemorySegment stmt, int op, boolean reset) {
+        return sqlite3_stmt_status(stmt, op, reset ? 1 : 0);
+    }
+
     int bind_parameter_count(MemorySegment stmt) throws SQLException {
         return sqlite3_bind_parameter_count(stmt);
     }
@@ -297,7 +649,8 @@ class NativeDB_c implements Codes {
             return null;
         }
 
-        return getString(bytes);
+        // sqlite3_column_bytes must follow sqlite3_column_text so both refer to the UTF-8 form
+        return decodeText(bytes, sqlite3_column_bytes(stmt, col));
     }
 
     byte[] column_blob(MemorySegment stmt, int col) throws SQLException {
@@ -313,11 +666,22 @@ class NativeDB_c implements Codes {
             }
         }
 
-        int length = sqlite3_column_bytes(stmt, col);
+        return getByteArray(blob, sqlite3_column_bytes(stmt, col));
+    }
 
-        try (Arena arena = Arena.ofConfined()) {
-            return getByteArray(blob, length, arena);
+    MemorySegment column_segment(MemorySegment stmt, int col, boolean blob) throws SQLException {
+        ensureOpen();
+        MemorySegment bytes =
+                blob ? sqlite3_column_blob(stmt, col) : sqlite3_column_text(stmt, col);
+        if (hasNullAddress(bytes)) {
+            if (sqlite3_errcode(db) == SQLITE_NOMEM) throw new SQLException("Out of memory");
+
+            // an empty blob has no pointer
+            return sqlite3_column_type(stmt, col) == SQLITE_NULL ? null : MemorySegment.NULL;
         }
+
+        // sqlite3_column_bytes must follow so that it measures the form just read
+        return bytes.reinterpret(sqlite3_column_bytes(stmt, col));
     }
 
     double column_double(MemorySegment stmt, int col) throws SQLException {
@@ -351,21 +715,79 @@ class NativeDB_c implements Codes {
     int bind_text(MemorySegment stmt, int pos, String v) throws SQLException {
         if (v == null) return SQLITE_ERROR;
 
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment v_bytes = allocateUTF8(v, arena);
-            int v_nbytes = Math.toIntExact(v_bytes.elements(JAVA_BYTE).count() - 1);
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            MemorySegment v_bytes = allocateUTF8(v, scope);
+            int v_nbytes = Math.toIntExact(v_bytes.byteSize() - 1);
 
             return sqlite3_bind_text(stmt, pos, v_bytes, v_nbytes, SQLITE_TRANSIENT);
         }
     }
 
     int bind_blob(MemorySegment stmt, int pos, byte[] v) throws SQLException {
-        try (Arena arena = Arena.ofConfined()) {
+        if (hasHeapAccess()) {
+            return sqlite3_bind_blob(stmt, pos, v, SQLITE_TRANSIENT);
+        }
+
+        try (ScratchAllocator.Scope scope = scratch.open()) {
             return sqlite3_bind_blob(
-                    stmt, pos, arena.allocateFrom(JAVA_BYTE, v), v.length, SQLITE_TRANSIENT);
+                    stmt, pos, scope.allocateFrom(JAVA_BYTE, v), v.length, SQLITE_TRANSIENT);
+        }
+    }
+
+    int bind_text(MemorySegment stmt, int pos, MemorySegment v, int nBytes) {
+        return sqlite3_bind_text(stmt, pos, v, nBytes, SQLITE_STATIC);
+    }
+
+    int bind_blob(MemorySegment stmt, int pos, MemorySegment v, int nBytes) {
+        return sqlite3_bind_blob(stmt, pos, v, nBytes, SQLITE_STATIC);
+    }
+
+    int bind_zeroblob(MemorySegment stmt, int pos, int nBytes) {
+        return sqlite3_bind_zeroblob(stmt, pos, nBytes);
+    }
+
+    MemorySegment blob_open(
+            String schema, String table, String column, long rowId, boolean writable)
+            throws SQLException {
+        ensureOpen();
+
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            MemorySegment ppBlob = scope.allocate(ADDRESS);
+            int status =
+                    sqlite3_blob_open(
+                            db,
+                            allocateUTF8(schema, scope),
+                            allocateUTF8(table, scope),
+                            allocateUTF8(column, scope),
+                            rowId,
+                            writable ? 1 : 0,
+                            ppBlob);
+            if (status != SQLITE_OK) throw DB.newSQLException(status, errmsg());
+
+            return ppBlob.get(ADDRESS, 0);
         }
     }
 
+    int blob_close(MemorySegment blob) {
+        return sqlite3_blob_close(blob);
+    }
+
+    int blob_bytes(MemorySegment blob) {
+        return sqlite3_blob_bytes(blob);
+    }
+
+    int blob_read(MemorySegment blob, MemorySegment dest, int offset) {
+        return sqlite3_blob_read(blob, dest, Math.toIntExact(dest.byteSize()), offset);
+    }
+
+    int blob_write(MemorySegment blob, MemorySegment src, int offset) {
+        return sqlite3_blob_write(blob, src, Math.toIntExact(src.byteSize()), offset);
+    }
+
+    int blob_reopen(MemorySegment blob, long rowId) {
+        return sqlite3_blob_reopen(blob, rowId);
+    }
+
     void result_null(MemorySegment context) {
         if (hasNullAddress(context)) return;
         sqlite3_result_null(context);
@@ -378,9 +800,9 @@ class NativeDB_c implements Codes {
             return;
         }
 
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment value_bytes = allocateUTF8(value, arena);
-            int value_nbytes = Math.toIntExact(value_bytes.elements(JAVA_BYTE).count());
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            MemorySegment value_bytes = allocateUTF8(value, scope);
+            int value_nbytes = Math.toIntExact(value_bytes.byteSize());
             sqlite3_result_text(context, value_bytes, value_nbytes, SQLITE_TRANSIENT);
         }
     }
@@ -392,9 +814,14 @@ class NativeDB_c implements Codes {
             return;
         }
 
-        try (Arena arena = Arena.ofConfined()) {
+        if (hasHeapAccess()) {
+            sqlite3_result_blob(context, value, SQLITE_TRANSIENT);
+            return;
+        }
+
+        try (ScratchAllocator.Scope scope = scratch.open()) {
             sqlite3_result_blob(
-                    context, arena.allocateFrom(JAVA_BYTE, value), value.length, SQLITE_TRANSIENT);
+                    context, scope.allocateFrom(JAVA_BYTE, value), value.length, SQLITE_TRANSIENT);
         }
     }
 
@@ -416,9 +843,9 @@ class NativeDB_c implements Codes {
     void result_error(MemorySegment context, String err) {
         if (hasNullAddress(context)) return;
 
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment err_bytes = allocateUTF8(err, arena);
-            int err_nbytes = Math.toIntExact(err_bytes.elements(JAVA_BYTE).count());
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            MemorySegment err_bytes = allocateUTF8(err, scope);
+            int err_nbytes = Math.toIntExact(err_bytes.byteSize());
             sqlite3_result_error(context, err_bytes, err_nbytes);
         }
     }
@@ -427,7 +854,10 @@ class NativeDB_c implements Codes {
         MemorySegment value = tovalue(f, arg);
         if (hasNullAddress(value)) return null;
 
-        return getString(sqlite3_value_text(value));
+        MemorySegment text = sqlite3_value_text(value);
+        if (hasNullAddress(text)) return null;
+
+        return decodeText(text, sqlite3_value_bytes(value));
     }
 
     byte[] value_blob(Function f, int arg) throws SQLException {
@@ -437,10 +867,7 @@ class NativeDB_c implements Codes {
         MemorySegment blob = sqlite3_value_blob(value);
         if (hasNullAddress(blob)) return null;
 
-        int length = sqlite3_value_bytes(value);
-        try (Arena arena = Arena.ofConfined()) {
-            return getByteArray(blob, length, arena);
-        }
+        return getByteArray(blob, sqlite3_value_bytes(value));
     }
 
     double value_double(Function f, int arg) throws SQLException {
@@ -464,31 +891,44 @@ class NativeDB_c implements Codes {
         return sqlite3_value_type(tovalue(func, arg));
     }
 
+    void load_arguments(Function f, Function.Arguments arguments) throws SQLException {
+        MemorySegment value_pntr = f._getValue();
+        int numArgs = f._getArgs();
+        if (hasNullAddress(value_pntr)) throw new SQLException("no current value");
+
+        MemorySegment values = value_pntr.reinterpret(ADDRESS.byteSize() * numArgs);
+        arguments._reset(numArgs);
+        for (int i = 0; i < numArgs; i++) {
+            MemorySegment value = values.getAtIndex(ADDRESS, i);
+            int type = sqlite3_value_type(value);
+            switch (type) {
+                case SQLITE_INTEGER -> {
+                    long v = sqlite3_value_int64(value);
+                    arguments._set(i, type, v, v);
+                }
+                case SQLITE_FLOAT -> {
+                    double v = sqlite3_value_double(value);
+                    arguments._set(i, type, (long) v, v);
+                }
+                default -> arguments._set(i, type, 0, 0);
+            }
+        }
+    }
+
     int create_function(String name, Function func, int nArgs, int flags) throws SQLException {
         ensureOpen();
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment name_bytes = allocateUTF8(name, arena);
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            MemorySegment name_bytes = allocateUTF8(name, scope);
 
             int ret;
             if (func instanceof Function.Aggregate) {
-                Method xStepMethod = Function.Aggregate.class.getDeclaredMethod("_xStep");
-                Method xFinalMethod = Function.Aggregate.class.getDeclaredMethod("_xFinal");
-                xStep xStepUpcall =
-                        (context, args, value) -> xCall(context, args, value, func, xStepMethod);
-                xFinal xFinalUpcall = (context) -> xCall(context, 0, NULL, func, xFinalMethod);
-                MemorySegment xStep = getUpcallStub(xStepUpcall, func._arena);
-                MemorySegment xFinal = getUpcallStub(xFinalUpcall, func._arena);
+                MemorySegment xStep = getUpcallStub(func, XSTEP, XFUNC_DESCRIPTOR);
+                MemorySegment xFinal = getUpcallStub(func, XFINAL, XFINAL_DESCRIPTOR);
                 MemorySegment xValue = NULL;
                 MemorySegment xInverse = NULL;
                 if (func instanceof Function.Window) {
-                    Method xValueMethod = Function.Window.class.getDeclaredMethod("_xValue");
-                    Method xInverseMethod = Function.Window.class.getDeclaredMethod("_xInverse");
-                    xValue xValueUpcall = (context) -> xCall(context, 0, NULL, func, xValueMethod);
-                    xInverse xInverseUpcall =
-                            (context, args, value) ->
-                                    xCall(context, args, value, func, xInverseMethod);
-                    xValue = getUpcallStub(xValueUpcall, func._arena);
-                    xInverse = getUpcallStub(xInverseUpcall, func._arena);
+                    xValue = getUpcallStub(func, XVALUE, XFINAL_DESCRIPTOR);
+                    xInverse = getUpcallStub(func, XINVERSE, XFUNC_DESCRIPTOR);
                 }
 
                 ret =
@@ -504,11 +944,8 @@ class NativeDB_c implements Codes {
                                 xInverse,
                                 NULL);
             } else {
-                Method xFuncMethod = Function.class.getDeclaredMethod("_xFunc");
                 // In NativeDB.c, func is null and the function pointer is passed via context
-                xFunc xFuncUpcall =
-                        (context, args, value) -> xCall(context, args, value, func, xFuncMethod);
-                MemorySegment xFunc = getUpcallStub(xFuncUpcall, func._arena);
+                MemorySegment xFunc = getUpcallStub(func, XFUNC, XFUNC_DESCRIPTOR);
 
                 ret =
                         sqlite3_create_function(
@@ -522,40 +959,178 @@ class NativeDB_c implements Codes {
                                 NULL);
             }
             return ret;
-        } catch (ReflectiveOperationException e) {
-            throw new AssertionError(e);
         }
     }
 
     int destroy_function(String name) throws SQLException {
         ensureOpen();
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment name_bytes = allocateUTF8(name, arena);
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            MemorySegment name_bytes = allocateUTF8(name, scope);
+
+            String key = name.toLowerCase(Locale.ROOT);
+            var it = scalarFunctions.keySet().iterator();
+            while (it.hasNext()) {
+                ScalarFunctionKey function = it.next();
+                if (!function.name().equals(key)) continue;
+                sqlite3_create_function(
+                        db, name_bytes, function.nArgs(), SQLITE_UTF8, NULL, NULL, NULL, NULL);
+                it.remove();
+            }
 
             return sqlite3_create_function(
                     db, name_bytes, -1, SQLITE_UTF16, NULL, NULL, NULL, NULL);
         }
     }
 
+    /**
+     * Registers a scalar function whose upcall stub calls {@code f} directly, reading its
+     * arguments and setting its result with the {@code sqlite3_value_*} and {@code
+     * sqlite3_result_*} functions matching the type of {@code f}. If any argument is NULL, the
+     * result is NULL and {@code f} is not called.
+     *
+     * @param f a {@link LongUnaryOperator}, {@link LongBinaryOperator}, {@link
+     *     DoubleUnaryOperator}, {@link DoubleBinaryOperator} or {@code UnaryOperator<String>}
+     */
+    int create_scalar_function(String name, Object f, int flags) throws SQLException {
+        ensureOpen();
+        MethodHandle target =
+                switch (f) {
+                    case LongUnaryOperator op -> X_LONG_UNARY.bindTo(this).bindTo(op);
+                    case LongBinaryOperator op -> X_LONG_BINARY.bindTo(this).bindTo(op);
+                    case DoubleUnaryOperator op -> X_DOUBLE_UNARY.bindTo(this).bindTo(op);
+                    case DoubleBinaryOperator op -> X_DOUBLE_BINARY.bindTo(this).bindTo(op);
+                    case UnaryOperator<?> op -> X_TEXT_UNARY.bindTo(this).bindTo(op);
+                    default -> throw new SQLException("unsupported function type: " + f);
+                };
+        int nArgs = f instanceof LongBinaryOperator || f instanceof DoubleBinaryOperator ? 2 : 1;
+
+        Arena arena = Arena.ofAuto();
+        MemorySegment xFunc = Linker.nativeLinker().upcallStub(target, XFUNC_DESCRIPTOR, arena);
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            int ret =
+                    sqlite3_create_function(
+                            db,
+                            allocateUTF8(name, scope),
+                            nArgs,
+                            SQLITE_UTF8 | flags,
+                            NULL,
+                            xFunc,
+                            NULL,
+                            NULL);
+            if (ret == SQLITE_OK) {
+                scalarFunctions.put(
+                        new ScalarFunctionKey(name.toLowerCase(Locale.ROOT), nArgs), arena);
+            }
+            return ret;
+        }
+    }
+
+    private void xLongUnary(
+            LongUnaryOperator f, MemorySegment context, int args, MemorySegment value) {
+        try {
+            MemorySegment a = argAt(value, 0);
+            if (sqlite3_value_type(a) == SQLITE_NULL) {
+                sqlite3_result_null(context);
+            } else {
+                sqlite3_result_int64(context, f.applyAsLong(sqlite3_value_int64(a)));
+            }
+        } catch (Throwable e) {
+            xFunc_error(context, e);
+        }
+    }
+
+    private void xLongBinary(
+            LongBinaryOperator f, MemorySegment context, int args, MemorySegment value) {
+        try {
+            MemorySegment a = argAt(value, 0);
+            MemorySegment b = argAt(value, 1);
+            if (sqlite3_value_type(a) == SQLITE_NULL || sqlite3_value_type(b) == SQLITE_NULL) {
+                sqlite3_result_null(context);
+            } else {
+                sqlite3_result_int64(
+                        context, f.applyAsLong(sqlite3_value_int64(a), sqlite3_value_int64(b)));
+            }
+        } catch (Throwable e) {
+            xFunc_error(context, e);
+        }
+    }
+
+    private void xDoubleUnary(
+            DoubleUnaryOperator f, MemorySegment context, int args, MemorySegment value) {
+        try {
+            MemorySegment a = argAt(value, 0);
+            if (sqlite3_value_type(a) == SQLITE_NULL) {
+                sqlite3_result_null(context);
+            } else {
+                sqlite3_result_double(context, f.applyAsDouble(sqlite3_value_double(a)));
+            }
+        } catch (Throwable e) {
+            xFunc_error(context, e);
+        }
+    }
+
+    private void xDoubleBinary(
+            DoubleBinaryOperator f, MemorySegment context, int args, MemorySegment value) {
+        try {
+            MemorySegment a = argAt(value, 0);
+            MemorySegment b = argAt(value, 1);
+            if (sqlite3_value_type(a) == SQLITE_NULL || sqlite3_value_type(b) == SQLITE_NULL) {
+                sqlite3_result_null(context);
+            } else {
+                sqlite3_result_double(
+                        context,
+                        f.applyAsDouble(sqlite3_value_double(a), sqlite3_value_double(b)));
+            }
+        } catch (Throwable e) {
+            xFunc_error(context, e);
+        }
+    }
+
+    private void xTextUnary(
+            UnaryOperator<String> f, MemorySegment context, int args, MemorySegment value) {
+        try {
+            MemorySegment a = argAt(value, 0);
+            MemorySegment text = sqlite3_value_text(a);
+            if (hasNullAddress(text)) {
+                sqlite3_result_null(context);
+            } else {
+                result_text(context, f.apply(decodeText(text, sqlite3_value_bytes(a))));
+            }
+        } catch (Throwable e) {
+            xFunc_error(context, e);
+        }
+    }
+
+    private static MemorySegment argAt(MemorySegment value, int arg) {
+        return value.reinterpret(ADDRESS.byteSize() * (arg + 1)).getAtIndex(ADDRESS, arg);
+    }
+
     int create_collation(String name, Collation func) throws SQLException {
         ensureOpen();
-        try (Arena arena = Arena.ofConfined()) {
-            xCompare xCompareUpcall =
-                    (_, len1, str1, len2, str2) -> {
-                        try (Arena stringArena = Arena.ofConfined()) {
-                            byte[] jbyte1 = getByteArray(str1, len1, stringArena);
-                            byte[] jbyte2 = getByteArray(str2, len2, stringArena);
-                            String jstr1 = new String(jbyte1, StandardCharsets.UTF_8);
-                            String jstr2 = new String(jbyte2, StandardCharsets.UTF_8);
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            xCompare xCompareUpcall;
+            if (func instanceof Collation.Bytes bytes) {
+                xCompareUpcall =
+                        (_, len1, str1, len2, str2) ->
+                                bytes._xCompare(
+                                        str1.reinterpret(len1).asReadOnly(),
+                                        str2.reinterpret(len2).asReadOnly());
+            } else {
+                xCompareUpcall =
+                        (_, len1, str1, len2, str2) -> {
+                            String jstr1 =
+                                    new String(getByteArray(str1, len1), StandardCharsets.UTF_8);
+                            String jstr2 =
+                                    new String(getByteArray(str2, len2), StandardCharsets.UTF_8);
 
                             return func._xCompare(jstr1, jstr2);
-                        }
-                    };
+                        };
+            }
             MemorySegment xCompare = getUpcallStub(xCompareUpcall, func._arena);
 
             return sqlite3_create_collation_v2(
                     db,
-                    allocateUTF8(name, arena),
+                    allocateUTF8(name, scope),
                     SQLITE_UTF8, // NativeDB.c uses SQLITE_UTF16
                     NULL,
                     xCompare,
@@ -565,9 +1140,9 @@ class NativeDB_c implements Codes {
 
     int destroy_collation(String name) throws SQLException {
         ensureOpen();
-        try (Arena arena = Arena.ofConfined()) {
+        try (ScratchAllocator.Scope scope = scratch.open()) {
             return sqlite3_create_collation(
-                    db, allocateUTF8(name, arena), SQLITE_UTF16, NULL, NULL);
+                    db, allocateUTF8(name, scope), SQLITE_UTF16, NULL, NULL);
         }
     }
 
@@ -585,21 +1160,21 @@ class NativeDB_c implements Codes {
             int pagesPerStep)
             throws SQLException {
         ensureOpen();
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment dDBName = allocateUTF8(zDBName, arena);
-            MemorySegment dFileName = allocateUTF8(zFilename, arena);
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            MemorySegment dDBName = allocateUTF8(zDBName, scope);
+            MemorySegment dFileName = allocateUTF8(zFilename, scope);
 
             int flags = SQLITE_OPEN_READWRITE | SQLITE_OPEN_CREATE;
-            if (sqlite3_strnicmp(dFileName, allocateUTF8("file:", arena), 5) == 0) {
+            if (sqlite3_strnicmp(dFileName, allocateUTF8("file:", scope), 5) == 0) {
                 flags |= SQLITE_OPEN_URI;
             }
-            MemorySegment ppFile = arena.allocate(ADDRESS.withTargetLayout(ADDRESS));
+            MemorySegment ppFile = scope.allocate(ADDRESS);
             int rc = sqlite3_open_v2(dFileName, ppFile, flags, NULL);
 
             if (rc == SQLITE_OK) {
                 MemorySegment pFile = ppFile.get(ADDRESS, 0);
                 MemorySegment pBackup =
-                        sqlite3_backup_init(pFile, allocateUTF8("main", arena), db, dDBName);
+                        sqlite3_backup_init(pFile, allocateUTF8("main", scope), db, dDBName);
                 if (pBackup.address() != NULL.address()) {
                     copyLoop(pBackup, observer, pagesPerStep, nTimeoutLimit, sleepTimeMillis);
 
@@ -622,21 +1197,21 @@ class NativeDB_c implements Codes {
             int pagesPerStep)
             throws SQLException {
         ensureOpen();
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment dDBName = allocateUTF8(zDBName, arena);
-            MemorySegment dFileName = allocateUTF8(zFilename, arena);
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            MemorySegment dDBName = allocateUTF8(zDBName, scope);
+            MemorySegment dFileName = allocateUTF8(zFilename, scope);
 
             int flags = SQLITE_OPEN_READONLY;
-            if (sqlite3_strnicmp(dFileName, allocateUTF8("file:", arena), 5) == 0) {
+            if (sqlite3_strnicmp(dFileName, allocateUTF8("file:", scope), 5) == 0) {
                 flags |= SQLITE_OPEN_URI;
             }
-            MemorySegment ppFile = arena.allocate(ADDRESS.withTargetLayout(ADDRESS));
+            MemorySegment ppFile = scope.allocate(ADDRESS);
             int rc = sqlite3_open_v2(dFileName, ppFile, flags, NULL);
 
             if (rc == SQLITE_OK) {
                 MemorySegment pFile = ppFile.get(ADDRESS, 0);
                 MemorySegment pBackup =
-                        sqlite3_backup_init(db, dDBName, pFile, allocateUTF8("main", arena));
+                        sqlite3_backup_init(db, dDBName, pFile, allocateUTF8("main", scope));
                 if (!hasNullAddress(pBackup)) {
                     copyLoop(pBackup, observer, pagesPerStep, nTimeoutLimit, sleepTimeMillis);
                     sqlite3_backup_finish(pBackup);
@@ -654,16 +1229,17 @@ class NativeDB_c implements Codes {
         int colCount = sqlite3_column_count(stmt);
         boolean[][] array = new boolean[colCount][3];
 
-        for (int i = 0; i < colCount; i++) {
-            MemorySegment zColumnName = sqlite3_column_name(stmt, i);
-            MemorySegment zTableName = sqlite3_column_table_name(stmt, i);
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            MemorySegment pNotNull = scope.allocate(JAVA_INT);
+            MemorySegment pPrimaryKey = scope.allocate(JAVA_INT);
+            MemorySegment pAutoinc = scope.allocate(JAVA_INT);
+
+            for (int i = 0; i < colCount; i++) {
+                MemorySegment zColumnName = sqlite3_column_name(stmt, i);
+                MemorySegment zTableName = sqlite3_column_table_name(stmt, i);
 
-            try (Arena arena = Arena.ofConfined()) {
-                MemorySegment pNotNull = arena.allocate(JAVA_INT);
                 pNotNull.set(JAVA_INT, 0, 0);
-                MemorySegment pPrimaryKey = arena.allocate(JAVA_INT);
                 pPrimaryKey.set(JAVA_INT, 0, 0);
-                MemorySegment pAutoinc = arena.allocate(JAVA_INT);
                 pAutoinc.set(JAVA_INT, 0, 0);
 
                 if (!hasNullAddress(zTableName) && !hasNullAddress(zColumnName)) {
@@ -721,11 +1297,11 @@ class NativeDB_c implements Codes {
     byte[] serialize(String jschema) throws SQLException {
         ensureOpen();
 
-        try (Arena arena = Arena.ofConfined()) {
+        try (ScratchAllocator.Scope scope = scratch.open()) {
             // FIXME: may fail if jschema contains null characters! JNI GetStringUTFChars
-            MemorySegment schema = allocateUTF8(jschema, arena);
+            MemorySegment schema = allocateUTF8(jschema, scope);
 
-            MemorySegment pSize = arena.allocate(ADDRESS.withTargetLayout(JAVA_LONG));
+            MemorySegment pSize = scope.allocate(JAVA_LONG);
             boolean need_free = false;
             MemorySegment buff = sqlite3_serialize(db, schema, pSize, SQLITE_SERIALIZE_NOCOPY);
             if (hasNullAddress(buff)) {
@@ -737,7 +1313,7 @@ class NativeDB_c implements Codes {
             }
 
             long size = pSize.get(JAVA_LONG, 0);
-            byte[] jbuff = getByteArray(buff, Math.toIntExact(size), arena);
+            byte[] jbuff = getByteArray(buff, Math.toIntExact(size));
 
             if (need_free) {
                 sqlite3_free(buff);
@@ -756,15 +1332,13 @@ class NativeDB_c implements Codes {
             throw new SQLException("Failed to allocate native memory for database");
         }
 
-        try (Arena arena = Arena.ofConfined()) {
-            // TODO: figure out if this can be simplified
-            // doesn't work to just remove SQLITE_DESERIALIZE_FREEONCLOSE and use buff
-            MemorySegment buff = arena.allocateFrom(JAVA_BYTE, jbuff);
-            MemorySegment pSqliteBuff = sqlite_buff.reinterpret(size, arena, null);
-            pSqliteBuff.copyFrom(buff);
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            // SQLite takes ownership of sqlite_buff, so it must come from sqlite3_malloc()
+            MemorySegment pSqliteBuff = sqlite_buff.reinterpret(size);
+            MemorySegment.copy(jbuff, 0, pSqliteBuff, JAVA_BYTE, 0, size);
 
             // FIXME: may fail if jschema contains null characters! JNI GetStringUTFChars
-            MemorySegment schema = allocateUTF8(jschema, arena);
+            MemorySegment schema = allocateUTF8(jschema, scope);
             int ret =
                     sqlite3_deserialize(
                             db,
@@ -774,7 +1348,7 @@ class NativeDB_c implements Codes {
                             size,
                             SQLITE_DESERIALIZE_FREEONCLOSE | SQLITE_DESERIALIZE_RESIZEABLE);
             if (ret == SQLITE_OK) {
-                MemorySegment max_size = arena.allocate(ADDRESS.withTargetLayout(JAVA_LONG));
+                MemorySegment max_size = scope.allocate(JAVA_LONG);
                 max_size.set(JAVA_LONG, 0, 1024L * 1024L * 1000L * 2L);
                 sqlite3_file_control(db, schema, SQLITE_FCNTL_SIZE_LIMIT, max_size);
             } else {
@@ -792,7 +1366,6 @@ class NativeDB_c implements Codes {
         if (db == null) throw new SQLException("The database has been closed");
     }
 
-    // TODO: accept Arena argument
     private MemorySegment tovalue(Function function, int arg) throws SQLException {
         if (arg < 0) throw new SQLException("negative arg out of range");
         if (function == null) throw new SQLException("inconsistent function");
@@ -803,12 +1376,7 @@ class NativeDB_c implements Codes {
         if (hasNullAddress(value_pntr)) throw new SQLException("no current value");
         if (arg >= numArgs) throw new SQLException("arg out of range");
 
-        try (Arena arena = Arena.ofConfined()) {
-            return value_pntr
-                    .reinterpret(ADDRESS.byteSize() * numArgs, arena, null)
-                    // FIXME: global arena
-                    .getAtIndex(ADDRESS, arg);
-        }
+        return value_pntr.reinterpret(ADDRESS.byteSize() * numArgs).getAtIndex(ADDRESS, arg);
     }
 
     private void change_progress_handler(
@@ -850,30 +1418,37 @@ class NativeDB_c implements Codes {
         sqlite3_update_hook(db, NULL, NULL);
     }
 
-    // TODO: rewrite with less reflection (maybe remove xCall())
+    /**
+     * The target of every function upcall stub. {@code func} and {@code callback} are bound by
+     * {@link #getUpcallStub(Function, MethodHandle, FunctionDescriptor)}.
+     *
+     * @param callback a {@code void ()} handle bound to {@code func}
+     */
     private void xCall(
-            MemorySegment context, int args, MemorySegment value, Function func, Method method) {
-        try (Arena arena = Arena.ofConfined()) {
-            func._setContext(context);
-            func._setValue(value.reinterpret(ADDRESS.byteSize(), arena, null));
-            func._setArgs(args);
-
-            try {
-                method.invoke(func);
-            } catch (Throwable e) {
-                xFunc_error(context, e);
-            }
+            MemorySegment context,
+            int args,
+            MemorySegment value,
+            Function func,
+            MethodHandle callback) {
+        func._setContext(context);
+        func._setValue(value.reinterpret(ADDRESS.byteSize()));
+        func._setArgs(args);
 
-            func._setContext(NULL);
-            func._setValue(NULL);
-            func._setArgs(0);
+        try {
+            callback.invokeExact();
+        } catch (Throwable e) {
+            xFunc_error(context, e);
         }
+
+        func._setContext(NULL);
+        func._setValue(NULL);
+        func._setArgs(0);
     }
 
     private void xFunc_error(MemorySegment context, Throwable ex) {
-        try (Arena arena = Arena.ofConfined()) {
-            MemorySegment msg_bytes = allocateUTF8(ex.toString(), arena);
-            int msg_nbytes = Math.toIntExact(msg_bytes.elements(JAVA_BYTE).count());
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            MemorySegment msg_bytes = allocateUTF8(ex.toString(), scope);
+            int msg_nbytes = Math.toIntExact(msg_bytes.byteSize());
 
             sqlite3_result_error(context, msg_bytes, msg_nbytes);
         }
@@ -903,65 +1478,12 @@ class NativeDB_c implements Codes {
         } while (rc == SQLITE_OK || rc == SQLITE_BUSY || rc == SQLITE_LOCKED);
     }
 
+    private record ScalarFunctionKey(String name, int nArgs) {}
+
     private interface UpcallMethod {
         FunctionDescriptor descriptor();
     }
 
-    @FunctionalInterface
-    private interface xFunc extends UpcallMethod {
-        default FunctionDescriptor descriptor() {
-            return FunctionDescriptor.ofVoid(ADDRESS, JAVA_INT, ADDRESS);
-        }
-
-        @SuppressWarnings("unused")
-        // getUpcallStub() uses via reflection
-        void call(MemorySegment context, int args, MemorySegment value) throws SQLException;
-    }
-
-    @FunctionalInterface
-    private interface xStep extends UpcallMethod {
-        default FunctionDescriptor descriptor() {
-            return FunctionDescriptor.ofVoid(ADDRESS, JAVA_INT, ADDRESS);
-        }
-
-        @SuppressWarnings("unused")
-        // getUpcallStub() uses via reflection
-        void call(MemorySegment context, int args, MemorySegment value) throws SQLException;
-    }
-
-    @FunctionalInterface
-    private interface xInverse extends UpcallMethod {
-        default FunctionDescriptor descriptor() {
-            return FunctionDescriptor.ofVoid(ADDRESS, JAVA_INT, ADDRESS);
-        }
-
-        @SuppressWarnings("unused")
-        // getUpcallStub() uses via reflection
-        void call(MemorySegment context, int args, MemorySegment value) throws SQLException;
-    }
-
-    @FunctionalInterface
-    private interface xValue extends UpcallMethod {
-        default FunctionDescriptor descriptor() {
-            return FunctionDescriptor.ofVoid(ADDRESS);
-        }
-
-        @SuppressWarnings("unused")
-        // getUpcallStub() uses via reflection
-        void call(MemorySegment context) throws SQLException;
-    }
-
-    @FunctionalInterface
-    private interface xFinal extends UpcallMethod {
-        default FunctionDescriptor descriptor() {
-            return FunctionDescriptor.ofVoid(ADDRESS);
-        }
-
-        @SuppressWarnings("unused")
-        // getUpcallStub() calls via reflection
-        void call(MemorySegment context) throws SQLException;
-    }
-
     @FunctionalInterface
     private interface xCompare extends UpcallMethod {
         default FunctionDescriptor descriptor() {
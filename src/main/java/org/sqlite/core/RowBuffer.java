@@ -0,0 +1,365 @@
+package org.sqlite.core;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static org.sqlite.core.Codes.SQLITE_BLOB;
+import static org.sqlite.core.Codes.SQLITE_FLOAT;
+import static org.sqlite.core.Codes.SQLITE_INTEGER;
+import static org.sqlite.core.Codes.SQLITE_NULL;
+import static org.sqlite.core.Codes.SQLITE_TEXT;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Rows read from a statement ahead of time, stored column by column so that a result set can be
+ * read after the statement has been reset or stepped past them. Each column has a type tag and a
+ * primitive value per row: integers as longs, reals as the bits of a double, and text and blobs as
+ * an offset and length into one native byte arena, copied from the statement without decoding.
+ * Reals are rendered as text only when read as text, in the format SQLite uses, and text is
+ * converted to numbers the way SQLite does, so that a cell reads the same whether it is buffered or
+ * not.
+ * The buffer is reused by each execution of the statement that owns it, and takes the names of the
+ * columns again only when the statement describes its columns again.
+ */
+public final class RowBuffer {
+    private static final int INITIAL_ROWS = 16;
+    private static final long INITIAL_ARENA_SIZE = 4096;
+    private static final String[] ROWID_NAMES = {"last_insert_rowid()"};
+    private static final ColumnDescriptor[] ROWID_DESCRIPTORS = {
+        ColumnDescriptor.expression(ROWID_NAMES[0])
+    };
+
+    private String[] names;
+    private ColumnDescriptor[] descriptors;
+
+    private int columns;
+    private byte[][] types = new byte[0][];
+    private long[][] values = new long[0][];
+    private int[][] lengths = new int[0][];
+    private int capacity = INITIAL_ROWS;
+    private int size;
+
+    private MemorySegment arena;
+    private long arenaUsed;
+
+    /**
+     * Empties the buffer and takes the columns of a statement, for its rows or the rows of its
+     * RETURNING clause.
+     *
+     * @param db The connection of the statement.
+     * @param stmt Pointer to the statement.
+     * @param columns The descriptors of the columns, from {@link SafeStmtPtr#columns()}, which
+     *     returns the same array until the statement is prepared again.
+     * @throws SQLException
+     */
+    void reset(DB db, MemorySegment stmt, ColumnDescriptor[] columns) throws SQLException {
+        clear();
+        if (descriptors != columns) {
+            describe(db.column_names(stmt), columns);
+        }
+    }
+
+    /** Empties the buffer and takes a single integer column of inserted rowids. */
+    void resetRowIds() {
+        clear();
+        if (names != ROWID_NAMES) {
+            describe(ROWID_NAMES, ROWID_DESCRIPTORS);
+        }
+    }
+
+    private void describe(String[] names, ColumnDescriptor[] descriptors) {
+        this.names = names;
+        this.descriptors = descriptors;
+        if (columns != names.length) {
+            columns = names.length;
+            types = new byte[columns][capacity];
+            values = new long[columns][capacity];
+            lengths = new int[columns][];
+        }
+    }
+
+    private void clear() {
+        size = 0;
+        arenaUsed = 0;
+    }
+
+    /**
+     * Appends the current row of a statement.
+     *
+     * @param db The connection of the statement.
+     * @param stmt Pointer to the statement, positioned on a row.
+     * @throws SQLException
+     */
+    void add(DB db, MemorySegment stmt) throws SQLException {
+        if (size == capacity) {
+            grow();
+        }
+        for (int c = 0; c < columns; c++) {
+            int type = db.column_type(stmt, c);
+            types[c][size] = (byte) type;
+            switch (type) {
+                case SQLITE_INTEGER -> values[c][size] = db.column_long(stmt, c);
+                case SQLITE_FLOAT ->
+                        values[c][size] = Double.doubleToRawLongBits(db.column_double(stmt, c));
+                case SQLITE_TEXT -> setBytes(c, db.column_segment(stmt, c, false));
+                case SQLITE_BLOB -> setBytes(c, db.column_segment(stmt, c, true));
+                default -> types[c][size] = SQLITE_NULL;
+            }
+        }
+        size++;
+    }
+
+    /**
+     * Appends a row to a buffer of rowids.
+     *
+     * @param rowId The rowid.
+     */
+    void addLong(long rowId) {
+        if (size == capacity) {
+            grow();
+        }
+        types[0][size] = SQLITE_INTEGER;
+        values[0][size] = rowId;
+        size++;
+    }
+
+    private void setBytes(int c, MemorySegment bytes) {
+        if (bytes == null) {
+            types[c][size] = SQLITE_NULL;
+            return;
+        }
+        values[c][size] = copy(c, bytes);
+    }
+
+    /** Copies bytes into the arena and records their length, returning their offset. */
+    private long copy(int c, MemorySegment bytes) {
+        long n = bytes.byteSize();
+        if (arena == null || arenaUsed + n > arena.byteSize()) {
+            growArena(n);
+        }
+        MemorySegment.copy(bytes, 0, arena, arenaUsed, n);
+        if (lengths[c] == null) {
+            lengths[c] = new int[capacity];
+        }
+        long offset = arenaUsed;
+        lengths[c][size] = (int) n;
+        arenaUsed += n;
+        return offset;
+    }
+
+    private void grow() {
+        capacity *= 2;
+        for (int c = 0; c < columns; c++) {
+            types[c] = Arrays.copyOf(types[c], capacity);
+            values[c] = Arrays.copyOf(values[c], capacity);
+            if (lengths[c] != null) {
+                lengths[c] = Arrays.copyOf(lengths[c], capacity);
+            }
+        }
+    }
+
+    private void growArena(long needed) {
+        long arenaSize = arena == null ? INITIAL_ARENA_SIZE : arena.byteSize() * 2;
+        while (arenaSize < arenaUsed + needed) {
+            arenaSize *= 2;
+        }
+        // freed once the buffer is no longer reachable
+        MemorySegment grown = Arena.ofAuto().allocate(arenaSize);
+        if (arena != null) {
+            MemorySegment.copy(arena, 0, grown, 0, arenaUsed);
+        }
+        arena = grown;
+    }
+
+    /** The bytes of a text or blob cell, copied to the heap. */
+    private byte[] bytes(int row, int col) {
+        return arena.asSlice(values[col][row], lengths[col][row]).toArray(JAVA_BYTE);
+    }
+
+    /** The number of rows in the buffer. */
+    public int size() {
+        return size;
+    }
+
+    /** The names of the columns. */
+    public String[] columnNames() {
+        return names;
+    }
+
+    /** The descriptors of the columns. */
+    public ColumnDescriptor[] columnDescriptors() {
+        return descriptors;
+    }
+
+    /**
+     * @param row Index of the row, or past the last row for a result set without rows.
+     * @param col Index of the column.
+     * @return <a href="https://www.sqlite.org/c3ref/c_blob.html">Fundamental Datatypes</a>
+     */
+    public int type(int row, int col) {
+        return row < size ? types[col][row] : SQLITE_NULL;
+    }
+
+    /** The value of a cell converted to an integer as sqlite3_column_int64() would. */
+    public long getLong(int row, int col) {
+        return switch (type(row, col)) {
+            case SQLITE_INTEGER -> values[col][row];
+            case SQLITE_FLOAT -> (long) Double.longBitsToDouble(values[col][row]);
+            case SQLITE_TEXT, SQLITE_BLOB -> parseLong(values[col][row], lengths[col][row]);
+            default -> 0;
+        };
+    }
+
+    /** The value of a cell converted to a real as sqlite3_column_double() would. */
+    public double getDouble(int row, int col) {
+        return switch (type(row, col)) {
+            case SQLITE_INTEGER -> values[col][row];
+            case SQLITE_FLOAT -> Double.longBitsToDouble(values[col][row]);
+            case SQLITE_TEXT, SQLITE_BLOB -> parseDouble(values[col][row], lengths[col][row]);
+            default -> 0;
+        };
+    }
+
+    /**
+     * Reads the integer that text in the arena starts with, as sqlite3Atoi64() does: after spaces
+     * and a sign, the digits up to the first other character, clamped to the range of a long. Text
+     * without such digits is 0.
+     */
+    private long parseLong(long offset, int length) {
+        long end = offset + length;
+        long i = skipSpaces(offset, end);
+        boolean negative = false;
+        if (i < end && (arena.get(JAVA_BYTE, i) == '-' || arena.get(JAVA_BYTE, i) == '+')) {
+            negative = arena.get(JAVA_BYTE, i++) == '-';
+        }
+        while (i < end && arena.get(JAVA_BYTE, i) == '0') {
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        for (; i < end && isDigit(arena.get(JAVA_BYTE, i)); i++, digits++) {
+            value = value * 10 + (arena.get(JAVA_BYTE, i) - '0');
+        }
+        // the value is unsigned, and compared with 2^63 once it has as many digits
+        int overflow = Integer.compare(digits, 19);
+        if (overflow == 0) {
+            overflow = Long.compareUnsigned(value, Long.MIN_VALUE);
+        }
+        if (overflow > 0 || (overflow == 0 && !negative)) {
+            return negative ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Reads the real that text in the arena starts with, as sqlite3AtoF() does: after spaces, the
+     * longest prefix of a sign, digits with an optional decimal point and an optional exponent.
+     * Text without such digits is 0, with the sign it starts with.
+     */
+    private double parseDouble(long offset, int length) {
+        long end = offset + length;
+        long start = skipSpaces(offset, end);
+        long i = start;
+        boolean negative = false;
+        if (i < end && (arena.get(JAVA_BYTE, i) == '-' || arena.get(JAVA_BYTE, i) == '+')) {
+            negative = arena.get(JAVA_BYTE, i++) == '-';
+        }
+        long digits = i;
+        i = skipDigits(i, end);
+        boolean mantissa = i > digits;
+        if (i < end && arena.get(JAVA_BYTE, i) == '.') {
+            long fraction = ++i;
+            i = skipDigits(i, end);
+            mantissa |= i > fraction;
+        }
+        if (!mantissa) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (i < end && (arena.get(JAVA_BYTE, i) == 'e' || arena.get(JAVA_BYTE, i) == 'E')) {
+            long exponent = i + 1;
+            if (exponent < end
+                    && (arena.get(JAVA_BYTE, exponent) == '-'
+                            || arena.get(JAVA_BYTE, exponent) == '+')) {
+                exponent++;
+            }
+            long exponentEnd = skipDigits(exponent, end);
+            if (exponentEnd > exponent) {
+                i = exponentEnd;
+            }
+        }
+        byte[] prefix = arena.asSlice(start, i - start).toArray(JAVA_BYTE);
+        return Double.parseDouble(new String(prefix, StandardCharsets.ISO_8859_1));
+    }
+
+    private long skipSpaces(long i, long end) {
+        while (i < end && isSpace(arena.get(JAVA_BYTE, i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private long skipDigits(long i, long end) {
+        while (i < end && isDigit(arena.get(JAVA_BYTE, i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    /** The spaces of sqlite3Isspace(). */
+    private static boolean isSpace(byte b) {
+        return b == ' ' || (b >= '\t' && b <= '\r');
+    }
+
+    /** The value of a cell as text, or null if it is NULL. */
+    public String getString(int row, int col) {
+        return switch (type(row, col)) {
+            case SQLITE_INTEGER -> Long.toString(values[col][row]);
+            case SQLITE_FLOAT -> NativeDB_c.realToText(Double.longBitsToDouble(values[col][row]));
+            case SQLITE_TEXT, SQLITE_BLOB -> new String(bytes(row, col), StandardCharsets.UTF_8);
+            default -> null;
+        };
+    }
+
+    /**
+     * The bytes of a text or blob cell in the arena of the buffer, valid until the buffer is
+     * emptied, a copy of the text of a number, or null if the cell is NULL.
+     */
+    MemorySegment getSegment(int row, int col) {
+        return switch (type(row, col)) {
+            case SQLITE_TEXT, SQLITE_BLOB -> arena.asSlice(values[col][row], lengths[col][row]);
+            case SQLITE_NULL -> null;
+            default -> MemorySegment.ofArray(getBytes(row, col));
+        };
+    }
+
+    /** A copy of the value of a cell as bytes, or null if it is NULL. */
+    public byte[] getBytes(int row, int col) {
+        return switch (type(row, col)) {
+            case SQLITE_TEXT, SQLITE_BLOB -> bytes(row, col);
+            case SQLITE_NULL -> null;
+            default -> getString(row, col).getBytes(StandardCharsets.UTF_8);
+        };
+    }
+
+    /**
+     * Copies a column of integers into an array.
+     *
+     * @param col Index of the column.
+     * @return The values of the column, or null if any of them is not an integer.
+     */
+    public long[] getLongColumn(int col) {
+        for (int row = 0; row < size; row++) {
+            if (types[col][row] != SQLITE_INTEGER) {
+                return null;
+            }
+        }
+        return Arrays.copyOf(values[col], size);
+    }
+}
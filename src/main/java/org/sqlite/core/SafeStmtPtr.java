@@ -13,7 +13,7 @@ import java.util.Objects;
  */
 public class SafeStmtPtr {
     // store a reference to the DB, to lock it before any safe function is called. This avoids
-    // deadlocking by locking the DB. All calls with the raw pointer are synchronized with the DB
+    // deadlocking by locking the DB. All calls with the raw pointer are made while owning the DB
     // anyways, so making a separate lock would be pointless
     private final DB db;
     private final MemorySegment stmt;
@@ -25,6 +25,12 @@ public class SafeStmtPtr {
     // threw an exception
     private SQLException closeException;
 
+    /** The result columns of the statement, described on first use. */
+    private ColumnDescriptor[] columns;
+
+    /** The reprepare counter of the statement when {@link #columns} were described. */
+    private int columnsReprepared;
+
     /**
      * Construct a new Safe Pointer Wrapper to ensure a pointer is properly handled
      *
@@ -57,8 +63,11 @@ public class SafeStmtPtr {
      *     elsewhere
      */
     public int close() throws SQLException {
-        synchronized (db) {
+        db.lock();
+        try {
             return internalClose();
+        } finally {
+            db.unlock();
         }
     }
 
@@ -79,6 +88,63 @@ public class SafeStmtPtr {
         }
     }
 
+    /**
+     * Close this pointer without finalizing the statement, so that the statement can outlive it in
+     * the connection's statement cache. Must be called while holding the DB lock.
+     *
+     * @return the statement, or null if this pointer was already closed
+     */
+    MemorySegment detach() {
+        if (closed) return null;
+        closedRC = Codes.SQLITE_OK;
+        closed = true;
+        return stmt;
+    }
+
+    /**
+     * Describe the result columns of the statement. The descriptors are kept across executions and
+     * described again only once SQLite has prepared the statement again for a schema change.
+     *
+     * @return a descriptor for each column, in order
+     * @throws SQLException if the pointer is closed
+     */
+    public ColumnDescriptor[] columns() throws SQLException {
+        return safeRun(
+                (db, ptr) -> {
+                    int reprepared = db.stmt_status(ptr, Codes.SQLITE_STMTSTATUS_REPREPARE, false);
+                    if (columns == null || reprepared != columnsReprepared) {
+                        columns = ColumnDescriptor.describe(db, ptr);
+                        columnsReprepared = reprepared;
+                    }
+                    return columns;
+                });
+    }
+
+    /**
+     * Get the column descriptors to keep with the statement in the statement cache. Must be called
+     * while holding the DB lock, before {@link #detach()}.
+     *
+     * @return the descriptors, or null if they were never described or are out of date
+     */
+    ColumnDescriptor[] cachedColumns() throws SQLException {
+        if (closed || columns == null) return null;
+        int reprepared = db.stmt_status(stmt, Codes.SQLITE_STMTSTATUS_REPREPARE, false);
+        return reprepared == columnsReprepared ? columns : null;
+    }
+
+    /**
+     * Take the column descriptors kept with a statement from the statement cache. Must be called
+     * while holding the DB lock.
+     *
+     * @param columns the descriptors, or null
+     */
+    void adoptColumns(ColumnDescriptor[] columns) throws SQLException {
+        if (columns == null) return;
+        this.columns = columns;
+        // the counter only moves when the statement is stepped, which it was not while cached
+        this.columnsReprepared = db.stmt_status(stmt, Codes.SQLITE_STMTSTATUS_REPREPARE, false);
+    }
+
     /**
      * Run a callback with the wrapped pointer safely.
      *
@@ -87,9 +153,12 @@ public class SafeStmtPtr {
      * @throws SQLException if the pointer is utilized elsewhere
      */
     public <E extends Throwable> int safeRunInt(SafePtrIntFunction<E> run) throws SQLException, E {
-        synchronized (db) {
+        db.lock();
+        try {
             this.ensureOpen();
             return run.run(db, stmt);
+        } finally {
+            db.unlock();
         }
     }
 
@@ -102,9 +171,12 @@ public class SafeStmtPtr {
      */
     public <E extends Throwable> long safeRunLong(SafePtrLongFunction<E> run)
             throws SQLException, E {
-        synchronized (db) {
+        db.lock();
+        try {
             this.ensureOpen();
             return run.run(db, stmt);
+        } finally {
+            db.unlock();
         }
     }
 
@@ -117,9 +189,12 @@ public class SafeStmtPtr {
      */
     public <E extends Throwable> double safeRunDouble(SafePtrDoubleFunction<E> run)
             throws SQLException, E {
-        synchronized (db) {
+        db.lock();
+        try {
             this.ensureOpen();
             return run.run(db, stmt);
+        } finally {
+            db.unlock();
         }
     }
 
@@ -131,9 +206,12 @@ public class SafeStmtPtr {
      * @throws SQLException if the pointer is utilized elsewhere
      */
     public <T, E extends Throwable> T safeRun(SafePtrFunction<T, E> run) throws SQLException, E {
-        synchronized (db) {
+        db.lock();
+        try {
             this.ensureOpen();
             return run.run(db, stmt);
+        } finally {
+            db.unlock();
         }
     }
 
@@ -145,9 +223,12 @@ public class SafeStmtPtr {
      */
     public <E extends Throwable> void safeRunConsume(SafePtrConsumer<E> run)
             throws SQLException, E {
-        synchronized (db) {
+        db.lock();
+        try {
             this.ensureOpen();
             run.run(db, stmt);
+        } finally {
+            db.unlock();
         }
     }
 
@@ -0,0 +1,91 @@
+package org.sqlite.core;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentAllocator;
+
+/**
+ * A reusable bump-pointer allocator for the short-lived native buffers that {@link NativeDB_c}
+ * passes to SQLite, such as SQL text, bound strings and out-parameters.
+ *
+ * <p>Memory is handed out from a single block that is kept for the lifetime of the connection, so
+ * a call that only needs scratch space does not allocate native memory once the block is large
+ * enough. Allocations are made through a {@link Scope}; closing the scope releases everything
+ * allocated through it. Scopes nest, which allows upcalls made while a scope is open (e.g. a
+ * user-defined function run by {@code sqlite3_exec}) to use the allocator too.
+ *
+ * <p>When a request does not fit, the block is replaced by one twice as large, up to {@link
+ * #MAX_BLOCK_SIZE}. Larger requests are served by a confined arena owned by the scope. Earlier
+ * blocks stay valid until every segment sliced from them is unreachable.
+ *
+ * <p>Not thread-safe. Callers must hold the connection's lock for as long as a scope is open.
+ */
+final class ScratchAllocator {
+    static final long INITIAL_BLOCK_SIZE = 4 * 1024;
+    static final long MAX_BLOCK_SIZE = 1024 * 1024;
+
+    private MemorySegment block = null;
+    private long offset = 0;
+
+    /**
+     * Opens a scope whose allocations are released when it is closed. Scopes must be closed in the
+     * reverse order they were opened, as with try-with-resources.
+     */
+    Scope open() {
+        return new Scope(block, offset);
+    }
+
+    /** The size of the current block in bytes, or 0 if nothing has been allocated yet. */
+    long blockSize() {
+        return block == null ? 0 : block.byteSize();
+    }
+
+    private MemorySegment bump(long byteSize, long byteAlignment) {
+        if (block != null) {
+            long start = alignUp(block.address() + offset, byteAlignment) - block.address();
+            if (start + byteSize <= block.byteSize()) {
+                offset = start + byteSize;
+                return block.asSlice(start, byteSize);
+            }
+        }
+
+        long size = block == null ? INITIAL_BLOCK_SIZE : block.byteSize() * 2;
+        while (size < byteSize + byteAlignment) size *= 2;
+        block = Arena.ofAuto().allocate(Math.min(size, MAX_BLOCK_SIZE + byteAlignment));
+        long start = alignUp(block.address(), byteAlignment) - block.address();
+        offset = start + byteSize;
+        return block.asSlice(start, byteSize);
+    }
+
+    private static long alignUp(long address, long byteAlignment) {
+        return (address + byteAlignment - 1) & -byteAlignment;
+    }
+
+    /** A nested region of a {@link ScratchAllocator}. */
+    final class Scope implements SegmentAllocator, AutoCloseable {
+        private final MemorySegment markBlock;
+        private final long markOffset;
+        private Arena overflow = null;
+
+        private Scope(MemorySegment markBlock, long markOffset) {
+            this.markBlock = markBlock;
+            this.markOffset = markOffset;
+        }
+
+        @Override
+        public MemorySegment allocate(long byteSize, long byteAlignment) {
+            if (byteSize > MAX_BLOCK_SIZE) {
+                if (overflow == null) overflow = Arena.ofConfined();
+                return overflow.allocate(byteSize, byteAlignment);
+            }
+            return bump(byteSize, byteAlignment);
+        }
+
+        @Override
+        public void close() {
+            if (overflow != null) overflow.close();
+            // if the block was replaced, everything in the new one was allocated in this scope
+            offset = block == markBlock ? markOffset : 0;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.sqlite.core;
+
+import java.lang.foreign.MemorySegment;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * A size-bounded, least recently used cache of closed prepared statements, keyed by their SQL
+ * text. Statements are reset and their bindings cleared before they are cached, and a statement
+ * taken from the cache is owned by exactly one {@link CorePreparedStatement} until it is returned.
+ * Statements evicted from the cache, or still cached when it is cleared, are finalized. {@link
+ * DB#executeBatch(Object[], int, boolean)} also uses a short-lived cache to compile each distinct
+ * SQL string of a batch once.
+ *
+ * <p>All methods must be called while holding the owning {@link DB}'s lock.
+ */
+final class StatementCache {
+    /**
+     * A compiled statement with the properties that {@link CorePreparedStatement} would otherwise
+     * read from it again after preparing, and the value of its {@link
+     * Codes#SQLITE_STMTSTATUS_REPREPARE} counter when they were read.
+     */
+    record Entry(
+            MemorySegment stmt,
+            String[] columnNames,
+            int columnCount,
+            int paramCount,
+            ColumnDescriptor[] columns,
+            int reprepared) {}
+
+    private final DB db;
+    private final int capacity;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private long hits;
+    private long misses;
+
+    StatementCache(DB db, int capacity) {
+        this.db = db;
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Removes the statement cached for the given SQL. The statement is not checked against the
+     * current schema: like any prepared statement, SQLite prepares it again when it is next
+     * stepped after a schema change, and fails then if it no longer compiles.
+     *
+     * @return the cached statement, or null on a miss.
+     */
+    Entry take(String sql) {
+        Entry entry = entries.remove(sql);
+        if (entry == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return entry;
+    }
+
+    /**
+     * Caches a statement that is no longer used, evicting the least recently used statement if
+     * the cache is full. A statement is finalized instead if the same SQL is already cached.
+     */
+    void put(String sql, Entry entry) throws SQLException {
+        db.reset(entry.stmt());
+        db.clear_bindings(entry.stmt());
+        if (entries.putIfAbsent(sql, entry) != null) {
+            db.finalize(entry.stmt());
+            return;
+        }
+        if (entries.size() > capacity) {
+            Iterator<Entry> eldest = entries.values().iterator();
+            MemorySegment evicted = eldest.next().stmt();
+            eldest.remove();
+            db.finalize(evicted);
+        }
+    }
+
+    /** Finalizes every cached statement. */
+    void clear() throws SQLException {
+        for (Entry entry : entries.values()) {
+            db.finalize(entry.stmt());
+        }
+        entries.clear();
+    }
+
+    long hits() {
+        return hits;
+    }
+
+    long misses() {
+        return misses;
+    }
+}
@@ -0,0 +1,9 @@
+package org.sqlite.core;
+
+/**
+ * A statement parameter bound with sqlite3_bind_zeroblob(): a blob of zeros that SQLite stores
+ * without allocating it, to be filled afterwards through incremental blob I/O.
+ *
+ * @param length The length of the blob in bytes.
+ */
+record ZeroBlob(int length) {}
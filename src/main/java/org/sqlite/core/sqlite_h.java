@@ -19,10 +19,15 @@ import org.sqlite.util.LoggerFactory;
  * FFM interface with {@code sqlite3} native library. Only functions and constants used in {@link
  * NativeDB_c} have been included.
  *
- * <p>The SQLite version listed for each MethodHandle variable is the first version of SQLite that
- * included that function and its signature.
+ * <p>Each MethodHandle is held by a nested class named after its function, so a symbol is only
+ * looked up and linked the first time it is called. Once linked, the handle is a static final
+ * constant the JIT can fold.
+ *
+ * <p>The SQLite version listed for each holder class is the first version of SQLite that included
+ * that function and its signature.
  */
 class sqlite_h {
+    static final long SQLITE_STATIC = 0;
     static final long SQLITE_TRANSIENT = -1;
     static final int SQLITE_UTF8 = 1;
     static final int SQLITE_UTF16 = 4;
@@ -34,592 +39,755 @@ class sqlite_h {
     static final int SQLITE_DESERIALIZE_FREEONCLOSE = 1;
     static final int SQLITE_DESERIALIZE_RESIZEABLE = 2;
     static final int SQLITE_FCNTL_SIZE_LIMIT = 36;
+    static final int SQLITE_PREPARE_PERSISTENT = 0x01;
     private static final Logger logger = LoggerFactory.getLogger(sqlite_h.class);
 
+    /**
+     * Whether trivial accessors such as {@code sqlite3_column_int64} and {@code sqlite3_bind_int}
+     * are linked as critical downcalls. Disable with {@code -Dorg.sqlite.ffm.critical=false}.
+     */
+    static final boolean CRITICAL_LINKAGE =
+            Boolean.parseBoolean(System.getProperty("org.sqlite.ffm.critical", "true"));
+
+    private static final SymbolLookup libsqlite3 =
+            SymbolLookup.libraryLookup(System.mapLibraryName("sqlite3"), Arena.ofAuto());
+
     /** SQLite 3.6.11 */
-    private static final MethodHandle sqlite3_backup_finish;
+    private static final class sqlite3_backup_finish {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_backup_finish", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.6.11 */
-    private static final MethodHandle sqlite3_backup_init;
+    private static final class sqlite3_backup_init {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_backup_init",
+                        FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS, ADDRESS, ADDRESS));
+    }
 
     /** SQLite 3.6.11 */
-    private static final MethodHandle sqlite3_backup_pagecount;
+    private static final class sqlite3_backup_pagecount {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_backup_pagecount", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.6.11 */
-    private static final MethodHandle sqlite3_backup_remaining;
+    private static final class sqlite3_backup_remaining {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_backup_remaining", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.6.11 */
-    private static final MethodHandle sqlite3_backup_step;
+    private static final class sqlite3_backup_step {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_backup_step", FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_bind_blob;
+    private static final class sqlite3_bind_blob {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_bind_blob",
+                        FunctionDescriptor.of(
+                                JAVA_INT, ADDRESS, JAVA_INT, ADDRESS, JAVA_INT, ADDRESS));
+    }
+
+    /** SQLite 3.0.0; critical with heap access */
+    private static final class sqlite3_bind_blob_heap {
+        static final MethodHandle handle =
+                loadHeapAccessOrNull(
+                        "sqlite3_bind_blob",
+                        FunctionDescriptor.of(
+                                JAVA_INT, ADDRESS, JAVA_INT, ADDRESS, JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_bind_double;
+    private static final class sqlite3_bind_double {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_bind_double",
+                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, JAVA_DOUBLE));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_bind_int;
+    private static final class sqlite3_bind_int {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_bind_int",
+                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, JAVA_INT));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_bind_int64;
+    private static final class sqlite3_bind_int64 {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_bind_int64",
+                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, JAVA_LONG));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_bind_null;
+    private static final class sqlite3_bind_null {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_bind_null", FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.0.3 */
-    private static final MethodHandle sqlite3_bind_parameter_count;
+    private static final class sqlite3_bind_parameter_count {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_bind_parameter_count", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_bind_text;
+    private static final class sqlite3_bind_text {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_bind_text",
+                        FunctionDescriptor.of(
+                                JAVA_INT, ADDRESS, JAVA_INT, ADDRESS, JAVA_INT, ADDRESS));
+    }
+
+    /** SQLite 3.4.0 */
+    private static final class sqlite3_bind_zeroblob {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_bind_zeroblob",
+                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, JAVA_INT));
+    }
+
+    /** SQLite 3.4.0 */
+    private static final class sqlite3_blob_bytes {
+        static final MethodHandle handle =
+                loadCriticalOrNull("sqlite3_blob_bytes", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
+
+    /** SQLite 3.4.0 */
+    private static final class sqlite3_blob_close {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_blob_close", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
+
+    /** SQLite 3.4.0 */
+    private static final class sqlite3_blob_open {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_blob_open",
+                        FunctionDescriptor.of(
+                                JAVA_INT,
+                                ADDRESS,
+                                ADDRESS,
+                                ADDRESS,
+                                ADDRESS,
+                                JAVA_LONG,
+                                JAVA_INT,
+                                ADDRESS));
+    }
+
+    /** SQLite 3.4.0 */
+    private static final class sqlite3_blob_read {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_blob_read",
+                        FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, JAVA_INT));
+    }
+
+    /** SQLite 3.7.4 */
+    private static final class sqlite3_blob_reopen {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_blob_reopen", FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_LONG));
+    }
+
+    /** SQLite 3.4.0 */
+    private static final class sqlite3_blob_write {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_blob_write",
+                        FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, JAVA_INT));
+    }
 
     /** SQLite 3.0.1 */
-    private static final MethodHandle sqlite3_busy_handler;
+    private static final class sqlite3_busy_handler {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_busy_handler",
+                        FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    }
 
     /** SQLite 3.0.1 */
-    private static final MethodHandle sqlite3_busy_timeout;
+    private static final class sqlite3_busy_timeout {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_busy_timeout", FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_changes;
+    private static final class sqlite3_changes {
+        static final MethodHandle handle =
+                loadCriticalOrNull("sqlite3_changes", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.37.0 */
-    private static final MethodHandle sqlite3_changes64;
+    private static final class sqlite3_changes64 {
+        static final MethodHandle handle =
+                loadCriticalOrNull("sqlite3_changes64", FunctionDescriptor.of(JAVA_LONG, ADDRESS));
+    }
 
     /** SQLite 3.1.0 */
-    private static final MethodHandle sqlite3_clear_bindings;
+    private static final class sqlite3_clear_bindings {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_clear_bindings", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_close;
+    private static final class sqlite3_close {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_close", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_column_blob;
+    private static final class sqlite3_column_blob {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_column_blob", FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_column_bytes;
+    private static final class sqlite3_column_bytes {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_column_bytes", FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_column_count;
+    private static final class sqlite3_column_count {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_column_count", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_column_decltype;
+    private static final class sqlite3_column_decltype {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_column_decltype",
+                        FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_column_double;
+    private static final class sqlite3_column_double {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_column_double",
+                        FunctionDescriptor.of(JAVA_DOUBLE, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_column_int;
+    private static final class sqlite3_column_int {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_column_int", FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_column_int64;
+    private static final class sqlite3_column_int64 {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_column_int64",
+                        FunctionDescriptor.of(JAVA_LONG, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_column_name;
+    private static final class sqlite3_column_name {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_column_name", FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.3.5 */
-    private static final MethodHandle sqlite3_column_table_name;
+    private static final class sqlite3_column_table_name {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_column_table_name",
+                        FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_column_text;
+    private static final class sqlite3_column_text {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_column_text", FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_column_type;
+    private static final class sqlite3_column_type {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_column_type", FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_commit_hook;
+    private static final class sqlite3_commit_hook {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_commit_hook",
+                        FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_create_collation;
+    private static final class sqlite3_create_collation {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_create_collation",
+                        FunctionDescriptor.of(
+                                JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, ADDRESS, ADDRESS));
+    }
 
     /** SQLite 3.4.0 */
-    private static final MethodHandle sqlite3_create_collation_v2;
+    private static final class sqlite3_create_collation_v2 {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_create_collation_v2",
+                        FunctionDescriptor.of(
+                                JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
+    }
 
     /** SQLite 3.0.1 */
-    private static final MethodHandle sqlite3_create_function;
+    private static final class sqlite3_create_function {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_create_function",
+                        FunctionDescriptor.of(
+                                JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, JAVA_INT, ADDRESS, ADDRESS,
+                                ADDRESS, ADDRESS));
+    }
 
     /** SQLite 3.25.0 */
-    private static final MethodHandle sqlite3_create_window_function;
+    private static final class sqlite3_create_window_function {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_create_window_function",
+                        FunctionDescriptor.of(
+                                JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, JAVA_INT, ADDRESS, ADDRESS,
+                                ADDRESS, ADDRESS, ADDRESS, ADDRESS));
+    }
+
+    /** SQLite 3.6.1 */
+    private static final class sqlite3_db_status {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_db_status",
+                        FunctionDescriptor.of(
+                                JAVA_INT, ADDRESS, JAVA_INT, ADDRESS, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.23.0 */
-    private static final MethodHandle sqlite3_deserialize;
+    private static final class sqlite3_deserialize {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_deserialize",
+                        FunctionDescriptor.of(
+                                JAVA_INT, ADDRESS, ADDRESS, ADDRESS, JAVA_LONG, JAVA_LONG,
+                                JAVA_INT));
+    }
 
     /** SQLite 3.3.7 */
-    private static final MethodHandle sqlite3_enable_load_extension;
+    private static final class sqlite3_enable_load_extension {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_enable_load_extension",
+                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.3.0 */
-    private static final MethodHandle sqlite3_enable_shared_cache;
+    private static final class sqlite3_enable_shared_cache {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_enable_shared_cache", FunctionDescriptor.of(JAVA_INT, JAVA_INT));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_errcode;
+    private static final class sqlite3_errcode {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_errcode", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_errmsg;
+    private static final class sqlite3_errmsg {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_errmsg", FunctionDescriptor.of(ADDRESS, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_exec;
+    private static final class sqlite3_exec {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_exec",
+                        FunctionDescriptor.of(
+                                JAVA_INT, ADDRESS, ADDRESS, ADDRESS, ADDRESS, ADDRESS));
+    }
 
     /** SQLite 3.6.5 */
-    private static final MethodHandle sqlite3_extended_errcode;
+    private static final class sqlite3_extended_errcode {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_extended_errcode", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.3.8 */
-    private static final MethodHandle sqlite3_extended_result_codes;
+    private static final class sqlite3_extended_result_codes {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_extended_result_codes",
+                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.5.0 */
-    private static final MethodHandle sqlite3_file_control;
+    private static final class sqlite3_file_control {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_file_control",
+                        FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.0.1 */
-    private static final MethodHandle sqlite3_finalize;
+    private static final class sqlite3_finalize {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_finalize", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_free;
+    private static final class sqlite3_free {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_free", FunctionDescriptor.ofVoid(ADDRESS));
+    }
+
+    /** SQLite 3.2.2 */
+    private static final class sqlite3_get_autocommit {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_get_autocommit", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
+
+    /** SQLite 3.0.0 */
+    private static final class sqlite3_interrupt {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_interrupt", FunctionDescriptor.ofVoid(ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_interrupt;
+    private static final class sqlite3_last_insert_rowid {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_last_insert_rowid", FunctionDescriptor.of(JAVA_LONG, ADDRESS));
+    }
 
     /** SQLite 3.0.5 */
-    private static final MethodHandle sqlite3_libversion;
+    private static final class sqlite3_libversion {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_libversion", FunctionDescriptor.of(ADDRESS));
+    }
 
     /** SQLite 3.5.8 */
-    private static final MethodHandle sqlite3_limit;
+    private static final class sqlite3_limit {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_limit",
+                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, JAVA_INT));
+    }
 
     /** SQLite 3.3.7 */
-    private static final MethodHandle sqlite3_malloc;
+    private static final class sqlite3_malloc {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_malloc", FunctionDescriptor.of(ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.5.0 */
-    private static final MethodHandle sqlite3_open_v2;
+    private static final class sqlite3_open_v2 {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_open_v2",
+                        FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.3.9 */
-    private static final MethodHandle sqlite3_prepare_v2;
+    private static final class sqlite3_prepare_v2 {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_prepare_v2",
+                        FunctionDescriptor.of(
+                                JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, ADDRESS, ADDRESS));
+    }
+
+    /** SQLite 3.20.0 */
+    private static final class sqlite3_prepare_v3 {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_prepare_v3",
+                        FunctionDescriptor.of(
+                                JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, JAVA_INT, ADDRESS, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_progress_handler;
+    private static final class sqlite3_progress_handler {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_progress_handler",
+                        FunctionDescriptor.ofVoid(ADDRESS, JAVA_INT, ADDRESS, ADDRESS));
+    }
 
     /** SQLite 3.0.1 */
-    private static final MethodHandle sqlite3_reset;
+    private static final class sqlite3_reset {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_reset", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_result_blob;
+    private static final class sqlite3_result_blob {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_result_blob",
+                        FunctionDescriptor.ofVoid(ADDRESS, ADDRESS, JAVA_INT, ADDRESS));
+    }
+
+    /** SQLite 3.0.0; critical with heap access */
+    private static final class sqlite3_result_blob_heap {
+        static final MethodHandle handle =
+                loadHeapAccessOrNull(
+                        "sqlite3_result_blob",
+                        FunctionDescriptor.ofVoid(ADDRESS, ADDRESS, JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_result_double;
+    private static final class sqlite3_result_double {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_result_double", FunctionDescriptor.ofVoid(ADDRESS, JAVA_DOUBLE));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_result_error;
+    private static final class sqlite3_result_error {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_result_error",
+                        FunctionDescriptor.ofVoid(ADDRESS, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_result_int;
+    private static final class sqlite3_result_int {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_result_int", FunctionDescriptor.ofVoid(ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_result_int64;
+    private static final class sqlite3_result_int64 {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_result_int64", FunctionDescriptor.ofVoid(ADDRESS, JAVA_LONG));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_result_null;
+    private static final class sqlite3_result_null {
+        static final MethodHandle handle =
+                loadCriticalOrNull("sqlite3_result_null", FunctionDescriptor.ofVoid(ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_result_text;
+    private static final class sqlite3_result_text {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_result_text",
+                        FunctionDescriptor.ofVoid(ADDRESS, ADDRESS, JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.3.0 */
-    private static final MethodHandle sqlite3_rollback_hook;
+    private static final class sqlite3_rollback_hook {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_rollback_hook",
+                        FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS, ADDRESS));
+    }
 
     /** SQLite 3.23.0 */
-    private static final MethodHandle sqlite3_serialize;
+    private static final class sqlite3_serialize {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_serialize",
+                        FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.1.0 */
-    private static final MethodHandle sqlite3_sleep;
+    private static final class sqlite3_sleep {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_sleep", FunctionDescriptor.of(JAVA_INT, JAVA_INT));
+    }
+
+    /** SQLite 3.0.0, linked for a single double argument. */
+    private static final class sqlite3_snprintf {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_snprintf",
+                        FunctionDescriptor.of(ADDRESS, JAVA_INT, ADDRESS, ADDRESS, JAVA_DOUBLE),
+                        Linker.Option.firstVariadicArg(3));
+    }
 
     /** SQLite 3.0.1 */
-    private static final MethodHandle sqlite3_step;
+    private static final class sqlite3_step {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_step", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
+
+    /** SQLite 3.7.4 */
+    private static final class sqlite3_stmt_readonly {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_stmt_readonly", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
+
+    /** SQLite 3.6.4 */
+    private static final class sqlite3_stmt_status {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_stmt_status",
+                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, JAVA_INT));
+    }
 
     /** SQLite 3.6.17 */
-    private static final MethodHandle sqlite3_strnicmp;
+    private static final class sqlite3_strnicmp {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_strnicmp",
+                        FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT));
+    }
 
     /** SQLite 3.3.5 */
-    private static final MethodHandle sqlite3_table_column_metadata;
+    private static final class sqlite3_table_column_metadata {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_table_column_metadata",
+                        FunctionDescriptor.of(
+                                JAVA_INT, ADDRESS, ADDRESS, ADDRESS, ADDRESS, ADDRESS, ADDRESS,
+                                ADDRESS, ADDRESS, ADDRESS));
+    }
 
     /** SQLite 3.0.1 */
-    private static final MethodHandle sqlite3_total_changes;
+    private static final class sqlite3_total_changes {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_total_changes", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.37.0 */
-    private static final MethodHandle sqlite3_total_changes64;
+    private static final class sqlite3_total_changes64 {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_total_changes64", FunctionDescriptor.of(JAVA_LONG, ADDRESS));
+    }
 
     /** SQLite 3.3.0 */
-    private static final MethodHandle sqlite3_update_hook;
+    private static final class sqlite3_update_hook {
+        static final MethodHandle handle =
+                loadOrNull(
+                        "sqlite3_update_hook",
+                        FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_value_blob;
+    private static final class sqlite3_value_blob {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_value_blob", FunctionDescriptor.of(ADDRESS, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_value_bytes;
+    private static final class sqlite3_value_bytes {
+        static final MethodHandle handle =
+                loadCriticalOrNull("sqlite3_value_bytes", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_value_double;
+    private static final class sqlite3_value_double {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_value_double", FunctionDescriptor.of(JAVA_DOUBLE, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_value_int;
+    private static final class sqlite3_value_int {
+        static final MethodHandle handle =
+                loadCriticalOrNull("sqlite3_value_int", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_value_int64;
+    private static final class sqlite3_value_int64 {
+        static final MethodHandle handle =
+                loadCriticalOrNull(
+                        "sqlite3_value_int64", FunctionDescriptor.of(JAVA_LONG, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_value_text;
+    private static final class sqlite3_value_text {
+        static final MethodHandle handle =
+                loadOrNull("sqlite3_value_text", FunctionDescriptor.of(ADDRESS, ADDRESS));
+    }
 
     /** SQLite 3.0.0 */
-    private static final MethodHandle sqlite3_value_type;
+    private static final class sqlite3_value_type {
+        static final MethodHandle handle =
+                loadCriticalOrNull("sqlite3_value_type", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+    }
+
+    private static final class HeapAccess {
+        static final boolean AVAILABLE =
+                sqlite3_bind_blob_heap.handle != null && sqlite3_result_blob_heap.handle != null;
+    }
+
+    /**
+     * Whether {@code byte[]} blobs can be passed to {@link #sqlite3_bind_blob(MemorySegment, int,
+     * byte[], MemorySegment)} and {@link #sqlite3_result_blob(MemorySegment, byte[],
+     * MemorySegment)} without first being copied off-heap.
+     */
+    static boolean hasHeapAccess() {
+        return HeapAccess.AVAILABLE;
+    }
+
+    /**
+     * Links a function that never blocks and never calls back into Java using {@link
+     * Linker.Option#critical(boolean)}, skipping the thread state transition of a normal downcall.
+     * These functions may still briefly take the connection mutex, which is uncontended since every
+     * call on a connection is made while holding that connection's lock.
+     */
+    private static MethodHandle loadCriticalOrNull(String name, FunctionDescriptor function) {
+        if (CRITICAL_LINKAGE) {
+            return loadOrNull(name, function, Linker.Option.critical(false));
+        } else {
+            return loadOrNull(name, function);
+        }
+    }
 
-    static {
-        SymbolLookup libsqlite3 =
-                SymbolLookup.libraryLookup(System.mapLibraryName("sqlite3"), Arena.ofAuto());
+    /**
+     * Links a function that only reads from its pointer arguments using {@link
+     * Linker.Option#critical(boolean)} with heap access, so {@code byte[]}-backed segments can be
+     * passed directly. Returns null if critical linkage is disabled or unsupported by the runtime.
+     */
+    private static MethodHandle loadHeapAccessOrNull(String name, FunctionDescriptor function) {
+        if (!CRITICAL_LINKAGE) return null;
 
-        sqlite3_backup_finish =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_backup_finish",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS));
-        sqlite3_backup_init =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_backup_init",
-                        FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS, ADDRESS, ADDRESS));
-        sqlite3_backup_pagecount =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_backup_pagecount",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS));
-        sqlite3_backup_remaining =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_backup_remaining",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS));
-        sqlite3_backup_step =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_backup_step",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
-        sqlite3_bind_blob =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_bind_blob",
-                        FunctionDescriptor.of(
-                                JAVA_INT, ADDRESS, JAVA_INT, ADDRESS, JAVA_INT, ADDRESS));
-        sqlite3_bind_double =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_bind_double",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, JAVA_DOUBLE));
-        sqlite3_bind_int =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_bind_int",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, JAVA_INT));
-        sqlite3_bind_int64 =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_bind_int64",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, JAVA_LONG));
-        sqlite3_bind_null =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_bind_null",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
-        sqlite3_bind_parameter_count =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_bind_parameter_count",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS));
-        sqlite3_bind_text =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_bind_text",
-                        FunctionDescriptor.of(
-                                JAVA_INT, ADDRESS, JAVA_INT, ADDRESS, JAVA_INT, ADDRESS));
-        sqlite3_busy_handler =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_busy_handler",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
-        sqlite3_busy_timeout =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_busy_timeout",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
-        sqlite3_changes =
-                loadOrNull(libsqlite3, "sqlite3_changes", FunctionDescriptor.of(JAVA_INT, ADDRESS));
-        sqlite3_changes64 =
-                loadOrNull(
-                        libsqlite3, "sqlite3_changes64", FunctionDescriptor.of(JAVA_LONG, ADDRESS));
-        sqlite3_clear_bindings =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_clear_bindings",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS));
-        sqlite3_close =
-                loadOrNull(libsqlite3, "sqlite3_close", FunctionDescriptor.of(JAVA_INT, ADDRESS));
-        sqlite3_column_blob =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_column_blob",
-                        FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_INT));
-        sqlite3_column_bytes =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_column_bytes",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
-        sqlite3_column_count =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_column_count",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS));
-        sqlite3_column_decltype =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_column_decltype",
-                        FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_INT));
-        sqlite3_column_double =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_column_double",
-                        FunctionDescriptor.of(JAVA_DOUBLE, ADDRESS, JAVA_INT));
-        sqlite3_column_int =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_column_int",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
-        sqlite3_column_int64 =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_column_int64",
-                        FunctionDescriptor.of(JAVA_LONG, ADDRESS, JAVA_INT));
-        sqlite3_column_name =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_column_name",
-                        FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_INT));
-        sqlite3_column_table_name =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_column_table_name",
-                        FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_INT));
-        sqlite3_column_text =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_column_text",
-                        FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_INT));
-        sqlite3_column_type =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_column_type",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
-        sqlite3_commit_hook =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_commit_hook",
-                        FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS, ADDRESS));
-        sqlite3_create_collation =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_create_collation",
-                        FunctionDescriptor.of(
-                                JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, ADDRESS, ADDRESS));
-        sqlite3_create_collation_v2 =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_create_collation_v2",
-                        FunctionDescriptor.of(
-                                JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, ADDRESS, ADDRESS, ADDRESS));
-        sqlite3_create_function =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_create_function",
-                        FunctionDescriptor.of(
-                                JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, JAVA_INT, ADDRESS, ADDRESS,
-                                ADDRESS, ADDRESS));
-        sqlite3_create_window_function =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_create_window_function",
-                        FunctionDescriptor.of(
-                                JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, JAVA_INT, ADDRESS, ADDRESS,
-                                ADDRESS, ADDRESS, ADDRESS, ADDRESS));
-        sqlite3_deserialize =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_deserialize",
-                        FunctionDescriptor.of(
-                                JAVA_INT, ADDRESS, ADDRESS, ADDRESS, JAVA_LONG, JAVA_LONG,
-                                JAVA_INT));
-        sqlite3_enable_load_extension =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_enable_load_extension",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
-        sqlite3_enable_shared_cache =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_enable_shared_cache",
-                        FunctionDescriptor.of(JAVA_INT, JAVA_INT));
-        sqlite3_errcode =
-                loadOrNull(libsqlite3, "sqlite3_errcode", FunctionDescriptor.of(JAVA_INT, ADDRESS));
-        sqlite3_errmsg =
-                loadOrNull(libsqlite3, "sqlite3_errmsg", FunctionDescriptor.of(ADDRESS, ADDRESS));
-        sqlite3_exec =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_exec",
-                        FunctionDescriptor.of(
-                                JAVA_INT, ADDRESS, ADDRESS, ADDRESS, ADDRESS, ADDRESS));
-        sqlite3_extended_errcode =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_extended_errcode",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS));
-        sqlite3_extended_result_codes =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_extended_result_codes",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
-        sqlite3_file_control =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_file_control",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, ADDRESS));
-        sqlite3_finalize =
-                loadOrNull(
-                        libsqlite3, "sqlite3_finalize", FunctionDescriptor.of(JAVA_INT, ADDRESS));
-        sqlite3_free = loadOrNull(libsqlite3, "sqlite3_free", FunctionDescriptor.ofVoid(ADDRESS));
-        sqlite3_interrupt =
-                loadOrNull(libsqlite3, "sqlite3_interrupt", FunctionDescriptor.ofVoid(ADDRESS));
-        sqlite3_libversion =
-                loadOrNull(libsqlite3, "sqlite3_libversion", FunctionDescriptor.of(ADDRESS));
-        sqlite3_limit =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_limit",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, JAVA_INT));
-        sqlite3_malloc =
-                loadOrNull(libsqlite3, "sqlite3_malloc", FunctionDescriptor.of(ADDRESS, JAVA_INT));
-        sqlite3_open_v2 =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_open_v2",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, ADDRESS));
-        sqlite3_prepare_v2 =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_prepare_v2",
-                        FunctionDescriptor.of(
-                                JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, ADDRESS, ADDRESS));
-        sqlite3_progress_handler =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_progress_handler",
-                        FunctionDescriptor.ofVoid(ADDRESS, JAVA_INT, ADDRESS, ADDRESS));
-        sqlite3_reset =
-                loadOrNull(libsqlite3, "sqlite3_reset", FunctionDescriptor.of(JAVA_INT, ADDRESS));
-        sqlite3_result_blob =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_result_blob",
-                        FunctionDescriptor.ofVoid(ADDRESS, ADDRESS, JAVA_INT, ADDRESS));
-        sqlite3_result_double =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_result_double",
-                        FunctionDescriptor.ofVoid(ADDRESS, JAVA_DOUBLE));
-        sqlite3_result_error =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_result_error",
-                        FunctionDescriptor.ofVoid(ADDRESS, ADDRESS, JAVA_INT));
-        sqlite3_result_int =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_result_int",
-                        FunctionDescriptor.ofVoid(ADDRESS, JAVA_INT));
-        sqlite3_result_int64 =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_result_int64",
-                        FunctionDescriptor.ofVoid(ADDRESS, JAVA_LONG));
-        sqlite3_result_null =
-                loadOrNull(libsqlite3, "sqlite3_result_null", FunctionDescriptor.ofVoid(ADDRESS));
-        sqlite3_result_text =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_result_text",
-                        FunctionDescriptor.ofVoid(ADDRESS, ADDRESS, JAVA_INT, ADDRESS));
-        sqlite3_rollback_hook =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_rollback_hook",
-                        FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS, ADDRESS));
-        sqlite3_serialize =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_serialize",
-                        FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS, ADDRESS, JAVA_INT));
-        sqlite3_sleep =
-                loadOrNull(libsqlite3, "sqlite3_sleep", FunctionDescriptor.of(JAVA_INT, JAVA_INT));
-        sqlite3_step =
-                loadOrNull(libsqlite3, "sqlite3_step", FunctionDescriptor.of(JAVA_INT, ADDRESS));
-        sqlite3_strnicmp =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_strnicmp",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT));
-        sqlite3_table_column_metadata =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_table_column_metadata",
-                        FunctionDescriptor.of(
-                                JAVA_INT, ADDRESS, ADDRESS, ADDRESS, ADDRESS, ADDRESS, ADDRESS,
-                                ADDRESS, ADDRESS, ADDRESS));
-        sqlite3_total_changes =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_total_changes",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS));
-        sqlite3_total_changes64 =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_total_changes64",
-                        FunctionDescriptor.of(JAVA_LONG, ADDRESS));
-        sqlite3_update_hook =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_update_hook",
-                        FunctionDescriptor.of(ADDRESS, ADDRESS, ADDRESS, ADDRESS));
-        sqlite3_value_blob =
-                loadOrNull(
-                        libsqlite3, "sqlite3_value_blob", FunctionDescriptor.of(ADDRESS, ADDRESS));
-        sqlite3_value_bytes =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_value_bytes",
-                        FunctionDescriptor.of(JAVA_INT, ADDRESS));
-        sqlite3_value_double =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_value_double",
-                        FunctionDescriptor.of(JAVA_DOUBLE, ADDRESS));
-        sqlite3_value_int =
-                loadOrNull(
-                        libsqlite3, "sqlite3_value_int", FunctionDescriptor.of(JAVA_INT, ADDRESS));
-        sqlite3_value_int64 =
-                loadOrNull(
-                        libsqlite3,
-                        "sqlite3_value_int64",
-                        FunctionDescriptor.of(JAVA_LONG, ADDRESS));
-        sqlite3_value_text =
-                loadOrNull(
-                        libsqlite3, "sqlite3_value_text", FunctionDescriptor.of(ADDRESS, ADDRESS));
-        sqlite3_value_type =
-                loadOrNull(
-                        libsqlite3, "sqlite3_value_type", FunctionDescriptor.of(JAVA_INT, ADDRESS));
+        try {
+            return loadOrNull(name, function, Linker.Option.critical(true));
+        } catch (IllegalArgumentException | UnsupportedOperationException _) {
+            logger.info(() -> name + " heap access unavailable; blobs will be copied off-heap");
+            return null;
+        }
     }
 
     private static MethodHandle loadOrNull(
-            SymbolLookup libsqlite3, String name, FunctionDescriptor function) {
+            String name, FunctionDescriptor function, Linker.Option... options) {
         Optional<MemorySegment> address = libsqlite3.find(name);
         if (address.isPresent()) {
-            return Linker.nativeLinker().downcallHandle(address.get(), function);
+            return Linker.nativeLinker().downcallHandle(address.get(), function, options);
         } else {
             logger.warn(
                     () ->
@@ -631,7 +799,7 @@ class sqlite_h {
 
     static int sqlite3_backup_finish(MemorySegment p) {
         try {
-            return (int) sqlite3_backup_finish.invokeExact(p);
+            return (int) sqlite3_backup_finish.handle.invokeExact(p);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -644,7 +812,7 @@ class sqlite_h {
             MemorySegment zSrcDb) {
         try {
             return (MemorySegment)
-                    sqlite3_backup_init.invokeExact(pDestDb, zDestDb, pSrcDb, zSrcDb);
+                    sqlite3_backup_init.handle.invokeExact(pDestDb, zDestDb, pSrcDb, zSrcDb);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -652,7 +820,7 @@ class sqlite_h {
 
     static int sqlite3_backup_pagecount(MemorySegment p) {
         try {
-            return (int) sqlite3_backup_pagecount.invokeExact(p);
+            return (int) sqlite3_backup_pagecount.handle.invokeExact(p);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -660,7 +828,7 @@ class sqlite_h {
 
     static int sqlite3_backup_remaining(MemorySegment p) {
         try {
-            return (int) sqlite3_backup_remaining.invokeExact(p);
+            return (int) sqlite3_backup_remaining.handle.invokeExact(p);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -668,7 +836,7 @@ class sqlite_h {
 
     static int sqlite3_backup_step(MemorySegment p, int nPage) {
         try {
-            return (int) sqlite3_backup_step.invokeExact(p, nPage);
+            return (int) sqlite3_backup_step.handle.invokeExact(p, nPage);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -677,7 +845,18 @@ class sqlite_h {
     static int sqlite3_bind_blob(
             MemorySegment pStmt, int i, MemorySegment zData, int nData, MemorySegment xDel) {
         try {
-            return (int) sqlite3_bind_blob.invokeExact(pStmt, i, zData, nData, xDel);
+            return (int) sqlite3_bind_blob.handle.invokeExact(pStmt, i, zData, nData, xDel);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /** Binds a heap array directly. Only call if {@link #hasHeapAccess()} is true. */
+    static int sqlite3_bind_blob(MemorySegment pStmt, int i, byte[] zData, MemorySegment xDel) {
+        try {
+            return (int)
+                    sqlite3_bind_blob_heap.handle.invokeExact(
+                            pStmt, i, MemorySegment.ofArray(zData), zData.length, xDel);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -685,7 +864,7 @@ class sqlite_h {
 
     static int sqlite3_bind_double(MemorySegment pStmt, int i, double rValue) {
         try {
-            return (int) sqlite3_bind_double.invokeExact(pStmt, i, rValue);
+            return (int) sqlite3_bind_double.handle.invokeExact(pStmt, i, rValue);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -693,7 +872,7 @@ class sqlite_h {
 
     static int sqlite3_bind_int(MemorySegment p, int i, int iValue) {
         try {
-            return (int) sqlite3_bind_int.invokeExact(p, i, iValue);
+            return (int) sqlite3_bind_int.handle.invokeExact(p, i, iValue);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -701,7 +880,7 @@ class sqlite_h {
 
     static int sqlite3_bind_int64(MemorySegment pStmt, int i, long iValue) {
         try {
-            return (int) sqlite3_bind_int64.invokeExact(pStmt, i, iValue);
+            return (int) sqlite3_bind_int64.handle.invokeExact(pStmt, i, iValue);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -709,7 +888,7 @@ class sqlite_h {
 
     static int sqlite3_bind_null(MemorySegment pStmt, int i) {
         try {
-            return (int) sqlite3_bind_null.invokeExact(pStmt, i);
+            return (int) sqlite3_bind_null.handle.invokeExact(pStmt, i);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -717,7 +896,7 @@ class sqlite_h {
 
     static int sqlite3_bind_parameter_count(MemorySegment pStmt) {
         try {
-            return (int) sqlite3_bind_parameter_count.invokeExact(pStmt);
+            return (int) sqlite3_bind_parameter_count.handle.invokeExact(pStmt);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -726,7 +905,72 @@ class sqlite_h {
     static int sqlite3_bind_text(
             MemorySegment pStmt, int i, MemorySegment zData, int nData, MemorySegment xDel) {
         try {
-            return (int) sqlite3_bind_text.invokeExact(pStmt, i, zData, nData, xDel);
+            return (int) sqlite3_bind_text.handle.invokeExact(pStmt, i, zData, nData, xDel);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static int sqlite3_bind_zeroblob(MemorySegment pStmt, int i, int n) {
+        try {
+            return (int) sqlite3_bind_zeroblob.handle.invokeExact(pStmt, i, n);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static int sqlite3_blob_bytes(MemorySegment pBlob) {
+        try {
+            return (int) sqlite3_blob_bytes.handle.invokeExact(pBlob);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static int sqlite3_blob_close(MemorySegment pBlob) {
+        try {
+            return (int) sqlite3_blob_close.handle.invokeExact(pBlob);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static int sqlite3_blob_open(
+            MemorySegment db,
+            MemorySegment zDb,
+            MemorySegment zTable,
+            MemorySegment zColumn,
+            long iRow,
+            int flags,
+            MemorySegment ppBlob) {
+        try {
+            return (int)
+                    sqlite3_blob_open.handle.invokeExact(
+                            db, zDb, zTable, zColumn, iRow, flags, ppBlob);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static int sqlite3_blob_read(MemorySegment pBlob, MemorySegment z, int n, int iOffset) {
+        try {
+            return (int) sqlite3_blob_read.handle.invokeExact(pBlob, z, n, iOffset);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static int sqlite3_blob_reopen(MemorySegment pBlob, long iRow) {
+        try {
+            return (int) sqlite3_blob_reopen.handle.invokeExact(pBlob, iRow);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static int sqlite3_blob_write(MemorySegment pBlob, MemorySegment z, int n, int iOffset) {
+        try {
+            return (int) sqlite3_blob_write.handle.invokeExact(pBlob, z, n, iOffset);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -734,7 +978,7 @@ class sqlite_h {
 
     static int sqlite3_busy_handler(MemorySegment db, MemorySegment xBusy, MemorySegment pArg) {
         try {
-            return (int) sqlite3_busy_handler.invokeExact(db, xBusy, pArg);
+            return (int) sqlite3_busy_handler.handle.invokeExact(db, xBusy, pArg);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -742,7 +986,7 @@ class sqlite_h {
 
     static int sqlite3_busy_timeout(MemorySegment db, int ms) {
         try {
-            return (int) sqlite3_busy_timeout.invokeExact(db, ms);
+            return (int) sqlite3_busy_timeout.handle.invokeExact(db, ms);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -750,10 +994,10 @@ class sqlite_h {
 
     static long sqlite3_changes64(MemorySegment db) {
         try {
-            if (sqlite3_changes64 != null) {
-                return (long) sqlite3_changes64.invokeExact(db);
+            if (sqlite3_changes64.handle != null) {
+                return (long) sqlite3_changes64.handle.invokeExact(db);
             } else {
-                return (int) sqlite3_changes.invokeExact(db);
+                return (int) sqlite3_changes.handle.invokeExact(db);
             }
         } catch (Throwable e) {
             throw new AssertionError(e);
@@ -762,7 +1006,7 @@ class sqlite_h {
 
     static int sqlite3_clear_bindings(MemorySegment pStmt) {
         try {
-            return (int) sqlite3_clear_bindings.invokeExact(pStmt);
+            return (int) sqlite3_clear_bindings.handle.invokeExact(pStmt);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -770,7 +1014,7 @@ class sqlite_h {
 
     static int sqlite3_close(MemorySegment db) {
         try {
-            return (int) sqlite3_close.invokeExact(db);
+            return (int) sqlite3_close.handle.invokeExact(db);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -778,7 +1022,7 @@ class sqlite_h {
 
     static MemorySegment sqlite3_column_blob(MemorySegment pStmt, int i) {
         try {
-            return (MemorySegment) sqlite3_column_blob.invokeExact(pStmt, i);
+            return (MemorySegment) sqlite3_column_blob.handle.invokeExact(pStmt, i);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -786,7 +1030,7 @@ class sqlite_h {
 
     static int sqlite3_column_bytes(MemorySegment pStmt, int i) {
         try {
-            return (int) sqlite3_column_bytes.invokeExact(pStmt, i);
+            return (int) sqlite3_column_bytes.handle.invokeExact(pStmt, i);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -794,7 +1038,7 @@ class sqlite_h {
 
     static int sqlite3_column_count(MemorySegment pStmt) {
         try {
-            return (int) sqlite3_column_count.invokeExact(pStmt);
+            return (int) sqlite3_column_count.handle.invokeExact(pStmt);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -802,7 +1046,7 @@ class sqlite_h {
 
     static MemorySegment sqlite3_column_decltype(MemorySegment pStmt, int N) {
         try {
-            return (MemorySegment) sqlite3_column_decltype.invokeExact(pStmt, N);
+            return (MemorySegment) sqlite3_column_decltype.handle.invokeExact(pStmt, N);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -810,7 +1054,7 @@ class sqlite_h {
 
     static double sqlite3_column_double(MemorySegment pStmt, int i) {
         try {
-            return (double) sqlite3_column_double.invokeExact(pStmt, i);
+            return (double) sqlite3_column_double.handle.invokeExact(pStmt, i);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -818,7 +1062,7 @@ class sqlite_h {
 
     static int sqlite3_column_int(MemorySegment pStmt, int i) {
         try {
-            return (int) sqlite3_column_int.invokeExact(pStmt, i);
+            return (int) sqlite3_column_int.handle.invokeExact(pStmt, i);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -826,7 +1070,7 @@ class sqlite_h {
 
     static long sqlite3_column_int64(MemorySegment pStmt, int i) {
         try {
-            return (long) sqlite3_column_int64.invokeExact(pStmt, i);
+            return (long) sqlite3_column_int64.handle.invokeExact(pStmt, i);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -834,7 +1078,7 @@ class sqlite_h {
 
     static MemorySegment sqlite3_column_name(MemorySegment pStmt, int N) {
         try {
-            return (MemorySegment) sqlite3_column_name.invokeExact(pStmt, N);
+            return (MemorySegment) sqlite3_column_name.handle.invokeExact(pStmt, N);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -842,7 +1086,7 @@ class sqlite_h {
 
     static MemorySegment sqlite3_column_table_name(MemorySegment pStmt, int N) {
         try {
-            return (MemorySegment) sqlite3_column_table_name.invokeExact(pStmt, N);
+            return (MemorySegment) sqlite3_column_table_name.handle.invokeExact(pStmt, N);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -850,7 +1094,7 @@ class sqlite_h {
 
     static MemorySegment sqlite3_column_text(MemorySegment pStmt, int i) {
         try {
-            return (MemorySegment) sqlite3_column_text.invokeExact(pStmt, i);
+            return (MemorySegment) sqlite3_column_text.handle.invokeExact(pStmt, i);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -858,7 +1102,7 @@ class sqlite_h {
 
     static int sqlite3_column_type(MemorySegment pStmt, int i) {
         try {
-            return (int) sqlite3_column_type.invokeExact(pStmt, i);
+            return (int) sqlite3_column_type.handle.invokeExact(pStmt, i);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -867,7 +1111,7 @@ class sqlite_h {
     static MemorySegment sqlite3_commit_hook(
             MemorySegment db, MemorySegment xCallback, MemorySegment pArg) {
         try {
-            return (MemorySegment) sqlite3_commit_hook.invokeExact(db, xCallback, pArg);
+            return (MemorySegment) sqlite3_commit_hook.handle.invokeExact(db, xCallback, pArg);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -880,7 +1124,8 @@ class sqlite_h {
             MemorySegment pCtx,
             MemorySegment xCompare) {
         try {
-            return (int) sqlite3_create_collation.invokeExact(db, zName, enc, pCtx, xCompare);
+            return (int)
+                    sqlite3_create_collation.handle.invokeExact(db, zName, enc, pCtx, xCompare);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -895,7 +1140,8 @@ class sqlite_h {
             MemorySegment xDel) {
         try {
             return (int)
-                    sqlite3_create_collation_v2.invokeExact(db, zName, enc, pCtx, xCompare, xDel);
+                    sqlite3_create_collation_v2.handle.invokeExact(
+                            db, zName, enc, pCtx, xCompare, xDel);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -912,7 +1158,7 @@ class sqlite_h {
             MemorySegment xFinal) {
         try {
             return (int)
-                    sqlite3_create_function.invokeExact(
+                    sqlite3_create_function.handle.invokeExact(
                             db, zFunctionName, nArg, enc, p, xSFunc, xStep, xFinal);
         } catch (Throwable e) {
             throw new AssertionError(e);
@@ -932,13 +1178,22 @@ class sqlite_h {
             MemorySegment xDestroy) {
         try {
             return (int)
-                    sqlite3_create_window_function.invokeExact(
+                    sqlite3_create_window_function.handle.invokeExact(
                             db, zFunc, nArg, enc, p, xStep, xFinal, xValue, xInverse, xDestroy);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
     }
 
+    static int sqlite3_db_status(
+            MemorySegment db, int op, MemorySegment pCur, MemorySegment pHiwtr, int resetFlg) {
+        try {
+            return (int) sqlite3_db_status.handle.invokeExact(db, op, pCur, pHiwtr, resetFlg);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
     static int sqlite3_deserialize(
             MemorySegment db,
             MemorySegment zSchema,
@@ -947,7 +1202,9 @@ class sqlite_h {
             long szBuf,
             int mFlags) {
         try {
-            return (int) sqlite3_deserialize.invokeExact(db, zSchema, pData, szDb, szBuf, mFlags);
+            return (int)
+                    sqlite3_deserialize.handle.invokeExact(
+                            db, zSchema, pData, szDb, szBuf, mFlags);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -955,7 +1212,7 @@ class sqlite_h {
 
     static int sqlite3_enable_load_extension(MemorySegment db, int onoff) {
         try {
-            return (int) sqlite3_enable_load_extension.invokeExact(db, onoff);
+            return (int) sqlite3_enable_load_extension.handle.invokeExact(db, onoff);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -963,7 +1220,7 @@ class sqlite_h {
 
     static int sqlite3_enable_shared_cache(int enable) {
         try {
-            return (int) sqlite3_enable_shared_cache.invokeExact(enable);
+            return (int) sqlite3_enable_shared_cache.handle.invokeExact(enable);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -971,7 +1228,7 @@ class sqlite_h {
 
     static int sqlite3_errcode(MemorySegment db) {
         try {
-            return (int) sqlite3_errcode.invokeExact(db);
+            return (int) sqlite3_errcode.handle.invokeExact(db);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -979,7 +1236,7 @@ class sqlite_h {
 
     static MemorySegment sqlite3_errmsg(MemorySegment db) {
         try {
-            return (MemorySegment) sqlite3_errmsg.invokeExact(db);
+            return (MemorySegment) sqlite3_errmsg.handle.invokeExact(db);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -992,7 +1249,7 @@ class sqlite_h {
             MemorySegment pArg,
             MemorySegment pzErrMsg) {
         try {
-            return (int) sqlite3_exec.invokeExact(db, zSql, xCallback, pArg, pzErrMsg);
+            return (int) sqlite3_exec.handle.invokeExact(db, zSql, xCallback, pArg, pzErrMsg);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1000,7 +1257,7 @@ class sqlite_h {
 
     static int sqlite3_extended_errcode(MemorySegment db) {
         try {
-            return (int) sqlite3_extended_errcode.invokeExact(db);
+            return (int) sqlite3_extended_errcode.handle.invokeExact(db);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1008,7 +1265,7 @@ class sqlite_h {
 
     static int sqlite3_extended_result_codes(MemorySegment db, int onoff) {
         try {
-            return (int) sqlite3_extended_result_codes.invokeExact(db, onoff);
+            return (int) sqlite3_extended_result_codes.handle.invokeExact(db, onoff);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1017,7 +1274,7 @@ class sqlite_h {
     static int sqlite3_file_control(
             MemorySegment db, MemorySegment zDbName, int op, MemorySegment pArg) {
         try {
-            return (int) sqlite3_file_control.invokeExact(db, zDbName, op, pArg);
+            return (int) sqlite3_file_control.handle.invokeExact(db, zDbName, op, pArg);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1025,7 +1282,7 @@ class sqlite_h {
 
     static int sqlite3_finalize(MemorySegment pStmt) {
         try {
-            return (int) sqlite3_finalize.invokeExact(pStmt);
+            return (int) sqlite3_finalize.handle.invokeExact(pStmt);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1033,7 +1290,15 @@ class sqlite_h {
 
     static void sqlite3_free(MemorySegment p) {
         try {
-            sqlite3_free.invokeExact(p);
+            sqlite3_free.handle.invokeExact(p);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static int sqlite3_get_autocommit(MemorySegment db) {
+        try {
+            return (int) sqlite3_get_autocommit.handle.invokeExact(db);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1041,7 +1306,15 @@ class sqlite_h {
 
     static void sqlite3_interrupt(MemorySegment db) {
         try {
-            sqlite3_interrupt.invokeExact(db);
+            sqlite3_interrupt.handle.invokeExact(db);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static long sqlite3_last_insert_rowid(MemorySegment db) {
+        try {
+            return (long) sqlite3_last_insert_rowid.handle.invokeExact(db);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1049,7 +1322,7 @@ class sqlite_h {
 
     static MemorySegment sqlite3_libversion() {
         try {
-            return (MemorySegment) sqlite3_libversion.invokeExact();
+            return (MemorySegment) sqlite3_libversion.handle.invokeExact();
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1057,7 +1330,7 @@ class sqlite_h {
 
     static int sqlite3_limit(MemorySegment db, int limitId, int newLimit) {
         try {
-            return (int) sqlite3_limit.invokeExact(db, limitId, newLimit);
+            return (int) sqlite3_limit.handle.invokeExact(db, limitId, newLimit);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1065,7 +1338,7 @@ class sqlite_h {
 
     static MemorySegment sqlite3_malloc(int n) {
         try {
-            return (MemorySegment) sqlite3_malloc.invokeExact(n);
+            return (MemorySegment) sqlite3_malloc.handle.invokeExact(n);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1074,20 +1347,29 @@ class sqlite_h {
     static int sqlite3_open_v2(
             MemorySegment filename, MemorySegment ppdb, int flags, MemorySegment zVfs) {
         try {
-            return (int) sqlite3_open_v2.invokeExact(filename, ppdb, flags, zVfs);
+            return (int) sqlite3_open_v2.handle.invokeExact(filename, ppdb, flags, zVfs);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
     }
 
-    static int sqlite3_prepare_v2(
+    /** Before SQLite 3.20.0, falls back to {@code sqlite3_prepare_v2} without flags. */
+    static int sqlite3_prepare_v3(
             MemorySegment db,
             MemorySegment zSql,
             int nBytes,
+            int prepFlags,
             MemorySegment ppStmt,
             MemorySegment pzTail) {
         try {
-            return (int) sqlite3_prepare_v2.invokeExact(db, zSql, nBytes, ppStmt, pzTail);
+            if (sqlite3_prepare_v3.handle != null) {
+                return (int)
+                        sqlite3_prepare_v3.handle.invokeExact(
+                                db, zSql, nBytes, prepFlags, ppStmt, pzTail);
+            } else {
+                return (int)
+                        sqlite3_prepare_v2.handle.invokeExact(db, zSql, nBytes, ppStmt, pzTail);
+            }
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1096,7 +1378,7 @@ class sqlite_h {
     static void sqlite3_progress_handler(
             MemorySegment db, int nOps, MemorySegment xProgress, MemorySegment pArg) {
         try {
-            sqlite3_progress_handler.invokeExact(db, nOps, xProgress, pArg);
+            sqlite3_progress_handler.handle.invokeExact(db, nOps, xProgress, pArg);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1104,7 +1386,7 @@ class sqlite_h {
 
     static int sqlite3_reset(MemorySegment pStmt) {
         try {
-            return (int) sqlite3_reset.invokeExact(pStmt);
+            return (int) sqlite3_reset.handle.invokeExact(pStmt);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1113,7 +1395,17 @@ class sqlite_h {
     static void sqlite3_result_blob(
             MemorySegment pCtx, MemorySegment z, int n, MemorySegment xDel) {
         try {
-            sqlite3_result_blob.invokeExact(pCtx, z, n, xDel);
+            sqlite3_result_blob.handle.invokeExact(pCtx, z, n, xDel);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /** Sets a heap array as the result directly. Only call if {@link #hasHeapAccess()} is true. */
+    static void sqlite3_result_blob(MemorySegment pCtx, byte[] z, MemorySegment xDel) {
+        try {
+            sqlite3_result_blob_heap.handle.invokeExact(
+                    pCtx, MemorySegment.ofArray(z), z.length, xDel);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1121,7 +1413,7 @@ class sqlite_h {
 
     static void sqlite3_result_double(MemorySegment pCtx, double rVal) {
         try {
-            sqlite3_result_double.invokeExact(pCtx, rVal);
+            sqlite3_result_double.handle.invokeExact(pCtx, rVal);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1129,7 +1421,7 @@ class sqlite_h {
 
     static void sqlite3_result_error(MemorySegment pCtx, MemorySegment z, int n) {
         try {
-            sqlite3_result_error.invokeExact(pCtx, z, n);
+            sqlite3_result_error.handle.invokeExact(pCtx, z, n);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1137,7 +1429,7 @@ class sqlite_h {
 
     static void sqlite3_result_int(MemorySegment pCtx, int iVal) {
         try {
-            sqlite3_result_int.invokeExact(pCtx, iVal);
+            sqlite3_result_int.handle.invokeExact(pCtx, iVal);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1145,7 +1437,7 @@ class sqlite_h {
 
     static void sqlite3_result_int64(MemorySegment pCtx, long iVal) {
         try {
-            sqlite3_result_int64.invokeExact(pCtx, iVal);
+            sqlite3_result_int64.handle.invokeExact(pCtx, iVal);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1153,7 +1445,7 @@ class sqlite_h {
 
     static void sqlite3_result_null(MemorySegment pCtx) {
         try {
-            sqlite3_result_null.invokeExact(pCtx);
+            sqlite3_result_null.handle.invokeExact(pCtx);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1162,7 +1454,7 @@ class sqlite_h {
     static void sqlite3_result_text(
             MemorySegment pCtx, MemorySegment z, int n, MemorySegment xDel) {
         try {
-            sqlite3_result_text.invokeExact(pCtx, z, n, xDel);
+            sqlite3_result_text.handle.invokeExact(pCtx, z, n, xDel);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1171,7 +1463,7 @@ class sqlite_h {
     static MemorySegment sqlite3_rollback_hook(
             MemorySegment db, MemorySegment xCallback, MemorySegment pArg) {
         try {
-            return (MemorySegment) sqlite3_rollback_hook.invokeExact(db, xCallback, pArg);
+            return (MemorySegment) sqlite3_rollback_hook.handle.invokeExact(db, xCallback, pArg);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1180,7 +1472,8 @@ class sqlite_h {
     static MemorySegment sqlite3_serialize(
             MemorySegment db, MemorySegment zSchema, MemorySegment piSize, int mFlags) {
         try {
-            return (MemorySegment) sqlite3_serialize.invokeExact(db, zSchema, piSize, mFlags);
+            return (MemorySegment)
+                    sqlite3_serialize.handle.invokeExact(db, zSchema, piSize, mFlags);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1188,7 +1481,16 @@ class sqlite_h {
 
     static int sqlite3_sleep(int ms) {
         try {
-            return (int) sqlite3_sleep.invokeExact(ms);
+            return (int) sqlite3_sleep.handle.invokeExact(ms);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static MemorySegment sqlite3_snprintf(
+            int n, MemorySegment zBuf, MemorySegment zFormat, double value) {
+        try {
+            return (MemorySegment) sqlite3_snprintf.handle.invokeExact(n, zBuf, zFormat, value);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1196,7 +1498,23 @@ class sqlite_h {
 
     static int sqlite3_step(MemorySegment pStmt) {
         try {
-            return (int) sqlite3_step.invokeExact(pStmt);
+            return (int) sqlite3_step.handle.invokeExact(pStmt);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static int sqlite3_stmt_readonly(MemorySegment pStmt) {
+        try {
+            return (int) sqlite3_stmt_readonly.handle.invokeExact(pStmt);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static int sqlite3_stmt_status(MemorySegment pStmt, int op, int resetFlg) {
+        try {
+            return (int) sqlite3_stmt_status.handle.invokeExact(pStmt, op, resetFlg);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1204,7 +1522,7 @@ class sqlite_h {
 
     static int sqlite3_strnicmp(MemorySegment zLeft, MemorySegment zRight, int N) {
         try {
-            return (int) sqlite3_strnicmp.invokeExact(zLeft, zRight, N);
+            return (int) sqlite3_strnicmp.handle.invokeExact(zLeft, zRight, N);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1222,7 +1540,7 @@ class sqlite_h {
             MemorySegment pAutoinc) {
         try {
             return (int)
-                    sqlite3_table_column_metadata.invokeExact(
+                    sqlite3_table_column_metadata.handle.invokeExact(
                             db,
                             zDbName,
                             zTableName,
@@ -1239,10 +1557,10 @@ class sqlite_h {
 
     static long sqlite3_total_changes64(MemorySegment db) {
         try {
-            if (sqlite3_total_changes64 != null) {
-                return (long) sqlite3_total_changes64.invokeExact(db);
+            if (sqlite3_total_changes64.handle != null) {
+                return (long) sqlite3_total_changes64.handle.invokeExact(db);
             } else {
-                return (int) sqlite3_total_changes.invokeExact(db);
+                return (int) sqlite3_total_changes.handle.invokeExact(db);
             }
         } catch (Throwable e) {
             throw new AssertionError(e);
@@ -1252,7 +1570,7 @@ class sqlite_h {
     static MemorySegment sqlite3_update_hook(
             MemorySegment db, MemorySegment xCallback, MemorySegment pArg) {
         try {
-            return (MemorySegment) sqlite3_update_hook.invokeExact(db, xCallback, pArg);
+            return (MemorySegment) sqlite3_update_hook.handle.invokeExact(db, xCallback, pArg);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1260,7 +1578,7 @@ class sqlite_h {
 
     static MemorySegment sqlite3_value_blob(MemorySegment pVal) {
         try {
-            return (MemorySegment) sqlite3_value_blob.invokeExact(pVal);
+            return (MemorySegment) sqlite3_value_blob.handle.invokeExact(pVal);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1268,7 +1586,7 @@ class sqlite_h {
 
     static int sqlite3_value_bytes(MemorySegment pVal) {
         try {
-            return (int) sqlite3_value_bytes.invokeExact(pVal);
+            return (int) sqlite3_value_bytes.handle.invokeExact(pVal);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1276,7 +1594,7 @@ class sqlite_h {
 
     static double sqlite3_value_double(MemorySegment pVal) {
         try {
-            return (double) sqlite3_value_double.invokeExact(pVal);
+            return (double) sqlite3_value_double.handle.invokeExact(pVal);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1284,7 +1602,7 @@ class sqlite_h {
 
     static int sqlite3_value_int(MemorySegment pVal) {
         try {
-            return (int) sqlite3_value_int.invokeExact(pVal);
+            return (int) sqlite3_value_int.handle.invokeExact(pVal);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1292,7 +1610,7 @@ class sqlite_h {
 
     static long sqlite3_value_int64(MemorySegment pVal) {
         try {
-            return (long) sqlite3_value_int64.invokeExact(pVal);
+            return (long) sqlite3_value_int64.handle.invokeExact(pVal);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1300,7 +1618,7 @@ class sqlite_h {
 
     static MemorySegment sqlite3_value_text(MemorySegment pVal) {
         try {
-            return (MemorySegment) sqlite3_value_text.invokeExact(pVal);
+            return (MemorySegment) sqlite3_value_text.handle.invokeExact(pVal);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -1308,7 +1626,7 @@ class sqlite_h {
 
     static int sqlite3_value_type(MemorySegment pVal) {
         try {
-            return (int) sqlite3_value_type.invokeExact(pVal);
+            return (int) sqlite3_value_type.handle.invokeExact(pVal);
         } catch (Throwable e) {
             throw new AssertionError(e);
         }
@@ -194,6 +194,11 @@ class SQLitePooledConnectionHandle extends SQLiteConnection {
         return new JDBC4PreparedStatement(this, sql);
     }
 
+    @Override
+    public PreparedStatement prepareStatement(String sql, boolean persistent) throws SQLException {
+        return new JDBC4PreparedStatement(this, sql, persistent);
+    }
+
     @Override
     public CallableStatement prepareCall(String sql) throws SQLException {
         return null;
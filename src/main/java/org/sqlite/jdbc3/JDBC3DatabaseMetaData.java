@@ -1086,7 +1086,8 @@ public abstract class JDBC3DatabaseMetaData extends CoreDatabaseMetaData {
                                     + "null as NUM_PREC_RADIX, null as NULLABLE, null as REMARKS, null as ATTR_DEF, "
                                     + "null as SQL_DATA_TYPE, null as SQL_DATETIME_SUB, null as CHAR_OCTET_LENGTH, "
                                     + "null as ORDINAL_POSITION, null as IS_NULLABLE, null as SCOPE_CATALOG, "
-                                    + "null as SCOPE_SCHEMA, null as SCOPE_TABLE, null as SOURCE_DATA_TYPE limit 0;");
+                                    + "null as SCOPE_SCHEMA, null as SCOPE_TABLE, null as SOURCE_DATA_TYPE limit 0;",
+                            true);
         }
 
         return getAttributes.executeQuery();
@@ -1103,7 +1104,8 @@ public abstract class JDBC3DatabaseMetaData extends CoreDatabaseMetaData {
                     conn.prepareStatement(
                             "select null as SCOPE, null as COLUMN_NAME, "
                                     + "null as DATA_TYPE, null as TYPE_NAME, null as COLUMN_SIZE, "
-                                    + "null as BUFFER_LENGTH, null as DECIMAL_DIGITS, null as PSEUDO_COLUMN limit 0;");
+                                    + "null as BUFFER_LENGTH, null as DECIMAL_DIGITS, null as PSEUDO_COLUMN limit 0;",
+                            true);
         }
 
         return getBestRowIdentifier.executeQuery();
@@ -1120,7 +1122,8 @@ public abstract class JDBC3DatabaseMetaData extends CoreDatabaseMetaData {
                     conn.prepareStatement(
                             "select null as TABLE_CAT, null as TABLE_SCHEM, "
                                     + "null as TABLE_NAME, null as COLUMN_NAME, null as GRANTOR, null as GRANTEE, "
-                                    + "null as PRIVILEGE, null as IS_GRANTABLE limit 0;");
+                                    + "null as PRIVILEGE, null as IS_GRANTABLE limit 0;",
+                            true);
         }
 
         return getColumnPrivileges.executeQuery();
@@ -1451,7 +1454,7 @@ public abstract class JDBC3DatabaseMetaData extends CoreDatabaseMetaData {
         if (getSchemas == null) {
             getSchemas =
                     conn.prepareStatement(
-                            "select null as TABLE_SCHEM, null as TABLE_CATALOG limit 0;");
+                            "select null as TABLE_SCHEM, null as TABLE_CATALOG limit 0;", true);
         }
 
         return getSchemas.executeQuery();
@@ -1462,7 +1465,7 @@ public abstract class JDBC3DatabaseMetaData extends CoreDatabaseMetaData {
      */
     public ResultSet getCatalogs() throws SQLException {
         if (getCatalogs == null) {
-            getCatalogs = conn.prepareStatement("select null as TABLE_CAT limit 0;");
+            getCatalogs = conn.prepareStatement("select null as TABLE_CAT limit 0;", true);
         }
 
         return getCatalogs.executeQuery();
@@ -1881,7 +1884,8 @@ public abstract class JDBC3DatabaseMetaData extends CoreDatabaseMetaData {
                                     + "null as PROCEDURE_SCHEM, null as PROCEDURE_NAME, null as COLUMN_NAME, "
                                     + "null as COLUMN_TYPE, null as DATA_TYPE, null as TYPE_NAME, null as PRECISION, "
                                     + "null as LENGTH, null as SCALE, null as RADIX, null as NULLABLE, "
-                                    + "null as REMARKS limit 0;");
+                                    + "null as REMARKS limit 0;",
+                            true);
         }
         return getProcedureColumns.executeQuery();
     }
@@ -1896,7 +1900,8 @@ public abstract class JDBC3DatabaseMetaData extends CoreDatabaseMetaData {
                     conn.prepareStatement(
                             "select null as PROCEDURE_CAT, null as PROCEDURE_SCHEM, "
                                     + "null as PROCEDURE_NAME, null as UNDEF1, null as UNDEF2, null as UNDEF3, "
-                                    + "null as REMARKS, null as PROCEDURE_TYPE limit 0;");
+                                    + "null as REMARKS, null as PROCEDURE_TYPE limit 0;",
+                            true);
         }
         return getProcedures.executeQuery();
     }
@@ -1910,7 +1915,8 @@ public abstract class JDBC3DatabaseMetaData extends CoreDatabaseMetaData {
             getSuperTables =
                     conn.prepareStatement(
                             "select null as TABLE_CAT, null as TABLE_SCHEM, "
-                                    + "null as TABLE_NAME, null as SUPERTABLE_NAME limit 0;");
+                                    + "null as TABLE_NAME, null as SUPERTABLE_NAME limit 0;",
+                            true);
         }
         return getSuperTables.executeQuery();
     }
@@ -1925,7 +1931,8 @@ public abstract class JDBC3DatabaseMetaData extends CoreDatabaseMetaData {
                     conn.prepareStatement(
                             "select null as TYPE_CAT, null as TYPE_SCHEM, "
                                     + "null as TYPE_NAME, null as SUPERTYPE_CAT, null as SUPERTYPE_SCHEM, "
-                                    + "null as SUPERTYPE_NAME limit 0;");
+                                    + "null as SUPERTYPE_NAME limit 0;",
+                            true);
         }
         return getSuperTypes.executeQuery();
     }
@@ -1940,7 +1947,8 @@ public abstract class JDBC3DatabaseMetaData extends CoreDatabaseMetaData {
                     conn.prepareStatement(
                             "select  null as TABLE_CAT, "
                                     + "null as TABLE_SCHEM, null as TABLE_NAME, null as GRANTOR, null "
-                                    + "GRANTEE,  null as PRIVILEGE, null as IS_GRANTABLE limit 0;");
+                                    + "GRANTEE,  null as PRIVILEGE, null as IS_GRANTABLE limit 0;",
+                            true);
         }
         return getTablePrivileges.executeQuery();
     }
@@ -2034,7 +2042,7 @@ public abstract class JDBC3DatabaseMetaData extends CoreDatabaseMetaData {
                         + "SELECT 'GLOBAL TEMPORARY' AS TABLE_TYPE;";
 
         if (getTableTypes == null) {
-            getTableTypes = conn.prepareStatement(sql);
+            getTableTypes = conn.prepareStatement(sql, true);
         }
         getTableTypes.clearParameters();
         return getTableTypes.executeQuery();
@@ -2163,7 +2171,7 @@ public abstract class JDBC3DatabaseMetaData extends CoreDatabaseMetaData {
                                                     0,
                                                     10)))
                             + " order by DATA_TYPE";
-            getTypeInfo = conn.prepareStatement(sql);
+            getTypeInfo = conn.prepareStatement(sql, true);
         }
 
         getTypeInfo.clearParameters();
@@ -2181,7 +2189,8 @@ public abstract class JDBC3DatabaseMetaData extends CoreDatabaseMetaData {
                             "select  null as TYPE_CAT, null as TYPE_SCHEM, "
                                     + "null as TYPE_NAME,  null as CLASS_NAME,  null as DATA_TYPE, null as REMARKS, "
                                     + "null as BASE_TYPE "
-                                    + "limit 0;");
+                                    + "limit 0;",
+                            true);
         }
 
         getUDTs.clearParameters();
@@ -2198,7 +2207,8 @@ public abstract class JDBC3DatabaseMetaData extends CoreDatabaseMetaData {
                     conn.prepareStatement(
                             "select null as SCOPE, null as COLUMN_NAME, "
                                     + "null as DATA_TYPE, null as TYPE_NAME, null as COLUMN_SIZE, "
-                                    + "null as BUFFER_LENGTH, null as DECIMAL_DIGITS, null as PSEUDO_COLUMN limit 0;");
+                                    + "null as BUFFER_LENGTH, null as DECIMAL_DIGITS, null as PSEUDO_COLUMN limit 0;",
+                            true);
         }
         return getVersionColumns.executeQuery();
     }
@@ -3,6 +3,8 @@ package org.sqlite.jdbc3;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
@@ -20,25 +22,35 @@ import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
-import java.sql.Types;
 import java.util.Calendar;
 import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLitePreparedStatement;
 import org.sqlite.core.CorePreparedStatement;
 import org.sqlite.core.DB;
+import org.sqlite.core.RowBuffer;
 
-public abstract class JDBC3PreparedStatement extends CorePreparedStatement {
+public abstract class JDBC3PreparedStatement extends CorePreparedStatement
+        implements SQLitePreparedStatement {
+
+    /** The size of the chunks a stream parameter is read in. */
+    private static final int STREAM_CHUNK_SIZE = 8192;
 
     protected JDBC3PreparedStatement(SQLiteConnection conn, String sql) throws SQLException {
         super(conn, sql);
     }
 
+    protected JDBC3PreparedStatement(SQLiteConnection conn, String sql, boolean persistent)
+            throws SQLException {
+        super(conn, sql, persistent);
+    }
+
     /**
      * @see java.sql.PreparedStatement#clearParameters()
      */
     public void clearParameters() throws SQLException {
         checkOpen();
         pointer.safeRunConsume(DB::clear_bindings);
-        if (batch != null) for (int i = batchPos; i < batchPos + paramCount; i++) batch[i] = null;
+        clearRow();
     }
 
     /**
@@ -57,17 +69,17 @@ public abstract class JDBC3PreparedStatement extends CorePreparedStatement {
         return this.withConnectionTimeout(
                 () -> {
                     boolean success = false;
+                    DB db = conn.getDatabase();
+                    db.lock();
                     try {
-                        synchronized (conn) {
-                            resultsWaiting =
-                                    conn.getDatabase().execute(JDBC3PreparedStatement.this, batch);
-                            updateGeneratedKeys();
-                            success = true;
-                            updateCount = getDatabase().changes();
-                        }
+                        resultsWaiting = db.execute(JDBC3PreparedStatement.this);
+                        updateGeneratedKeys();
+                        success = true;
+                        updateCount = getDatabase().changes();
                         return 0 != columnCount;
                     } finally {
                         if (!success && !pointer.isClosed()) pointer.safeRunConsume(DB::reset);
+                        db.unlock();
                     }
                 });
     }
@@ -95,7 +107,7 @@ public abstract class JDBC3PreparedStatement extends CorePreparedStatement {
                     boolean success = false;
                     try {
                         resultsWaiting =
-                                conn.getDatabase().execute(JDBC3PreparedStatement.this, batch);
+                                conn.getDatabase().execute(JDBC3PreparedStatement.this);
                         success = true;
                     } finally {
                         if (!success && !pointer.isClosed()) {
@@ -119,7 +131,7 @@ public abstract class JDBC3PreparedStatement extends CorePreparedStatement {
     public long executeLargeUpdate() throws SQLException {
         checkOpen();
 
-        if (columnCount != 0) {
+        if (isQuery()) {
             throw new SQLException("Query returns results");
         }
 
@@ -133,12 +145,21 @@ public abstract class JDBC3PreparedStatement extends CorePreparedStatement {
 
         return this.withConnectionTimeout(
                 () -> {
-                    synchronized (conn) {
-                        long rc =
-                                conn.getDatabase()
-                                        .executeUpdate(JDBC3PreparedStatement.this, batch);
-                        updateGeneratedKeys();
+                    DB db = conn.getDatabase();
+                    db.lock();
+                    try {
+                        if (columnCount == 0) {
+                            long rc = db.executeUpdate(JDBC3PreparedStatement.this);
+                            updateGeneratedKeys();
+                            return rc;
+                        }
+                        // the rows of the RETURNING clause are the generated keys
+                        RowBuffer keys = generatedKeysBuffer();
+                        long rc = db.executeUpdate(JDBC3PreparedStatement.this, keys);
+                        setGeneratedKeys(keys);
                         return rc;
+                    } finally {
+                        db.unlock();
                     }
                 });
     }
@@ -148,17 +169,7 @@ public abstract class JDBC3PreparedStatement extends CorePreparedStatement {
      */
     public void addBatch() throws SQLException {
         checkOpen();
-        batchPos += paramCount;
-        batchQueryCount++;
-        if (batch == null) {
-            batch = new Object[paramCount];
-        }
-        if (batchPos + paramCount > batch.length) {
-            Object[] nb = new Object[batch.length * 2];
-            System.arraycopy(batch, 0, nb, 0, batch.length);
-            batch = nb;
-        }
-        System.arraycopy(batch, batchPos - paramCount, batch, batchPos, paramCount);
+        addBatchRow();
     }
 
     // ParameterMetaData FUNCTIONS //////////////////////////////////
@@ -198,22 +209,7 @@ public abstract class JDBC3PreparedStatement extends CorePreparedStatement {
      * @see java.sql.ParameterMetaData#getParameterType(int)
      */
     public int getParameterType(int pos) throws SQLException {
-        checkIndex(pos);
-        Object paramValue = batch[pos - 1];
-
-        if (paramValue == null) {
-            return Types.NULL;
-        } else if (paramValue instanceof Integer
-                || paramValue instanceof Short
-                || paramValue instanceof Boolean) {
-            return Types.INTEGER;
-        } else if (paramValue instanceof Long) {
-            return Types.BIGINT;
-        } else if (paramValue instanceof Double || paramValue instanceof Float) {
-            return Types.REAL;
-        } else {
-            return Types.VARCHAR;
-        }
+        return parameterType(pos);
     }
 
     /**
@@ -299,6 +295,44 @@ public abstract class JDBC3PreparedStatement extends CorePreparedStatement {
     }
 
     /**
+     * Reads a stream in chunks into native memory, so that a large blob is never held in the Java
+     * heap. The memory holds the whole stream, and is freed when the parameters are cleared, by
+     * {@link #clearParameters()}, {@link #clearBatch()} or an executed batch, or the statement is
+     * closed.
+     */
+    private MemorySegment readNative(InputStream istream, int length) throws SQLException {
+        if (length < 0) {
+            throw new SQLException("Error reading stream. Length should be non-negative");
+        }
+
+        MemorySegment bytes = allocateStream(length);
+        byte[] chunk = new byte[Math.min(length, STREAM_CHUNK_SIZE)];
+
+        try {
+            int bytesRead;
+            int totalBytesRead = 0;
+
+            while (totalBytesRead < length) {
+                bytesRead = istream.read(chunk, 0, Math.min(chunk.length, length - totalBytesRead));
+                if (bytesRead == -1) {
+                    throw new IOException("End of stream has been reached");
+                }
+                MemorySegment.copy(
+                        chunk, 0, bytes, ValueLayout.JAVA_BYTE, totalBytesRead, bytesRead);
+                totalBytesRead += bytesRead;
+            }
+
+            return bytes;
+        } catch (IOException cause) {
+            throw new SQLException("Error reading stream", cause);
+        }
+    }
+
+    /**
+     * Reads the stream into native memory in chunks rather than into a {@code byte[]}. The native
+     * memory still holds the whole stream, {@code length} bytes, until the parameters are cleared
+     * or the statement is closed.
+     *
      * @see java.sql.PreparedStatement#setBinaryStream(int, java.io.InputStream, int)
      */
     public void setBinaryStream(int pos, InputStream istream, int length) throws SQLException {
@@ -306,7 +340,15 @@ public abstract class JDBC3PreparedStatement extends CorePreparedStatement {
             setBytes(pos, null);
         }
 
-        setBytes(pos, readBytes(istream, length));
+        batch(pos, readNative(istream, length));
+    }
+
+    /**
+     * @see SQLitePreparedStatement#setZeroBlob(int, int)
+     */
+    @Override
+    public void setZeroBlob(int pos, int length) throws SQLException {
+        batchZeroBlob(pos, length);
     }
 
     /**
@@ -352,28 +394,28 @@ public abstract class JDBC3PreparedStatement extends CorePreparedStatement {
      * @see java.sql.PreparedStatement#setDouble(int, double)
      */
     public void setDouble(int pos, double value) throws SQLException {
-        batch(pos, value);
+        batchDouble(pos, value);
     }
 
     /**
      * @see java.sql.PreparedStatement#setFloat(int, float)
      */
     public void setFloat(int pos, float value) throws SQLException {
-        batch(pos, value);
+        batchDouble(pos, value);
     }
 
     /**
      * @see java.sql.PreparedStatement#setInt(int, int)
      */
     public void setInt(int pos, int value) throws SQLException {
-        batch(pos, value);
+        batchInt(pos, value);
     }
 
     /**
      * @see java.sql.PreparedStatement#setLong(int, long)
      */
     public void setLong(int pos, long value) throws SQLException {
-        batch(pos, value);
+        batchLong(pos, value);
     }
 
     /**
@@ -387,7 +429,7 @@ public abstract class JDBC3PreparedStatement extends CorePreparedStatement {
      * @see java.sql.PreparedStatement#setNull(int, int, java.lang.String)
      */
     public void setNull(int pos, int u1, String u2) throws SQLException {
-        batch(pos, null);
+        batchNull(pos);
     }
 
     /**
@@ -395,14 +437,14 @@ public abstract class JDBC3PreparedStatement extends CorePreparedStatement {
      */
     public void setObject(int pos, Object value) throws SQLException {
         switch (value) {
-            case null -> batch(pos, null);
+            case null -> batchNull(pos);
             case java.util.Date date ->
                     setDateByMilliseconds(pos, date.getTime(), Calendar.getInstance());
-            case Long l -> batch(pos, value);
-            case Integer i -> batch(pos, value);
-            case Short i -> batch(pos, Integer.valueOf(i));
-            case Float v -> batch(pos, value);
-            case Double v -> batch(pos, value);
+            case Long l -> batchLong(pos, l);
+            case Integer i -> batchInt(pos, i);
+            case Short i -> batchInt(pos, i);
+            case Float v -> batchDouble(pos, v);
+            case Double v -> batchDouble(pos, v);
             case Boolean b -> setBoolean(pos, b);
             case byte[] bytes -> batch(pos, value);
             case BigDecimal bigDecimal -> setBigDecimal(pos, bigDecimal);
@@ -1,10 +1,16 @@
 package org.sqlite.jdbc3;
 
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.ref.Cleaner;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -19,16 +25,16 @@ import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
-import java.util.Locale;
 import java.util.Objects;
 import java.util.OptionalLong;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import org.sqlite.ColumnSink;
+import org.sqlite.SQLiteResultSet;
+import org.sqlite.core.ColumnDescriptor;
 import org.sqlite.core.CoreResultSet;
 import org.sqlite.core.CoreStatement;
 import org.sqlite.core.DB;
 
-public abstract class JDBC3ResultSet extends CoreResultSet {
+public abstract class JDBC3ResultSet extends CoreResultSet implements SQLiteResultSet {
     // ResultSet Functions //////////////////////////////////////////
 
     protected JDBC3ResultSet(CoreStatement stmt) {
@@ -58,6 +64,7 @@ public abstract class JDBC3ResultSet extends CoreResultSet {
      * @see java.sql.ResultSet#next()
      */
     public boolean next() throws SQLException {
+        releaseCells();
         if (!open || emptyResultSet || pastLastRow) {
             return false; // finished ResultSet
         }
@@ -65,6 +72,9 @@ public abstract class JDBC3ResultSet extends CoreResultSet {
 
         // first row is loaded by execute(), so do not step() again
         if (row == 0) {
+            if (buffer == null && limitRows > 1) {
+                prefetch(true);
+            }
             row++;
             return true;
         }
@@ -74,6 +84,18 @@ public abstract class JDBC3ResultSet extends CoreResultSet {
             return false;
         }
 
+        // the buffered rows are consumed, or a fetch size was set after the first row
+        if (buffer != null ? row - bufferStart == buffer.size() : limitRows > 1) {
+            if (buffer != null && !prefetching || !prefetch(false)) {
+                pastLastRow = true;
+                return false;
+            }
+        }
+        if (buffer != null) {
+            row++;
+            return true;
+        }
+
         // do the real work
         int statusCode = stmt.pointer.safeRunInt(DB::step);
         return switch (statusCode) {
@@ -92,6 +114,111 @@ public abstract class JDBC3ResultSet extends CoreResultSet {
         };
     }
 
+    /**
+     * @see SQLiteResultSet#fetchLongColumn(int, long[], int)
+     */
+    @Override
+    public int fetchLongColumn(int col, long[] dest, int maxRows) throws SQLException {
+        checkOpen();
+        checkCol(col);
+        Objects.checkFromIndexSize(0, maxRows, dest.length);
+        if (buffer == null) {
+            return readLongColumn(col - 1, dest, maxRows);
+        }
+        int n = 0;
+        while (n < maxRows && next()) {
+            dest[n++] = getLong(col);
+        }
+        return n;
+    }
+
+    /**
+     * @see SQLiteResultSet#fetchDoubleColumn(int, double[], int)
+     */
+    @Override
+    public int fetchDoubleColumn(int col, double[] dest, int maxRows) throws SQLException {
+        checkOpen();
+        checkCol(col);
+        Objects.checkFromIndexSize(0, maxRows, dest.length);
+        if (buffer == null) {
+            return readDoubleColumn(col - 1, dest, maxRows);
+        }
+        int n = 0;
+        while (n < maxRows && next()) {
+            dest[n++] = getDouble(col);
+        }
+        return n;
+    }
+
+    /**
+     * @see SQLiteResultSet#fetchColumns(ColumnSink)
+     */
+    @Override
+    public int fetchColumns(ColumnSink sink) throws SQLException {
+        checkOpen();
+        for (int i = 0; i < sink.columnCount(); i++) {
+            checkCol(sink.column(i));
+        }
+        if (buffer == null) {
+            return readColumns(sink);
+        }
+        // rows read ahead are served from the buffer, one cell at a time
+        for (int i = 0; i < sink.columnCount(); i++) {
+            sink.nulls(i).fill((byte) 0);
+        }
+        int n = 0;
+        while (n < sink.capacity() && next()) {
+            for (int i = 0; i < sink.columnCount(); i++) {
+                MemorySegment values = sink.values(i);
+                if (sink.isDouble(i)) {
+                    values.setAtIndex(ValueLayout.JAVA_DOUBLE, n, getDouble(sink.column(i)));
+                } else {
+                    values.setAtIndex(ValueLayout.JAVA_LONG, n, getLong(sink.column(i)));
+                }
+                if (wasNull()) {
+                    MemorySegment nulls = sink.nulls(i);
+                    long word = nulls.getAtIndex(ValueLayout.JAVA_LONG, n >>> 6);
+                    nulls.setAtIndex(ValueLayout.JAVA_LONG, n >>> 6, word | 1L << n);
+                }
+            }
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * @see SQLiteResultSet#getSegment(int)
+     */
+    @Override
+    public MemorySegment getSegment(int col) throws SQLException {
+        return cellSegment(markCol(col));
+    }
+
+    /**
+     * @see SQLiteResultSet#getByteBuffer(int)
+     */
+    @Override
+    public ByteBuffer getByteBuffer(int col) throws SQLException {
+        MemorySegment bytes = getSegment(col);
+        return bytes == null ? null : bytes.asByteBuffer();
+    }
+
+    /**
+     * @see SQLiteResultSet#transferTo(int, WritableByteChannel)
+     */
+    @Override
+    public long transferTo(int col, WritableByteChannel out) throws SQLException, IOException {
+        ByteBuffer bytes = getByteBuffer(col);
+        if (bytes == null) {
+            return 0;
+        }
+        long n = bytes.remaining();
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+        return n;
+    }
+
     /**
      * @see java.sql.ResultSet#getType()
      */
@@ -107,6 +234,10 @@ public abstract class JDBC3ResultSet extends CoreResultSet {
     }
 
     /**
+     * Sets the number of rows to read ahead. Above 1, {@link #next()} steps the statement for
+     * that many rows at a time under one lock of the connection, and copies their values into
+     * column buffers that the getters read from.
+     *
      * @see java.sql.ResultSet#setFetchSize(int)
      */
     public void setFetchSize(int rows) throws SQLException {
@@ -224,15 +355,23 @@ public abstract class JDBC3ResultSet extends CoreResultSet {
     }
 
     /**
+     * Copies the cell into native memory rather than a {@code byte[]}, since the stream may be read
+     * after the cursor has moved, and reads it from there in whatever chunks the caller asks for.
+     * The whole value is still allocated and copied at once. The memory is freed when the stream
+     * is closed, or once it is no longer reachable if it is not.
+     *
      * @see java.sql.ResultSet#getBinaryStream(int)
      */
     public InputStream getBinaryStream(int col) throws SQLException {
-        byte[] bytes = getBytes(col);
-        if (bytes != null) {
-            return new ByteArrayInputStream(bytes);
-        } else {
-            return null;
+        if (buffer != null) {
+            MemorySegment cell = buffer.getSegment(bufferRow(), markCol(col));
+            return cell == null ? null : new SegmentInputStream(cell);
         }
+        return stmt.pointer.safeRun(
+                (db, ptr) -> {
+                    MemorySegment cell = db.column_segment(ptr, markCol(col), true);
+                    return cell == null ? null : new SegmentInputStream(cell);
+                });
     }
 
     /**
@@ -260,6 +399,9 @@ public abstract class JDBC3ResultSet extends CoreResultSet {
      * @see java.sql.ResultSet#getBytes(int)
      */
     public byte[] getBytes(int col) throws SQLException {
+        if (buffer != null) {
+            return buffer.getBytes(bufferRow(), markCol(col));
+        }
         return stmt.pointer.safeRun((db, ptr) -> db.column_blob(ptr, markCol(col)));
     }
 
@@ -352,6 +494,9 @@ public abstract class JDBC3ResultSet extends CoreResultSet {
      * @see java.sql.ResultSet#getInt(int)
      */
     public int getInt(int col) throws SQLException {
+        if (buffer != null) {
+            return (int) buffer.getLong(bufferRow(), markCol(col));
+        }
         return stmt.pointer.safeRunInt((db, ptr) -> db.column_int(ptr, markCol(col)));
     }
 
@@ -521,18 +666,6 @@ public abstract class JDBC3ResultSet extends CoreResultSet {
 
     // ResultSetMetaData Functions //////////////////////////////////
 
-    /** Pattern used to extract the column type name from table column definition. */
-    protected static final Pattern COLUMN_TYPENAME = Pattern.compile("([^\\(]*)");
-
-    /** Pattern used to extract the column type name from a cast(col as type) */
-    protected static final Pattern COLUMN_TYPECAST =
-            Pattern.compile("cast\\(.*?\\s+as\\s+(.*?)\\s*\\)");
-
-    /**
-     * Pattern used to extract the precision and scale from column meta returned by the JDBC driver.
-     */
-    protected static final Pattern COLUMN_PRECISION = Pattern.compile(".*?\\((.*?)\\)");
-
     // we do not need to check the RS is open, only that colsMeta
     // is not null, done with checkCol(int).
 
@@ -556,11 +689,10 @@ public abstract class JDBC3ResultSet extends CoreResultSet {
     public String getColumnClassName(int col) throws SQLException {
         switch (safeGetColumnType(markCol(col))) {
             case SQLITE_INTEGER:
-                long val = getLong(col);
-                if (val > Integer.MAX_VALUE || val < Integer.MIN_VALUE) {
-                    return "java.lang.Long";
-                } else {
+                if (fitsInt(col)) {
                     return "java.lang.Integer";
+                } else {
+                    return "java.lang.Long";
                 }
             case SQLITE_FLOAT:
                 return "java.lang.Double";
@@ -603,114 +735,17 @@ public abstract class JDBC3ResultSet extends CoreResultSet {
     }
 
     /**
+     * Looks the type up in the descriptor of the column by the storage class of the cell, reading
+     * the value only for an integer of a column typed INTEGER.
+     *
      * @see java.sql.ResultSetMetaData#getColumnType(int)
      */
     public int getColumnType(int col) throws SQLException {
-        String typeName = getColumnTypeName(col);
-        int valueType = safeGetColumnType(checkCol(col));
-
-        if (valueType == SQLITE_INTEGER || valueType == SQLITE_NULL) {
-            if ("BOOLEAN".equals(typeName)) {
-                return Types.BOOLEAN;
-            }
-
-            if ("TINYINT".equals(typeName)) {
-                return Types.TINYINT;
-            }
-
-            if ("SMALLINT".equals(typeName) || "INT2".equals(typeName)) {
-                return Types.SMALLINT;
-            }
-
-            if ("BIGINT".equals(typeName)
-                    || "INT8".equals(typeName)
-                    || "UNSIGNED BIG INT".equals(typeName)) {
-                return Types.BIGINT;
-            }
-
-            if ("DATE".equals(typeName) || "DATETIME".equals(typeName)) {
-                return Types.DATE;
-            }
-
-            if ("TIMESTAMP".equals(typeName)) {
-                return Types.TIMESTAMP;
-            }
-
-            if (valueType == SQLITE_INTEGER
-                    || "INT".equals(typeName)
-                    || "INTEGER".equals(typeName)
-                    || "MEDIUMINT".equals(typeName)) {
-                long val = getLong(col);
-                if (val > Integer.MAX_VALUE || val < Integer.MIN_VALUE) {
-                    return Types.BIGINT;
-                } else {
-                    return Types.INTEGER;
-                }
-            }
-        }
-
-        if (valueType == SQLITE_FLOAT || valueType == SQLITE_NULL) {
-            if ("DECIMAL".equals(typeName)) {
-                return Types.DECIMAL;
-            }
-
-            if ("DOUBLE".equals(typeName) || "DOUBLE PRECISION".equals(typeName)) {
-                return Types.DOUBLE;
-            }
-
-            if ("NUMERIC".equals(typeName)) {
-                return Types.NUMERIC;
-            }
-
-            if ("REAL".equals(typeName)) {
-                return Types.REAL;
-            }
-
-            if (valueType == SQLITE_FLOAT || "FLOAT".equals(typeName)) {
-                return Types.FLOAT;
-            }
-        }
-
-        if (valueType == SQLITE_TEXT || valueType == SQLITE_NULL) {
-            if ("CHARACTER".equals(typeName)
-                    || "NCHAR".equals(typeName)
-                    || "NATIVE CHARACTER".equals(typeName)
-                    || "CHAR".equals(typeName)) {
-                return Types.CHAR;
-            }
-
-            if ("CLOB".equals(typeName)) {
-                return Types.CLOB;
-            }
-
-            if ("DATE".equals(typeName) || "DATETIME".equals(typeName)) {
-                return Types.DATE;
-            }
-
-            if ("TIMESTAMP".equals(typeName)) {
-                return Types.TIMESTAMP;
-            }
-
-            if (valueType == SQLITE_TEXT
-                    || "VARCHAR".equals(typeName)
-                    || "VARYING CHARACTER".equals(typeName)
-                    || "NVARCHAR".equals(typeName)
-                    || "TEXT".equals(typeName)) {
-                return Types.VARCHAR;
-            }
+        int type = column(col).jdbcType(safeGetColumnType(checkCol(col)));
+        if (type == ColumnDescriptor.INTEGER_BY_VALUE) {
+            return fitsInt(col) ? Types.INTEGER : Types.BIGINT;
         }
-
-        if (valueType == SQLITE_BLOB || valueType == SQLITE_NULL) {
-            if ("BINARY".equals(typeName)) {
-                return Types.BINARY;
-            }
-
-            if (valueType == SQLITE_BLOB || "BLOB".equals(typeName)) {
-                return Types.BLOB;
-            }
-        }
-
-        return Types.NUMERIC;
+        return type;
     }
 
     /**
@@ -719,69 +754,25 @@ public abstract class JDBC3ResultSet extends CoreResultSet {
      * @see java.sql.ResultSetMetaData#getColumnTypeName(int)
      */
     public String getColumnTypeName(int col) throws SQLException {
-        String declType = getColumnDeclType(col);
-
-        if (declType != null) {
-            Matcher matcher = COLUMN_TYPENAME.matcher(declType);
-
-            matcher.find();
-            return matcher.group(1).toUpperCase(Locale.ENGLISH);
+        ColumnDescriptor column = column(col);
+        if (column.declType() != null) {
+            return column.typeName(SQLITE_NULL);
         }
-
-        return switch (safeGetColumnType(checkCol(col))) {
-            case SQLITE_INTEGER -> "INTEGER";
-            case SQLITE_FLOAT -> "FLOAT";
-            case SQLITE_BLOB -> "BLOB";
-            case SQLITE_TEXT -> "TEXT";
-            default -> "NUMERIC";
-        };
+        return column.typeName(safeGetColumnType(checkCol(col)));
     }
 
     /**
      * @see java.sql.ResultSetMetaData#getPrecision(int)
      */
     public int getPrecision(int col) throws SQLException {
-        String declType = getColumnDeclType(col);
-
-        if (declType != null) {
-            Matcher matcher = COLUMN_PRECISION.matcher(declType);
-
-            return matcher.find() ? Integer.parseInt(matcher.group(1).split(",")[0].trim()) : 0;
-        }
-
-        return 0;
-    }
-
-    private String getColumnDeclType(int col) throws SQLException {
-        String declType = stmt.pointer.safeRun((db, ptr) -> db.column_decltype(ptr, checkCol(col)));
-
-        if (declType == null) {
-            Matcher matcher = COLUMN_TYPECAST.matcher(safeGetColumnName(col));
-            declType = matcher.find() ? matcher.group(1) : null;
-        }
-
-        return declType;
+        return column(col).precision();
     }
 
     /**
      * @see java.sql.ResultSetMetaData#getScale(int)
      */
     public int getScale(int col) throws SQLException {
-        String declType = getColumnDeclType(col);
-
-        if (declType != null) {
-            Matcher matcher = COLUMN_PRECISION.matcher(declType);
-
-            if (matcher.find()) {
-                String[] array = matcher.group(1).split(",");
-
-                if (array.length == 2) {
-                    return Integer.parseInt(array[1].trim());
-                }
-            }
-        }
-
-        return 0;
+        return column(col).scale();
     }
 
     /**
@@ -795,7 +786,7 @@ public abstract class JDBC3ResultSet extends CoreResultSet {
      * @see java.sql.ResultSetMetaData#getTableName(int)
      */
     public String getTableName(int col) throws SQLException {
-        final String tableName = safeGetColumnTableName(col);
+        final String tableName = column(col).tableName();
         // JDBC specifies an empty string instead of null
         return Objects.requireNonNullElse(tableName, "");
     }
@@ -804,8 +795,7 @@ public abstract class JDBC3ResultSet extends CoreResultSet {
      * @see java.sql.ResultSetMetaData#isNullable(int)
      */
     public int isNullable(int col) throws SQLException {
-        checkMeta();
-        return meta[checkCol(col)][0]
+        return column(col).notNull()
                 ? ResultSetMetaData.columnNoNulls
                 : ResultSetMetaData.columnNullable;
     }
@@ -814,8 +804,7 @@ public abstract class JDBC3ResultSet extends CoreResultSet {
      * @see java.sql.ResultSetMetaData#isAutoIncrement(int)
      */
     public boolean isAutoIncrement(int col) throws SQLException {
-        checkMeta();
-        return meta[checkCol(col)][2];
+        return column(col).autoIncrement();
     }
 
     /**
@@ -1007,26 +996,124 @@ public abstract class JDBC3ResultSet extends CoreResultSet {
     }
 
     protected int safeGetColumnType(int col) throws SQLException {
+        if (buffer != null) {
+            return buffer.type(bufferRow(), col);
+        }
         return stmt.pointer.safeRunInt((db, ptr) -> db.column_type(ptr, col));
     }
 
+    /**
+     * Whether an integer cell fits an int, read without marking its column as the last one read,
+     * so that {@link #wasNull()} still reports on the cell the application read.
+     */
+    private boolean fitsInt(int col) throws SQLException {
+        int c = checkCol(col);
+        long val =
+                buffer != null
+                        ? buffer.getLong(bufferRow(), c)
+                        : stmt.pointer.safeRunLong((db, ptr) -> db.column_long(ptr, c));
+        return val >= Integer.MIN_VALUE && val <= Integer.MAX_VALUE;
+    }
+
     private long safeGetLongCol(int col) throws SQLException {
+        if (buffer != null) {
+            return buffer.getLong(bufferRow(), markCol(col));
+        }
         return stmt.pointer.safeRunLong((db, ptr) -> db.column_long(ptr, markCol(col)));
     }
 
     private double safeGetDoubleCol(int col) throws SQLException {
+        if (buffer != null) {
+            return buffer.getDouble(bufferRow(), markCol(col));
+        }
         return stmt.pointer.safeRunDouble((db, ptr) -> db.column_double(ptr, markCol(col)));
     }
 
     private String safeGetColumnText(int col) throws SQLException {
+        if (buffer != null) {
+            return buffer.getString(bufferRow(), markCol(col));
+        }
         return stmt.pointer.safeRun((db, ptr) -> db.column_text(ptr, markCol(col)));
     }
 
-    private String safeGetColumnTableName(int col) throws SQLException {
-        return stmt.pointer.safeRun((db, ptr) -> db.column_table_name(ptr, checkCol(col)));
-    }
-
     private String safeGetColumnName(int col) throws SQLException {
+        if (buffer != null) {
+            return buffer.columnNames()[checkCol(col)];
+        }
         return stmt.pointer.safeRun((db, ptr) -> db.column_name(ptr, checkCol(col)));
     }
+
+    /**
+     * Reads a copy of the bytes of a cell from native memory, which is freed when the stream is
+     * closed, or once the stream is no longer reachable if it is not.
+     */
+    private static final class SegmentInputStream extends InputStream {
+        private static final Cleaner CLEANER = Cleaner.create();
+
+        private final MemorySegment bytes;
+        private final Cleaner.Cleanable memory;
+        private long position;
+        private boolean closed;
+
+        SegmentInputStream(MemorySegment cell) {
+            // shared, so that the stream can be read and closed by any thread
+            Arena arena = Arena.ofShared();
+            bytes = arena.allocate(cell.byteSize());
+            MemorySegment.copy(cell, 0, bytes, 0, cell.byteSize());
+            memory = CLEANER.register(this, arena::close);
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            ensureOpen();
+            return position < bytes.byteSize()
+                    ? bytes.get(ValueLayout.JAVA_BYTE, position++) & 0xFF
+                    : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0) {
+                return 0;
+            }
+            long remaining = bytes.byteSize() - position;
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = (int) Math.min(len, remaining);
+            MemorySegment.copy(bytes, ValueLayout.JAVA_BYTE, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            ensureOpen();
+            long skipped = Math.max(0, Math.min(n, bytes.byteSize() - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            ensureOpen();
+            return (int) Math.min(Integer.MAX_VALUE, bytes.byteSize() - position);
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                memory.clean();
+            }
+        }
+    }
 }
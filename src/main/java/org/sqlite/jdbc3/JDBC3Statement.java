@@ -1,6 +1,5 @@
 package org.sqlite.jdbc3;
 
-import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -55,13 +54,17 @@ public abstract class JDBC3Statement extends CoreStatement {
                     }
 
                     JDBC3Statement.this.sql = sql;
-                    synchronized (conn) {
-                        conn.getDatabase().prepare(JDBC3Statement.this);
+                    DB db = conn.getDatabase();
+                    db.lock();
+                    try {
+                        db.prepare(JDBC3Statement.this);
                         boolean result = exec();
                         updateGeneratedKeys();
                         updateCount = getDatabase().changes();
                         exhaustedResults = false;
                         return result;
+                    } finally {
+                        db.unlock();
                     }
                 });
     }
@@ -146,18 +149,16 @@ public abstract class JDBC3Statement extends CoreStatement {
                         // execute extended command
                         ext.execute(db);
                     } else {
+                        db.lock();
                         try {
-                            synchronized (db) {
-                                changes = db.total_changes();
-                                // directly invokes the exec API to support multiple SQL statements
-                                int statusCode = db._exec(sql);
-                                if (statusCode != SQLITE_OK)
-                                    throw DB.newSQLException(statusCode, "");
-                                updateGeneratedKeys();
-                                changes = db.total_changes() - changes;
-                            }
-
+                            changes = db.total_changes();
+                            // directly invokes the exec API to support multiple SQL statements
+                            int statusCode = db._exec(sql);
+                            if (statusCode != SQLITE_OK) throw DB.newSQLException(statusCode, "");
+                            updateGeneratedKeys();
+                            changes = db.total_changes() - changes;
                         } finally {
+                            db.unlock();
                             internalClose();
                         }
                     }
@@ -257,32 +258,14 @@ public abstract class JDBC3Statement extends CoreStatement {
      * @see java.sql.Statement#executeLargeBatch()
      */
     public long[] executeLargeBatch() throws SQLException {
-        // TODO: optimize
         internalClose();
         if (batch == null || batchPos == 0) return new long[] {};
 
-        long[] changes = new long[batchPos];
-        DB db = conn.getDatabase();
-        synchronized (db) {
-            try {
-                for (int i = 0; i < changes.length; i++) {
-                    try {
-                        this.sql = (String) batch[i];
-                        db.prepare(this);
-                        changes[i] = db.executeUpdate(this, null);
-                    } catch (SQLException e) {
-                        throw new BatchUpdateException(
-                                "batch entry " + i + ": " + e.getMessage(), null, 0, changes, e);
-                    } finally {
-                        if (pointer != null) pointer.close();
-                    }
-                }
-            } finally {
-                clearBatch();
-            }
+        try {
+            return conn.getDatabase().executeBatch(batch, batchPos, conn.getAutoCommit());
+        } finally {
+            clearBatch();
         }
-
-        return changes;
     }
 
     /**
@@ -34,6 +34,12 @@ public class JDBC4Connection extends JDBC3Connection {
         return new JDBC4PreparedStatement(this, sql);
     }
 
+    public PreparedStatement prepareStatement(String sql, boolean persistent) throws SQLException {
+        checkOpen();
+
+        return new JDBC4PreparedStatement(this, sql, persistent);
+    }
+
     // JDBC 4
     /**
      * @see java.sql.Connection#isClosed()
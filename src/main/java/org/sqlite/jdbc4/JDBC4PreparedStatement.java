@@ -12,7 +12,6 @@ import java.sql.RowId;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.SQLXML;
-import java.util.Arrays;
 import org.sqlite.SQLiteConnection;
 import org.sqlite.jdbc3.JDBC3PreparedStatement;
 
@@ -21,13 +20,18 @@ public class JDBC4PreparedStatement extends JDBC3PreparedStatement
 
     @Override
     public String toString() {
-        return sql + " \n parameters=" + Arrays.toString(batch);
+        return sql + " \n parameters=" + parametersToString();
     }
 
     public JDBC4PreparedStatement(SQLiteConnection conn, String sql) throws SQLException {
         super(conn, sql);
     }
 
+    public JDBC4PreparedStatement(SQLiteConnection conn, String sql, boolean persistent)
+            throws SQLException {
+        super(conn, sql, persistent);
+    }
+
     // JDBC 4
     public void setRowId(int parameterIndex, RowId x) throws SQLException {
         // TODO Support this
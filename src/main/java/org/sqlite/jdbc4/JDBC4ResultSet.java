@@ -38,7 +38,8 @@ public class JDBC4ResultSet extends JDBC3ResultSet implements ResultSet, ResultS
 
     @Override
     public void close() throws SQLException {
-        final boolean wasOpen = isOpen(); // prevent close() recursion
+        // prevent close() recursion, and keep the statement of generated keys open
+        final boolean wasOpen = isOpen() && (buffer == null || prefetching);
         super.close();
         // close-on-completion regardless of closeStmt
         if (wasOpen && stmt instanceof JDBC4Statement stat) {
@@ -0,0 +1,237 @@
+package org.sqlite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests {@link SQLiteBlob} and streamed blob parameters and columns. */
+public class BlobTest {
+    private SQLiteConnection conn;
+    private Statement stat;
+
+    @BeforeEach
+    public void connect() throws Exception {
+        conn = (SQLiteConnection) DriverManager.getConnection("jdbc:sqlite:");
+        stat = conn.createStatement();
+        stat.executeUpdate("create table files (id integer primary key, data blob)");
+    }
+
+    @AfterEach
+    public void close() throws SQLException {
+        stat.close();
+        conn.close();
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] bytes = new byte[n];
+        new Random(n).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void writeZeroBlobInChunks() throws Exception {
+        byte[] expected = randomBytes(300_000);
+        try (PreparedStatement insert =
+                conn.prepareStatement("insert into files (id, data) values (7, ?)")) {
+            insert.unwrap(SQLitePreparedStatement.class).setZeroBlob(1, expected.length);
+            assertThat(insert.executeUpdate()).isEqualTo(1);
+        }
+
+        try (SQLiteBlob blob = conn.openBlob("files", "data", 7, true);
+                OutputStream out = Channels.newOutputStream(blob)) {
+            assertThat(blob.size()).isEqualTo(expected.length);
+            new ByteArrayInputStream(expected).transferTo(out);
+            assertThat(blob.position()).isEqualTo(expected.length);
+        }
+
+        try (ResultSet rs = stat.executeQuery("select data from files where id = 7")) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getBytes(1)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void readWithHeapAndDirectBuffers() throws Exception {
+        byte[] expected = randomBytes(200_000);
+        try (PreparedStatement insert =
+                conn.prepareStatement("insert into files (id, data) values (1, ?)")) {
+            insert.setBytes(1, expected);
+            insert.executeUpdate();
+        }
+
+        try (SQLiteBlob blob = conn.openBlob("files", "data", 1, false)) {
+            ByteBuffer heap = ByteBuffer.allocate(expected.length);
+            assertThat(blob.read(heap)).isEqualTo(expected.length);
+            assertThat(heap.array()).isEqualTo(expected);
+            assertThat(blob.read(ByteBuffer.allocate(1))).isEqualTo(-1);
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(10);
+            blob.position(1000);
+            assertThat(blob.read(direct)).isEqualTo(10);
+            direct.flip();
+            for (int i = 0; i < 10; i++) {
+                assertThat(direct.get()).isEqualTo(expected[1000 + i]);
+            }
+            assertThat(blob.position()).isEqualTo(1010);
+        }
+    }
+
+    @Test
+    public void reopenMovesToAnotherRow() throws Exception {
+        stat.executeUpdate("insert into files values (1, x'0102'), (2, x'030405')");
+
+        try (SQLiteBlob blob = conn.openBlob("files", "data", 1, false)) {
+            assertThat(blob.rowId()).isEqualTo(1);
+            assertThat(blob.size()).isEqualTo(2);
+            blob.reopen(2);
+            assertThat(blob.rowId()).isEqualTo(2);
+            assertThat(blob.size()).isEqualTo(3);
+            ByteBuffer bytes = ByteBuffer.allocate(3);
+            blob.read(bytes);
+            assertThat(bytes.array()).containsExactly(3, 4, 5);
+
+            assertThatThrownBy(() -> blob.reopen(3)).isInstanceOf(SQLException.class);
+            assertThat(blob.isOpen()).isFalse();
+        }
+    }
+
+    @Test
+    public void sizeIsFixed() throws Exception {
+        stat.executeUpdate("insert into files values (1, x'0102')");
+
+        try (SQLiteBlob blob = conn.openBlob("files", "data", 1, true)) {
+            assertThatThrownBy(() -> blob.write(ByteBuffer.allocate(3)))
+                    .isInstanceOf(IOException.class);
+            assertThatThrownBy(() -> blob.truncate(1)).isInstanceOf(IOException.class);
+            blob.write(ByteBuffer.wrap(new byte[] {9, 8}));
+        }
+        try (SQLiteBlob blob = conn.openBlob("files", "data", 1, false)) {
+            assertThatThrownBy(() -> blob.write(ByteBuffer.allocate(1)))
+                    .isInstanceOf(NonWritableChannelException.class);
+            ByteBuffer bytes = ByteBuffer.allocate(2);
+            blob.read(bytes);
+            assertThat(bytes.array()).containsExactly(9, 8);
+        }
+    }
+
+    @Test
+    public void missingCell() {
+        assertThatThrownBy(() -> conn.openBlob("files", "data", 42, false))
+                .isInstanceOf(SQLException.class);
+        assertThatThrownBy(() -> conn.openBlob("files", "nope", 1, false))
+                .isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    public void closedWithConnection() throws Exception {
+        stat.executeUpdate("insert into files values (1, x'01')");
+        SQLiteBlob blob = conn.openBlob("files", "data", 1, false);
+
+        stat.close();
+        conn.close();
+
+        assertThat(blob.isOpen()).isFalse();
+        assertThatThrownBy(() -> blob.read(ByteBuffer.allocate(1)))
+                .isInstanceOf(ClosedChannelException.class);
+    }
+
+    @Test
+    public void setBinaryStreamAndGetBinaryStream() throws Exception {
+        byte[] expected = randomBytes(100_000);
+        try (PreparedStatement insert =
+                conn.prepareStatement("insert into files (id, data) values (?, ?)")) {
+            insert.setInt(1, 1);
+            insert.setBinaryStream(2, new ByteArrayInputStream(expected), expected.length);
+            insert.executeUpdate();
+
+            insert.setInt(1, 2);
+            insert.setBinaryStream(2, new ByteArrayInputStream(expected), 10);
+            insert.addBatch();
+            insert.setInt(1, 3);
+            insert.setBinaryStream(2, new ByteArrayInputStream(new byte[0]), 0);
+            insert.addBatch();
+            insert.executeBatch();
+
+            InputStream shortStream = new ByteArrayInputStream(expected);
+            assertThatThrownBy(() -> insert.setBinaryStream(2, shortStream, expected.length + 1))
+                    .isInstanceOf(SQLException.class);
+        }
+
+        try (ResultSet rs = stat.executeQuery("select data from files order by id")) {
+            assertThat(rs.next()).isTrue();
+            InputStream in = rs.getBinaryStream(1);
+            assertThat(rs.next()).isTrue();
+            // still readable after the cursor has moved
+            assertThat(in.readAllBytes()).isEqualTo(expected);
+            assertThat(rs.getBinaryStream(1).readAllBytes())
+                    .isEqualTo(Arrays.copyOf(expected, 10));
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getBinaryStream(1).read()).isEqualTo(-1);
+        }
+
+        stat.executeUpdate("insert into files values (4, null)");
+        try (ResultSet rs = stat.executeQuery("select data from files where id = 4")) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getBinaryStream(1)).isNull();
+            assertThat(rs.wasNull()).isTrue();
+        }
+    }
+
+    @Test
+    public void binaryStreamsFreedWhenClosedOrCleared() throws Exception {
+        byte[] expected = randomBytes(1_000);
+        try (PreparedStatement insert =
+                conn.prepareStatement("insert into files (id, data) values (?, ?)")) {
+            insert.setInt(1, 1);
+            insert.setBinaryStream(2, new ByteArrayInputStream(expected), expected.length);
+            insert.executeUpdate();
+            insert.clearParameters();
+
+            // the cleared stream is no longer bound
+            insert.setInt(1, 2);
+            insert.executeUpdate();
+        }
+
+        try (ResultSet rs = stat.executeQuery("select data from files order by id")) {
+            assertThat(rs.next()).isTrue();
+            InputStream in = rs.getBinaryStream(1);
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getBinaryStream(1)).isNull();
+
+            // the copy can be read and closed by a thread that did not move the result set
+            byte[][] read = new byte[1][];
+            Thread reader =
+                    new Thread(
+                            () -> {
+                                try (InputStream stream = in) {
+                                    read[0] = stream.readAllBytes();
+                                } catch (IOException e) {
+                                    throw new RuntimeException(e);
+                                }
+                            });
+            reader.start();
+            reader.join();
+            assertThat(read[0]).isEqualTo(expected);
+            assertThatThrownBy(in::read).isInstanceOf(IOException.class);
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.sqlite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sqlite.SQLiteConfig.JournalMode;
+import org.sqlite.SQLiteConfig.SynchronousMode;
+
+/** Tests {@link SQLiteConnection#bulkLoader(String, String...)}. */
+public class BulkLoaderTest {
+    @TempDir File tempDir;
+
+    private SQLiteConnection conn;
+    private Statement stat;
+
+    @BeforeEach
+    public void connect() throws Exception {
+        File file = new File(tempDir, "bulk.db");
+        conn = (SQLiteConnection) DriverManager.getConnection("jdbc:sqlite:" + file);
+        stat = conn.createStatement();
+        stat.executeUpdate("create table t (id integer primary key, r real, s text, b blob)");
+    }
+
+    @AfterEach
+    public void close() throws SQLException {
+        stat.close();
+        conn.close();
+    }
+
+    @Test
+    public void keepsTemporaryDirectBufferUntilRowEnds() throws SQLException {
+        WeakReference<ByteBuffer> temporary;
+        try (SQLiteBulkLoader loader = conn.bulkLoader("t", "id", "b")) {
+            ByteBuffer direct = ByteBuffer.allocateDirect(4).put(new byte[] {1, 2, 3, 4}).flip();
+            temporary = new WeakReference<>(direct);
+            loader.appendLong(1).appendBlob(direct);
+            direct = null;
+            System.gc();
+            assertThat(temporary.get()).isNotNull();
+            loader.endRow();
+        }
+
+        ResultSet rs = stat.executeQuery("select b from t");
+        assertThat(rs.getBytes(1)).containsExactly(1, 2, 3, 4);
+        rs.close();
+    }
+
+    @Test
+    public void insertsEveryType() throws SQLException {
+        ByteBuffer direct = ByteBuffer.allocateDirect(8).put(new byte[] {1, 2, 3, 4, 5});
+        direct.flip().position(1);
+        try (SQLiteBulkLoader loader = conn.bulkLoader("t", "id", "r", "s", "b")) {
+            loader.appendLong(1).appendDouble(0.5).appendText("plain").appendBlob(direct);
+            loader.endRow();
+            StringBuilder sb = new StringBuilder("ünïcødé 𠁀 ");
+            loader.appendLong(2).appendNull().appendText(sb).appendBlob(new byte[] {9});
+            loader.endRow();
+            loader.appendLong(3)
+                    .appendDouble(-1)
+                    .appendText(null)
+                    .appendBlob(ByteBuffer.wrap(new byte[] {7, 8, 9}, 1, 2));
+            loader.endRow();
+        }
+        assertThat(direct.position()).isEqualTo(1);
+
+        ResultSet rs = stat.executeQuery("select * from t order by id");
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getDouble(2)).isEqualTo(0.5);
+        assertThat(rs.getString(3)).isEqualTo("plain");
+        assertThat(rs.getBytes(4)).containsExactly(2, 3, 4, 5);
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getObject(2)).isNull();
+        assertThat(rs.getString(3)).isEqualTo("ünïcødé 𠁀 ");
+        assertThat(rs.getBytes(4)).containsExactly(9);
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getObject(3)).isNull();
+        assertThat(rs.getBytes(4)).containsExactly(8, 9);
+        assertThat(rs.next()).isFalse();
+        rs.close();
+    }
+
+    @Test
+    public void commitsEveryNRows() throws SQLException {
+        List<BulkLoadProgress> commits = new ArrayList<>();
+        try (SQLiteBulkLoader loader = conn.bulkLoader("t", "s")) {
+            loader.setCommitRows(1000);
+            loader.setProgressListener(commits::add);
+            for (int i = 0; i < 2500; i++) {
+                // larger than the initial row buffer
+                loader.appendText("x".repeat(i % 2 == 0 ? 10 : 5000)).endRow();
+            }
+            assertThat(loader.getProgress().rows()).isEqualTo(2500);
+            assertThat(loader.getProgress().committedRows()).isEqualTo(2000);
+        }
+
+        assertThat(commits)
+                .extracting(BulkLoadProgress::committedRows)
+                .containsExactly(1000L, 2000L, 2500L);
+        assertThat(commits.get(2).bytes()).isEqualTo(1250L * 10 + 1250L * 5000);
+        assertThat(commits.get(2).rowsPerSecond()).isPositive();
+        ResultSet rs = stat.executeQuery("select count(*) from t");
+        assertThat(rs.getInt(1)).isEqualTo(2500);
+    }
+
+    @Test
+    public void skipsFailingRow() throws SQLException {
+        try (SQLiteBulkLoader loader = conn.bulkLoader("t", "id")) {
+            loader.appendLong(1).endRow();
+            assertThatThrownBy(() -> loader.appendLong(1).endRow())
+                    .isInstanceOf(SQLException.class)
+                    .hasMessageContaining("UNIQUE");
+            assertThatThrownBy(loader::endRow).hasMessage("row has 0 values for 1 columns");
+            loader.appendLong(2);
+            assertThatThrownBy(() -> loader.appendLong(3))
+                    .hasMessage("row already has values for all 1 columns");
+            loader.endRow();
+        }
+
+        ResultSet rs = stat.executeQuery("select group_concat(id) from t");
+        assertThat(rs.getString(1)).isEqualTo("1,2");
+    }
+
+    @Test
+    public void joinsApplicationTransaction() throws SQLException {
+        conn.setAutoCommit(false);
+        try (SQLiteBulkLoader loader = conn.bulkLoader("t", "id")) {
+            loader.setCommitRows(1);
+            loader.appendLong(1).endRow();
+            loader.appendLong(2).endRow();
+            assertThat(loader.getProgress().committedRows()).isZero();
+        }
+        conn.rollback();
+
+        ResultSet rs = stat.executeQuery("select count(*) from t");
+        assertThat(rs.getInt(1)).isZero();
+    }
+
+    @Test
+    public void restoresPragmas() throws SQLException {
+        stat.execute("pragma synchronous = full");
+        try (SQLiteBulkLoader loader = conn.bulkLoader("t", "id")) {
+            loader.setSynchronous(SynchronousMode.OFF);
+            loader.setJournalMode(JournalMode.MEMORY);
+            loader.appendLong(1).endRow();
+            assertThat(pragma("synchronous")).isEqualTo("0");
+            assertThat(pragma("journal_mode")).isEqualTo("memory");
+        }
+        assertThat(pragma("synchronous")).isEqualTo("2");
+        assertThat(pragma("journal_mode")).isEqualTo("delete");
+    }
+
+    private String pragma(String name) throws SQLException {
+        try (ResultSet rs = stat.executeQuery("pragma " + name)) {
+            return rs.getString(1);
+        }
+    }
+}
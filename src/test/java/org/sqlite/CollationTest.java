@@ -2,6 +2,7 @@ package org.sqlite;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.lang.foreign.MemorySegment;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
@@ -10,6 +11,7 @@ import java.sql.Statement;
 import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -184,6 +186,76 @@ public class CollationTest {
                 .isEqualTo(Arrays.stream(expected).distinct().sorted().toArray());
     }
 
+    @Test
+    public void byteCollation() throws SQLException {
+        ArrayList<Long> lengths = new ArrayList<>();
+        ArrayList<Boolean> readOnly = new ArrayList<>();
+        Collation.create(
+                conn,
+                "BYTES_REVERSE",
+                new Collation.Bytes() {
+                    @Override
+                    protected int xCompare(MemorySegment str1, MemorySegment str2) {
+                        lengths.add(str1.byteSize());
+                        readOnly.add(str1.isReadOnly());
+                        return -Long.compare(str1.byteSize(), str2.byteSize());
+                    }
+                });
+        stat.executeUpdate("create table t (c1);");
+        stat.executeUpdate("insert into t values ('é'), ('abc'), ('');");
+        assertThat(orderBy("BYTES_REVERSE")).containsExactly("abc", "é", "");
+        assertThat(lengths).isNotEmpty().allMatch(l -> l <= 3);
+        assertThat(readOnly).containsOnly(true);
+    }
+
+    @Test
+    public void asciiCaseInsensitiveCollation() throws SQLException {
+        Collation.create(conn, "ASCII_CI", Collations.asciiCaseInsensitive());
+        stat.executeUpdate("create table t (c1);");
+        stat.executeUpdate("insert into t values ('b'), ('B_'), ('a'), ('_'), ('Ä'), ('ä');");
+        assertThat(orderBy("ASCII_CI")).isEqualTo(orderBy("NOCASE"));
+        try (ResultSet rs = stat.executeQuery("select 'ABC' = 'abc' collate ASCII_CI")) {
+            assertThat(rs.getBoolean(1)).isTrue();
+        }
+    }
+
+    @Test
+    public void unicodeCaseInsensitiveCollation() throws SQLException {
+        Collation.create(conn, "UNICODE_CI", Collations.unicodeCaseInsensitive());
+        try (ResultSet rs =
+                stat.executeQuery(
+                        "select 'ÄPFEL' = 'äpfel' collate UNICODE_CI,"
+                                + " 'Straße' = 'STRASSE' collate UNICODE_CI,"
+                                + " 'ΣΊΣΥΦΟΣ' = 'σίσυφος' collate UNICODE_CI,"
+                                + " 'a' < 'Ä' collate UNICODE_CI")) {
+            assertThat(rs.getBoolean(1)).isTrue();
+            assertThat(rs.getBoolean(2)).isFalse();
+            assertThat(rs.getBoolean(3)).isTrue();
+            assertThat(rs.getBoolean(4)).isTrue();
+        }
+    }
+
+    @Test
+    public void naturalNumericCollation() throws SQLException {
+        Collation.create(conn, "NATURAL", Collations.naturalNumeric());
+        stat.executeUpdate("create table t (c1);");
+        stat.executeUpdate(
+                "insert into t values ('file10'), ('file9'), ('file09'), ('file1'), ('file'),"
+                        + " ('fileA'), ('v1.10'), ('v1.9')");
+        assertThat(orderBy("NATURAL"))
+                .containsExactly(
+                        "file", "file1", "file9", "file09", "file10", "fileA", "v1.9", "v1.10");
+    }
+
+    private List<String> orderBy(String collation) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (ResultSet rs =
+                stat.executeQuery("select c1 from t order by c1 collate " + collation)) {
+            while (rs.next()) values.add(rs.getString(1));
+        }
+        return values;
+    }
+
     @Test
     public void destroy() throws SQLException {
         Collation.create(
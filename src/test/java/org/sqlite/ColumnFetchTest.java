@@ -0,0 +1,222 @@
+package org.sqlite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests {@link SQLiteResultSet}. */
+public class ColumnFetchTest {
+    private static final String NUMBERS =
+            "with recursive n(x) as (select 1 union all select x + 1 from n where x < 70)"
+                    + " select x, case when x % 3 = 0 then null else x / 2.0 end from n";
+
+    private Connection conn;
+    private Statement stat;
+
+    @BeforeEach
+    public void connect() throws Exception {
+        conn = DriverManager.getConnection("jdbc:sqlite:");
+        stat = conn.createStatement();
+    }
+
+    @AfterEach
+    public void close() throws SQLException {
+        stat.close();
+        conn.close();
+    }
+
+    @Test
+    public void fetchMixedWithNext() throws SQLException {
+        ResultSet rs = stat.executeQuery(NUMBERS);
+        assertThat(rs.isWrapperFor(SQLiteResultSet.class)).isTrue();
+        SQLiteResultSet columns = rs.unwrap(SQLiteResultSet.class);
+        long[] longs = new long[100];
+
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getLong(1)).isEqualTo(1);
+        assertThat(columns.fetchLongColumn(1, longs, 4)).isEqualTo(4);
+        assertThat(longs).startsWith(2, 3, 4, 5);
+        assertThat(rs.getRow()).isEqualTo(5);
+        assertThat(rs.getLong(1)).isEqualTo(5);
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getLong(1)).isEqualTo(6);
+
+        double[] doubles = new double[100];
+        assertThat(columns.fetchDoubleColumn(2, doubles, 100)).isEqualTo(64);
+        assertThat(doubles[0]).isEqualTo(3.5);
+        assertThat(doubles[2]).isEqualTo(0);
+        assertThat(doubles[63]).isEqualTo(35);
+        assertThat(rs.next()).isFalse();
+        assertThat(columns.fetchLongColumn(1, longs, 100)).isEqualTo(0);
+        rs.close();
+    }
+
+    @Test
+    public void fetchHonorsMaxRows() throws SQLException {
+        stat.setMaxRows(10);
+        ResultSet rs = stat.executeQuery(NUMBERS);
+        long[] longs = new long[100];
+        assertThat(rs.unwrap(SQLiteResultSet.class).fetchLongColumn(1, longs, 100))
+                .isEqualTo(10);
+        assertThat(longs[9]).isEqualTo(10);
+        assertThat(rs.next()).isFalse();
+        rs.close();
+    }
+
+    @Test
+    public void fetchColumnsMarksNulls() throws SQLException {
+        checkColumns(stat.executeQuery(NUMBERS));
+    }
+
+    @Test
+    public void fetchColumnsFromRowsReadAhead() throws SQLException {
+        stat.setFetchSize(16);
+        checkColumns(stat.executeQuery(NUMBERS));
+    }
+
+    private static void checkColumns(ResultSet rs) throws SQLException {
+        SQLiteResultSet columns = rs.unwrap(SQLiteResultSet.class);
+        try (Arena arena = Arena.ofConfined()) {
+            ColumnSink sink = new ColumnSink(arena, 50).addLong(1).addDouble(2).addLong(2);
+            int x = 1;
+            for (int n; (n = columns.fetchColumns(sink)) > 0; ) {
+                for (int row = 0; row < n; row++, x++) {
+                    assertThat(sink.getLong(0, row)).isEqualTo(x);
+                    assertThat(sink.isNull(0, row)).isFalse();
+                    assertThat(sink.isNull(1, row)).isEqualTo(x % 3 == 0);
+                    assertThat(sink.isNull(2, row)).isEqualTo(x % 3 == 0);
+                    assertThat(sink.getDouble(1, row)).isEqualTo(x % 3 == 0 ? 0 : x / 2.0);
+                    assertThat(sink.getLong(2, row)).isEqualTo(x % 3 == 0 ? 0 : x / 2);
+                }
+            }
+            assertThat(x).isEqualTo(71);
+        }
+        assertThat(rs.isAfterLast()).isTrue();
+        rs.close();
+    }
+
+    @Test
+    public void fetchReportsFailingStep() throws SQLException {
+        ResultSet rs =
+                stat.executeQuery(
+                        "with recursive n(x) as (select 1 union all select x + 1 from n"
+                                + " where x < 10) select case when x = 7"
+                                + " then abs(-9223372036854775808) else x end from n");
+        SQLiteResultSet columns = rs.unwrap(SQLiteResultSet.class);
+        long[] longs = new long[10];
+        assertThat(columns.fetchLongColumn(1, longs, 3)).isEqualTo(3);
+        assertThatThrownBy(() -> columns.fetchLongColumn(1, longs, 10))
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("overflow");
+        assertThat(rs.next()).isFalse();
+        assertThatThrownBy(() -> columns.fetchLongColumn(3, longs, 10))
+                .hasMessageContaining("out of bounds");
+        rs.close();
+    }
+
+    @Test
+    public void cellViews() throws Exception {
+        checkViews(stat);
+    }
+
+    @Test
+    public void cellViewsOfRowsReadAhead() throws Exception {
+        stat.setFetchSize(4);
+        checkViews(stat);
+    }
+
+    @Test
+    public void cellViewsClosedWhenMovedFromAnotherThread() throws Exception {
+        ResultSet rs = stat.executeQuery("select x'0102' union all select x'03'");
+        SQLiteResultSet cells = rs.unwrap(SQLiteResultSet.class);
+        assertThat(rs.next()).isTrue();
+
+        // a view taken by a thread that did not move the result set
+        MemorySegment blob;
+        try (ExecutorService reader = Executors.newVirtualThreadPerTaskExecutor()) {
+            blob = reader.submit(() -> cells.getSegment(1)).get();
+        }
+        assertThat(blob.get(ValueLayout.JAVA_BYTE, 1)).isEqualTo((byte) 2);
+
+        assertThat(rs.next()).isTrue();
+        assertThatThrownBy(() -> blob.get(ValueLayout.JAVA_BYTE, 0))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(cells.getSegment(1).toArray(ValueLayout.JAVA_BYTE)).containsExactly(3);
+        rs.close();
+    }
+
+    @Test
+    public void cellViewsOfMoverReleasedOnlyByMover() throws Exception {
+        ResultSet rs = stat.executeQuery("select x'0102' union all select x'03'");
+        SQLiteResultSet cells = rs.unwrap(SQLiteResultSet.class);
+        assertThat(rs.next()).isTrue();
+        MemorySegment blob = cells.getSegment(1);
+
+        try (ExecutorService mover = Executors.newVirtualThreadPerTaskExecutor()) {
+            assertThatThrownBy(() -> mover.submit(rs::next).get())
+                    .hasCauseInstanceOf(SQLException.class);
+        }
+        assertThat(blob.get(ValueLayout.JAVA_BYTE, 1)).isEqualTo((byte) 2);
+
+        assertThat(rs.next()).isTrue();
+        assertThatThrownBy(() -> blob.get(ValueLayout.JAVA_BYTE, 0))
+                .isInstanceOf(IllegalStateException.class);
+        rs.close();
+    }
+
+    private static void checkViews(Statement stat) throws SQLException, IOException {
+        ResultSet rs =
+                stat.executeQuery(
+                        "select x'00ff10', 'ünï', 42, null, x''"
+                                + " union all select zeroblob(100000), '', 1.5, x'01', null");
+        SQLiteResultSet cells = rs.unwrap(SQLiteResultSet.class);
+        assertThat(rs.next()).isTrue();
+        MemorySegment blob = cells.getSegment(1);
+        assertThat(blob.isReadOnly()).isTrue();
+        assertThat(blob.toArray(ValueLayout.JAVA_BYTE)).containsExactly(0, -1, 16);
+        assertThat(cells.getSegment(2).toArray(ValueLayout.JAVA_BYTE))
+                .isEqualTo("ünï".getBytes(StandardCharsets.UTF_8));
+        ByteBuffer number = cells.getByteBuffer(3);
+        assertThat(number.isReadOnly()).isTrue();
+        assertThat(StandardCharsets.UTF_8.decode(number).toString()).isEqualTo("42");
+        assertThat(cells.getSegment(4)).isNull();
+        assertThat(rs.wasNull()).isTrue();
+        assertThat(cells.getByteBuffer(4)).isNull();
+        assertThat(cells.getSegment(5).byteSize()).isZero();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(cells.transferTo(1, Channels.newChannel(out))).isEqualTo(3);
+        assertThat(cells.transferTo(4, Channels.newChannel(out))).isZero();
+        assertThat(out.toByteArray()).containsExactly(0, -1, 16);
+
+        assertThat(rs.next()).isTrue();
+        assertThatThrownBy(() -> blob.get(ValueLayout.JAVA_BYTE, 0))
+                .isInstanceOf(IllegalStateException.class);
+        out.reset();
+        assertThat(cells.transferTo(1, Channels.newChannel(out))).isEqualTo(100000);
+        assertThat(out.toByteArray()).hasSize(100000).containsOnly(0);
+        assertThat(cells.getSegment(2).byteSize()).isZero();
+        MemorySegment last = cells.getSegment(4);
+        rs.close();
+        assertThatThrownBy(() -> last.get(ValueLayout.JAVA_BYTE, 0))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,158 @@
+package org.sqlite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests {@link SQLiteConnection#importCsv(Path, String, CsvFormat)}. */
+public class CsvImportTest {
+    @TempDir File tempDir;
+
+    private SQLiteConnection conn;
+    private Statement stat;
+
+    @BeforeEach
+    public void connect() throws Exception {
+        File file = new File(tempDir, "csv.db");
+        conn = (SQLiteConnection) DriverManager.getConnection("jdbc:sqlite:" + file);
+        stat = conn.createStatement();
+        stat.executeUpdate("create table t (id integer, r real, s text, n numeric)");
+    }
+
+    @AfterEach
+    public void close() throws SQLException {
+        stat.close();
+        conn.close();
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = new File(tempDir, "data.csv").toPath();
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void quotedFields() throws Exception {
+        Path file =
+                write(
+                        "1,0.5,plain,7\r\n"
+                                + "2,-3,\"with, comma\",x\n"
+                                + "\n"
+                                + "3,1e3,\"say \"\"hi\"\"\nagain\",\"42\"\r"
+                                + "4,,ünïcødé 𠁀 long enough to search by words,");
+        BulkLoadProgress progress = conn.importCsv(file, "t", CsvFormat.csv());
+        assertThat(progress.rows()).isEqualTo(4);
+        assertThat(progress.committedRows()).isEqualTo(4);
+
+        ResultSet rs =
+                stat.executeQuery("select id, r, typeof(r), s, n, typeof(n) from t order by id");
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getDouble(2)).isEqualTo(0.5);
+        assertThat(rs.getString(4)).isEqualTo("plain");
+        assertThat(rs.getInt(5)).isEqualTo(7);
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getString(3)).isEqualTo("real");
+        assertThat(rs.getDouble(2)).isEqualTo(-3);
+        assertThat(rs.getString(4)).isEqualTo("with, comma");
+        assertThat(rs.getString(6)).isEqualTo("text");
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getDouble(2)).isEqualTo(1000);
+        assertThat(rs.getString(4)).isEqualTo("say \"hi\"\nagain");
+        assertThat(rs.getString(6)).isEqualTo("integer");
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getString(2)).isEmpty();
+        assertThat(rs.getString(4)).isEqualTo("ünïcødé 𠁀 long enough to search by words");
+        assertThat(rs.getString(5)).isEmpty();
+        assertThat(rs.next()).isFalse();
+        rs.close();
+    }
+
+    @Test
+    public void headerMapsColumns() throws Exception {
+        Path file = write("\uFEFFS,extra,ID\nfirst,skipped,1\nsecond,skipped\n");
+        CsvFormat format = CsvFormat.csv();
+        format.setHeader(true);
+        assertThat(conn.importCsv(file, "t", format).rows()).isEqualTo(2);
+
+        ResultSet rs = stat.executeQuery("select id, r, s from t order by s");
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getInt(1)).isEqualTo(1);
+        assertThat(rs.getObject(2)).isNull();
+        assertThat(rs.getString(3)).isEqualTo("first");
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getObject(1)).isNull();
+        assertThat(rs.getString(3)).isEqualTo("second");
+        assertThat(rs.next()).isFalse();
+        rs.close();
+    }
+
+    @Test
+    public void tabSeparatedEmptyAsNull() throws Exception {
+        Path file = write("1\t\t\"quoted\"\t\n2\t2.5\t\t9\n");
+        CsvFormat format = CsvFormat.tsv();
+        format.setEmptyAsNull(true);
+        conn.importCsv(file, "t", format);
+
+        ResultSet rs = stat.executeQuery("select r, s, n from t order by id");
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getObject(1)).isNull();
+        assertThat(rs.getString(2)).isEqualTo("\"quoted\"");
+        assertThat(rs.getObject(3)).isNull();
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getDouble(1)).isEqualTo(2.5);
+        assertThat(rs.getObject(2)).isNull();
+        assertThat(rs.getInt(3)).isEqualTo(9);
+        rs.close();
+    }
+
+    @Test
+    public void loaderCommitsInChunks() throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            csv.append(i).append(",,row ").append(i).append('\n');
+        }
+        Path file = write(csv.toString());
+        try (SQLiteBulkLoader loader = conn.bulkLoader("t", "id", "r", "s")) {
+            loader.setCommitRows(1000);
+            assertThat(loader.loadCsv(file, CsvFormat.csv())).isEqualTo(2500);
+            assertThat(loader.getProgress().committedRows()).isEqualTo(2000);
+            loader.appendLong(2500).appendNull().appendText("appended").endRow();
+        }
+
+        ResultSet rs = stat.executeQuery("select count(*), sum(id), max(s) from t");
+        assertThat(rs.getInt(1)).isEqualTo(2501);
+        assertThat(rs.getLong(2)).isEqualTo(2500L * 2501 / 2);
+        assertThat(rs.getString(3)).isEqualTo("row 999");
+        rs.close();
+    }
+
+    @Test
+    public void reportsRecordOfError() throws Exception {
+        stat.executeUpdate("create unique index t_id on t (id)");
+        Path file = write("1\n2\n1\n3\n");
+        assertThatThrownBy(() -> conn.importCsv(file, "t", CsvFormat.csv()))
+                .isInstanceOf(SQLException.class)
+                .hasMessageStartingWith("CSV record 3: ")
+                .hasMessageContaining("UNIQUE");
+        ResultSet rs = stat.executeQuery("select count(*) from t");
+        assertThat(rs.getInt(1)).isEqualTo(2);
+        rs.close();
+
+        Path unterminated = write("4,\"open\n");
+        assertThatThrownBy(() -> conn.importCsv(unterminated, "t", CsvFormat.csv()))
+                .hasMessage("CSV record 1: unterminated quoted field");
+    }
+}
@@ -1,12 +1,17 @@
 package org.sqlite;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -55,4 +60,125 @@ public class FetchSizeTest {
         assertThat(rs.next()).isTrue();
         assertThat(rs.next()).isFalse();
     }
+
+    @Test
+    public void prefetchReadsEveryType() throws SQLException {
+        Statement stat = conn.createStatement();
+        stat.executeUpdate("create table t (i integer, r real, s text, b blob)");
+        stat.executeUpdate(
+                "insert into t values (1, 0.5, 'one', x'0102'), (2, null, 'ünï', x''),"
+                        + " (null, -1, '', null), (9223372036854775807, 3, '42', x'ff')");
+        stat.setFetchSize(3);
+        ResultSet rs = stat.executeQuery("select * from t");
+        assertThat(rs.getFetchSize()).isEqualTo(3);
+
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getRow()).isEqualTo(1);
+        assertThat(rs.getInt(1)).isEqualTo(1);
+        assertThat(rs.getDouble(2)).isEqualTo(0.5);
+        assertThat(rs.getString(3)).isEqualTo("one");
+        assertThat(rs.getBytes(4)).containsExactly(1, 2);
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getObject(2)).isNull();
+        assertThat(rs.wasNull()).isTrue();
+        assertThat(rs.getString(3)).isEqualTo("ünï");
+        assertThat(rs.getBytes(4)).isEmpty();
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getObject(1)).isNull();
+        assertThat(rs.getString(3)).isEmpty();
+        assertThat(rs.getBytes(4)).isNull();
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getRow()).isEqualTo(4);
+        assertThat(rs.getLong(1)).isEqualTo(Long.MAX_VALUE);
+        assertThat(rs.getInt(3)).isEqualTo(42);
+        assertThat(rs.getMetaData().getColumnName(4)).isEqualTo("b");
+        assertThat(rs.next()).isFalse();
+        assertThat(rs.isAfterLast()).isTrue();
+        rs.close();
+
+        // the fetch size is kept for the next execution, and the statement was reset
+        rs = stat.executeQuery("select count(*) from t");
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getInt(1)).isEqualTo(4);
+        rs.close();
+        stat.close();
+    }
+
+    @Test
+    public void prefetchHonorsMaxRowsAndLateFetchSize() throws SQLException {
+        Statement stat = conn.createStatement();
+        stat.setMaxRows(250);
+        ResultSet rs =
+                stat.executeQuery(
+                        "with recursive n(x) as (select 1 union all select x + 1 from n"
+                                + " where x < 1000) select x, 'row ' || x from n");
+        int rows = 0;
+        while (rs.next()) {
+            rows++;
+            if (rows == 10) {
+                rs.setFetchSize(64);
+            }
+            assertThat(rs.getInt(1)).isEqualTo(rows);
+            assertThat(rs.getString(2)).isEqualTo("row " + rows);
+        }
+        assertThat(rows).isEqualTo(250);
+        stat.close();
+    }
+
+    @Test
+    public void prefetchReportsErrorAfterEarlierRows() throws SQLException {
+        Statement stat = conn.createStatement();
+        stat.setFetchSize(5);
+        ResultSet rs =
+                stat.executeQuery(
+                        "with recursive n(x) as (select 1 union all select x + 1 from n"
+                                + " where x < 10) select case when x = 7"
+                                + " then abs(-9223372036854775808) else x end from n");
+        for (int x = 1; x <= 6; x++) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getInt(1)).isEqualTo(x);
+        }
+        assertThatThrownBy(rs::next)
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("overflow");
+        stat.close();
+    }
+
+    @Test
+    public void prefetchConvertsLikeSQLite() throws SQLException {
+        try (Statement stat = conn.createStatement()) {
+            stat.executeUpdate("create table conv (v)");
+            stat.executeUpdate(
+                    "insert into conv values (0.1 + 0.2), (1e20), (1.0), (-0.0), (1e-7),"
+                            + " (123456789012345678.0), (9e999), ('12abc'), (' 12 '), ('1e3x'),"
+                            + " ('-0012.9'), ('+7'), ('99999999999999999999'),"
+                            + " ('-9223372036854775808'), ('.5'), ('1e'), ('1.5e+3z'), ('abc'),"
+                            + " ('  -.5e-1'), ('- 5'), ('1e400'), (''), (x'3132'), (42), (null)");
+        }
+
+        List<Object> unbuffered = readEveryWay(1);
+        List<Object> buffered = readEveryWay(8);
+        assertThat(buffered).isEqualTo(unbuffered);
+        assertThat(unbuffered).contains("0.3", "1.0e+20", 12L, 1000.0);
+    }
+
+    /** Reads every cell of the conv table with each getter, at a fetch size. */
+    private List<Object> readEveryWay(int fetchSize) throws SQLException {
+        List<Object> cells = new ArrayList<>();
+        try (Statement stat = conn.createStatement()) {
+            stat.setFetchSize(fetchSize);
+            try (ResultSet rs = stat.executeQuery("select v from conv order by rowid")) {
+                while (rs.next()) {
+                    cells.add(rs.getString(1));
+                    cells.add(rs.getLong(1));
+                    cells.add(rs.getInt(1));
+                    cells.add(rs.getDouble(1));
+                    cells.add(rs.wasNull());
+                    byte[] bytes = rs.getBytes(1);
+                    cells.add(bytes == null ? null : Arrays.toString(bytes));
+                }
+            }
+        }
+        return cells;
+    }
 }
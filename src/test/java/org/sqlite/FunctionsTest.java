@@ -0,0 +1,103 @@
+package org.sqlite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests user defined functions registered through {@link Functions}. */
+public class FunctionsTest {
+    private Connection conn;
+    private Statement stat;
+
+    @BeforeEach
+    public void connect() throws Exception {
+        conn = DriverManager.getConnection("jdbc:sqlite:");
+        stat = conn.createStatement();
+    }
+
+    @AfterEach
+    public void close() throws SQLException {
+        stat.close();
+        conn.close();
+    }
+
+    @Test
+    public void longFunctions() throws SQLException {
+        Functions.ofLong(conn, "twice", x -> x * 2);
+        Functions.ofLong(conn, "plus", (a, b) -> a + b, Function.FLAG_DETERMINISTIC);
+        try (ResultSet rs =
+                stat.executeQuery("select twice(21), plus(4000000000, 2), twice(2.9)")) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getLong(1)).isEqualTo(42);
+            assertThat(rs.getLong(2)).isEqualTo(4000000002L);
+            assertThat(rs.getLong(3)).isEqualTo(4);
+        }
+    }
+
+    @Test
+    public void doubleFunctions() throws SQLException {
+        Functions.ofDouble(conn, "half", x -> x / 2);
+        Functions.ofDouble(conn, "hypot", Math::hypot, Function.FLAG_DETERMINISTIC);
+        try (ResultSet rs = stat.executeQuery("select half(3), hypot(3, 4)")) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getDouble(1)).isEqualTo(1.5);
+            assertThat(rs.getDouble(2)).isEqualTo(5.0);
+        }
+    }
+
+    @Test
+    public void textFunction() throws SQLException {
+        Functions.ofText(conn, "reverse", s -> new StringBuilder(s).reverse().toString());
+        Functions.ofText(conn, "nothing", _ -> null);
+        try (ResultSet rs =
+                stat.executeQuery("select reverse('héllo'), reverse(12), nothing('x')")) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getString(1)).isEqualTo("olléh");
+            assertThat(rs.getString(2)).isEqualTo("21");
+            assertThat(rs.getString(3)).isNull();
+        }
+    }
+
+    @Test
+    public void nullArgumentsReturnNull() throws SQLException {
+        Functions.ofLong(conn, "plus", (a, b) -> a + b);
+        Functions.ofText(conn, "upper2", String::toUpperCase);
+        try (ResultSet rs = stat.executeQuery("select plus(1, null), upper2(null)")) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getObject(1)).isNull();
+            assertThat(rs.getObject(2)).isNull();
+        }
+    }
+
+    @Test
+    public void exceptionsBecomeErrors() throws SQLException {
+        Functions.ofLong(conn, "checked", (a, b) -> Math.addExact(a, b));
+        assertThatThrownBy(() -> stat.executeQuery("select checked(9223372036854775807, 1)"))
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("ArithmeticException");
+    }
+
+    @Test
+    public void wrongArgumentCount() throws SQLException {
+        Functions.ofLong(conn, "twice", x -> x * 2);
+        assertThatThrownBy(() -> stat.executeQuery("select twice(1, 2)"))
+                .isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    public void destroy() throws SQLException {
+        Functions.ofLong(conn, "twice", x -> x * 2);
+        stat.executeQuery("select twice(1)").close();
+        Function.destroy(conn, "TWICE");
+        assertThatThrownBy(() -> stat.executeQuery("select twice(1)"))
+                .isInstanceOf(SQLException.class);
+    }
+}
@@ -10,6 +10,7 @@ import java.io.ByteArrayInputStream;
 import java.io.StringReader;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.DriverManager;
@@ -23,6 +24,8 @@ import java.util.StringTokenizer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.sqlite.core.Codes;
+import org.sqlite.core.CoreStatement;
 
 /** These tests are designed to stress PreparedStatements on memory dbs. */
 public class PrepStmtTest {
@@ -179,6 +182,25 @@ public class PrepStmtTest {
         rs.close();
     }
 
+    @Test
+    public void largeAndEmptyBlobRS() throws SQLException {
+        byte[] large = new byte[512 * 1024];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) (i * 31);
+        }
+        PreparedStatement prep = conn.prepareStatement("select ?, ?, length(?);");
+        prep.setBytes(1, large);
+        prep.setBytes(2, new byte[0]);
+        prep.setBytes(3, large);
+        ResultSet rs = prep.executeQuery();
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getBytes(1)).containsExactly(large);
+        assertThat(rs.getBytes(2)).isEmpty();
+        assertThat(rs.getInt(3)).isEqualTo(large.length);
+        assertThat(rs.next()).isFalse();
+        rs.close();
+    }
+
     @Test
     public void clobRS() throws SQLException {
         String name = "Gandhi";
@@ -538,6 +560,312 @@ public class PrepStmtTest {
         rs.close();
     }
 
+    @Test
+    public void batchMixedTypes() throws SQLException {
+        stat.executeUpdate("create table test (i, c);");
+        PreparedStatement prep = conn.prepareStatement("insert into test values (?, ?);");
+        String text = "ünïcødé ".repeat(1000);
+        for (int i = 0; i < 100; i++) {
+            prep.setInt(1, i);
+            switch (i % 5) {
+                case 0 -> prep.setLong(2, Long.MAX_VALUE - i);
+                case 1 -> prep.setDouble(2, i + 0.5);
+                case 2 -> prep.setString(2, text + i);
+                case 3 -> prep.setBytes(2, new byte[] {(byte) i, 0, (byte) -i});
+                default -> prep.setNull(2, Types.NULL);
+            }
+            prep.addBatch();
+        }
+        assertThat(prep.executeBatch()).hasSize(100).containsOnly(1);
+        prep.close();
+
+        ResultSet rs = stat.executeQuery("select i, typeof(c), c from test order by i;");
+        for (int i = 0; i < 100; i++) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getInt(1)).isEqualTo(i);
+            switch (i % 5) {
+                case 0 -> assertThat(rs.getLong(3)).isEqualTo(Long.MAX_VALUE - i);
+                case 1 -> assertThat(rs.getDouble(3)).isEqualTo(i + 0.5);
+                case 2 -> assertThat(rs.getString(3)).isEqualTo(text + i);
+                case 3 -> assertThat(rs.getBytes(3)).containsExactly((byte) i, 0, (byte) -i);
+                default -> assertThat(rs.getString(2)).isEqualTo("null");
+            }
+        }
+        rs.close();
+    }
+
+    @Test
+    public void batchGeneratedKeys() throws SQLException {
+        stat.executeUpdate("create table test (id integer primary key, v);");
+        stat.executeUpdate("insert into test values (10, 'first');");
+        PreparedStatement prep = conn.prepareStatement("insert into test (v) values (?);");
+        for (int i = 0; i < 3; i++) {
+            prep.setInt(1, i);
+            prep.addBatch();
+        }
+        assertThat(prep.executeBatch()).containsExactly(1, 1, 1);
+
+        ResultSet keys = prep.getGeneratedKeys();
+        assertThat(keys.getMetaData().getColumnName(1)).isEqualTo("last_insert_rowid()");
+        for (long id = 11; id <= 13; id++) {
+            assertThat(keys.next()).isTrue();
+            assertThat(keys.getLong(1)).isEqualTo(id);
+        }
+        assertThat(keys.next()).isFalse();
+        keys.close();
+
+        prep.setInt(1, 3);
+        prep.executeUpdate();
+        keys = prep.getGeneratedKeys();
+        assertThat(keys.next()).isTrue();
+        assertThat(keys.getLong(1)).isEqualTo(14);
+        assertThat(keys.next()).isFalse();
+        prep.close();
+    }
+
+    @Test
+    public void updateReturning() throws SQLException {
+        stat.executeUpdate("create table test (id integer primary key, v text, n real);");
+        PreparedStatement prep =
+                conn.prepareStatement(
+                        "insert into test (v, n) values (?, 0.5), (?, null) returning id, v, n;");
+        prep.setString(1, "a");
+        prep.setString(2, "b");
+        assertThat(prep.executeUpdate()).isEqualTo(2);
+
+        ResultSet keys = prep.getGeneratedKeys();
+        assertThat(keys.getMetaData().getColumnCount()).isEqualTo(3);
+        assertThat(keys.getMetaData().getColumnName(2)).isEqualTo("v");
+        assertThat(keys.next()).isTrue();
+        assertThat(keys.getLong("id")).isEqualTo(1);
+        assertThat(keys.getString("v")).isEqualTo("a");
+        assertThat(keys.getDouble("n")).isEqualTo(0.5);
+        assertThat(keys.next()).isTrue();
+        assertThat(keys.getLong(1)).isEqualTo(2);
+        assertThat(keys.getObject(3)).isNull();
+        assertThat(keys.wasNull()).isTrue();
+        assertThat(keys.next()).isFalse();
+        keys.close();
+        assertThat(prep.isClosed()).isFalse();
+        assertThat(prep.unwrap(CoreStatement.class).getGeneratedKeysAsLongs()).isNull();
+
+        PreparedStatement delete = conn.prepareStatement("delete from test returning id;");
+        assertThat(delete.executeUpdate()).isEqualTo(2);
+        assertThat(delete.unwrap(CoreStatement.class).getGeneratedKeysAsLongs())
+                .containsExactly(1, 2);
+        assertThat(delete.executeUpdate()).isZero();
+        assertThat(delete.getGeneratedKeys().next()).isFalse();
+        delete.close();
+        prep.close();
+
+        PreparedStatement select = conn.prepareStatement("select 1;");
+        assertThatThrownBy(select::executeUpdate).hasMessage("Query returns results");
+        select.close();
+    }
+
+    @Test
+    public void batchReturning() throws SQLException {
+        stat.executeUpdate("create table test (id integer primary key, v);");
+        PreparedStatement prep =
+                conn.prepareStatement("insert into test (v) values (?), (?) returning id;");
+        for (int i = 0; i < 3; i++) {
+            prep.setInt(1, i);
+            prep.setInt(2, -i);
+            prep.addBatch();
+        }
+        assertThat(prep.executeBatch()).containsExactly(2, 2, 2);
+        assertThat(prep.unwrap(CoreStatement.class).getGeneratedKeysAsLongs())
+                .containsExactly(1, 2, 3, 4, 5, 6);
+
+        ResultSet keys = prep.getGeneratedKeys();
+        assertThat(keys.getMetaData().getColumnName(1)).isEqualTo("id");
+        for (long id = 1; id <= 6; id++) {
+            assertThat(keys.next()).isTrue();
+            assertThat(keys.getLong(1)).isEqualTo(id);
+        }
+        assertThat(keys.next()).isFalse();
+        prep.close();
+    }
+
+    @Test
+    public void batchOfQueryFails() throws SQLException {
+        PreparedStatement prep = conn.prepareStatement("select ?;");
+        prep.setInt(1, 1);
+        prep.addBatch();
+        assertThatExceptionOfType(BatchUpdateException.class)
+                .isThrownBy(prep::executeBatch)
+                .withMessageContaining("query returns results");
+        assertThat(prep.unwrap(CoreStatement.class).getGeneratedKeysAsLongs()).isEmpty();
+        prep.close();
+    }
+
+    private void rewriteBatchedInserts(int maxVariables) throws SQLException {
+        SQLiteConnection sqlite = conn.unwrap(SQLiteConnection.class);
+        sqlite.getConnectionConfig().setRewriteBatchedInserts(true);
+        sqlite.getConnectionConfig().setGetGeneratedKeys(false);
+        sqlite.setLimit(SQLiteLimits.SQLITE_LIMIT_VARIABLE_NUMBER, maxVariables);
+        assertThat(sqlite.getLimit(SQLiteLimits.SQLITE_LIMIT_VARIABLE_NUMBER))
+                .isEqualTo(maxVariables);
+    }
+
+    @Test
+    public void rewrittenBatch() throws SQLException {
+        rewriteBatchedInserts(30);
+        stat.executeUpdate("create table test (id integer primary key, s text, b blob);");
+        PreparedStatement prep = conn.prepareStatement("insert into test values (?, ?, ?);");
+        for (int i = 0; i < 1003; i++) {
+            prep.setInt(1, i);
+            prep.setString(2, "row " + i);
+            prep.setBytes(3, i % 2 == 0 ? null : new byte[] {(byte) i});
+            prep.addBatch();
+        }
+        int[] counts = prep.executeBatch();
+        assertThat(counts).hasSize(1003).containsOnly(1);
+        prep.close();
+
+        ResultSet rs = stat.executeQuery("select count(*), sum(id), max(s), count(b) from test;");
+        assertThat(rs.getInt(1)).isEqualTo(1003);
+        assertThat(rs.getLong(2)).isEqualTo(1002L * 1003 / 2);
+        assertThat(rs.getString(3)).isEqualTo("row 999");
+        assertThat(rs.getInt(4)).isEqualTo(501);
+        rs.close();
+    }
+
+    @Test
+    public void rewrittenBatchReportsFailingRow() throws SQLException {
+        rewriteBatchedInserts(5);
+        stat.executeUpdate("create table test (id integer primary key);");
+        stat.executeUpdate("insert into test values (7);");
+        PreparedStatement prep = conn.prepareStatement("insert into test values (?)");
+        for (int i = 0; i < 20; i++) {
+            prep.setInt(1, i);
+            prep.addBatch();
+        }
+        assertThatThrownBy(prep::executeBatch)
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("UNIQUE");
+        prep.close();
+
+        ResultSet rs = stat.executeQuery("select group_concat(id) from test order by id;");
+        assertThat(rs.getString(1)).isEqualTo("0,1,2,3,4,5,6,7");
+        rs.close();
+    }
+
+    @Test
+    public void rewrittenBatchUndoesStepKeptByFail() throws SQLException {
+        rewriteBatchedInserts(10);
+        stat.executeUpdate("create table test (id, v not null on conflict fail);");
+        PreparedStatement prep = conn.prepareStatement("insert into test values (?, ?)");
+        for (int i = 0; i < 10; i++) {
+            prep.setInt(1, i);
+            prep.setString(2, i == 7 ? null : "v");
+            prep.addBatch();
+        }
+        assertThatThrownBy(prep::executeBatch)
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("NOT NULL");
+        prep.close();
+
+        ResultSet rs = stat.executeQuery("select group_concat(id) from test order by id;");
+        assertThat(rs.getString(1)).isEqualTo("0,1,2,3,4,5,6");
+        rs.close();
+    }
+
+    @Test
+    public void rewrittenBatchUndoesStepKeptByTrigger() throws SQLException {
+        rewriteBatchedInserts(5);
+        stat.executeUpdate("create table test (id);");
+        stat.executeUpdate(
+                "create trigger no_seven before insert on test when new.id = 7"
+                        + " begin select raise(fail, 'no seven'); end;");
+        PreparedStatement prep = conn.prepareStatement("insert into test values (?)");
+        for (int i = 0; i < 10; i++) {
+            prep.setInt(1, i);
+            prep.addBatch();
+        }
+        assertThatThrownBy(prep::executeBatch)
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("no seven");
+        prep.close();
+
+        ResultSet rs = stat.executeQuery("select group_concat(id) from test order by id;");
+        assertThat(rs.getString(1)).isEqualTo("0,1,2,3,4,5,6");
+        rs.close();
+    }
+
+    @Test
+    public void rewrittenBatchRolledBackTransaction() throws SQLException {
+        rewriteBatchedInserts(5);
+        stat.executeUpdate("create table test (id unique on conflict rollback);");
+        conn.setAutoCommit(false);
+        stat.executeUpdate("insert into test values (7);");
+        PreparedStatement prep = conn.prepareStatement("insert into test values (?)");
+        for (int i = 0; i < 10; i++) {
+            prep.setInt(1, i);
+            prep.addBatch();
+        }
+        assertThatExceptionOfType(BatchUpdateException.class)
+                .isThrownBy(prep::executeBatch)
+                .withMessageContaining("rolled back the transaction")
+                .satisfies(
+                        e ->
+                                assertThat(e.getUpdateCounts())
+                                        .startsWith(
+                                                Statement.EXECUTE_FAILED,
+                                                Statement.EXECUTE_FAILED,
+                                                Statement.EXECUTE_FAILED,
+                                                Statement.EXECUTE_FAILED,
+                                                Statement.EXECUTE_FAILED));
+        prep.close();
+
+        // the rows of the batch were not replayed outside the transaction
+        ResultSet rs = stat.executeQuery("select count(*) from test;");
+        assertThat(rs.getInt(1)).isZero();
+        rs.close();
+    }
+
+    @Test
+    public void rewrittenBatchReturnsRowIds() throws SQLException {
+        rewriteBatchedInserts(5);
+        conn.unwrap(SQLiteConnection.class).getConnectionConfig().setGetGeneratedKeys(true);
+        stat.executeUpdate("create table test (v);");
+        stat.executeUpdate("create table keyed (k primary key) without rowid;");
+        PreparedStatement prep = conn.prepareStatement("insert into test values (?)");
+        PreparedStatement keyed = conn.prepareStatement("insert into keyed values (?)");
+        for (int i = 0; i < 12; i++) {
+            prep.setInt(1, i);
+            prep.addBatch();
+            keyed.setInt(1, i);
+            keyed.addBatch();
+        }
+        assertThat(prep.executeBatch()).hasSize(12).containsOnly(1);
+        assertThat(prep.unwrap(CoreStatement.class).getGeneratedKeysAsLongs())
+                .containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12);
+        assertThat(keyed.executeBatch()).hasSize(12).containsOnly(1);
+        prep.close();
+        keyed.close();
+    }
+
+    @Test
+    public void rewrittenBatchIgnoredRows() throws SQLException {
+        rewriteBatchedInserts(5);
+        stat.executeUpdate("create table test (id integer primary key);");
+        stat.executeUpdate("insert into test values (7);");
+        PreparedStatement prep = conn.prepareStatement("insert or ignore into test values (?)");
+        for (int i = 0; i < 10; i++) {
+            prep.setInt(1, i);
+            prep.addBatch();
+        }
+        int none = Statement.SUCCESS_NO_INFO;
+        assertThat(prep.executeBatch())
+                .containsExactly(1, 1, 1, 1, 1, none, none, none, none, none);
+        prep.close();
+
+        ResultSet rs = stat.executeQuery("select count(*) from test;");
+        assertThat(rs.getInt(1)).isEqualTo(10);
+        rs.close();
+    }
+
     @Test
     public void batchZeroParams() throws Exception {
         stat.executeUpdate("create table test (c1);");
@@ -936,4 +1264,41 @@ public class PrepStmtTest {
         ResultSet rs = stat.executeQuery("select nr from gh1002");
         assertThat(rs.getBigDecimal(1)).isEqualTo(pi);
     }
+
+    @Test
+    public void persistentStatement() throws SQLException {
+        SQLiteConnection sqlite = (SQLiteConnection) conn;
+        stat.executeUpdate("create table t (id integer, v text)");
+        try (PreparedStatement ps = sqlite.prepareStatement("insert into t values (?, ?)", true)) {
+            for (int i = 0; i < 3; i++) {
+                ps.setInt(1, i);
+                ps.setString(2, "v" + i);
+                assertThat(ps.executeUpdate()).isEqualTo(1);
+            }
+        }
+
+        ResultSet rs = stat.executeQuery("select count(*), max(v) from t");
+        assertThat(rs.getInt(1)).isEqualTo(3);
+        assertThat(rs.getString(2)).isEqualTo("v2");
+    }
+
+    @Test
+    public void persistentStatementIsNotInLookaside() throws SQLException {
+        SQLiteConnection sqlite = (SQLiteConnection) conn;
+        stat.executeUpdate("create table t (id integer, v text)");
+        String sql = "insert into t values (?, ?)";
+
+        int before = lookasideSlotsUsed(sqlite);
+        try (PreparedStatement ps = sqlite.prepareStatement(sql, true)) {
+            assertThat(lookasideSlotsUsed(sqlite)).isEqualTo(before);
+        }
+        try (PreparedStatement ps = sqlite.prepareStatement(sql, false)) {
+            assertThat(lookasideSlotsUsed(sqlite)).isGreaterThan(before);
+        }
+        assertThat(lookasideSlotsUsed(sqlite)).isEqualTo(before);
+    }
+
+    private static int lookasideSlotsUsed(SQLiteConnection conn) throws SQLException {
+        return conn.getDatabase().db_status(Codes.SQLITE_DBSTATUS_LOOKASIDE_USED, false)[0];
+    }
 }
@@ -8,6 +8,8 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -67,6 +69,44 @@ public class PreparedStatementThreadTest {
         }
     }
 
+    /**
+     * Tests that virtual threads sharing a connection, each with its own PreparedStatement, all get
+     * correct results
+     */
+    @Test
+    public void testVirtualThreadsShareConnection() throws Exception {
+        connect();
+        try (ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                results.add(
+                        virtualThreads.submit(
+                                () -> {
+                                    long sum = 0;
+                                    try (PreparedStatement ps =
+                                            conn.prepareStatement("select ?, ? || 'x'")) {
+                                        for (int i = 0; i < 100; i++) {
+                                            ps.setInt(1, i);
+                                            ps.setString(2, "v" + i);
+                                            try (ResultSet rs = ps.executeQuery()) {
+                                                assertThat(rs.next()).isTrue();
+                                                assertThat(rs.getString(2))
+                                                        .isEqualTo("v" + i + "x");
+                                                sum += rs.getInt(1);
+                                            }
+                                        }
+                                    }
+                                    return sum;
+                                }));
+            }
+            for (Future<Long> result : results) {
+                assertThat(result.get()).isEqualTo(4950L);
+            }
+        } finally {
+            close();
+        }
+    }
+
     public void connect() throws SQLException {
         conn = DriverManager.getConnection("jdbc:sqlite:");
     }
@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -13,6 +14,8 @@ import java.sql.Types;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 public class RSMetaDataTest {
     private Connection conn;
@@ -223,4 +226,73 @@ public class RSMetaDataTest {
         assertThat(rs.getMetaData().getTableName(2)).isEqualTo("");
         rs.close();
     }
+
+    @Test
+    public void reusedAcrossExecutions() throws SQLException {
+        try (PreparedStatement prep =
+                conn.prepareStatement("select pid, surname from people where pid > ?")) {
+            prep.setInt(1, 0);
+            ResultSetMetaData first = prep.executeQuery().getMetaData();
+            assertThat(first.getColumnTypeName(2)).isEqualTo("STRING");
+            assertThat(first.getPrecision(2)).isEqualTo(25);
+
+            prep.setInt(1, 1);
+            ResultSetMetaData second = prep.executeQuery().getMetaData();
+            assertThat(second.getColumnTypeName(2)).isEqualTo("STRING");
+            assertThat(second.getScale(2)).isEqualTo(5);
+            assertThat(second.isAutoIncrement(1)).isTrue();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 8})
+    public void refreshedAfterSchemaChange(int fetchSize) throws SQLException {
+        stat.executeUpdate("create table changing (c varchar(10))");
+        stat.executeUpdate("insert into changing values ('a')");
+        try (PreparedStatement prep = conn.prepareStatement("select * from changing")) {
+            // a fetch size reads the rows, and the descriptors, into a buffer
+            prep.setFetchSize(fetchSize);
+            ResultSet rs = prep.executeQuery();
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getMetaData().getColumnTypeName(1)).isEqualTo("VARCHAR");
+            rs.close();
+
+            stat.executeUpdate("drop table changing");
+            stat.executeUpdate("create table changing (c decimal(12,2) not null)");
+            stat.executeUpdate("insert into changing values (1.5)");
+            rs = prep.executeQuery();
+            assertThat(rs.next()).isTrue();
+            ResultSetMetaData meta = rs.getMetaData();
+            assertThat(meta.getColumnTypeName(1)).isEqualTo("DECIMAL");
+            assertThat(meta.getPrecision(1)).isEqualTo(12);
+            assertThat(meta.getScale(1)).isEqualTo(2);
+            assertThat(meta.isNullable(1)).isEqualTo(ResultSetMetaData.columnNoNulls);
+            rs.close();
+        }
+    }
+
+    @Test
+    public void integerTypeByValue() throws SQLException {
+        stat.executeUpdate("create table numbers (n integer)");
+        stat.executeUpdate("insert into numbers values (1), (null), (5000000000)");
+        try (ResultSet rs = stat.executeQuery("select n from numbers order by rowid")) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getMetaData().getColumnType(1)).isEqualTo(Types.INTEGER);
+            assertThat(rs.next()).isTrue();
+            rs.getInt(1);
+            assertThat(rs.getMetaData().getColumnType(1)).isEqualTo(Types.INTEGER);
+            assertThat(rs.wasNull()).isTrue();
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getMetaData().getColumnType(1)).isEqualTo(Types.BIGINT);
+            assertThat(rs.getMetaData().getColumnClassName(1)).isEqualTo("java.lang.Long");
+        }
+    }
+
+    @Test
+    public void unparsablePrecision() throws SQLException {
+        stat.executeUpdate("create table odd (c varchar(max))");
+        try (ResultSet rs = stat.executeQuery("select c from odd")) {
+            assertThat(rs.getMetaData().getPrecision(1)).isEqualTo(0);
+        }
+    }
 }
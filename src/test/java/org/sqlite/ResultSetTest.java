@@ -375,4 +375,27 @@ class ResultSetTest {
             assertThat(meta.getColumnCount()).isEqualTo(1);
         }
     }
+
+    @Test
+    void getStringDecodesAsciiAndMultibyteText() throws SQLException {
+        String ascii = "identifier_0042";
+        String multibyte = "naïve café ✓ 😀";
+        String longAscii = "x".repeat(20_000);
+        String longMultibyte = "é".repeat(10_000);
+        try (PreparedStatement prep =
+                conn.prepareStatement("select ?, ?, ?, ?, '', 'a' || char(0) || 'b'")) {
+            prep.setString(1, ascii);
+            prep.setString(2, multibyte);
+            prep.setString(3, longAscii);
+            prep.setString(4, longMultibyte);
+            ResultSet rs = prep.executeQuery();
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getString(1)).isEqualTo(ascii);
+            assertThat(rs.getString(2)).isEqualTo(multibyte);
+            assertThat(rs.getString(3)).isEqualTo(longAscii);
+            assertThat(rs.getString(4)).isEqualTo(longMultibyte);
+            assertThat(rs.getString(5)).isEmpty();
+            assertThat(rs.getString(6)).isEqualTo("a\0b");
+        }
+    }
 }
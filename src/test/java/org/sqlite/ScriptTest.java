@@ -0,0 +1,188 @@
+package org.sqlite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests {@link SQLiteConnection#executeScript(String)} and its channel variant. */
+public class ScriptTest {
+    private SQLiteConnection conn;
+    private Statement stat;
+
+    @BeforeEach
+    public void connect() throws Exception {
+        conn = (SQLiteConnection) DriverManager.getConnection("jdbc:sqlite:");
+        stat = conn.createStatement();
+    }
+
+    @AfterEach
+    public void close() throws SQLException {
+        stat.close();
+        conn.close();
+    }
+
+    @Test
+    public void runsEveryStatement() throws SQLException {
+        List<ScriptResult> results =
+                conn.executeScript(
+                        "create table t (id integer primary key, v text);\n"
+                                + "-- seed data\n"
+                                + "insert into t (v) values ('a'), ('b'), ('c');\n"
+                                + "update t set v = upper(v) where id > 1;\n"
+                                + "select * from t;\n"
+                                + "  /* trailing comment */  ");
+
+        assertThat(results)
+                .extracting(ScriptResult::sql)
+                .containsExactly(
+                        "create table t (id integer primary key, v text);",
+                        "-- seed data\ninsert into t (v) values ('a'), ('b'), ('c');",
+                        "update t set v = upper(v) where id > 1;",
+                        "select * from t;");
+        assertThat(results).extracting(ScriptResult::updateCount).containsExactly(0L, 3L, 2L, -1L);
+        assertThat(results).allSatisfy(r -> assertThat(r.elapsedNanos()).isPositive());
+
+        ResultSet rs = stat.executeQuery("select group_concat(v, '') from t");
+        assertThat(rs.getString(1)).isEqualTo("aBC");
+    }
+
+    @Test
+    public void triggerBodyIsOneStatement() throws SQLException {
+        List<ScriptResult> results =
+                conn.executeScript(
+                        "create table t (v);"
+                                + "create table log (v);"
+                                + "create trigger t_log after insert on t begin"
+                                + " insert into log values (new.v); insert into log values (0);"
+                                + " end;"
+                                + "insert into t values (1);");
+
+        assertThat(results).extracting(ScriptResult::updateCount).containsExactly(0L, 0L, 0L, 1L);
+        ResultSet rs = stat.executeQuery("select count(*) from log");
+        assertThat(rs.getInt(1)).isEqualTo(2);
+    }
+
+    @Test
+    public void stopsAtFailingStatement() throws SQLException {
+        assertThatThrownBy(
+                        () ->
+                                conn.executeScript(
+                                        "create table t (v);"
+                                                + "insert into t values (1);"
+                                                + "insert into missing values (2);"
+                                                + "insert into t values (3);"))
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("missing");
+
+        ResultSet rs = stat.executeQuery("select count(*) from t");
+        assertThat(rs.getInt(1)).isEqualTo(1);
+    }
+
+    @Test
+    public void runsInCurrentTransaction() throws SQLException {
+        conn.setAutoCommit(false);
+        conn.executeScript("create table t (v); insert into t values (1);");
+        conn.rollback();
+
+        ResultSet rs = stat.executeQuery("select count(*) from sqlite_master where name = 't'");
+        assertThat(rs.getInt(1)).isZero();
+    }
+
+    @Test
+    public void streamsFromChannel() throws Exception {
+        // larger than the initial buffer, with multi-byte characters split across reads
+        int rows = 30_000;
+        StringBuilder script = new StringBuilder("create table t (id integer, v text);\n");
+        for (int i = 0; i < rows; i++) {
+            script.append("insert into t values (").append(i).append(", 'ünïcødé ").append(i);
+            script.append("');\n");
+        }
+        // a single statement larger than the initial buffer
+        conn.setLimit(SQLiteLimits.SQLITE_LIMIT_SQL_LENGTH, 8 << 20);
+        script.append("insert into t values (-1, '").append("x".repeat(3 << 20)).append("');");
+
+        List<ScriptResult> results;
+        try (ReadableByteChannel in = channel(script.toString())) {
+            results = conn.executeScript(in);
+        }
+
+        assertThat(results).hasSize(rows + 2);
+        assertThat(results.get(rows).sql())
+                .isEqualTo("insert into t values (29999, 'ünïcødé 29999');");
+        ResultSet rs = stat.executeQuery("select count(*), sum(length(v)) from t");
+        assertThat(rs.getInt(1)).isEqualTo(rows + 1);
+        assertThat(rs.getLong(2)).isGreaterThan(3 << 20);
+    }
+
+    @Test
+    public void incompleteStatementAtEndOfChannel() throws Exception {
+        try (ReadableByteChannel in = channel("create table t (v); insert into t values (")) {
+            assertThatThrownBy(() -> conn.executeScript(in)).isInstanceOf(SQLException.class);
+        }
+        ResultSet rs = stat.executeQuery("select count(*) from sqlite_master where name = 't'");
+        assertThat(rs.getInt(1)).isEqualTo(1);
+    }
+
+    @Test
+    public void syntaxErrorReportedBeforeReadingTheRest() throws Exception {
+        StringBuilder script = new StringBuilder("create table t (v);\nselct 1;\n");
+        while (script.length() < 8 << 20) {
+            script.append("insert into t values ('a;b');\n");
+        }
+        byte[] bytes = script.toString().getBytes(StandardCharsets.UTF_8);
+        ByteArrayInputStream stream = new ByteArrayInputStream(bytes);
+        try (ReadableByteChannel in = Channels.newChannel(stream)) {
+            assertThatThrownBy(() -> conn.executeScript(in))
+                    .isInstanceOf(SQLException.class)
+                    .hasMessageContaining("syntax error");
+        }
+        // stopped within the first buffer instead of reading the whole script
+        assertThat(bytes.length - stream.available()).isLessThan(1 << 20);
+        ResultSet rs = stat.executeQuery("select count(*) from t");
+        assertThat(rs.getInt(1)).isZero();
+    }
+
+    @Test
+    public void statementCutAfterSemicolonInLiteral() throws Exception {
+        // the first read ends inside the literal, after a semicolon
+        String script =
+                "create table t (v);\ninsert into t values ('" + "x;".repeat(5_000) + "');";
+        try (ReadableByteChannel in = channel(script)) {
+            assertThat(conn.executeScript(in)).hasSize(2);
+        }
+        ResultSet rs = stat.executeQuery("select length(v) from t");
+        assertThat(rs.getInt(1)).isEqualTo(10_000);
+    }
+
+    @Test
+    public void triggerCutBetweenBodyStatements() throws Exception {
+        // the first read ends inside the trigger body, after one of its statements
+        String script =
+                "create table t (v);\ncreate table log (v);\n"
+                        + "create trigger t_log after insert on t begin\n"
+                        + "  insert into log values (new.v);\n".repeat(500)
+                        + "end;\ninsert into t values (1);";
+        try (ReadableByteChannel in = channel(script)) {
+            assertThat(conn.executeScript(in)).hasSize(4);
+        }
+        ResultSet rs = stat.executeQuery("select count(*) from log");
+        assertThat(rs.getInt(1)).isEqualTo(500);
+    }
+
+    private static ReadableByteChannel channel(String script) {
+        return Channels.newChannel(
+                new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8)));
+    }
+}
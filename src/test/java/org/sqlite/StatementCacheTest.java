@@ -0,0 +1,187 @@
+package org.sqlite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests the per-connection prepared statement cache, see {@code jdbc.statement_cache_size}. */
+public class StatementCacheTest {
+    private SQLiteConnection conn;
+
+    @BeforeEach
+    public void connect() throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setStatementCacheSize(2);
+        conn = (SQLiteConnection) config.createConnection("jdbc:sqlite:");
+        try (Statement stat = conn.createStatement()) {
+            stat.executeUpdate("create table t (id integer primary key, v text)");
+            stat.executeUpdate("insert into t values (1, 'one'), (2, 'two'), (3, 'three')");
+        }
+    }
+
+    @AfterEach
+    public void close() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    public void disabledByDefault() throws SQLException {
+        try (SQLiteConnection plain =
+                (SQLiteConnection) DriverManager.getConnection("jdbc:sqlite:")) {
+            for (int i = 0; i < 3; i++) {
+                plain.prepareStatement("select 1").close();
+            }
+            assertThat(plain.getStatementCacheHits()).isZero();
+            assertThat(plain.getStatementCacheMisses()).isZero();
+        }
+    }
+
+    @Test
+    public void configuredThroughProperties() throws SQLException {
+        Properties prop = new Properties();
+        prop.setProperty(SQLiteConfig.Pragma.JDBC_STATEMENT_CACHE_SIZE.pragmaName, "8");
+        assertThat(new SQLiteConfig(prop).getStatementCacheSize()).isEqualTo(8);
+
+        SQLiteDataSource ds = new SQLiteDataSource();
+        ds.setStatementCacheSize(4);
+        assertThat(ds.getConfig().toProperties())
+                .containsEntry(SQLiteConfig.Pragma.JDBC_STATEMENT_CACHE_SIZE.pragmaName, "4");
+    }
+
+    @Test
+    public void reusesClosedStatement() throws SQLException {
+        String[] values = {"one", "two", "three"};
+        for (int i = 1; i <= 3; i++) {
+            try (PreparedStatement prep = conn.prepareStatement("select v from t where id = ?")) {
+                assertThat(prep.getParameterMetaData().getParameterCount()).isEqualTo(1);
+                assertThat(prep.getMetaData().getColumnName(1)).isEqualTo("v");
+                prep.setInt(1, i);
+                try (ResultSet rs = prep.executeQuery()) {
+                    assertThat(rs.next()).isTrue();
+                    assertThat(rs.getString(1)).isEqualTo(values[i - 1]);
+                }
+            }
+        }
+        assertThat(conn.getStatementCacheMisses()).isEqualTo(1);
+        assertThat(conn.getStatementCacheHits()).isEqualTo(2);
+    }
+
+    @Test
+    public void cachedStatementHasNoBindings() throws SQLException {
+        try (PreparedStatement prep = conn.prepareStatement("select ?")) {
+            prep.setString(1, "left over");
+            prep.executeQuery().close();
+        }
+        try (PreparedStatement prep = conn.prepareStatement("select ?");
+                ResultSet rs = prep.executeQuery()) {
+            assertThat(conn.getStatementCacheHits()).isEqualTo(1);
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getString(1)).isNull();
+        }
+    }
+
+    @Test
+    public void closedStatementCannotUseCachedStatement() throws SQLException {
+        PreparedStatement first = conn.prepareStatement("select v from t where id = ?");
+        first.close();
+        try (PreparedStatement second = conn.prepareStatement("select v from t where id = ?")) {
+            assertThat(conn.getStatementCacheHits()).isEqualTo(1);
+            assertThatThrownBy(() -> first.setInt(1, 1)).isInstanceOf(SQLException.class);
+            second.setInt(1, 2);
+            try (ResultSet rs = second.executeQuery()) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getString(1)).isEqualTo("two");
+            }
+        }
+    }
+
+    @Test
+    public void openStatementsAreNotShared() throws SQLException {
+        try (PreparedStatement a = conn.prepareStatement("select v from t where id = ?");
+                PreparedStatement b = conn.prepareStatement("select v from t where id = ?")) {
+            a.setInt(1, 1);
+            b.setInt(1, 3);
+            try (ResultSet ra = a.executeQuery();
+                    ResultSet rb = b.executeQuery()) {
+                assertThat(ra.next()).isTrue();
+                assertThat(rb.next()).isTrue();
+                assertThat(ra.getString(1)).isEqualTo("one");
+                assertThat(rb.getString(1)).isEqualTo("three");
+            }
+        }
+        assertThat(conn.getStatementCacheMisses()).isEqualTo(2);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws SQLException {
+        conn.prepareStatement("select 1").close();
+        conn.prepareStatement("select 2").close();
+        conn.prepareStatement("select 1").close();
+        conn.prepareStatement("select 3").close(); // evicts "select 2"
+        conn.prepareStatement("select 1").close();
+        conn.prepareStatement("select 2").close();
+        assertThat(conn.getStatementCacheHits()).isEqualTo(2);
+        assertThat(conn.getStatementCacheMisses()).isEqualTo(4);
+    }
+
+    @Test
+    public void reflectsSchemaChangesOnExecute() throws SQLException {
+        conn.prepareStatement("select * from t").close();
+        try (Statement stat = conn.createStatement()) {
+            stat.executeUpdate("alter table t add column n integer default 7");
+        }
+        try (PreparedStatement prep = conn.prepareStatement("select * from t")) {
+            assertThat(conn.getStatementCacheHits()).isEqualTo(1);
+            try (ResultSet rs = prep.executeQuery()) {
+                assertThat(rs.getMetaData().getColumnCount()).isEqualTo(3);
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getInt(3)).isEqualTo(7);
+            }
+        }
+    }
+
+    @Test
+    public void droppedTableFailsOnExecute() throws SQLException {
+        conn.prepareStatement("select * from t").close();
+        try (Statement stat = conn.createStatement()) {
+            stat.executeUpdate("drop table t");
+        }
+        try (PreparedStatement prep = conn.prepareStatement("select * from t")) {
+            assertThat(conn.getStatementCacheHits()).isEqualTo(1);
+            assertThatThrownBy(prep::executeQuery)
+                    .isInstanceOf(SQLException.class)
+                    .hasMessageContaining("no such table");
+        }
+        // the failed statement was finalized rather than cached again
+        assertThatThrownBy(() -> conn.prepareStatement("select * from t"))
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("no such table");
+    }
+
+    @Test
+    public void keepsColumnsOfRepreparedStatement() throws SQLException {
+        PreparedStatement prep = conn.prepareStatement("select * from t");
+        try (Statement stat = conn.createStatement()) {
+            stat.executeUpdate("alter table t add column n integer");
+        }
+        try (ResultSet rs = prep.executeQuery()) {
+            assertThat(rs.next()).isTrue();
+        }
+        prep.close();
+
+        try (PreparedStatement again = conn.prepareStatement("select * from t")) {
+            assertThat(conn.getStatementCacheHits()).isEqualTo(1);
+            assertThat(again.getMetaData().getColumnCount()).isEqualTo(3);
+            assertThat(again.getMetaData().getColumnName(3)).isEqualTo("n");
+        }
+    }
+}
@@ -16,6 +16,7 @@ import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
 import java.time.Instant;
 import java.util.Calendar;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -525,6 +526,139 @@ public class StatementTest {
         assertThatExceptionOfType(BatchUpdateException.class).isThrownBy(() -> stat.executeBatch());
     }
 
+    @Test
+    public void batchWithReturning() throws SQLException {
+        stat.executeUpdate("create table batch (id integer primary key, c1);");
+        stat.addBatch("insert into batch (c1) values (1), (2) returning id;");
+        stat.addBatch("update batch set c1 = c1 + 1 returning c1;");
+        stat.addBatch("delete from batch where c1 = 3 returning *;");
+        assertThat(stat.executeBatch()).containsExactly(2, 2, 1);
+
+        ResultSet rs = stat.executeQuery("select group_concat(c1) from batch;");
+        assertThat(rs.getString(1)).isEqualTo("2");
+        rs.close();
+    }
+
+    @Test
+    public void batchCommitsOnce() throws SQLException {
+        stat.executeUpdate("create table batch (c1);");
+        AtomicInteger commits = new AtomicInteger();
+        ((SQLiteConnection) conn)
+                .addCommitListener(
+                        new SQLiteCommitListener() {
+                            @Override
+                            public void onCommit() {
+                                commits.incrementAndGet();
+                            }
+
+                            @Override
+                            public void onRollback() {}
+                        });
+        for (int i = 0; i < 1000; i++) {
+            stat.addBatch("insert into batch values (1);");
+        }
+        stat.addBatch("insert into batch values (2);");
+        assertThat(stat.executeBatch()).hasSize(1001).containsOnly(1);
+        assertThat(commits).hasValue(1);
+
+        ResultSet rs = stat.executeQuery("select count(*), sum(c1) from batch;");
+        assertThat(rs.getInt(1)).isEqualTo(1001);
+        assertThat(rs.getInt(2)).isEqualTo(1002);
+        rs.close();
+    }
+
+    @Test
+    public void batchKeepsEntriesBeforeFailure() throws SQLException {
+        stat.executeUpdate("create table batch (c1 unique);");
+        stat.addBatch("insert into batch values (1);");
+        stat.addBatch("insert into batch values (2);");
+        stat.addBatch("insert into batch values (1);");
+        stat.addBatch("insert into batch values (3);");
+        assertThatExceptionOfType(BatchUpdateException.class)
+                .isThrownBy(() -> stat.executeBatch())
+                .satisfies(e -> assertThat(e.getLargeUpdateCounts()).startsWith(1, 1, 0));
+
+        // the batch transaction was committed, not left open
+        stat.execute("begin;");
+        stat.execute("rollback;");
+        ResultSet rs = stat.executeQuery("select group_concat(c1) from batch;");
+        assertThat(rs.getString(1)).isEqualTo("1,2");
+        rs.close();
+    }
+
+    @Test
+    public void batchWithVacuum() throws SQLException {
+        stat.addBatch("vacuum;");
+        assertThat(stat.executeBatch()).containsExactly(0);
+
+        stat.executeUpdate("create table batch (c1);");
+        stat.addBatch("insert into batch values (1);");
+        stat.addBatch("/* compact */ VACUUM;");
+        stat.addBatch("insert into batch values (2);");
+        stat.addBatch("pragma user_version = 3;");
+        assertThat(stat.executeBatch()).hasSize(4);
+
+        ResultSet rs = stat.executeQuery("select group_concat(c1) from batch;");
+        assertThat(rs.getString(1)).isEqualTo("1,2");
+        rs.close();
+    }
+
+    @Test
+    public void batchKeepsEntriesBeforeOrRollback() throws SQLException {
+        stat.executeUpdate("create table batch (c1 unique);");
+        stat.addBatch("insert into batch values (1);");
+        stat.addBatch("insert into batch values (2);");
+        stat.addBatch("insert or rollback into batch values (1);");
+        stat.addBatch("insert into batch values (3);");
+        assertThatExceptionOfType(BatchUpdateException.class)
+                .isThrownBy(() -> stat.executeBatch())
+                .satisfies(e -> assertThat(e.getLargeUpdateCounts()).startsWith(1, 1, 0));
+
+        ResultSet rs = stat.executeQuery("select group_concat(c1) from batch;");
+        assertThat(rs.getString(1)).isEqualTo("1,2");
+        rs.close();
+    }
+
+    @Test
+    public void batchRolledBackByTrigger() throws SQLException {
+        stat.executeUpdate("create table batch (c1);");
+        stat.executeUpdate(
+                "create trigger positive before insert on batch when new.c1 < 0"
+                        + " begin select raise(rollback, 'negative'); end;");
+        stat.addBatch("insert into batch values (1);");
+        stat.addBatch("insert into batch values (2);");
+        stat.addBatch("insert into batch values (-1);");
+        assertThatExceptionOfType(BatchUpdateException.class)
+                .isThrownBy(() -> stat.executeBatch())
+                .withMessageContaining("rolled back entries 0 to 2")
+                .satisfies(
+                        e ->
+                                assertThat(e.getLargeUpdateCounts())
+                                        .startsWith(
+                                                Statement.EXECUTE_FAILED,
+                                                Statement.EXECUTE_FAILED,
+                                                0));
+
+        ResultSet rs = stat.executeQuery("select count(*) from batch;");
+        assertThat(rs.getInt(1)).isZero();
+        rs.close();
+    }
+
+    @Test
+    public void batchWithTransactionControl() throws SQLException {
+        stat.executeUpdate("create table batch (c1);");
+        stat.addBatch("insert into batch values (1);");
+        stat.addBatch("begin;");
+        stat.addBatch("insert into batch values (2);");
+        stat.addBatch("rollback;");
+        stat.addBatch("insert into batch values (3);");
+        stat.executeBatch();
+
+        ResultSet rs = stat.executeQuery("select group_concat(c1) from batch;");
+        assertThat(rs.getString(1)).isEqualTo("1,3");
+        rs.close();
+    }
+
     @Test
     public void noSuchTable() {
         assertThatExceptionOfType(SQLException.class)
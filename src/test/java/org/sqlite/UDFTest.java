@@ -2,6 +2,10 @@ package org.sqlite;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.data.Offset.offset;
+import static org.sqlite.core.Codes.SQLITE_BLOB;
+import static org.sqlite.core.Codes.SQLITE_FLOAT;
+import static org.sqlite.core.Codes.SQLITE_INTEGER;
+import static org.sqlite.core.Codes.SQLITE_TEXT;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -122,6 +126,40 @@ public class UDFTest {
         assertThat(rs.getInt(1)).isEqualTo(-12);
     }
 
+    @Test
+    public void bulkArgs() throws SQLException {
+        Function.create(
+                conn,
+                "fargs",
+                new Function() {
+                    @Override
+                    public void xFunc() throws SQLException {
+                        Arguments args = arguments();
+                        StringBuilder ret = new StringBuilder();
+                        for (int i = 0; i < args.count(); i++) {
+                            switch (args.type(i)) {
+                                case SQLITE_INTEGER -> ret.append(args.getLong(i) * 2);
+                                case SQLITE_FLOAT -> ret.append(args.getDouble(i) * 2);
+                                case SQLITE_TEXT -> ret.append(args.getText(i).toUpperCase());
+                                case SQLITE_BLOB -> ret.append(args.getBlob(i).length);
+                                default -> ret.append(args.isNull(i) ? "null" : "?");
+                            }
+                            ret.append(',');
+                        }
+                        ret.append(args.getLong(2)).append(',').append(args.getInt(1));
+                        result(ret.toString());
+                    }
+                });
+        ResultSet rs = stat.executeQuery("select fargs(21, 1.5, '42', null, x'0102');");
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getString(1)).isEqualTo("42,3.0,42,null,2,42,1");
+        rs.close();
+        rs = stat.executeQuery("select fargs('é', 0, 7);");
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getString(1)).isEqualTo("É,0,14,7,0");
+        rs.close();
+    }
+
     @Test
     public void returnTypes() throws SQLException {
         Function.create(
@@ -0,0 +1,51 @@
+package org.sqlite.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class MultiRowInsertTest {
+
+    @Test
+    void repeatsRowOfValues() {
+        MultiRowInsert insert =
+                MultiRowInsert.parse("insert into t (a, \"b)\") values (?, coalesce(?, 'x?'));", 2);
+        assertThat(insert).isNotNull();
+        assertThat(insert.sql(3, false))
+                .isEqualTo(
+                        "insert into t (a, \"b)\") values (?, coalesce(?, 'x?')), "
+                                + "(?, coalesce(?, 'x?')), (?, coalesce(?, 'x?'));");
+    }
+
+    @Test
+    void acceptsReplaceAndComments() {
+        assertThat(MultiRowInsert.parse("REPLACE INTO t VALUES(?) -- last", 1)).isNotNull();
+        assertThat(MultiRowInsert.parse("/* x */ insert or ignore into t values (?) ;", 1))
+                .isNotNull();
+        assertThat(MultiRowInsert.parse("insert into values_t values (?)", 1).sql(2, false))
+                .isEqualTo("insert into values_t values (?), (?)");
+    }
+
+    @Test
+    void returnsRowIdsBeforeTrailingComment() {
+        assertThat(MultiRowInsert.parse("insert into t values (?) -- last", 1).sql(2, true))
+                .isEqualTo("insert into t values (?), (?) returning rowid -- last");
+    }
+
+    @Test
+    void rejectsStatementsThatCannotBeRepeated() {
+        assertThat(MultiRowInsert.parse("update t set a = ?", 1)).isNull();
+        assertThat(MultiRowInsert.parse("insert into t select ?", 1)).isNull();
+        assertThat(MultiRowInsert.parse("insert into t values (?) returning id", 1)).isNull();
+        assertThat(MultiRowInsert.parse("insert into t values (?) on conflict do nothing", 1))
+                .isNull();
+        assertThat(MultiRowInsert.parse("insert into t values (?), (?)", 2)).isNull();
+        assertThat(MultiRowInsert.parse("insert into t values (?1, ?1)", 1)).isNull();
+        assertThat(MultiRowInsert.parse("insert into t values (:a)", 1)).isNull();
+        assertThat(MultiRowInsert.parse("insert or rollback into t values (?)", 1)).isNull();
+        assertThat(MultiRowInsert.parse("insert into t default values", 0)).isNull();
+        assertThat(MultiRowInsert.parse("with x as (select ?) insert into t values (?)", 2))
+                .isNull();
+        assertThat(MultiRowInsert.parse("insert into t values (?, 'open", 1)).isNull();
+    }
+}
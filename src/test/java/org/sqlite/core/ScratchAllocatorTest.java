@@ -0,0 +1,63 @@
+package org.sqlite.core;
+
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class ScratchAllocatorTest {
+
+    @Test
+    void reusesMemoryAfterScopeCloses() {
+        ScratchAllocator scratch = new ScratchAllocator();
+        long first;
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            first = scope.allocate(JAVA_LONG).address();
+        }
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            assertThat(scope.allocate(JAVA_LONG).address()).isEqualTo(first);
+        }
+        assertThat(scratch.blockSize()).isEqualTo(ScratchAllocator.INITIAL_BLOCK_SIZE);
+    }
+
+    @Test
+    void nestedScopesDoNotOverlap() {
+        ScratchAllocator scratch = new ScratchAllocator();
+        try (ScratchAllocator.Scope outer = scratch.open()) {
+            MemorySegment a = outer.allocateFrom("outer", StandardCharsets.UTF_8);
+            try (ScratchAllocator.Scope inner = scratch.open()) {
+                MemorySegment b = inner.allocateFrom("inner", StandardCharsets.UTF_8);
+                assertThat(b.address()).isGreaterThanOrEqualTo(a.address() + a.byteSize());
+            }
+            MemorySegment c = outer.allocate(JAVA_LONG);
+            assertThat(c.address()).isGreaterThanOrEqualTo(a.address() + a.byteSize());
+            assertThat(a.getString(0, StandardCharsets.UTF_8)).isEqualTo("outer");
+        }
+    }
+
+    @Test
+    void growsAndKeepsEarlierAllocationsValid() {
+        ScratchAllocator scratch = new ScratchAllocator();
+        try (ScratchAllocator.Scope outer = scratch.open()) {
+            MemorySegment small = outer.allocateFrom("kept", StandardCharsets.UTF_8);
+            try (ScratchAllocator.Scope inner = scratch.open()) {
+                inner.allocate(ScratchAllocator.INITIAL_BLOCK_SIZE * 3);
+            }
+            assertThat(scratch.blockSize()).isGreaterThan(ScratchAllocator.INITIAL_BLOCK_SIZE);
+            assertThat(small.getString(0, StandardCharsets.UTF_8)).isEqualTo("kept");
+        }
+    }
+
+    @Test
+    void oversizedRequestsDoNotGrowTheBlock() {
+        ScratchAllocator scratch = new ScratchAllocator();
+        try (ScratchAllocator.Scope scope = scratch.open()) {
+            scope.allocate(JAVA_LONG);
+            MemorySegment large = scope.allocate(ScratchAllocator.MAX_BLOCK_SIZE + 1);
+            assertThat(large.byteSize()).isEqualTo(ScratchAllocator.MAX_BLOCK_SIZE + 1);
+        }
+        assertThat(scratch.blockSize()).isEqualTo(ScratchAllocator.INITIAL_BLOCK_SIZE);
+    }
+}